@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.powertac.logtool.ifc.Analyzer;
+
+/**
+ * Runs a fresh analyzer instance over a state log as many times as needed,
+ * booting the application context only once, as TournamentBatch does for a
+ * series of games. Repeated runs then measure reading and analysis rather
+ * than Spring startup. It lives in this package for access to the shared
+ * context.
+ *
+ * @author agent
+ */
+public class BenchRunner
+extends LogtoolContext
+{
+  private StateLogReader stateLogReader;
+
+  public BenchRunner ()
+  {
+    super();
+    getCore();
+    stateLogReader = new StateLogReader(context);
+  }
+
+  /**
+   * Configures an analyzer with its full command line, including the state
+   * log, and runs it. Returns false if the analyzer rejects its arguments
+   * or the log could not be read.
+   */
+  public boolean run (Class<?> analyzerClass, String[] args)
+  {
+    stateLogReader.reset();
+    AnalyzerContext analyzer = AnalyzerContext.configure(analyzerClass, args);
+    if (null == analyzer)
+      return false;
+    analyzer.useContext(context);
+    List<Analyzer> tools = new ArrayList<Analyzer>();
+    tools.add((Analyzer) analyzer);
+    return stateLogReader.readStateLog(analyzer.getInputFile(), tools);
+  }
+
+  public void close ()
+  {
+    context.close();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.powertac.logtool.BenchRunner;
+
+/**
+ * Measures each analyzer reading a synthetic state log (see
+ * SyntheticStateLog) from start to finish. The primary score is complete
+ * runs per second; the "objects" counter gives the same throughput as
+ * objects in the log per second, whether or not the analyzer needed them
+ * built. Run with -prof gc for the allocation rate;
+ * gc.alloc.rate.norm is then the allocation per run.
+ *
+ * Analyzers are named relative to org.powertac.logtool. Left out are
+ * BrokerBalancingActions, which needs a trace log, russell.BrokerMetrics,
+ * which is not an analyzer, and porag.avgClearingV2,
+ * russell.LearningCurve and russell.PerformanceAnalysis, which derive their
+ * output files from names in the working directory. The porag analyzers
+ * also write a small debug file there.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2048m"})
+public class AnalyzerBenchmark
+{
+  @Param({"example.BrokerCosts", "example.BrokerImbalanceCost",
+          "example.CustomerStats", "example.EnergyMixStats",
+          "example.GameBrokerInfo", "example.ImbalanceStats",
+          "example.ImbalanceSummary", "example.MktPriceStats",
+          "example.ProductionConsumption", "example.SolarProduction",
+          "example.TariffMktShare", "example.WeatherForecastStats",
+          "example.WeatherStats", "example.WindStats",
+          "russell.ConsumptionVsInterruptible",
+          "russell.ProfitPerTariffType", "russell.TariffFeatures",
+          "porag.MktPriceStats", "porag.avgClearing"})
+  public String analyzer;
+
+  @Param("7")
+  public int brokers;
+
+  @Param("168")
+  public int timeslots;
+
+  @Param("100")
+  public int customers;
+
+  @Param("10")
+  public int depth;
+
+  private File dir;
+  private int objects;
+  private Class<?> analyzerClass;
+  private String[] args;
+  private BenchRunner runner;
+
+  @Setup(Level.Trial)
+  public void setup () throws IOException, ClassNotFoundException
+  {
+    dir = Files.createTempDirectory("logtool-bench").toFile();
+    File stateLog = new File(dir, "bench.state");
+    objects = new SyntheticStateLog()
+        .withBrokers(brokers)
+        .withTimeslots(timeslots)
+        .withCustomers(customers)
+        .withOrderbookDepth(depth)
+        .write(stateLog);
+    analyzerClass = Class.forName("org.powertac.logtool." + analyzer);
+    if (analyzer.endsWith("WeatherForecastStats"))
+      args = new String[] {stateLog.getPath(), output("temp"),
+                           output("wind")};
+    else
+      args = new String[] {stateLog.getPath(), output("data")};
+    runner = new BenchRunner();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown ()
+  {
+    runner.close();
+    for (File file : dir.listFiles())
+      file.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public void analyze (ObjectCounter counter)
+  {
+    if (!runner.run(analyzerClass, args))
+      throw new IllegalStateException("Cannot run " + analyzer);
+    counter.objects += objects;
+  }
+
+  private String output (String name)
+  {
+    return new File(dir, name).getPath();
+  }
+
+  /**
+   * Domain objects read, reported per second.
+   */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class ObjectCounter
+  {
+    public long objects;
+
+    @Setup(Level.Iteration)
+    public void clear ()
+    {
+      objects = 0;
+    }
+  }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import org.joda.time.Instant;
+
+/**
+ * Writes synthetic state logs with the structure of a real game: a
+ * competition with its brokers and customers, then for each timeslot the
+ * clock tick, weather, tariff publication and subscription changes,
+ * customer consumption and production, a wholesale market clearing in each
+ * enabled timeslot with its orderbook, and balancing and distribution
+ * charges. Values follow daily cycles with noise, so analyzers do the same
+ * work on them as on real logs. The log is determined by its parameters
+ * and seed.
+ *
+ * Usage: SyntheticStateLog [--brokers n] [--timeslots n] [--customers n]
+ *   [--depth n] [--seed s] output-file
+ *
+ * @author agent
+ */
+public class SyntheticStateLog
+{
+  static final long baseTime = 1255132800000L; // 2009-10-10T00:00Z
+  static final long hour = 3600000L;
+  static final int timeslotsOpen = 24;
+  static final int publicationInterval = 6;
+
+  private static final String common = "org.powertac.common.";
+  private static final String msg = "org.powertac.common.msg.";
+  private static final String[] consumptionTypes =
+    {"CONSUMPTION", "CONSUMPTION", "CONSUMPTION", "CONSUMPTION",
+     "INTERRUPTIBLE_CONSUMPTION", "THERMAL_STORAGE_CONSUMPTION"};
+  private static final String[] productionTypes =
+    {"SOLAR_PRODUCTION", "WIND_PRODUCTION"};
+
+  // parameters
+  private int brokerCount = 7;
+  private int timeslotCount = 168;
+  private int customerCount = 100;
+  private int depth = 10;
+  private long seed = 42;
+
+  // state of the log being written
+  private Writer out;
+  private Random random;
+  private long nextId;
+  private long millis;
+  private int objects;
+  private List<Long> brokers;
+  private List<Customer> customers;
+  private List<Tariff> tariffs;
+
+  public static void main (String[] args)
+  {
+    OptionParser parser = new OptionParser();
+    OptionSpec<Integer> brokersOption =
+        parser.accepts("brokers").withRequiredArg().ofType(Integer.class);
+    OptionSpec<Integer> timeslotsOption =
+        parser.accepts("timeslots").withRequiredArg().ofType(Integer.class);
+    OptionSpec<Integer> customersOption =
+        parser.accepts("customers").withRequiredArg().ofType(Integer.class);
+    OptionSpec<Integer> depthOption =
+        parser.accepts("depth").withRequiredArg().ofType(Integer.class);
+    OptionSpec<Long> seedOption =
+        parser.accepts("seed").withRequiredArg().ofType(Long.class);
+    OptionSet options = parser.parse(args);
+    List<?> rest = options.nonOptionArguments();
+    if (rest.size() != 1) {
+      System.out.println("Usage: SyntheticStateLog [--brokers n] [--timeslots n] [--customers n] [--depth n] [--seed s] output-file");
+      return;
+    }
+    SyntheticStateLog generator = new SyntheticStateLog();
+    if (options.has(brokersOption))
+      generator.withBrokers(options.valueOf(brokersOption));
+    if (options.has(timeslotsOption))
+      generator.withTimeslots(options.valueOf(timeslotsOption));
+    if (options.has(customersOption))
+      generator.withCustomers(options.valueOf(customersOption));
+    if (options.has(depthOption))
+      generator.withOrderbookDepth(options.valueOf(depthOption));
+    if (options.has(seedOption))
+      generator.withSeed(options.valueOf(seedOption));
+    try {
+      int count = generator.write(new File(rest.get(0).toString()));
+      System.out.println("Wrote " + count + " objects to " + rest.get(0));
+    }
+    catch (IOException e) {
+      System.out.println("Cannot write " + rest.get(0) + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Number of competing brokers, not counting the default broker.
+   */
+  public SyntheticStateLog withBrokers (int count)
+  {
+    brokerCount = count;
+    return this;
+  }
+
+  public SyntheticStateLog withTimeslots (int count)
+  {
+    timeslotCount = count;
+    return this;
+  }
+
+  public SyntheticStateLog withCustomers (int count)
+  {
+    customerCount = count;
+    return this;
+  }
+
+  /**
+   * Number of bids, and of asks, in each orderbook.
+   */
+  public SyntheticStateLog withOrderbookDepth (int count)
+  {
+    depth = count;
+    return this;
+  }
+
+  public SyntheticStateLog withSeed (long value)
+  {
+    seed = value;
+    return this;
+  }
+
+  /**
+   * Writes a log to the given file. Returns the number of objects created
+   * in the log.
+   */
+  public int write (File file) throws IOException
+  {
+    Writer writer = new BufferedWriter(new FileWriter(file), 65536);
+    try {
+      return write(writer);
+    }
+    finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Writes a log to out, which is not closed. Returns the number of
+   * objects created in the log.
+   */
+  public int write (Writer out) throws IOException
+  {
+    this.out = out;
+    random = new Random(seed);
+    nextId = 100000;
+    millis = 0;
+    objects = 0;
+    brokers = new ArrayList<Long>();
+    customers = new ArrayList<Customer>();
+    tariffs = new ArrayList<Tariff>();
+    writeSetup();
+    for (int ts = 0; ts < timeslotCount; ts++)
+      writeTimeslot(ts);
+    // SimEnd has no id, so the reader does not build it
+    line(msg + "SimEnd", "null", "new");
+    out.flush();
+    return objects;
+  }
+
+  // competition, brokers, customers, and the default tariffs
+  private void writeSetup () throws IOException
+  {
+    // analyzers take the game number from the name
+    create(common + "Competition", 1, "game-1");
+    line(common + "Competition", 1, "withSimulationBaseTime", baseTime);
+    line(common + "Competition", 1, "withTimeslotLength", 60);
+    line(common + "Competition", 1, "withTimeslotsOpen", timeslotsOpen);
+    line(common + "Competition", 1, "withDeactivateTimeslotsAhead", 1);
+    line(common + "Competition", 1, "withExpectedTimeslotCount",
+         timeslotCount);
+    long defaultBroker = newId();
+    create(common + "Broker", defaultBroker, "default broker");
+    brokers.add(defaultBroker);
+    for (int i = 1; i <= brokerCount; i++) {
+      long id = newId();
+      create(common + "Broker", id, "Broker" + i);
+      line(common + "Broker", id, "setWholesale", false);
+      line(common + "Competition", 1, "addBroker", "Broker" + i);
+      brokers.add(id);
+    }
+    for (int i = 0; i < customerCount; i++) {
+      Customer customer = new Customer();
+      customer.id = newId();
+      boolean production = random.nextInt(5) == 0;
+      customer.powerType = production
+          ? productionTypes[random.nextInt(productionTypes.length)]
+          : consumptionTypes[random.nextInt(consumptionTypes.length)];
+      customer.population = production ? 1 + random.nextInt(20)
+          : (random.nextInt(4) == 0) ? 1 : 100 + random.nextInt(30000);
+      customer.scale = (production ? 5.0 : 1.0) * (0.5 + random.nextDouble());
+      create(common + "CustomerInfo", customer.id,
+             "customer-" + i, customer.population);
+      line(common + "CustomerInfo", customer.id,
+           "withPowerType", customer.powerType);
+      line(common + "CustomerInfo", customer.id,
+           "withMultiContracting", customer.population > 1);
+      line(common + "Competition", 1, "addCustomer", customer.id);
+      customers.add(customer);
+    }
+    for (String type : usedPowerTypes())
+      publishTariff(defaultBroker, type, 0);
+    for (Customer customer : customers) {
+      customer.tariff = findTariff(defaultBroker, customer.powerType);
+      tariffTx(customer.tariff.broker, 0, "SIGNUP", customer.tariff.id,
+               customer.id, customer.population, 0.0, 0.0);
+    }
+  }
+
+  private void writeTimeslot (int ts) throws IOException
+  {
+    String now = new Instant(baseTime + ts * hour).toString();
+    line(common + "TimeService", "null", "setCurrentTime", now);
+    // the next timeslot has just been deactivated; the market clears it
+    // along with the ones that remain open
+    create(msg + "TimeslotUpdate", newId(), now, ts + 2, ts + timeslotsOpen);
+    writeWeather(ts);
+    if (ts > 0 && ts % publicationInterval == 0)
+      writeTariffMarket(ts);
+    double net = writeCustomers(ts);
+    writeMarket(ts, now);
+    writeBalancing(ts, net);
+  }
+
+  // current weather, and a forecast for each open timeslot
+  private void writeWeather (int ts) throws IOException
+  {
+    create(common + "WeatherReport", newId(), ts, temperature(ts),
+           windSpeed(ts), 360.0 * random.nextDouble(), cloudCover(ts));
+    StringBuilder ids = new StringBuilder("(");
+    for (int lead = 1; lead <= timeslotsOpen; lead++) {
+      long id = newId();
+      double error = 0.05 * lead;
+      create(common + "WeatherForecastPrediction", id, lead,
+             temperature(ts + lead) + error * random.nextGaussian(),
+             Math.max(0.0, windSpeed(ts + lead)
+                      + error * random.nextGaussian()),
+             360.0 * random.nextDouble(), cloudCover(ts + lead));
+      if (lead > 1)
+        ids.append(',');
+      ids.append(id);
+    }
+    ids.append(')');
+    create(common + "WeatherForecast", newId(), ts, ids.toString());
+  }
+
+  // each competing broker publishes a tariff, and some customers move to
+  // the best tariff for their power type
+  private void writeTariffMarket (int ts) throws IOException
+  {
+    List<String> types = usedPowerTypes();
+    for (int i = 1; i < brokers.size(); i++)
+      publishTariff(brokers.get(i), types.get(random.nextInt(types.size())),
+                    ts);
+    for (Customer customer : customers) {
+      Tariff best = bestTariff(customer.powerType);
+      if (best == customer.tariff || random.nextInt(10) != 0)
+        continue;
+      Tariff old = customer.tariff;
+      tariffTx(old.broker, ts, "WITHDRAW", old.id, customer.id,
+               customer.population, 0.0, -old.withdrawPayment);
+      tariffTx(best.broker, ts, "SIGNUP", best.id, customer.id,
+               customer.population, 0.0, -best.signupPayment);
+      customer.tariff = best;
+    }
+  }
+
+  private void publishTariff (long broker, String powerType, int ts)
+      throws IOException
+  {
+    Tariff tariff = new Tariff();
+    tariff.id = newId();
+    tariff.broker = broker;
+    tariff.powerType = powerType;
+    boolean production = powerType.endsWith("PRODUCTION");
+    double base = production ? 0.015 + 0.02 * random.nextDouble()
+        : -(0.08 + 0.1 * random.nextDouble());
+    tariff.rate = base;
+    tariff.signupPayment = production ? 0.0 : 5.0 * random.nextDouble();
+    tariff.withdrawPayment = production ? 0.0 : -10.0 * random.nextDouble();
+    double periodic = production ? 0.0 : -0.5 * random.nextDouble();
+    // rates are restored ahead of their tariff, as in a real log
+    boolean timeOfUse = !production && random.nextBoolean();
+    if (timeOfUse) {
+      // cheaper at night
+      rate(tariff.id, 7, 22, base * 1.2);
+      rate(tariff.id, 23, 6, base * 0.7);
+    }
+    else {
+      rate(tariff.id, -1, -1, base);
+    }
+    restore(common + "TariffSpecification", tariff.id, broker, powerType,
+            0L, tariff.signupPayment, tariff.withdrawPayment, periodic,
+            "null");
+    tariffs.add(tariff);
+    if (ts > 0)
+      tariffTx(broker, ts, "PUBLISH", tariff.id, null, 0, 0.0, -100.0);
+  }
+
+  private void rate (long tariffId, int dailyBegin, int dailyEnd,
+                     double value) throws IOException
+  {
+    restore(common + "Rate", newId(), tariffId, -1, -1, dailyBegin,
+            dailyEnd, 0.0, true, value, 0.0, 0L, 0.0, 0.0);
+  }
+
+  // Consumption and production of each customer under its tariff.
+  // Returns the net demand in kWh, positive for consumption.
+  private double writeCustomers (int ts) throws IOException
+  {
+    int hourOfDay = ts % 24;
+    double net = 0.0;
+    for (Customer customer : customers) {
+      double kWh;
+      String type;
+      if ("SOLAR_PRODUCTION".equals(customer.powerType)) {
+        kWh = 40.0 * Math.max(0.0, Math.sin(Math.PI * (hourOfDay - 6) / 12.0))
+            * (1.0 - cloudCover(ts));
+        type = "PRODUCE";
+      }
+      else if ("WIND_PRODUCTION".equals(customer.powerType)) {
+        double wind = windSpeed(ts);
+        kWh = 15.0 * Math.min(wind * wind * wind, 1000.0) / 1000.0;
+        type = "PRODUCE";
+      }
+      else {
+        kWh = -(0.6 + 0.4 * Math.sin(Math.PI * (hourOfDay - 9) / 12.0)
+                + 0.1 * random.nextGaussian());
+        type = "CONSUME";
+      }
+      kWh *= customer.scale * customer.population;
+      if (kWh == 0.0)
+        continue;
+      net -= kWh;
+      tariffTx(customer.tariff.broker, ts, type, customer.tariff.id,
+               customer.id, customer.population, kWh,
+               -kWh * customer.tariff.rate);
+    }
+    return net;
+  }
+
+  // one clearing in each enabled timeslot, with its orderbook and trades
+  private void writeMarket (int ts, String now) throws IOException
+  {
+    for (int lead = 1; lead <= timeslotsOpen; lead++) {
+      int target = ts + lead;
+      double price = clearingPrice(target);
+      boolean traded = random.nextInt(20) != 0;
+      long book = newId();
+      create(common + "Orderbook", book, target,
+             traded ? price : null, now);
+      for (int i = 0; i < depth; i++) {
+        long bid = newId();
+        create(common + "OrderbookOrder", bid,
+               0.5 + 10.0 * random.nextDouble(),
+               (i == 0 && random.nextBoolean()) ? null
+                   : -(price - 1.0 - 2.0 * i * random.nextDouble()));
+        line(common + "Orderbook", book, "addBid", bid);
+      }
+      for (int i = 0; i < depth; i++) {
+        long ask = newId();
+        create(common + "OrderbookOrder", ask,
+               -(0.5 + 10.0 * random.nextDouble()),
+               price + 1.0 + 2.0 * i * random.nextDouble());
+        line(common + "Orderbook", book, "addAsk", ask);
+      }
+      if (!traded)
+        continue;
+      double total = 0.0;
+      for (int i = 1; i < brokers.size(); i++) {
+        if (random.nextInt(3) == 0)
+          continue;
+        double mWh = (random.nextDouble() - 0.3) * 20.0;
+        total += Math.abs(mWh);
+        create(common + "MarketTransaction", newId(), brokers.get(i), ts,
+               target, mWh, -mWh * price);
+      }
+      create(common + "ClearedTrade", newId(), target,
+             total + 50.0 * random.nextDouble(), price, now);
+    }
+  }
+
+  private void writeBalancing (int ts, double net) throws IOException
+  {
+    create(msg + "BalanceReport", newId(), ts,
+           net * 0.05 * random.nextGaussian());
+    double totalKWh = Math.abs(net);
+    for (int i = 1; i < brokers.size(); i++) {
+      long broker = brokers.get(i);
+      double imbalance = 500.0 * random.nextGaussian();
+      create(common + "BalancingTransaction", newId(), broker, ts,
+             imbalance, -Math.abs(imbalance) * 0.06);
+      double share = totalKWh / brokers.size();
+      create(common + "DistributionTransaction", newId(), broker, ts,
+             (int) (share / 10.0), 0, share, -share * 0.02);
+      if (ts % 24 == 23)
+        create(common + "BankTransaction", newId(), broker,
+               50.0 * random.nextGaussian(), ts);
+      if (ts % 168 == 167)
+        create(common + "CapacityTransaction", newId(), broker, ts,
+               ts - random.nextInt(168), totalKWh, share, -share * 0.05);
+      create(common + "CashPosition", newId(), broker,
+             10000.0 * random.nextGaussian(), ts);
+    }
+  }
+
+  // ------------- weather and prices, as daily cycles --------------
+
+  private double temperature (int ts)
+  {
+    return 12.0 + 6.0 * Math.sin(Math.PI * ((ts % 24) - 9) / 12.0)
+        + 2.0 * Math.sin(ts / 97.0);
+  }
+
+  private double windSpeed (int ts)
+  {
+    return 5.0 + 3.0 * Math.sin(ts / 11.0) + 1.5 * Math.sin(ts / 3.7);
+  }
+
+  private double cloudCover (int ts)
+  {
+    return 0.5 + 0.5 * Math.sin(ts / 17.0);
+  }
+
+  private double clearingPrice (int ts)
+  {
+    return 40.0 + 15.0 * Math.sin(Math.PI * ((ts % 24) - 9) / 12.0)
+        + 3.0 * random.nextGaussian();
+  }
+
+  // ------------- tariff bookkeeping --------------
+
+  private List<String> usedPowerTypes ()
+  {
+    List<String> result = new ArrayList<String>();
+    for (Customer customer : customers) {
+      if (!result.contains(customer.powerType))
+        result.add(customer.powerType);
+    }
+    return result;
+  }
+
+  private Tariff findTariff (long broker, String powerType)
+  {
+    for (Tariff tariff : tariffs) {
+      if (tariff.broker == broker && tariff.powerType.equals(powerType))
+        return tariff;
+    }
+    return null;
+  }
+
+  // highest rate, which is the best deal for consumers and producers alike
+  private Tariff bestTariff (String powerType)
+  {
+    Tariff result = null;
+    for (Tariff tariff : tariffs) {
+      if (tariff.powerType.equals(powerType)
+          && (null == result || tariff.rate > result.rate))
+        result = tariff;
+    }
+    return result;
+  }
+
+  private void tariffTx (long broker, int ts, String type, long tariff,
+                         Long customer, int count, double kWh,
+                         double charge) throws IOException
+  {
+    create(common + "TariffTransaction", newId(), broker, ts, type, tariff,
+           customer, count, kWh, charge, false);
+  }
+
+  // ------------- output --------------
+
+  private long newId ()
+  {
+    return nextId++;
+  }
+
+  private void create (String type, Object id, Object... args)
+      throws IOException
+  {
+    objects += 1;
+    write(type, id, "new", args);
+  }
+
+  // objects logged by their fields rather than their constructor args
+  private void restore (String type, Object id, Object... args)
+      throws IOException
+  {
+    objects += 1;
+    write(type, id, "-rr", args);
+  }
+
+  private void line (String type, Object id, String method, Object... args)
+      throws IOException
+  {
+    write(type, id, method, args);
+  }
+
+  private void write (String type, Object id, String method, Object[] args)
+      throws IOException
+  {
+    millis += 1 + random.nextInt(3);
+    out.write(Long.toString(millis));
+    out.write(':');
+    out.write(type);
+    out.write("::");
+    out.write(String.valueOf(id));
+    out.write("::");
+    out.write(method);
+    for (Object arg : args) {
+      out.write("::");
+      out.write(String.valueOf(arg));
+    }
+    out.write('\n');
+  }
+
+  class Customer
+  {
+    long id;
+    String powerType;
+    int population;
+    double scale;
+    Tariff tariff;
+  }
+
+  class Tariff
+  {
+    long id;
+    long broker;
+    String powerType;
+    double rate;
+    double signupPayment;
+    double withdrawPayment;
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.OutputFormat;
+import org.powertac.logtool.output.TableWriter;
+import org.springframework.context.support.AbstractApplicationContext;
+
+/**
+ * LogtoolContext for analyzers that can either run standalone or be handed
+ * to a runner that reads the state log on their behalf. Analyzers extend
+ * this class rather than LogtoolContext; their main() and cli() methods are
+ * unchanged. Standalone, the log is read through StateLogReader, so the
+ * input may be a plain state log or a game archive (see LogSource). When an
+ * analyzer is being configured by a runner, the final call to
+ * cli(inputFile, analyzer) records the analyzer instead of booting a new
+ * context and reading the log.
+ *
+ * Analyzers that write their results through a TableWriter can accept the
+ * common option --format text|arrow, by passing their arguments through
+ * formatOption() and opening their output with openTable().
+ *
+ * @author agent
+ */
+public abstract class AnalyzerContext
+extends LogtoolContext
+{
+  static private Logger log = Logger.getLogger(AnalyzerContext.class.getName());
+
+  // non-null while a runner is configuring analyzers on this thread
+  private static ThreadLocal<List<AnalyzerContext>> collector =
+      new ThreadLocal<List<AnalyzerContext>>();
+
+  static final String formatFlag = "--format";
+  static final String formatPrefix = formatFlag + "=";
+
+  private String inputFile;
+  private OutputFormat outputFormat = OutputFormat.TEXT;
+
+  /**
+   * Runs the analyzer standalone, unless a runner is collecting analyzers,
+   * in which case the input file is recorded and the analyzer is queued.
+   */
+  @Override
+  protected void cli (String inputFile, Analyzer analyzer)
+  {
+    List<AnalyzerContext> pending = collector.get();
+    if (null == pending) {
+      getCore();
+      List<Analyzer> tools = new ArrayList<Analyzer>();
+      tools.add(analyzer);
+      new StateLogReader(context).readStateLog(inputFile, tools);
+      return;
+    }
+    this.inputFile = inputFile;
+    pending.add(this);
+  }
+
+  /**
+   * Returns the input file name given to this analyzer on its command line,
+   * or null if it has not been configured by a runner.
+   */
+  public String getInputFile ()
+  {
+    return inputFile;
+  }
+
+  /**
+   * Takes a --format option, written either as --format fmt or as
+   * --format=fmt, out of args, wherever it appears, and returns the
+   * remaining arguments. Returns null, after printing a message, if the
+   * format is missing or unknown.
+   */
+  protected String[] formatOption (String[] args)
+  {
+    List<String> rest = new ArrayList<String>();
+    for (int i = 0; i < args.length; i++) {
+      OutputFormat format = null;
+      if (args[i].regionMatches(true, 0, formatPrefix, 0,
+                                formatPrefix.length())) {
+        format = OutputFormat.forName(args[i].substring(formatPrefix.length()));
+      }
+      else if (formatFlag.equalsIgnoreCase(args[i])) {
+        if (i + 1 < args.length)
+          format = OutputFormat.forName(args[++i]);
+      }
+      else {
+        rest.add(args[i]);
+        continue;
+      }
+      if (null == format) {
+        System.out.println("--format must be one of text, arrow");
+        return null;
+      }
+      outputFormat = format;
+    }
+    return rest.toArray(new String[rest.size()]);
+  }
+
+  public OutputFormat getOutputFormat ()
+  {
+    return outputFormat;
+  }
+
+  /**
+   * Opens filename for tabular output in the format chosen with --format.
+   */
+  protected TableWriter openTable (String filename)
+      throws FileNotFoundException
+  {
+    return outputFormat.open(new File(filename));
+  }
+
+  /**
+   * Points this analyzer at an application context created elsewhere, so
+   * getBean() and registerNewObjectListener() resolve against the runner's
+   * shared reader and repositories.
+   */
+  void useContext (AbstractApplicationContext shared)
+  {
+    context = shared;
+  }
+
+  /**
+   * Creates and configures an analyzer by passing args to its main() method,
+   * exactly as if it had been started from the command line. Returns the
+   * configured instance, or null if the class is not an AnalyzerContext or
+   * rejected its arguments.
+   */
+  public static AnalyzerContext configure (Class<?> analyzerClass,
+                                           String[] args)
+  {
+    if (!AnalyzerContext.class.isAssignableFrom(analyzerClass)
+        || !Analyzer.class.isAssignableFrom(analyzerClass)) {
+      log.error(analyzerClass.getName() + " is not a runnable analyzer");
+      return null;
+    }
+    List<AnalyzerContext> pending = new ArrayList<AnalyzerContext>();
+    collector.set(pending);
+    try {
+      Method main = analyzerClass.getMethod("main", String[].class);
+      main.invoke(null, (Object) args);
+    }
+    catch (NoSuchMethodException e) {
+      log.error("No main method in " + analyzerClass.getName());
+    }
+    catch (InvocationTargetException e) {
+      log.error("Exception configuring " + analyzerClass.getName() + ": "
+                + e.getCause().toString());
+    }
+    catch (IllegalAccessException e) {
+      log.error("Cannot call main in " + analyzerClass.getName());
+    }
+    finally {
+      collector.remove();
+    }
+    if (pending.size() != 1) {
+      return null;
+    }
+    return pending.get(0);
+  }
+}
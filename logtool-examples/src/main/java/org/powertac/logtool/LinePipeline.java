@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Splits a Reader into batches of lines on background threads. One thread
+ * pulls blocks of characters from the Reader, which for a game archive is
+ * where the inflation and character decoding happen. A second thread cuts
+ * the blocks into lines and collects them into batches. The consumer takes
+ * batches from next() in log order. The stages are connected by bounded
+ * queues, so a slow consumer holds back the readers rather than letting
+ * the whole log pile up in memory.
+ *
+ * Lines are terminated by \n, \r, or \r\n, exactly as in
+ * BufferedReader.readLine().
+ *
+ * @author agent
+ */
+public class LinePipeline
+{
+  static private Logger log = Logger.getLogger(LinePipeline.class.getName());
+
+  static final int blockSize = 65536;
+  static final int batchSize = 1024;
+  static final int queueDepth = 16;
+
+  // end-of-input markers
+  private static final char[] endOfBlocks = new char[0];
+  private static final List<String> endOfBatches = new ArrayList<String>();
+
+  private Reader input;
+  private BlockingQueue<char[]> blocks =
+      new ArrayBlockingQueue<char[]>(queueDepth);
+  private BlockingQueue<List<String>> batches =
+      new ArrayBlockingQueue<List<String>>(queueDepth);
+  private volatile IOException failure = null;
+  private boolean finished = false;
+
+  private Thread readerThread;
+  private Thread splitterThread;
+
+  public LinePipeline (Reader input)
+  {
+    super();
+    this.input = input;
+  }
+
+  /**
+   * Starts the reader and splitter threads.
+   */
+  public void start ()
+  {
+    readerThread = new Thread(new Runnable() {
+      @Override
+      public void run ()
+      {
+        readBlocks();
+      }
+    }, "log-reader");
+    splitterThread = new Thread(new Runnable() {
+      @Override
+      public void run ()
+      {
+        splitLines();
+      }
+    }, "log-splitter");
+    readerThread.setDaemon(true);
+    splitterThread.setDaemon(true);
+    readerThread.start();
+    splitterThread.start();
+  }
+
+  /**
+   * Returns the next batch of lines, or null at the end of the input.
+   * Throws the IOException, if any, that stopped the reader thread.
+   */
+  public List<String> next () throws IOException
+  {
+    if (finished)
+      return null;
+    List<String> batch;
+    try {
+      batch = batches.take();
+    }
+    catch (InterruptedException ie) {
+      throw new IOException("Interrupted waiting for input");
+    }
+    if (batch == endOfBatches) {
+      finished = true;
+      if (null != failure)
+        throw failure;
+      return null;
+    }
+    return batch;
+  }
+
+  /**
+   * Stops the background threads. Needed when the consumer quits before
+   * the end of the input, for example at SimEnd.
+   */
+  public void stop ()
+  {
+    finished = true;
+    readerThread.interrupt();
+    splitterThread.interrupt();
+  }
+
+  // --------- reader stage ----------
+
+  private void readBlocks ()
+  {
+    try {
+      while (true) {
+        char[] buffer = new char[blockSize];
+        int count = input.read(buffer);
+        if (count < 0)
+          break;
+        if (count == 0)
+          continue;
+        if (count < blockSize) {
+          char[] block = new char[count];
+          System.arraycopy(buffer, 0, block, 0, count);
+          buffer = block;
+        }
+        blocks.put(buffer);
+      }
+    }
+    catch (IOException ioe) {
+      failure = ioe;
+    }
+    catch (InterruptedException ie) {
+      return;
+    }
+    try {
+      blocks.put(endOfBlocks);
+    }
+    catch (InterruptedException ie) {
+      log.debug("Reader stopped at end of input");
+    }
+  }
+
+  // --------- splitter stage ----------
+
+  private void splitLines ()
+  {
+    StringBuilder partial = new StringBuilder();
+    List<String> batch = new ArrayList<String>(batchSize);
+    boolean skipNewline = false;
+    try {
+      while (true) {
+        char[] block = blocks.take();
+        if (block == endOfBlocks)
+          break;
+        int start = 0;
+        for (int i = 0; i < block.length; i++) {
+          char c = block[i];
+          if (c != '\n' && c != '\r')
+            continue;
+          if (c == '\n' && skipNewline && i == start
+              && partial.length() == 0) {
+            // second half of \r\n
+            skipNewline = false;
+            start = i + 1;
+            continue;
+          }
+          String line;
+          if (partial.length() > 0) {
+            partial.append(block, start, i - start);
+            line = partial.toString();
+            partial.setLength(0);
+          }
+          else {
+            line = new String(block, start, i - start);
+          }
+          batch.add(line);
+          if (batch.size() == batchSize) {
+            batches.put(batch);
+            batch = new ArrayList<String>(batchSize);
+          }
+          skipNewline = (c == '\r');
+          start = i + 1;
+        }
+        if (start < block.length) {
+          partial.append(block, start, block.length - start);
+          skipNewline = false;
+        }
+      }
+      if (partial.length() > 0)
+        batch.add(partial.toString());
+      if (!batch.isEmpty())
+        batches.put(batch);
+      batches.put(endOfBatches);
+    }
+    catch (InterruptedException ie) {
+      log.debug("Splitter stopped");
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+/**
+ * Opens state and trace logs by name. A name is either a plain file,
+ * "-" for standard input, or a log inside a compressed game archive
+ * written as archive.tar.gz!member, for example
+ * game-3-sim-logs.tar.gz!log/powertac-sim-3.state. The member may be
+ * given without its directory. If the member is omitted altogether, the
+ * archive's state log is used.
+ *
+ * Logs inside an archive are decompressed as they are read, without
+ * extracting anything to disk. Each open() gets its own stream, so the
+ * state and trace logs of a game can be read side by side.
+ *
+ * @author agent
+ */
+public class LogSource
+{
+  static final String separator = "!";
+
+  /**
+   * True just in case name refers to a compressed game archive.
+   */
+  public static boolean isArchive (String name)
+  {
+    return archivePart(name).endsWith(".tar.gz")
+        || archivePart(name).endsWith(".tgz");
+  }
+
+  /**
+   * Returns the fully-qualified form of name. For an archive, this
+   * includes the full member name; plain file names are returned as is.
+   */
+  public static String resolve (String name) throws IOException
+  {
+    if (null == name || !isArchive(name))
+      return name;
+    File archive = new File(archivePart(name));
+    TarArchiveInputStream tar = openArchive(archive);
+    try {
+      TarArchiveEntry entry = findEntry(tar, memberPart(name));
+      if (null == entry)
+        throw new FileNotFoundException(describe(name));
+      return archive.getPath() + separator + entry.getName();
+    }
+    finally {
+      tar.close();
+    }
+  }
+
+  /**
+   * Opens the named log for reading.
+   */
+  public static Reader open (String name) throws IOException
+  {
+    if (null == name || "-".equals(name))
+      return new InputStreamReader(System.in);
+    if (!isArchive(name)) {
+      File input = new File(name);
+      if (!input.canRead())
+        throw new FileNotFoundException(name);
+      return new FileReader(input);
+    }
+    TarArchiveInputStream tar = openArchive(new File(archivePart(name)));
+    if (null == findEntry(tar, memberPart(name))) {
+      tar.close();
+      throw new FileNotFoundException(describe(name));
+    }
+    // the tar stream ends at the end of the current entry
+    return new InputStreamReader(tar);
+  }
+
+  // --------- archive access ----------
+
+  private static TarArchiveInputStream openArchive (File archive)
+      throws IOException
+  {
+    InputStream in =
+        new GZIPInputStream(new BufferedInputStream(new FileInputStream(archive)),
+                            65536);
+    return new TarArchiveInputStream(in);
+  }
+
+  // Advances the stream to the named member, or to the first state log
+  // other than init or boot logs if member is null.
+  private static TarArchiveEntry findEntry (TarArchiveInputStream tar,
+                                            String member)
+      throws IOException
+  {
+    TarArchiveEntry entry;
+    while (null != (entry = tar.getNextTarEntry())) {
+      if (!entry.isFile())
+        continue;
+      String entryName = entry.getName();
+      if (null == member) {
+        if (entryName.endsWith(".state")
+            && !entryName.endsWith("init.state")
+            && !entryName.endsWith("boot.state"))
+          return entry;
+      }
+      else if (entryName.equals(member)
+               || entryName.endsWith("/" + member)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private static String archivePart (String name)
+  {
+    int index = name.indexOf(separator);
+    return (index < 0) ? name : name.substring(0, index);
+  }
+
+  private static String memberPart (String name)
+  {
+    int index = name.indexOf(separator);
+    return (index < 0) ? null : name.substring(index + 1);
+  }
+
+  private static String describe (String name)
+  {
+    String member = memberPart(name);
+    return archivePart(name) + ": "
+        + ((null == member) ? "no state log" : "no member " + member);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.powertac.logtool.ifc.Analyzer;
+
+/**
+ * Runs several analyzers over a single state log in one pass. All analyzers
+ * register their listeners on the same DomainObjectReader, so the log is
+ * parsed once and the Spring context is booted once, no matter how many
+ * datasets are extracted.
+ *
+ * Usage: MultiAnalyzer state-log analyzer [args] [analyzer [args]] ...
+ *
+ * Each analyzer is given by its class name, either fully qualified or
+ * as a simple name in one of the example, porag, or russell packages. It is
+ * followed by the arguments it would take when run standalone, without the
+ * state log. The state log is inserted ahead of the first argument that is
+ * not an option; options that take values must therefore be written as
+ * --option=value, except --format, which may also be given as
+ * --format fmt. For example,
+ *
+ * MultiAnalyzer game-3.state MktPriceStats --no-headers prices.data
+ *   BrokerCosts costs.txt
+ *
+ * The state log may also be a game archive, as described in LogSource.
+ *
+ * @author agent
+ */
+public class MultiAnalyzer
+extends LogtoolContext
+{
+  static private Logger log = Logger.getLogger(MultiAnalyzer.class.getName());
+
+  static final String[] analyzerPackages =
+    {"org.powertac.logtool.example",
+     "org.powertac.logtool.porag",
+     "org.powertac.logtool.russell"};
+
+  private String inputFile;
+  private List<AnalyzerContext> analyzers = new ArrayList<AnalyzerContext>();
+
+  /**
+   * Main method creates an instance and hands it the command line.
+   */
+  public static void main (String[] args)
+  {
+    new MultiAnalyzer().cli(args);
+  }
+
+  private void cli (String[] args)
+  {
+    if (args.length < 3) {
+      System.out.println("Usage: MultiAnalyzer state-log analyzer [args] [analyzer [args]] ...");
+      return;
+    }
+    inputFile = args[0];
+    Class<?> analyzerClass = null;
+    int start = 0;
+    for (int i = 1; i <= args.length; i++) {
+      Class<?> next = (i < args.length) ? resolveAnalyzer(args[i]) : null;
+      if (i == args.length || null != next) {
+        if (null != analyzerClass) {
+          if (!addAnalyzer(analyzerClass,
+                           Arrays.copyOfRange(args, start, i))) {
+            return;
+          }
+        }
+        analyzerClass = next;
+        start = i + 1;
+      }
+      else if (null == analyzerClass) {
+        System.out.println("Cannot find analyzer class " + args[i]);
+        return;
+      }
+    }
+    run();
+  }
+
+  /**
+   * Configures an analyzer with its command-line args, excluding the input
+   * file. Returns false if the analyzer rejects its arguments.
+   */
+  public boolean addAnalyzer (Class<?> analyzerClass, String[] args)
+  {
+    AnalyzerContext analyzer =
+        AnalyzerContext.configure(analyzerClass,
+                                  insertInput(inputFile, args));
+    if (null == analyzer) {
+      System.out.println("Cannot configure " + analyzerClass.getName()
+                         + " with args " + Arrays.toString(args));
+      return false;
+    }
+    analyzers.add(analyzer);
+    return true;
+  }
+
+  /**
+   * Reads the state log once, dispatching to all configured analyzers.
+   */
+  public void run ()
+  {
+    getCore();
+    List<Analyzer> tools = new ArrayList<Analyzer>();
+    for (AnalyzerContext analyzer : analyzers) {
+      analyzer.useContext(context);
+      tools.add((Analyzer) analyzer);
+    }
+    log.info("Running " + tools.size() + " analyzers on " + inputFile);
+    new StateLogReader(context).readStateLog(inputFile, tools);
+  }
+
+  /**
+   * Returns an Analyzer class given its full name, or its simple name in
+   * one of the standard analyzer packages, or null if there is none.
+   */
+  static Class<?> resolveAnalyzer (String name)
+  {
+    ArrayList<String> candidates = new ArrayList<String>();
+    candidates.add(name);
+    if (name.indexOf('.') < 0) {
+      for (String pkg : analyzerPackages) {
+        candidates.add(pkg + "." + name);
+      }
+    }
+    for (String candidate : candidates) {
+      try {
+        Class<?> clazz = Class.forName(candidate);
+        if (Analyzer.class.isAssignableFrom(clazz))
+          return clazz;
+      }
+      catch (ClassNotFoundException e) {
+        // not this one
+      }
+    }
+    return null;
+  }
+
+  // inserts the input file ahead of the first non-option argument; the
+  // value of a separate --format option is not taken as that argument
+  static String[] insertInput (String input, String[] args)
+  {
+    String[] result = new String[args.length + 1];
+    int index = 0;
+    while (index < args.length && args[index].startsWith("--")) {
+      result[index] = args[index];
+      if (AnalyzerContext.formatFlag.equalsIgnoreCase(args[index])
+          && index + 1 < args.length) {
+        index += 1;
+        result[index] = args[index];
+      }
+      index += 1;
+    }
+    result[index] = input;
+    System.arraycopy(args, index, result, index + 1, args.length - index);
+    return result;
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.powertac.common.msg.SimEnd;
+import org.powertac.common.repo.DomainRepo;
+import org.powertac.logtool.common.DomainBuilder;
+import org.powertac.logtool.common.DomainObjectReader;
+import org.powertac.logtool.common.MissingDomainObject;
+import org.powertac.logtool.common.NewObjectListener;
+import org.powertac.logtool.common.ReaderSupport;
+import org.powertac.logtool.common.SubscriptionFilter;
+import org.powertac.logtool.compiled.CompiledLogReader;
+import org.powertac.logtool.ifc.Analyzer;
+import org.springframework.context.support.AbstractApplicationContext;
+
+/**
+ * Reads state logs into the reader and repositories of an existing
+ * application context. This does the same job as
+ * LogtoolCore.readStateLog(), but it can read logs straight out of game
+ * archives (see LogSource) or from any Reader, and it can be reset and
+ * used again for the next log without booting a new context.
+ *
+ * Compiled state logs (see StateLogCompiler) are recognized by name and
+ * replayed instead of parsed.
+ *
+ * Unless the system property logtool.filter is false, lines for classes
+ * that no listener needs are skipped without building their objects (see
+ * SubscriptionFilter).
+ *
+ * In pipelined mode, reading and decompressing the log and splitting it
+ * into lines are done on background threads by a LinePipeline, leaving
+ * only the reconstruction of domain objects and the analyzer callbacks on
+ * the calling thread. Those must stay on one thread, because each object
+ * can refer to any object that came before it. Listeners are called in
+ * log order either way. Pipelined mode is the default if the system
+ * property logtool.pipeline is true.
+ *
+ * @author agent
+ */
+public class StateLogReader
+{
+  static private Logger log = Logger.getLogger(StateLogReader.class.getName());
+
+  private AbstractApplicationContext context;
+  private DomainObjectReader reader;
+  private DomainBuilder builder;
+  private boolean simEnd = false;
+  private String currentLine = null;
+  private boolean pipelined = Boolean.getBoolean("logtool.pipeline");
+  private boolean filtered =
+      Boolean.parseBoolean(System.getProperty("logtool.filter", "true"));
+  private SubscriptionFilter filter;
+
+  public StateLogReader (AbstractApplicationContext context)
+  {
+    super();
+    this.context = context;
+    reader = (DomainObjectReader) context.getBean("reader");
+    builder = (DomainBuilder) context.getBean("domainBuilder");
+    filter = new SubscriptionFilter(reader);
+  }
+
+  /**
+   * Turns pipelined reading on or off.
+   */
+  public void setPipelined (boolean value)
+  {
+    pipelined = value;
+  }
+
+  public boolean isPipelined ()
+  {
+    return pipelined;
+  }
+
+  /**
+   * Turns skipping of unneeded lines on or off.
+   */
+  public void setFiltered (boolean value)
+  {
+    filtered = value;
+  }
+
+  public boolean isFiltered ()
+  {
+    return filtered;
+  }
+
+  /**
+   * Clears everything left over from the previous log: reader listeners
+   * and objects, repository contents, and the builder's pending rates.
+   */
+  public void reset ()
+  {
+    ReaderSupport.reset(reader);
+    for (DomainRepo repo : context.getBeansOfType(DomainRepo.class).values()) {
+      repo.recycle();
+    }
+    ReaderSupport.reset(builder);
+    simEnd = false;
+  }
+
+  /**
+   * Opens the named log through LogSource and reads it, dispatching to the
+   * given analyzers. Returns false if the log could not be read.
+   */
+  public boolean readStateLog (String name, List<Analyzer> tools)
+  {
+    if (CompiledLogReader.isCompiled(name))
+      return readCompiledLog(name, tools);
+    Reader input;
+    try {
+      input = LogSource.open(name);
+    }
+    catch (IOException e) {
+      System.out.println("Cannot read file " + name);
+      return false;
+    }
+    try {
+      return readStateLog(input, (null == name || "-".equals(name))
+                          ? "standard input" : name, tools);
+    }
+    finally {
+      try {
+        input.close();
+      }
+      catch (IOException e) {
+        log.warn("Cannot close " + name);
+      }
+    }
+  }
+
+  /**
+   * Replays a compiled state log (see StateLogCompiler), dispatching to the
+   * given analyzers. Returns false if the log could not be read.
+   */
+  public boolean readCompiledLog (String name, List<Analyzer> tools)
+  {
+    InputStream input;
+    try {
+      input = new FileInputStream(name);
+    }
+    catch (IOException e) {
+      System.out.println("Cannot read file " + name);
+      return false;
+    }
+    reader.registerNewObjectListener(new SimEndHandler(), SimEnd.class);
+    log.info("Replaying " + name);
+    CompiledLogReader replay = null;
+    try {
+      replay = new CompiledLogReader(input, reader);
+      if (filtered)
+        replay.setFilter(filter);
+      builder.setup();
+      for (Analyzer tool : tools) {
+        tool.setup();
+      }
+      while (!simEnd && replay.next()) {
+        // records are dispatched by next()
+      }
+      builder.report();
+      for (Analyzer tool : tools) {
+        tool.report();
+      }
+      return true;
+    }
+    catch (IOException e) {
+      System.out.println("error reading from " + name);
+    }
+    catch (MissingDomainObject e) {
+      System.out.println("MDO on " + replay.getCurrent());
+    }
+    finally {
+      try {
+        input.close();
+      }
+      catch (IOException e) {
+        log.warn("Cannot close " + name);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads a complete state log from input, dispatching to the given
+   * analyzers. The name is used only for logging. Returns false if the
+   * log could not be read to the end.
+   */
+  public boolean readStateLog (Reader input, String name,
+                               List<Analyzer> tools)
+  {
+    reader.registerNewObjectListener(new SimEndHandler(), SimEnd.class);
+    currentLine = null;
+    log.info("Reading " + name);
+    try {
+      builder.setup();
+      for (Analyzer tool : tools) {
+        tool.setup();
+      }
+      if (pipelined)
+        readPipelined(input);
+      else
+        readSequential(input);
+      builder.report();
+      for (Analyzer tool : tools) {
+        tool.report();
+      }
+      return true;
+    }
+    catch (IOException e) {
+      System.out.println("error reading from " + name);
+    }
+    catch (MissingDomainObject e) {
+      System.out.println("MDO on " + currentLine);
+    }
+    return false;
+  }
+
+  private void readSequential (Reader input)
+      throws IOException, MissingDomainObject
+  {
+    BufferedReader in = new BufferedReader(input);
+    int lineNumber = 0;
+    while (!simEnd) {
+      String line = in.readLine();
+      if (null == line) {
+        log.info("Last line " + lineNumber);
+        break;
+      }
+      lineNumber += 1;
+      currentLine = line;
+      if (!filtered || filter.accepts(line))
+        reader.readObject(line);
+    }
+  }
+
+  private void readPipelined (Reader input)
+      throws IOException, MissingDomainObject
+  {
+    LinePipeline pipeline = new LinePipeline(input);
+    pipeline.start();
+    int lineNumber = 0;
+    try {
+      List<String> batch;
+      while (!simEnd && null != (batch = pipeline.next())) {
+        for (String line : batch) {
+          lineNumber += 1;
+          currentLine = line;
+          if (!filtered || filter.accepts(line))
+            reader.readObject(line);
+          if (simEnd)
+            break;
+        }
+      }
+      if (!simEnd)
+        log.info("Last line " + lineNumber);
+    }
+    finally {
+      pipeline.stop();
+    }
+  }
+
+  class SimEndHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      simEnd = true;
+    }
+  }
+}
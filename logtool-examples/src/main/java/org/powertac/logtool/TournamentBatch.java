@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import org.apache.log4j.Logger;
+import org.powertac.logtool.ifc.Analyzer;
+
+/**
+ * Runs one analyzer over every game in a tournament directory in a single
+ * JVM. The directory is expected to hold the game-N-sim-logs.tar.gz files
+ * produced by the tournament scheduler or by runner/run-sims. The Spring
+ * context is booted once; between games the reader and repositories are
+ * reset and a fresh analyzer instance is configured. Logs are decompressed
+ * straight out of the archives, nothing is extracted to disk.
+ *
+ * Usage: TournamentBatch [--session sim] [--prefix p] [--output-dir d]
+ *          [--workers n] tournament-dir analyzer [analyzer-options]
+ *
+ * The output for game N is written to d/pN.data, where the prefix p
+ * defaults to the simple name of the analyzer class followed by a dash.
+ * Analyzer options are passed through to the analyzer ahead of its input
+ * and output arguments. With --workers, up to n games are processed at
+ * once, each worker with its own context and repositories.
+ *
+ * @author agent
+ */
+public class TournamentBatch
+extends LogtoolContext
+{
+  static private Logger log = Logger.getLogger(TournamentBatch.class.getName());
+
+  private String sessionType = "sim";
+  private String prefix = null;
+  private File outputDir = new File(".");
+  private Class<?> analyzerClass;
+  private String[] analyzerOptions;
+  private List<File> games;
+  private int workers = 1;
+
+  private StateLogReader stateLogReader;
+
+  /**
+   * Main method creates an instance and hands it the command line.
+   */
+  public static void main (String[] args)
+  {
+    new TournamentBatch().cli(args);
+  }
+
+  private void cli (String[] args)
+  {
+    if (!configure(args))
+      return;
+    if (workers > 1)
+      runParallel(args);
+    else
+      run(games);
+  }
+
+  // processes options, returns false if they are unusable
+  private boolean configure (String[] args)
+  {
+    OptionParser parser = new OptionParser();
+    parser.posixlyCorrect(true);
+    OptionSpec<String> sessionOption =
+        parser.accepts("session").withRequiredArg().ofType(String.class);
+    OptionSpec<String> prefixOption =
+        parser.accepts("prefix").withRequiredArg().ofType(String.class);
+    OptionSpec<String> outputOption =
+        parser.accepts("output-dir").withRequiredArg().ofType(String.class);
+    OptionSpec<Integer> workersOption =
+        parser.accepts("workers").withRequiredArg().ofType(Integer.class);
+    OptionSet options = parser.parse(args);
+    String[] rest = options.nonOptionArguments().toArray(new String[0]);
+    if (rest.length < 2) {
+      System.out.println("Usage: TournamentBatch [--session sim] [--prefix p] [--output-dir d] [--workers n] tournament-dir analyzer [analyzer-options]");
+      return false;
+    }
+    if (options.has(sessionOption))
+      sessionType = options.valueOf(sessionOption);
+    if (options.has(outputOption))
+      outputDir = new File(options.valueOf(outputOption));
+    if (options.has(workersOption))
+      workers = options.valueOf(workersOption);
+    analyzerClass = MultiAnalyzer.resolveAnalyzer(rest[1]);
+    if (null == analyzerClass) {
+      System.out.println("Cannot find analyzer class " + rest[1]);
+      return false;
+    }
+    prefix = options.has(prefixOption) ? options.valueOf(prefixOption)
+        : analyzerClass.getSimpleName() + "-";
+    analyzerOptions = Arrays.copyOfRange(rest, 2, rest.length);
+    games = findGames(new File(rest[0]), sessionType);
+    if (games.isEmpty()) {
+      System.out.println("No games found in " + rest[0]);
+      return false;
+    }
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      System.out.println("Cannot create output directory " + outputDir);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Runs the analyzer over each of the given game archives in turn.
+   */
+  public void run (List<File> games)
+  {
+    boot();
+    for (File game : games) {
+      runGame(game);
+    }
+  }
+
+  // boots the shared context, once
+  private void boot ()
+  {
+    if (null == context) {
+      getCore();
+      stateLogReader = new StateLogReader(context);
+    }
+  }
+
+  /**
+   * Runs a fresh analyzer instance over a single game archive. Returns
+   * false if the game could not be processed.
+   */
+  public boolean runGame (File game)
+  {
+    String gameId = gameId(game, sessionType);
+    String member = stateLogMember(gameId, sessionType);
+    String source = game.getPath() + LogSource.separator + member;
+    File output = new File(outputDir, prefix + gameId + ".data");
+
+    stateLogReader.reset();
+    String[] analyzerArgs =
+        Arrays.copyOf(analyzerOptions, analyzerOptions.length + 1);
+    analyzerArgs[analyzerOptions.length] = output.getPath();
+    AnalyzerContext analyzer =
+        AnalyzerContext.configure(analyzerClass,
+                                  MultiAnalyzer.insertInput(source,
+                                                            analyzerArgs));
+    if (null == analyzer) {
+      System.out.println("Cannot configure analyzer for game " + gameId);
+      return false;
+    }
+    analyzer.useContext(context);
+    List<Analyzer> tools = new ArrayList<Analyzer>();
+    tools.add((Analyzer) analyzer);
+
+    System.out.println("Processing game " + gameId);
+    return stateLogReader.readStateLog(source, tools);
+  }
+
+  // ----------- parallel processing -------------
+
+  /**
+   * Processes the games with a pool of workers, each running its own batch
+   * in a separate class loader. The powertac repositories, the reader, and
+   * the Spring context are reached through static singletons, so a class
+   * loader per worker is what keeps concurrent games from sharing them.
+   * Workers pull games from a shared queue; each game writes its own output
+   * file, and the summary is printed in game order once all are done.
+   */
+  private void runParallel (final String[] args)
+  {
+    final URL[] classpath = classpath();
+    final Queue<File> queue = new ConcurrentLinkedQueue<File>(games);
+    final Map<File, Boolean> results = new ConcurrentHashMap<File, Boolean>();
+    int poolSize = Math.min(workers, games.size());
+    log.info("Processing " + games.size() + " games with "
+             + poolSize + " workers");
+    ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+    for (int i = 0; i < poolSize; i++) {
+      pool.execute(new Runnable() {
+        @Override
+        public void run ()
+        {
+          runWorker(classpath, args, queue, results);
+        }
+      });
+    }
+    pool.shutdown();
+    try {
+      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+      log.error("Interrupted waiting for workers");
+    }
+    for (File game : games) {
+      Boolean result = results.get(game);
+      System.out.println("Game " + gameId(game, sessionType) + ": "
+                         + (Boolean.TRUE.equals(result) ? "done" : "failed"));
+    }
+  }
+
+  // runs a batch in a fresh class loader on the current thread
+  private void runWorker (URL[] classpath, String[] args,
+                          Queue<File> queue, Map<File, Boolean> results)
+  {
+    Thread thread = Thread.currentThread();
+    ClassLoader original = thread.getContextClassLoader();
+    URLClassLoader loader =
+        new URLClassLoader(classpath,
+                           ClassLoader.getSystemClassLoader().getParent());
+    try {
+      thread.setContextClassLoader(loader);
+      Class<?> batch = loader.loadClass(TournamentBatch.class.getName());
+      Method work = batch.getMethod("work", String[].class,
+                                    Queue.class, Map.class);
+      work.invoke(null, args, queue, results);
+    }
+    catch (InvocationTargetException ite) {
+      log.error("Worker failed", ite.getCause());
+    }
+    catch (Exception e) {
+      log.error("Worker failed", e);
+    }
+    finally {
+      thread.setContextClassLoader(original);
+      try {
+        loader.close();
+      }
+      catch (IOException e) {
+        log.warn("Cannot close worker class loader");
+      }
+    }
+  }
+
+  /**
+   * Entry point for a worker. Configures a batch from the command-line args
+   * and processes games from the queue until it is empty, recording the
+   * outcome of each.
+   */
+  public static void work (String[] args, Queue<File> queue,
+                           Map<File, Boolean> results)
+  {
+    TournamentBatch batch = new TournamentBatch();
+    if (!batch.configure(args))
+      return;
+    batch.boot();
+    File game;
+    while (null != (game = queue.poll())) {
+      results.put(game, batch.runGame(game));
+    }
+  }
+
+  // entries of the JVM classpath
+  private URL[] classpath ()
+  {
+    String[] entries =
+        System.getProperty("java.class.path").split(File.pathSeparator);
+    URL[] result = new URL[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      try {
+        result[i] = new File(entries[i]).toURI().toURL();
+      }
+      catch (MalformedURLException e) {
+        log.error("Bad classpath entry " + entries[i]);
+      }
+    }
+    return result;
+  }
+
+  // ----------- tournament layout -------------
+
+  static final String archiveFormat = "game-(\\d+)-%s-logs.tar.gz";
+
+  /**
+   * Returns the game archives for the given session type found in dir,
+   * ordered by game number.
+   */
+  public static List<File> findGames (File dir, final String sessionType)
+  {
+    final Pattern archive =
+        Pattern.compile(String.format(archiveFormat, sessionType));
+    List<File> result = new ArrayList<File>();
+    File[] files = dir.listFiles();
+    if (null == files) {
+      log.error("Cannot list tournament directory " + dir);
+      return result;
+    }
+    for (File file : files) {
+      if (archive.matcher(file.getName()).matches())
+        result.add(file);
+    }
+    Collections.sort(result, new Comparator<File>() {
+      @Override
+      public int compare (File f1, File f2)
+      {
+        return Long.compare(Long.parseLong(gameId(f1, sessionType)),
+                            Long.parseLong(gameId(f2, sessionType)));
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Extracts the game ID from the name of a game archive.
+   */
+  public static String gameId (File game, String sessionType)
+  {
+    Matcher m = Pattern.compile(String.format(archiveFormat, sessionType))
+        .matcher(game.getName());
+    if (!m.matches())
+      return null;
+    return m.group(1);
+  }
+
+  /**
+   * Name of the state log within a game archive.
+   */
+  public static String stateLogMember (String gameId, String sessionType)
+  {
+    return String.format("log/powertac-%s-%s.state", sessionType, gameId);
+  }
+}
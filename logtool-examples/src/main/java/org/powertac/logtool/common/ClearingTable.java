@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.common;
+
+import java.util.Arrays;
+
+/**
+ * Market clearings (quantity in MWh and price) by timeslot and leadtime,
+ * kept in dense double arrays instead of a map of ClearedTrade arrays.
+ * Each timeslot has a row of width entries, stored at
+ * (timeslot - first) * width + leadtime, where first is the first
+ * timeslot added. Rows are grown a chunk at a time.
+ *
+ * A row exists once its timeslot has been added, or a clearing has been
+ * put in it; leadtimes without a clearing are missing rather than zero.
+ * Rows that are no longer needed can be dropped with discardBefore(), so
+ * the table does not grow with the length of the game.
+ *
+ * @author agent
+ */
+public class ClearingTable
+{
+  // rows added at a time, one week of timeslots
+  private static final int CHUNK = 168;
+
+  private int width;
+  private int first = 0;
+  private int rows = 0;        // rows in use, from first
+  private double[] mwh = new double[0];
+  private double[] price = new double[0];
+  private boolean[] present = new boolean[0];
+
+  /**
+   * Creates a table with width leadtimes per timeslot.
+   */
+  public ClearingTable (int width)
+  {
+    super();
+    this.width = width;
+  }
+
+  public int getWidth ()
+  {
+    return width;
+  }
+
+  /**
+   * Adds a row for timeslot, if there is none yet.
+   */
+  public void addTimeslot (int timeslot)
+  {
+    present[row(timeslot)] = true;
+  }
+
+  /**
+   * Records a clearing, replacing any earlier one at the same timeslot
+   * and leadtime.
+   */
+  public void put (int timeslot, int leadtime, double mWh, double clearingPrice)
+  {
+    if (leadtime < 0 || leadtime >= width)
+      throw new IndexOutOfBoundsException("leadtime " + leadtime);
+    int row = row(timeslot);
+    present[row] = true;
+    mwh[row * width + leadtime] = mWh;
+    price[row * width + leadtime] = clearingPrice;
+  }
+
+  /**
+   * True if there are no rows.
+   */
+  public boolean isEmpty ()
+  {
+    return 0 == rows;
+  }
+
+  /**
+   * First and last timeslots that may have rows; rows in between may be
+   * missing.
+   */
+  public int getFirstTimeslot ()
+  {
+    return first;
+  }
+
+  public int getLastTimeslot ()
+  {
+    return first + rows - 1;
+  }
+
+  public boolean hasTimeslot (int timeslot)
+  {
+    int row = timeslot - first;
+    return row >= 0 && row < rows && present[row];
+  }
+
+  /**
+   * True if there is a clearing at timeslot and leadtime.
+   */
+  public boolean hasClearing (int timeslot, int leadtime)
+  {
+    return hasTimeslot(timeslot)
+        && !Double.isNaN(mwh[(timeslot - first) * width + leadtime]);
+  }
+
+  public double getMWh (int timeslot, int leadtime)
+  {
+    return mwh[(timeslot - first) * width + leadtime];
+  }
+
+  public double getPrice (int timeslot, int leadtime)
+  {
+    return price[(timeslot - first) * width + leadtime];
+  }
+
+  /**
+   * Drops the rows for timeslots before the given one, once they have
+   * been reported, so the table only holds timeslots still open for
+   * trading.
+   */
+  public void discardBefore (int timeslot)
+  {
+    int count = Math.min(timeslot - first, rows);
+    if (count <= 0)
+      return;
+    int remaining = rows - count;
+    System.arraycopy(mwh, count * width, mwh, 0, remaining * width);
+    System.arraycopy(price, count * width, price, 0, remaining * width);
+    System.arraycopy(present, count, present, 0, remaining);
+    Arrays.fill(mwh, remaining * width, rows * width, Double.NaN);
+    Arrays.fill(present, remaining, rows, false);
+    first += count;
+    rows = remaining;
+  }
+
+  // Returns the row for timeslot, growing the table to include it
+  private int row (int timeslot)
+  {
+    if (0 == rows) {
+      first = timeslot;
+    }
+    else if (timeslot < first) {
+      // not expected in a state log, but keep the table dense
+      shift(first - timeslot);
+    }
+    int row = timeslot - first;
+    if (row >= present.length) {
+      grow(row + 1);
+    }
+    if (row >= rows) {
+      rows = row + 1;
+    }
+    return row;
+  }
+
+  private void grow (int needed)
+  {
+    int capacity = ((needed + CHUNK - 1) / CHUNK) * CHUNK;
+    int old = present.length;
+    mwh = Arrays.copyOf(mwh, capacity * width);
+    price = Arrays.copyOf(price, capacity * width);
+    present = Arrays.copyOf(present, capacity);
+    Arrays.fill(mwh, old * width, mwh.length, Double.NaN);
+  }
+
+  // Moves all rows down by count, making room for earlier timeslots
+  private void shift (int count)
+  {
+    if (rows + count > present.length) {
+      grow(rows + count);
+    }
+    System.arraycopy(mwh, 0, mwh, count * width, rows * width);
+    System.arraycopy(price, 0, price, count * width, rows * width);
+    System.arraycopy(present, 0, present, count, rows);
+    Arrays.fill(mwh, 0, count * width, Double.NaN);
+    Arrays.fill(present, 0, count, false);
+    first -= count;
+    rows += count;
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.common;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Access to DomainObjectReader state that the reader does not expose
+ * through its public API. This class lives in the reader's package so that
+ * runners can reuse a single reader for many state logs, and so that
+ * objects decoded from a compiled state log can be registered and announced
+ * exactly as if the reader had built them.
+ *
+ * @author agent
+ */
+public class ReaderSupport
+{
+  static private Logger log = Logger.getLogger(ReaderSupport.class.getName());
+
+  // id setters by class, as found by DomainObjectReader.setId()
+  private static HashMap<Class<?>, Method> idMethods =
+      new HashMap<Class<?>, Method>();
+  private static HashMap<Class<?>, Field> idFields =
+      new HashMap<Class<?>, Field>();
+
+  /**
+   * Drops all registered listeners and all objects read so far, leaving
+   * the reader as it was when it was created.
+   */
+  public static void reset (DomainObjectReader reader)
+  {
+    reader.newObjectListeners.clear();
+    reader.idMap.clear();
+  }
+
+  /**
+   * Drops the rates the builder is holding for tariffs it has not seen,
+   * so they do not carry over into the next log.
+   */
+  public static void reset (DomainBuilder builder)
+  {
+    try {
+      Field field = DomainBuilder.class.getDeclaredField("pendingRates");
+      field.setAccessible(true);
+      ((Map<?, ?>) field.get(builder)).clear();
+    }
+    catch (Exception e) {
+      log.error("Cannot clear pending rates " + e.toString());
+    }
+  }
+
+  /**
+   * Returns the classes that listeners are registered for, including null
+   * if a listener is registered for all classes. The set is a live view.
+   */
+  public static Set<Class<?>> getListenedTypes (DomainObjectReader reader)
+  {
+    return Collections.unmodifiableSet(reader.newObjectListeners.keySet());
+  }
+
+  /**
+   * True if the reader skips lines for the named class.
+   */
+  public static boolean isIgnored (DomainObjectReader reader,
+                                   String className)
+  {
+    return reader.ignores.contains(className);
+  }
+
+  /**
+   * Returns the class the reader builds in place of the named class, or
+   * null if there is none.
+   */
+  public static Class<?> getSubstitute (DomainObjectReader reader,
+                                        String className)
+  {
+    return reader.substitutes.get(className);
+  }
+
+  /**
+   * Gives a newly built object its logged id and adds it to the reader's
+   * id map, as the reader does for objects it constructs itself.
+   */
+  public static void addObject (DomainObjectReader reader, long id,
+                                Object thing)
+  {
+    setId(thing, id);
+    reader.idMap.put(id, thing);
+  }
+
+  /**
+   * Calls the listeners registered for the object's class, or failing that
+   * its superclass, followed by those registered for all classes, in the
+   * same way as the reader does for objects it constructs itself.
+   */
+  public static void fireNewObjectEvent (DomainObjectReader reader,
+                                         Object thing)
+  {
+    ArrayList<NewObjectListener> listeners =
+        reader.newObjectListeners.get(thing.getClass());
+    if (null == listeners)
+      listeners =
+          reader.newObjectListeners.get(thing.getClass().getSuperclass());
+    if (null != listeners) {
+      for (NewObjectListener listener : listeners)
+        listener.handleNewObject(thing);
+    }
+    listeners = reader.newObjectListeners.get(null);
+    if (null != listeners) {
+      for (NewObjectListener listener : listeners)
+        listener.handleNewObject(thing);
+    }
+  }
+
+  // uses setId(long) if there is one, otherwise the id field
+  private static synchronized void setId (Object thing, long id)
+  {
+    Class<?> clazz = thing.getClass();
+    try {
+      Method method = idMethods.get(clazz);
+      Field field = idFields.get(clazz);
+      if (null == method && null == field) {
+        try {
+          method = clazz.getMethod("setId", long.class);
+          method.setAccessible(true);
+          idMethods.put(clazz, method);
+        }
+        catch (NoSuchMethodException e) {
+          field = ReflectionUtils.findField(clazz, "id");
+          field.setAccessible(true);
+          idFields.put(clazz, field);
+        }
+      }
+      if (null != method)
+        method.invoke(thing, id);
+      else
+        field.set(thing, id);
+    }
+    catch (Exception e) {
+      log.error("Error setting id value " + e.toString());
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.common;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.powertac.common.Broker;
+import org.powertac.common.Competition;
+import org.powertac.common.CustomerInfo;
+import org.powertac.common.Rate;
+import org.powertac.common.TariffSpecification;
+import org.powertac.common.TimeService;
+import org.powertac.common.Timeslot;
+import org.powertac.common.msg.SimEnd;
+
+/**
+ * Decides which state log lines a DomainObjectReader needs to see, given
+ * the listeners registered on it. Lines for a class that nobody listens
+ * to, and that no needed object can refer to, can be skipped without
+ * building the object at all. For narrow analyzers, that is most of the
+ * log.
+ *
+ * A class is needed if a listener is registered for it or one of its
+ * supertypes, if it is one of the classes that keep the repositories and
+ * the clock consistent (Broker, CustomerInfo, TariffSpecification, Rate,
+ * Timeslot, Competition, TimeService, SimEnd), or if it can be passed to
+ * a constructor or method of a needed class, or stored in one of its
+ * fields. A listener registered for all classes turns filtering off. The
+ * decision is cached per class name and recomputed whenever listeners are
+ * registered for a new class.
+ *
+ * @author agent
+ */
+public class SubscriptionFilter
+{
+  static private Logger log = Logger.getLogger(SubscriptionFilter.class.getName());
+
+  private static final Class<?>[] alwaysNeeded =
+    {Broker.class, CustomerInfo.class, TariffSpecification.class,
+     Rate.class, Timeslot.class, Competition.class, TimeService.class,
+     SimEnd.class};
+
+  private DomainObjectReader reader;
+  private Set<Class<?>> listenedTypes;
+  private HashMap<String, Boolean> decisions = new HashMap<String, Boolean>();
+  private List<Class<?>> needed = new ArrayList<Class<?>>();
+  private boolean acceptAll = false;
+
+  // number of listened-to classes when the decisions were made
+  private int listenerCount = -1;
+
+  public SubscriptionFilter (DomainObjectReader reader)
+  {
+    super();
+    this.reader = reader;
+    listenedTypes = ReaderSupport.getListenedTypes(reader);
+  }
+
+  /**
+   * True if the reader needs to see this line.
+   */
+  public boolean accepts (String line)
+  {
+    if (listenedTypes.size() != listenerCount)
+      update();
+    if (acceptAll)
+      return true;
+    int start = line.indexOf(':') + 1;
+    int end = line.indexOf("::", start);
+    String className =
+        (end < 0) ? line.substring(start) : line.substring(start, end);
+    Boolean result = decisions.get(className);
+    if (null == result) {
+      result = decide(className);
+      decisions.put(className, result);
+    }
+    return result;
+  }
+
+  /**
+   * True if objects of the given class need to be built.
+   */
+  public boolean accepts (Class<?> clazz)
+  {
+    if (listenedTypes.size() != listenerCount)
+      update();
+    return acceptAll || isNeeded(clazz);
+  }
+
+  // recomputes the closure of needed classes
+  private void update ()
+  {
+    listenerCount = listenedTypes.size();
+    decisions.clear();
+    needed.clear();
+    acceptAll = listenedTypes.contains(null);
+    if (acceptAll)
+      return;
+    Set<Class<?>> found = new HashSet<Class<?>>();
+    List<Class<?>> pending = new ArrayList<Class<?>>();
+    for (Class<?> clazz : alwaysNeeded)
+      pending.add(clazz);
+    pending.addAll(listenedTypes);
+    while (!pending.isEmpty()) {
+      Class<?> clazz = pending.remove(pending.size() - 1);
+      if (!found.add(clazz))
+        continue;
+      for (Class<?> ref : references(clazz)) {
+        if (!found.contains(ref))
+          pending.add(ref);
+      }
+    }
+    needed.addAll(found);
+    log.info("Building objects of " + needed.size() + " classes");
+    log.debug("Needed classes " + needed);
+  }
+
+  private boolean decide (String className)
+  {
+    if (ReaderSupport.isIgnored(reader, className))
+      return false;
+    Class<?> clazz;
+    try {
+      clazz = Class.forName(className);
+    }
+    catch (ClassNotFoundException e) {
+      clazz = ReaderSupport.getSubstitute(reader, className);
+      if (null == clazz)
+        return true; // let the reader complain about it
+    }
+    return isNeeded(clazz);
+  }
+
+  private boolean isNeeded (Class<?> clazz)
+  {
+    for (Class<?> type : needed) {
+      if (type.isAssignableFrom(clazz))
+        return true;
+    }
+    return false;
+  }
+
+  // Domain classes that can be passed to a constructor or public method of
+  // clazz, or stored in one of its fields.
+  private Set<Class<?>> references (Class<?> clazz)
+  {
+    Set<Class<?>> result = new HashSet<Class<?>>();
+    for (Constructor<?> cons : clazz.getDeclaredConstructors()) {
+      for (Type type : cons.getGenericParameterTypes())
+        addDomainTypes(type, result);
+    }
+    for (Method method : clazz.getMethods()) {
+      for (Type type : method.getGenericParameterTypes())
+        addDomainTypes(type, result);
+    }
+    for (Class<?> c = clazz; null != c; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()))
+          addDomainTypes(field.getGenericType(), result);
+      }
+    }
+    return result;
+  }
+
+  private void addDomainTypes (Type type, Set<Class<?>> result)
+  {
+    if (type instanceof ParameterizedType) {
+      for (Type arg : ((ParameterizedType) type).getActualTypeArguments())
+        addDomainTypes(arg, result);
+    }
+    else if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      if (clazz.isArray())
+        addDomainTypes(clazz.getComponentType(), result);
+      else if (!clazz.isPrimitive() && !clazz.isEnum()
+               && clazz.getName().startsWith("org.powertac"))
+        result.add(clazz);
+    }
+  }
+}
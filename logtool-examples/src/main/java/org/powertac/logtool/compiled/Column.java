@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A column of primitive values within one block of a compiled state log.
+ * Values are appended while compiling and read back by row index while
+ * replaying. Each column is written as one contiguous run of values, so
+ * similar values sit next to each other when the block is compressed.
+ *
+ * @author agent
+ */
+abstract class Column
+{
+  protected int size = 0;
+
+  int size ()
+  {
+    return size;
+  }
+
+  void clear ()
+  {
+    size = 0;
+  }
+
+  // new capacity for a full array
+  protected int grow (int capacity)
+  {
+    return Math.max(16, capacity * 2);
+  }
+
+  abstract void write (DataOutputStream out) throws IOException;
+
+  abstract void read (DataInputStream in, int rows) throws IOException;
+
+  static class Longs extends Column
+  {
+    private long[] data = new long[0];
+
+    void add (long value)
+    {
+      if (size == data.length)
+        data = Arrays.copyOf(data, grow(data.length));
+      data[size++] = value;
+    }
+
+    long get (int row)
+    {
+      return data[row];
+    }
+
+    @Override
+    void write (DataOutputStream out) throws IOException
+    {
+      for (int i = 0; i < size; i++)
+        out.writeLong(data[i]);
+    }
+
+    @Override
+    void read (DataInputStream in, int rows) throws IOException
+    {
+      if (data.length < rows)
+        data = new long[rows];
+      for (int i = 0; i < rows; i++)
+        data[i] = in.readLong();
+      size = rows;
+    }
+  }
+
+  static class Ints extends Column
+  {
+    private int[] data = new int[0];
+
+    void add (int value)
+    {
+      if (size == data.length)
+        data = Arrays.copyOf(data, grow(data.length));
+      data[size++] = value;
+    }
+
+    int get (int row)
+    {
+      return data[row];
+    }
+
+    @Override
+    void write (DataOutputStream out) throws IOException
+    {
+      for (int i = 0; i < size; i++)
+        out.writeInt(data[i]);
+    }
+
+    @Override
+    void read (DataInputStream in, int rows) throws IOException
+    {
+      if (data.length < rows)
+        data = new int[rows];
+      for (int i = 0; i < rows; i++)
+        data[i] = in.readInt();
+      size = rows;
+    }
+  }
+
+  static class Doubles extends Column
+  {
+    private double[] data = new double[0];
+
+    void add (double value)
+    {
+      if (size == data.length)
+        data = Arrays.copyOf(data, grow(data.length));
+      data[size++] = value;
+    }
+
+    double get (int row)
+    {
+      return data[row];
+    }
+
+    @Override
+    void write (DataOutputStream out) throws IOException
+    {
+      for (int i = 0; i < size; i++)
+        out.writeDouble(data[i]);
+    }
+
+    @Override
+    void read (DataInputStream in, int rows) throws IOException
+    {
+      if (data.length < rows)
+        data = new double[rows];
+      for (int i = 0; i < rows; i++)
+        data[i] = in.readDouble();
+      size = rows;
+    }
+  }
+
+  static class Bytes extends Column
+  {
+    private byte[] data = new byte[0];
+
+    void add (int value)
+    {
+      if (size == data.length)
+        data = Arrays.copyOf(data, grow(data.length));
+      data[size++] = (byte) value;
+    }
+
+    int get (int row)
+    {
+      return data[row];
+    }
+
+    @Override
+    void write (DataOutputStream out) throws IOException
+    {
+      out.write(data, 0, size);
+    }
+
+    @Override
+    void read (DataInputStream in, int rows) throws IOException
+    {
+      if (data.length < rows)
+        data = new byte[rows];
+      in.readFully(data, 0, rows);
+      size = rows;
+    }
+  }
+}
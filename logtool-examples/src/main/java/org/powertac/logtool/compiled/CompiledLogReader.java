@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.powertac.logtool.common.DomainObjectReader;
+import org.powertac.logtool.common.MissingDomainObject;
+import org.powertac.logtool.common.ReaderSupport;
+import org.powertac.logtool.common.SubscriptionFilter;
+
+/**
+ * Replays a compiled state log (see StateLogCompiler) into a
+ * DomainObjectReader. Objects stored in column families are built directly
+ * with their constructors, given their logged ids, added to the reader's
+ * id map, and announced to the reader's listeners. Lines kept as text are
+ * passed to readObject(). Either way, listeners see the same objects in
+ * the same order as they would reading the original log.
+ *
+ * @author agent
+ */
+public class CompiledLogReader
+{
+  private DataInputStream in;
+  private DomainObjectReader reader;
+  private List<ObjectFamily> families = ObjectFamilies.create();
+  private SubscriptionFilter filter = null;
+
+  // current block
+  private Column.Bytes tags = new Column.Bytes();
+  private String[] text = new String[0];
+  private int cursor = 0;
+  private int textCursor = 0;
+  private boolean finished = false;
+
+  // most recent record, for error messages
+  private String current = null;
+
+  /**
+   * True just in case name refers to a compiled state log.
+   */
+  public static boolean isCompiled (String name)
+  {
+    return null != name && name.endsWith(StateLogCompiler.extension);
+  }
+
+  public CompiledLogReader (InputStream input, DomainObjectReader reader)
+      throws IOException
+  {
+    super();
+    this.reader = reader;
+    in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input, 65536),
+                                                     65536));
+    if (in.readInt() != StateLogCompiler.magic
+        || in.readInt() != StateLogCompiler.version)
+      throw new IOException("not a compiled state log");
+  }
+
+  /**
+   * Skips records the filter does not accept.
+   */
+  public void setFilter (SubscriptionFilter filter)
+  {
+    this.filter = filter;
+  }
+
+  /**
+   * Replays the next record. Returns false at the end of the log.
+   */
+  public boolean next () throws IOException, MissingDomainObject
+  {
+    if (cursor == tags.size()) {
+      if (finished || !readBlock())
+        return false;
+    }
+    int tag = tags.get(cursor++);
+    if (tag == StateLogCompiler.textTag) {
+      current = text[textCursor++];
+      if (null == filter || filter.accepts(current))
+        reader.readObject(current);
+      return true;
+    }
+    ObjectFamily family = families.get(tag);
+    if (null != filter && !filter.accepts(family.getType())) {
+      family.skip();
+      return true;
+    }
+    long id = family.nextId();
+    current = family.getType().getName() + "::" + id;
+    Object thing = family.next(reader);
+    ReaderSupport.addObject(reader, id, thing);
+    ReaderSupport.fireNewObjectEvent(reader, thing);
+    return true;
+  }
+
+  /**
+   * Describes the most recent record, as a line of text or as the class
+   * and id of a compiled object.
+   */
+  public String getCurrent ()
+  {
+    return current;
+  }
+
+  private boolean readBlock () throws IOException
+  {
+    int records = in.readInt();
+    if (records == 0) {
+      finished = true;
+      return false;
+    }
+    tags.read(in, records);
+    for (ObjectFamily family : families)
+      family.read(in);
+    int count = in.readInt();
+    if (text.length < count)
+      text = new String[count];
+    for (int i = 0; i < count; i++) {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      text[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    cursor = 0;
+    textCursor = 0;
+    return true;
+  }
+}
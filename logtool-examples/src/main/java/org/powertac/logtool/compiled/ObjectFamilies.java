@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.powertac.common.BalancingTransaction;
+import org.powertac.common.Broker;
+import org.powertac.common.ClearedTrade;
+import org.powertac.common.CustomerInfo;
+import org.powertac.common.MarketTransaction;
+import org.powertac.common.Orderbook;
+import org.powertac.common.OrderbookOrder;
+import org.powertac.common.TariffSpecification;
+import org.powertac.common.TariffTransaction;
+import org.powertac.common.WeatherForecast;
+import org.powertac.common.WeatherForecastPrediction;
+import org.powertac.common.WeatherReport;
+import org.powertac.common.msg.TimeslotUpdate;
+import org.powertac.logtool.common.DomainObjectReader;
+import org.powertac.logtool.common.MissingDomainObject;
+
+/**
+ * The column families of a compiled state log. These cover the classes
+ * that make up the bulk of a state log; everything else is kept as text.
+ * The order of the list is part of the file format, since a record's tag
+ * is the index of its family.
+ *
+ * @author agent
+ */
+class ObjectFamilies
+{
+  /**
+   * Creates a fresh set of families, in tag order.
+   */
+  static List<ObjectFamily> create ()
+  {
+    List<ObjectFamily> result = new ArrayList<ObjectFamily>();
+    result.add(new TariffTransactions());
+    result.add(new MarketTransactions());
+    result.add(new BalancingTransactions());
+    result.add(new ClearedTrades());
+    result.add(new Orderbooks());
+    result.add(new OrderbookOrders());
+    result.add(new WeatherReports());
+    result.add(new WeatherForecastPredictions());
+    result.add(new WeatherForecasts());
+    result.add(new TimeslotUpdates());
+    return result;
+  }
+
+  // TariffTransaction(broker, when, txType, spec, customer, customerCount,
+  //                   kWh, charge, regulation)
+  static class TariffTransactions extends ObjectFamily
+  {
+    private static final TariffTransaction.Type[] txTypes =
+        TariffTransaction.Type.values();
+    private Column.Longs broker = column(new Column.Longs());
+    private Column.Ints when = column(new Column.Ints());
+    private Column.Bytes txType = column(new Column.Bytes());
+    private Column.Longs spec = column(new Column.Longs());
+    private Column.Longs customer = column(new Column.Longs());
+    private Column.Ints count = column(new Column.Ints());
+    private Column.Doubles kWh = column(new Column.Doubles());
+    private Column.Doubles charge = column(new Column.Doubles());
+    private Column.Bytes regulation = column(new Column.Bytes());
+
+    TariffTransactions ()
+    {
+      super(TariffTransaction.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 9)
+        return false;
+      long b = parseRef(args[0]);
+      int w = Integer.parseInt(args[1]);
+      TariffTransaction.Type t = TariffTransaction.Type.valueOf(args[2]);
+      long s = parseRef(args[3]);
+      long c = parseRef(args[4]);
+      int n = Integer.parseInt(args[5]);
+      double k = Double.parseDouble(args[6]);
+      double ch = Double.parseDouble(args[7]);
+      boolean r = parseBoolean(args[8]);
+      broker.add(b);
+      when.add(w);
+      txType.add(t.ordinal());
+      spec.add(s);
+      customer.add(c);
+      count.add(n);
+      kWh.add(k);
+      charge.add(ch);
+      regulation.add(r ? 1 : 0);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+        throws MissingDomainObject
+    {
+      return new TariffTransaction(resolve(reader, Broker.class,
+                                           broker.get(row)),
+                                   when.get(row),
+                                   txTypes[txType.get(row)],
+                                   resolve(reader, TariffSpecification.class,
+                                           spec.get(row)),
+                                   resolve(reader, CustomerInfo.class,
+                                           customer.get(row)),
+                                   count.get(row),
+                                   kWh.get(row), charge.get(row),
+                                   regulation.get(row) != 0);
+    }
+  }
+
+  // MarketTransaction(broker, when, timeslot, mWh, price)
+  static class MarketTransactions extends ObjectFamily
+  {
+    private Column.Longs broker = column(new Column.Longs());
+    private Column.Ints when = column(new Column.Ints());
+    private Column.Ints timeslot = column(new Column.Ints());
+    private Column.Doubles mWh = column(new Column.Doubles());
+    private Column.Doubles price = column(new Column.Doubles());
+
+    MarketTransactions ()
+    {
+      super(MarketTransaction.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 5)
+        return false;
+      long b = parseRef(args[0]);
+      int w = Integer.parseInt(args[1]);
+      int ts = Integer.parseInt(args[2]);
+      double m = Double.parseDouble(args[3]);
+      double p = Double.parseDouble(args[4]);
+      broker.add(b);
+      when.add(w);
+      timeslot.add(ts);
+      mWh.add(m);
+      price.add(p);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+        throws MissingDomainObject
+    {
+      return new MarketTransaction(resolve(reader, Broker.class,
+                                           broker.get(row)),
+                                   when.get(row), timeslot.get(row),
+                                   mWh.get(row), price.get(row));
+    }
+  }
+
+  // BalancingTransaction(broker, when, kWh, charge)
+  static class BalancingTransactions extends ObjectFamily
+  {
+    private Column.Longs broker = column(new Column.Longs());
+    private Column.Ints when = column(new Column.Ints());
+    private Column.Doubles kWh = column(new Column.Doubles());
+    private Column.Doubles charge = column(new Column.Doubles());
+
+    BalancingTransactions ()
+    {
+      super(BalancingTransaction.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 4)
+        return false;
+      long b = parseRef(args[0]);
+      int w = Integer.parseInt(args[1]);
+      double k = Double.parseDouble(args[2]);
+      double c = Double.parseDouble(args[3]);
+      broker.add(b);
+      when.add(w);
+      kWh.add(k);
+      charge.add(c);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+        throws MissingDomainObject
+    {
+      return new BalancingTransaction(resolve(reader, Broker.class,
+                                              broker.get(row)),
+                                      when.get(row),
+                                      kWh.get(row), charge.get(row));
+    }
+  }
+
+  // ClearedTrade(timeslot, executionMWh, executionPrice, dateExecuted)
+  static class ClearedTrades extends ObjectFamily
+  {
+    private Column.Ints timeslot = column(new Column.Ints());
+    private Column.Doubles mWh = column(new Column.Doubles());
+    private Column.Doubles price = column(new Column.Doubles());
+    private Column.Longs executed = column(new Column.Longs());
+
+    ClearedTrades ()
+    {
+      super(ClearedTrade.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 4)
+        return false;
+      int ts = Integer.parseInt(args[0]);
+      double m = Double.parseDouble(args[1]);
+      double p = Double.parseDouble(args[2]);
+      long x = parseInstant(args[3]);
+      timeslot.add(ts);
+      mWh.add(m);
+      price.add(p);
+      executed.add(x);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      return new ClearedTrade(timeslot.get(row), mWh.get(row),
+                              price.get(row), instant(executed.get(row)));
+    }
+  }
+
+  // Orderbook(timeslot, clearingPrice, dateExecuted), where the
+  // clearing price may be null
+  static class Orderbooks extends ObjectFamily
+  {
+    private Column.Ints timeslot = column(new Column.Ints());
+    private Column.Bytes hasPrice = column(new Column.Bytes());
+    private Column.Doubles price = column(new Column.Doubles());
+    private Column.Longs executed = column(new Column.Longs());
+
+    Orderbooks ()
+    {
+      super(Orderbook.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 3)
+        return false;
+      int ts = Integer.parseInt(args[0]);
+      boolean priced = !"null".equals(args[1]);
+      double p = priced ? Double.parseDouble(args[1]) : 0.0;
+      long x = parseInstant(args[2]);
+      timeslot.add(ts);
+      hasPrice.add(priced ? 1 : 0);
+      price.add(p);
+      executed.add(x);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      Double p = (hasPrice.get(row) != 0) ? price.get(row) : null;
+      return new Orderbook(timeslot.get(row), p, instant(executed.get(row)));
+    }
+  }
+
+  // OrderbookOrder(mWh, limitPrice), where the limit price may be null
+  static class OrderbookOrders extends ObjectFamily
+  {
+    private Column.Doubles mWh = column(new Column.Doubles());
+    private Column.Bytes hasPrice = column(new Column.Bytes());
+    private Column.Doubles price = column(new Column.Doubles());
+
+    OrderbookOrders ()
+    {
+      super(OrderbookOrder.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 2)
+        return false;
+      double m = Double.parseDouble(args[0]);
+      boolean priced = !"null".equals(args[1]);
+      double p = priced ? Double.parseDouble(args[1]) : 0.0;
+      mWh.add(m);
+      hasPrice.add(priced ? 1 : 0);
+      price.add(p);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      Double p = (hasPrice.get(row) != 0) ? price.get(row) : null;
+      return new OrderbookOrder(mWh.get(row), p);
+    }
+  }
+
+  // Shared layout of WeatherReport and WeatherForecastPrediction:
+  // (time, temperature, windSpeed, windDirection, cloudCover)
+  static abstract class Weather extends ObjectFamily
+  {
+    protected Column.Ints time = column(new Column.Ints());
+    protected Column.Doubles temperature = column(new Column.Doubles());
+    protected Column.Doubles windSpeed = column(new Column.Doubles());
+    protected Column.Doubles windDirection = column(new Column.Doubles());
+    protected Column.Doubles cloudCover = column(new Column.Doubles());
+
+    Weather (Class<?> type)
+    {
+      super(type);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 5)
+        return false;
+      int t = Integer.parseInt(args[0]);
+      double tmp = Double.parseDouble(args[1]);
+      double ws = Double.parseDouble(args[2]);
+      double wd = Double.parseDouble(args[3]);
+      double cc = Double.parseDouble(args[4]);
+      time.add(t);
+      temperature.add(tmp);
+      windSpeed.add(ws);
+      windDirection.add(wd);
+      cloudCover.add(cc);
+      return true;
+    }
+  }
+
+  static class WeatherReports extends Weather
+  {
+    WeatherReports ()
+    {
+      super(WeatherReport.class);
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      return new WeatherReport(time.get(row), temperature.get(row),
+                               windSpeed.get(row), windDirection.get(row),
+                               cloudCover.get(row));
+    }
+  }
+
+  static class WeatherForecastPredictions extends Weather
+  {
+    WeatherForecastPredictions ()
+    {
+      super(WeatherForecastPrediction.class);
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      return new WeatherForecastPrediction(time.get(row),
+                                           temperature.get(row),
+                                           windSpeed.get(row),
+                                           windDirection.get(row),
+                                           cloudCover.get(row));
+    }
+  }
+
+  // WeatherForecast(timeslot, (prediction, ...)). The prediction ids for
+  // all rows are stored end to end, with a count per row.
+  static class WeatherForecasts extends ObjectFamily
+  {
+    private Column.Ints timeslot = column(new Column.Ints());
+    private Column.Ints count = column(new Column.Ints());
+    private Column.Longs predictions = column(new Column.Longs());
+    private int next = 0;
+
+    WeatherForecasts ()
+    {
+      super(WeatherForecast.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 2)
+        return false;
+      int ts = Integer.parseInt(args[0]);
+      String list = args[1];
+      int close = list.indexOf(')');
+      if (!list.startsWith("(") || close < 2)
+        return false;
+      String[] items = list.substring(1, close).split(",");
+      long[] ids = new long[items.length];
+      for (int i = 0; i < items.length; i++) {
+        ids[i] = Long.parseLong(items[i]);
+        if (ids[i] == nullValue)
+          return false;
+      }
+      timeslot.add(ts);
+      count.add(ids.length);
+      for (long id : ids)
+        predictions.add(id);
+      return true;
+    }
+
+    @Override
+    void read (DataInputStream in) throws IOException
+    {
+      super.read(in);
+      next = 0;
+    }
+
+    @Override
+    protected void skipped (int row)
+    {
+      next += count.get(row);
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+        throws MissingDomainObject
+    {
+      int n = count.get(row);
+      List<WeatherForecastPrediction> list =
+          new ArrayList<WeatherForecastPrediction>(n);
+      for (int i = 0; i < n; i++) {
+        list.add(resolve(reader, WeatherForecastPrediction.class,
+                         predictions.get(next++)));
+      }
+      return new WeatherForecast(timeslot.get(row), list);
+    }
+  }
+
+  // TimeslotUpdate(postedTime, firstEnabled, lastEnabled)
+  static class TimeslotUpdates extends ObjectFamily
+  {
+    private Column.Longs posted = column(new Column.Longs());
+    private Column.Ints first = column(new Column.Ints());
+    private Column.Ints last = column(new Column.Ints());
+
+    TimeslotUpdates ()
+    {
+      super(TimeslotUpdate.class);
+    }
+
+    @Override
+    boolean append (String[] args)
+    {
+      if (args.length != 3)
+        return false;
+      long p = parseInstant(args[0]);
+      int f = Integer.parseInt(args[1]);
+      int l = Integer.parseInt(args[2]);
+      posted.add(p);
+      first.add(f);
+      last.add(l);
+      return true;
+    }
+
+    @Override
+    Object build (int row, DomainObjectReader reader)
+    {
+      return new TimeslotUpdate(instant(posted.get(row)),
+                                first.get(row), last.get(row));
+    }
+  }
+}
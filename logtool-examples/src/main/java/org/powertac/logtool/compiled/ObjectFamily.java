@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.Instant;
+import org.powertac.logtool.common.DomainObjectReader;
+import org.powertac.logtool.common.MissingDomainObject;
+
+/**
+ * The column family for one domain class in a compiled state log. A family
+ * stores the constructor arguments of the "new" lines for its class, one
+ * column per argument, and rebuilds the objects by calling the constructor
+ * that DomainObjectReader would have chosen for the same line.
+ *
+ * Arguments are parsed with the same conversions the reader uses. A line
+ * that cannot be stored faithfully, because it has an unexpected number of
+ * arguments or a value the reader would treat in some special way, is
+ * rejected by add() and kept as text instead.
+ *
+ * @author agent
+ */
+abstract class ObjectFamily
+{
+  // stands for a null reference or Instant
+  static final long nullValue = Long.MIN_VALUE;
+
+  private Class<?> type;
+  private List<Column> columns = new ArrayList<Column>();
+  private Column.Longs ids;
+  private int cursor = 0;
+
+  ObjectFamily (Class<?> type)
+  {
+    super();
+    this.type = type;
+    ids = column(new Column.Longs());
+  }
+
+  /**
+   * The class whose objects this family stores.
+   */
+  Class<?> getType ()
+  {
+    return type;
+  }
+
+  /**
+   * Parses the arguments of a "new" line for an object with the given id
+   * and appends them as a row. Returns false, with nothing appended, if
+   * the line must be kept as text.
+   */
+  boolean add (long id, String[] args)
+  {
+    try {
+      if (!append(args))
+        return false;
+    }
+    catch (IllegalArgumentException iae) {
+      return false;
+    }
+    ids.add(id);
+    return true;
+  }
+
+  /**
+   * Returns the id of the next row.
+   */
+  long nextId ()
+  {
+    return ids.get(cursor);
+  }
+
+  /**
+   * Builds the object in the next row.
+   */
+  Object next (DomainObjectReader reader) throws MissingDomainObject
+  {
+    return build(cursor++, reader);
+  }
+
+  /**
+   * Moves past the next row without building its object.
+   */
+  void skip ()
+  {
+    skipped(cursor++);
+  }
+
+  // called for each skipped row
+  protected void skipped (int row)
+  {
+  }
+
+  int rows ()
+  {
+    return ids.size();
+  }
+
+  void clear ()
+  {
+    for (Column column : columns)
+      column.clear();
+    cursor = 0;
+  }
+
+  void write (DataOutputStream out) throws IOException
+  {
+    for (Column column : columns) {
+      out.writeInt(column.size());
+      column.write(out);
+    }
+  }
+
+  void read (DataInputStream in) throws IOException
+  {
+    for (Column column : columns)
+      column.read(in, in.readInt());
+    cursor = 0;
+  }
+
+  // Parses all args first, then appends them to the columns. Parse errors
+  // must be thrown before anything is appended.
+  abstract boolean append (String[] args);
+
+  abstract Object build (int row, DomainObjectReader reader)
+      throws MissingDomainObject;
+
+  protected <C extends Column> C column (C column)
+  {
+    columns.add(column);
+    return column;
+  }
+
+  // --------- argument conversions, as in DomainObjectReader ----------
+
+  protected static long parseRef (String arg)
+  {
+    if ("null".equals(arg))
+      return nullValue;
+    long value = Long.parseLong(arg);
+    if (value == nullValue)
+      throw new NumberFormatException(arg);
+    return value;
+  }
+
+  protected static long parseInstant (String arg)
+  {
+    if ("null".equals(arg))
+      return nullValue;
+    try {
+      return Instant.parse(arg).getMillis();
+    }
+    catch (IllegalArgumentException iae) {
+      return Long.parseLong(arg);
+    }
+  }
+
+  protected static boolean parseBoolean (String arg)
+  {
+    if (Boolean.parseBoolean(arg))
+      return true;
+    if (arg.equalsIgnoreCase("false"))
+      return false;
+    throw new IllegalArgumentException(arg);
+  }
+
+  protected static <T> T resolve (DomainObjectReader reader, Class<T> clazz,
+                                  long id)
+      throws MissingDomainObject
+  {
+    if (id == nullValue)
+      return null;
+    Object value = reader.getById(id);
+    if (null != value && clazz.isAssignableFrom(value.getClass()))
+      return clazz.cast(value);
+    throw new MissingDomainObject("missing object id=" + id);
+  }
+
+  protected static Instant instant (long millis)
+  {
+    return (millis == nullValue) ? null : new Instant(millis);
+  }
+}
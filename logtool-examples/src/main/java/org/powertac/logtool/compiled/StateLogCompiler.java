@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+import org.powertac.logtool.LogSource;
+
+/**
+ * Converts a state log into a compiled state log, which can be replayed by
+ * CompiledLogReader much faster than the text can be parsed. The "new"
+ * lines of the bulky transaction, market and weather classes (see
+ * ObjectFamilies) are stored as typed columns, one column family per
+ * class. All other lines are kept as text and are handed to the
+ * DomainObjectReader on replay. A tag per line records which family, if
+ * any, holds it, so replay reproduces the original order exactly.
+ *
+ * The file is a gzip stream of blocks of up to 64K lines. Each block
+ * holds the tags, then the columns of every family, then the text lines.
+ *
+ * Usage: StateLogCompiler state-log [output-file]
+ *
+ * The state log may be a game archive (see LogSource). The output defaults
+ * to the name of the state log with .bstate in place of .state, in the
+ * directory of the input file.
+ *
+ * @author agent
+ */
+public class StateLogCompiler
+{
+  static private Logger log = Logger.getLogger(StateLogCompiler.class.getName());
+
+  static final int magic = 0x50545343; // "PTSC"
+  static final int version = 1;
+  static final int blockSize = 65536;
+  static final int textTag = -1;
+  static final String extension = ".bstate";
+
+  private List<ObjectFamily> families = ObjectFamilies.create();
+  private HashMap<String, Integer> tags = new HashMap<String, Integer>();
+
+  // current block
+  private Column.Bytes lineTags = new Column.Bytes();
+  private List<String> text = new ArrayList<String>();
+
+  // counts for the summary
+  private int lines = 0;
+  private int compiled = 0;
+
+  public static void main (String[] args)
+  {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("Usage: StateLogCompiler state-log [output-file]");
+      return;
+    }
+    String output = (args.length == 2) ? args[1] : outputName(args[0]);
+    StateLogCompiler compiler = new StateLogCompiler();
+    try {
+      Reader input = LogSource.open(args[0]);
+      OutputStream out = new FileOutputStream(output);
+      try {
+        compiler.compile(input, out);
+      }
+      finally {
+        input.close();
+        out.close();
+      }
+      System.out.println("Compiled " + compiler.lines + " lines of "
+                         + args[0] + " into " + output + ", "
+                         + compiler.compiled + " as columns");
+    }
+    catch (IOException e) {
+      System.out.println("Cannot compile " + args[0] + ": " + e.getMessage());
+    }
+  }
+
+  public StateLogCompiler ()
+  {
+    super();
+    for (int i = 0; i < families.size(); i++)
+      tags.put(families.get(i).getType().getName(), i);
+  }
+
+  /**
+   * Default output name for a state log, as described above.
+   */
+  public static String outputName (String input)
+  {
+    String name = input;
+    int separator = name.indexOf('!');
+    File dir = new File(separator < 0 ? name : name.substring(0, separator))
+        .getParentFile();
+    if (separator >= 0)
+      name = name.substring(separator + 1);
+    name = new File(name).getName();
+    if (name.endsWith(".tar.gz"))
+      name = name.substring(0, name.length() - ".tar.gz".length());
+    if (name.endsWith(".state"))
+      name = name.substring(0, name.length() - ".state".length());
+    return new File(dir, name + extension).getPath();
+  }
+
+  /**
+   * Reads a state log from input and writes it in compiled form to out.
+   */
+  public void compile (Reader input, OutputStream out) throws IOException
+  {
+    BufferedReader in = new BufferedReader(input);
+    DataOutputStream data =
+        new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 65536),
+                                                      65536));
+    data.writeInt(magic);
+    data.writeInt(version);
+    String line;
+    while (null != (line = in.readLine())) {
+      lines += 1;
+      addLine(line);
+      if (lineTags.size() == blockSize)
+        writeBlock(data);
+    }
+    if (lineTags.size() > 0)
+      writeBlock(data);
+    data.writeInt(0);
+    data.flush();
+    data.close();
+  }
+
+  // Splits the line the same way as DomainObjectReader.readObject(), and
+  // stores it in its family if it is a new object of a compiled class.
+  private void addLine (String line)
+  {
+    String body = line.substring(line.indexOf(':') + 1);
+    String[] tokens = body.split("::");
+    if (tokens.length >= 3 && "new".equals(tokens[2])) {
+      Integer tag = tags.get(tokens[0]);
+      if (null != tag) {
+        try {
+          long id = Long.parseLong(tokens[1]);
+          if (families.get(tag).add(id, Arrays.copyOfRange(tokens, 3,
+                                                           tokens.length))) {
+            lineTags.add(tag);
+            compiled += 1;
+            return;
+          }
+        }
+        catch (NumberFormatException nfe) {
+          log.debug("Bad id in " + line);
+        }
+      }
+    }
+    lineTags.add(textTag);
+    text.add(line);
+  }
+
+  private void writeBlock (DataOutputStream data) throws IOException
+  {
+    data.writeInt(lineTags.size());
+    lineTags.write(data);
+    for (ObjectFamily family : families) {
+      family.write(data);
+      family.clear();
+    }
+    data.writeInt(text.size());
+    for (String line : text) {
+      byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+    lineTags.clear();
+    text.clear();
+  }
+}
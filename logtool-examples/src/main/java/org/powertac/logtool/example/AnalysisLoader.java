@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.example;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+import org.powertac.common.Broker;
+import org.powertac.common.CashPosition;
+import org.powertac.common.Competition;
+import org.powertac.common.MarketPosition;
+import org.powertac.common.msg.TimeslotUpdate;
+import org.powertac.logtool.AnalyzerContext;
+import org.powertac.logtool.common.NewObjectListener;
+import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.AnalysisDatabase;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
+
+/**
+ * Loads a game straight into a database laid out as in
+ * sql/powertac_analysis.sql, without intermediate files. One row goes
+ * into game and one per competing broker into broker and broker_game, as
+ * GameBrokerInfo reports them. The final market position of each broker
+ * in each timeslot goes into market_position, and its cash balance at
+ * the end of each timeslot into cash_position. Rows are inserted in
+ * batches of --batch-size rows, and the whole game is committed at the
+ * end, replacing anything loaded for the same game before.
+ *
+ * The JDBC driver for the database must be on the classpath. The user
+ * name and password come from the system properties logtool.db.user and
+ * logtool.db.password.
+ *
+ * Usage: AnalysisLoader [--batch-size n] state-log-filename jdbc-url
+ *
+ * @author agent
+ */
+public class AnalysisLoader
+extends AnalyzerContext
+implements Analyzer
+{
+  static private Logger log = Logger.getLogger(AnalysisLoader.class.getName());
+
+  private String url;
+  private int batchSize = AnalysisDatabase.DEFAULT_BATCH_SIZE;
+  private AnalysisDatabase db = null;
+  private TableWriter marketPositions;
+  private TableWriter cashPositions;
+  private boolean failed = false;
+
+  // game state
+  private Competition competition;
+  private int game = -1;
+  private int timeslotCount = 0;
+  private HashMap<Broker, Integer> brokers;
+  private TreeMap<Integer, List<MarketPosition>> positions;
+  private HashMap<Broker, CashPosition> cash;
+
+  /**
+   * Constructor does nothing. Call setup() before reading a file to
+   * get this to work.
+   */
+  public AnalysisLoader ()
+  {
+    super();
+  }
+
+  /**
+   * Main method just creates an instance and passes command-line args to
+   * its inherited cli() method.
+   */
+  public static void main (String[] args)
+  {
+    new AnalysisLoader().cli(args);
+  }
+
+  /**
+   * Takes two args, input filename and database url, and the
+   * --batch-size option.
+   */
+  private void cli (String[] args)
+  {
+    int argOffset = 0;
+    if (args.length == 4 && args[0].equalsIgnoreCase("--batch-size")) {
+      try {
+        batchSize = Integer.parseInt(args[1]);
+        argOffset = 2;
+      }
+      catch (NumberFormatException nfe) {
+        System.out.println("Bad batch size " + args[1]);
+        return;
+      }
+    }
+    if (args.length - argOffset != 2) {
+      System.out.println("Usage: <analyzer> [--batch-size n] input-file jdbc-url");
+      return;
+    }
+    url = args[argOffset + 1];
+    super.cli(args[argOffset], this);
+  }
+
+  /**
+   * Connects to the database and sets up the table writers.
+   */
+  @Override
+  public void setup ()
+  {
+    registerNewObjectListener(new CompetitionHandler(), Competition.class);
+    registerNewObjectListener(new BrokerHandler(), Broker.class);
+    registerNewObjectListener(new TimeslotUpdateHandler(),
+                              TimeslotUpdate.class);
+    registerNewObjectListener(new MarketPositionHandler(),
+                              MarketPosition.class);
+    registerNewObjectListener(new CashPositionHandler(), CashPosition.class);
+    brokers = new HashMap<Broker, Integer>();
+    positions = new TreeMap<Integer, List<MarketPosition>>();
+    cash = new HashMap<Broker, CashPosition>();
+    timeslotCount = 0;
+    game = -1;
+    failed = false;
+    try {
+      db = AnalysisDatabase.open(url, batchSize);
+    }
+    catch (SQLException sqe) {
+      log.error("Cannot connect to " + url + ": " + sqe.getMessage());
+      failed = true;
+      return;
+    }
+    marketPositions = db.table("market_position")
+        .declare(TableColumn.longColumn("broker_game_broker_idbroker"),
+                 TableColumn.longColumn("broker_game_game_idgame"),
+                 TableColumn.longColumn("timeslot"),
+                 TableColumn.doubleColumn("value", 3));
+    cashPositions = db.table("cash_position")
+        .declare(TableColumn.longColumn("broker_game_broker_idbroker"),
+                 TableColumn.longColumn("broker_game_game_idgame"),
+                 TableColumn.longColumn("timeslot"),
+                 TableColumn.doubleColumn("balance", 3));
+  }
+
+  /**
+   * Writes what is left, records the game length, and commits.
+   */
+  @Override
+  public void report ()
+  {
+    if (null == db)
+      return;
+    boolean loaded = false;
+    try {
+      if (!failed && game >= 0) {
+        writePositions(Integer.MAX_VALUE);
+        writeCash();
+        db.finishGame(game, timeslotCount - 1);
+        loaded = db.commit();
+      }
+      else {
+        db.rollback();
+      }
+    }
+    catch (SQLException sqe) {
+      log.error("Cannot finish game " + game + ": " + sqe.getMessage());
+    }
+    finally {
+      try {
+        db.close();
+      }
+      catch (SQLException sqe) {
+        log.warn("Cannot close " + url);
+      }
+    }
+    if (loaded)
+      System.out.println("Loaded game " + game + " into " + url);
+    else
+      System.out.println("Game not loaded into " + url);
+    db = null;
+  }
+
+  // Adds the game and its brokers, once the brokers are known
+  private void startGame ()
+  {
+    // competition name is of the form "game-nnn" but we want the nnn
+    String[] elements = competition.getName().split("-");
+    if (elements.length != 2) {
+      System.out.println("game name does not start with game-");
+      failed = true;
+      return;
+    }
+    game = Integer.parseInt(elements[1]);
+    try {
+      db.startGame(game, brokers.size());
+      TableWriter brokerGame = db.table("broker_game")
+          .declare(TableColumn.longColumn("broker_idbroker"),
+                   TableColumn.longColumn("game_idgame"),
+                   TableColumn.longColumn("broker_id_game"));
+      for (Map.Entry<Broker, Integer> entry : brokers.entrySet()) {
+        int id = db.brokerId(entry.getKey().getUsername());
+        entry.setValue(id);
+        brokerGame.add(id).add(game).add(entry.getKey().getId()).endRow();
+      }
+      brokerGame.close();
+    }
+    catch (SQLException sqe) {
+      log.error("Cannot add game " + game + ": " + sqe.getMessage());
+      failed = true;
+    }
+  }
+
+  // Writes the positions in timeslots before the given one, which can no
+  // longer change
+  private void writePositions (int before)
+  {
+    Iterator<List<MarketPosition>> closed =
+        positions.headMap(before).values().iterator();
+    while (closed.hasNext()) {
+      for (MarketPosition posn : closed.next()) {
+        marketPositions.add(brokers.get(posn.getBroker())).add(game)
+            .add(posn.getTimeslotIndex()).add(posn.getOverallBalance())
+            .endRow();
+      }
+      closed.remove();
+    }
+  }
+
+  private void writeCash ()
+  {
+    for (CashPosition posn : cash.values()) {
+      cashPositions.add(brokers.get(posn.getBroker())).add(game)
+          .add(posn.getPostedTimeslotIndex()).add(posn.getBalance())
+          .endRow();
+    }
+    cash.clear();
+  }
+
+  // -----------------------------------
+  // catch the Competition instance
+  class CompetitionHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      competition = (Competition) thing;
+    }
+  }
+
+  // -----------------------------------
+  // competing brokers, as GameBrokerInfo counts them
+  class BrokerHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      Broker broker = (Broker) thing;
+      if (!(broker.isWholesale() ||
+          broker.getUsername().equals("default broker")))
+        brokers.put(broker, -1);
+    }
+  }
+
+  // -----------------------------------
+  // catch TimeslotUpdate events
+  class TimeslotUpdateHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      TimeslotUpdate msg = (TimeslotUpdate) thing;
+      timeslotCount += 1;
+      if (failed)
+        return;
+      if (game < 0) {
+        startGame();
+        return;
+      }
+      writePositions(msg.getFirstEnabled());
+      writeCash();
+    }
+  }
+
+  // -----------------------------------
+  // positions are kept until their timeslot closes, since the reader
+  // applies later balance updates to the same object
+  class MarketPositionHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      MarketPosition posn = (MarketPosition) thing;
+      if (failed || !brokers.containsKey(posn.getBroker()))
+        return;
+      List<MarketPosition> list = positions.get(posn.getTimeslotIndex());
+      if (null == list) {
+        list = new ArrayList<MarketPosition>();
+        positions.put(posn.getTimeslotIndex(), list);
+      }
+      list.add(posn);
+    }
+  }
+
+  // -----------------------------------
+  // the last cash position of each broker in a timeslot
+  class CashPositionHandler implements NewObjectListener
+  {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      CashPosition posn = (CashPosition) thing;
+      if (failed || !brokers.containsKey(posn.getBroker()))
+        return;
+      cash.put(posn.getBroker(), posn);
+    }
+  }
+}
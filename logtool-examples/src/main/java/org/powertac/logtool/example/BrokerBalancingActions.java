@@ -18,14 +18,11 @@ package org.powertac.logtool.example;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
@@ -46,7 +43,8 @@ import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.repo.TariffRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
+import org.powertac.logtool.LogSource;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -77,7 +75,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author John Collins
  */
 public class BrokerBalancingActions
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(BrokerBalancingActions.class.getName());
@@ -140,7 +138,8 @@ implements Analyzer
   /**
    * Takes two args, input filename and output filename. The input filename
    * is the location of a state log; we expect to find the trace log in the
-   * same location. 
+   * same location. If the state log is in a game archive, the trace log is
+   * read from the same archive alongside it.
    */
   private void cli (String[] args)
   {
@@ -159,7 +158,14 @@ implements Analyzer
       return;
     }
 
-    String stateFilename = fileArgs[0];
+    String stateFilename;
+    try {
+      stateFilename = LogSource.resolve(fileArgs[0]);
+    }
+    catch (IOException e) {
+      System.out.println("Cannot find state log in " + fileArgs[0]);
+      return;
+    }
     int ext = stateFilename.indexOf(".state");
     if (-1 == ext) {
       System.out.println("Usage: first file arg must be a .state log");
@@ -167,7 +173,7 @@ implements Analyzer
     }
     traceFilename = stateFilename.replace(".state", ".trace");
     dataFilename = fileArgs[1];
-    super.cli(fileArgs[0], this);
+    super.cli(stateFilename, this);
   }
 
   /**
@@ -197,9 +203,9 @@ implements Analyzer
                                   BalancingOrder.class);
 
     try {
-      trace = new BufferedReader (new FileReader(traceFilename));
+      trace = openTrace();
     }
-    catch (FileNotFoundException e) {
+    catch (IOException e) {
       System.out.println("Cannot open trace file " + traceFilename);
     }
 
@@ -212,6 +218,21 @@ implements Analyzer
     //dataInit = false;
   }
 
+  // Opens the trace log. For a plain trace file with an up-to-date
+  // TraceIndex, reading starts at the balancing market configuration.
+  private BufferedReader openTrace () throws IOException
+  {
+    if (!LogSource.isArchive(traceFilename)) {
+      File traceFile = new File(traceFilename);
+      TraceIndex index = TraceIndex.load(traceFile);
+      if (null != index && index.getConfigOffset() >= 0) {
+        log.info("Using trace index for " + traceFilename);
+        return TraceIndex.open(traceFile, index.getConfigOffset());
+      }
+    }
+    return new BufferedReader(LogSource.open(traceFilename));
+  }
+
   @Override
   public void report ()
   {
@@ -330,44 +351,20 @@ implements Analyzer
     return brokerData;
   }
 
-  // Regular expressions for trace file
-  // first, some patterns to capture numbers and names:
-  private String floatCapture = "(-?\\d+\\.\\d*)";
-  private String intCapture = "(\\d+)";
-  private String expCapture = "(-?\\d+\\.\\d*(?:E-?\\d+)?)";
-  private String bnCapture = "(\\w(?:\\w| )*\\w+)"; // broker names
-  private Pattern configQual =
-      Pattern.compile(String.format("Configured BM: balancing cost = %s, \\(pPlus',pMinus'\\) = \\(%s,%s\\)",
-                                    floatCapture, expCapture, expCapture));
-  private Pattern tsQual =
-      Pattern.compile(String.format("Deactivated timeslot %s", intCapture));
-  private Pattern mbQual =
-      Pattern.compile(String.format("BalancingMarketService: market balance for %s: %s",
-                                    bnCapture, floatCapture));
-  private Pattern tiQual =
-      Pattern.compile(String.format("SettlementProcessor: totalImbalance=%s",
-                                    floatCapture));
-  private Pattern bpQual =
-      Pattern.compile(String.format("balancing prices: pPlus=%s, pMinus=%s",
-                                    floatCapture, floatCapture));
-  private Pattern boQual =
-      Pattern.compile(String.format("BalancingOrder %s capacity = \\(%s,%s\\)",
-                                    intCapture, floatCapture, floatCapture));
-  private Pattern duQual =
-      Pattern.compile(String.format("SettlementProcessor: DU budget: rm cost = %s, broker cost = %s",
-                                    floatCapture, floatCapture));
+  // Recognizes the trace file messages we need
+  private TraceScanner scanner = new TraceScanner();
   private enum Scan {INIT, TIMESLOT, PRICE, BALANCE, CAPACITY, NEXT, END}
   private Scan scanState = Scan.INIT;
 
   // Reads data for a single timeslot from the trace file. For each timeslot,
-  // we enter the TIMESLOT state and find the start message specified by tsQual,
+  // we enter the TIMESLOT state and find the Deactivated timeslot message,
   // making sure the timeslot matches the current timeslot in the state file.
   // Then we enter the PRICE state and pick up the individual broker
-  // imbalance data with mbQual, terminated by the spot prices as specified
-  // by the bpQual pattern. Then, in the BALANCE state, we pick off the
-  // total imbalance for the timeslot using the tiQual pattern.
-  // In the CAPACITY state, we use the boQual pattern to pick off the
-  // 
+  // market balance data, terminated by the balancing prices message.
+  // Then, in the BALANCE state, we pick off the total imbalance for the
+  // timeslot. In the CAPACITY state, we pick off the BalancingOrder
+  // capacities, up to the DU budget message. Only the messages that can
+  // occur in the current state are looked for (see TraceScanner).
   private TraceData readTraceData(int timeslot)
   {
     if (scanState == Scan.END) {
@@ -389,55 +386,45 @@ implements Analyzer
         }
         else if (scanState == Scan.INIT) {
           // capture balancing market initialization
-          Matcher cf = configQual.matcher(line);
-          if (cf.find()) {
-            balancingCost = Double.parseDouble(cf.group(1));
-            pPlusPrime = Double.parseDouble(cf.group(2));
-            pMinusPrime = Double.parseDouble(cf.group(3));
+          if (scanner.config(line)) {
+            balancingCost = scanner.getValue(0);
+            pPlusPrime = scanner.getValue(1);
+            pMinusPrime = scanner.getValue(2);
             scanState = Scan.TIMESLOT;
           }
         }
         if (scanState == Scan.TIMESLOT) {
-          Matcher m = tsQual.matcher(line);
-          if (m.find()) {
-            int ts = Integer.parseInt(m.group(1));
-            if (ts == timeslot) {
-              // found the target timeslot
-              collector = new TraceData(ts);
-              scanState = Scan.PRICE;
-            }
+          int ts = scanner.timeslot(line);
+          if (ts == timeslot) {
+            // found the target timeslot
+            collector = new TraceData(ts);
+            scanState = Scan.PRICE;
           }
         }
         else if (scanState == Scan.PRICE) {
           // pick up individual broker imbalance numbers
           // once we see the pPlus/pMinus line, capture and switch to BALANCE
-          Matcher mb = mbQual.matcher(line);
-          if (mb.find()) {
+          if (scanner.marketBalance(line)) {
             //pull out broker and balance info
-            String brokerName = mb.group(1);
-            double balance = Double.parseDouble(mb.group(2));
+            String brokerName = scanner.getName();
+            double balance = scanner.getValue(0);
             log.info("ts " + timeslot + ": broker " + brokerName
                      + " imbalance=" + balance);
             collector.addBroker(brokerName, balance);
           }
-          else {
-            mb = bpQual.matcher(line);
-            if (mb.find()) {
-              double pPlus = Double.parseDouble(mb.group(1));
-              double pMinus = Double.parseDouble(mb.group(2));
-              log.info("ts " + timeslot + " spot prices ("
-                       + pPlus + ", " + pMinus + ")");
-              collector.setPrices(pPlus, pMinus);
-              scanState = Scan.BALANCE;
-            }
+          else if (scanner.prices(line)) {
+            double pPlus = scanner.getValue(0);
+            double pMinus = scanner.getValue(1);
+            log.info("ts " + timeslot + " spot prices ("
+                     + pPlus + ", " + pMinus + ")");
+            collector.setPrices(pPlus, pMinus);
+            scanState = Scan.BALANCE;
           }
         }
         else if (scanState == Scan.BALANCE) {
-          Matcher mt = tiQual.matcher(line);
-          if (mt.find()) {
+          if (scanner.totalImbalance(line)) {
             // here we find the total imbalance number
-            double imbalance = Double.parseDouble(mt.group(1));
-            collector.setTotalImbalance(imbalance);
+            collector.setTotalImbalance(scanner.getValue(0));
             // end of timeslot
             scanState = Scan.CAPACITY;
           }
@@ -445,24 +432,18 @@ implements Analyzer
         else if (scanState == Scan.CAPACITY) {
           // pick up BalancingOrder capacity values, terminated by the
           // static settlement summary
-          Matcher bc = boQual.matcher(line);
-          if (bc.find()) {
-            long id = Long.parseLong(bc.group(1));
-            double up = Double.parseDouble(bc.group(2));
-            double down = Double.parseDouble(bc.group(3));
+          if (scanner.capacity(line)) {
+            long id = scanner.getId();
+            double up = scanner.getValue(0);
+            double down = scanner.getValue(1);
             log.info("ts " + timeslot + " add BO capacity ("
                      + id + ", " + up + ", " + down + ")");
             collector.addRegulationCapacity(id, up, down);
           }
-          else {
-            bc = duQual.matcher(line);
-            if (bc.find()) {
-              double value = Double.parseDouble(bc.group(1));
-              collector.setRmCost(value);
-              value = Double.parseDouble(bc.group(2));
-              collector.setBrokerCost(value);
-              scanState = Scan.NEXT;
-            }
+          else if (scanner.budget(line)) {
+            collector.setRmCost(scanner.getValue(0));
+            collector.setBrokerCost(scanner.getValue(1));
+            scanState = Scan.NEXT;
           }
         }
       }
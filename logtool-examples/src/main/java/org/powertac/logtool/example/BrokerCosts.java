@@ -28,7 +28,7 @@ import org.powertac.common.CapacityTransaction;
 import org.powertac.common.Competition;
 import org.powertac.common.DistributionTransaction;
 import org.powertac.common.MarketTransaction;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -43,7 +43,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author John Collins
  */
 public class BrokerCosts
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   //static private Logger log = Logger.getLogger(BrokerCosts.class.getName());
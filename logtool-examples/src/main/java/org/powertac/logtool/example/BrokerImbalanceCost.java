@@ -15,9 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -32,10 +30,12 @@ import org.powertac.common.OrderbookOrder;
 import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 
 /**
  * Computes total and per-broker net demand from tariff transactions, 
@@ -52,7 +52,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author John Collins
  */
 public class BrokerImbalanceCost
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(BrokerImbalanceCost.class.getName());
@@ -71,7 +71,7 @@ implements Analyzer
   private double totalImbalance = 0.0;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "data.txt";
 
   private Competition competition;
@@ -95,12 +95,16 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, and the
+   * --format option.
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length != 2) {
-      System.out.println("Usage: <analyzer> input-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] input-file output-file");
       return;
     }
     dataFilename = args[1];
@@ -128,7 +132,19 @@ implements Analyzer
     dor.registerNewObjectListener(new OrderbookHandler(),
                                   Orderbook.class);
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename)
+          .withHeaderSeparator(", ")
+          .withLineEnd("\n");
+      data.declare(TableColumn.stringColumn("game"),
+                   TableColumn.longColumn("timeslot"),
+                   TableColumn.stringColumn("broker"),
+                   TableColumn.doubleColumn("netDemand", 3),
+                   TableColumn.doubleColumn("mktQty", 3),
+                   TableColumn.doubleColumn("mktCost", 3),
+                   TableColumn.doubleColumn("imbalance", 3),
+                   TableColumn.doubleColumn("imbalanceCost", 3),
+                   TableColumn.doubleColumn("mktImbCost", 3),
+                   TableColumn.doubleColumn("estCost", 3));
     }
     catch (FileNotFoundException e) {
       log.error("Cannot open file " + dataFilename);
@@ -240,20 +256,20 @@ implements Analyzer
         }
       }
 
-      data.printf("%s,%d,%s,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
-                  competition.getName(), timeslot,
-                  broker.getUsername(),
-                  bt.netDemand,
-                  bt.marketQty, bt.marketCost,
-                  bt.imbalance, bt.balancingCost,
-                  mktImbalance, estPrice * bt.imbalance);
+      data.add(competition.getName()).add(timeslot)
+          .add(broker.getUsername())
+          .add(bt.netDemand)
+          .add(bt.marketQty).add(bt.marketCost)
+          .add(bt.imbalance).add(bt.balancingCost)
+          .add(mktImbalance).add(estPrice * bt.imbalance)
+          .endRow();
     }
     lastOrderbook = pendingLastOrderbook; // push the queue
   }
 
   private void initData (int tsIndex)
   {
-    data.println("game, timeslot, broker, netDemand, mktQty, mktCost, imbalance, imbalanceCost, mktImbCost, estCost");
+    data.writeHeader();
     rings = new HashMap<>();
     for (Broker broker: brokerRepo.findRetailBrokers()) {
       RingArray ring =
@@ -29,7 +29,7 @@ import org.powertac.common.WeatherReport;
 import org.powertac.common.enumerations.PowerType;
 import org.powertac.common.repo.CustomerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -43,7 +43,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author John Collins
  */
 public class CustomerStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(CustomerStats.class.getName());
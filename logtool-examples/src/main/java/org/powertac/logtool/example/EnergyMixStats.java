@@ -15,9 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.HashMap;
 
 import org.apache.log4j.Logger;
@@ -28,10 +26,13 @@ import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.BalanceReport;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
+import org.powertac.logtool.output.TextTableWriter;
 
 /**
  * Example analysis class.
@@ -63,13 +64,20 @@ import org.powertac.logtool.ifc.Analyzer;
  *    These give total net imbalance (after the local balancing controls are
  *    applied) for each broker, and the cost to resolve it.
  *
+ * With --format arrow, the timeslot rows are written to an Arrow file, with
+ * the columns game-id (if requested), slot, import, import-cost, cons,
+ * cons-revenue, prod, prod-cost, up-reg, up-reg-cost, down-reg,
+ * down-reg-revenue, imbalance and imbalance-cost. Timeslots without market
+ * transactions have null import and import-cost. The Summary line is only
+ * written to text output.
+ *
  * Usage:
- *   EnergyMixStats [--with-gameid] state-log data-file
+ *   EnergyMixStats [--format text|arrow] [--with-gameid] state-log data-file
  *
  * @author John Collins
  */
 public class EnergyMixStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(EnergyMixStats.class.getName());
@@ -100,7 +108,7 @@ implements Analyzer
   private QtyCost totalImbalance;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "data.txt";
   private boolean dataInit = false;
 
@@ -128,12 +136,16 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, and the
+   * --format option.
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length < 2) {
-      System.out.println("Usage: <analyzer>  [--with-gameid] input-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] [--with-gameid] input-file output-file");
       return;
     }
     int argOffset = 0;
@@ -168,7 +180,29 @@ implements Analyzer
     dor.registerNewObjectListener(new BalancingTxHandler(),
                                   BalancingTransaction.class);
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename).withSeparator(", ");
+      if (printGameid) {
+        data.declare(TableColumn.longColumn("game-id"));
+      }
+      // the text header repeats cost and revenue
+      data.declare(TableColumn.longColumn("slot"),
+                   TableColumn.doubleColumn("import", 3).withNullText("0.0"),
+                   TableColumn.doubleColumn("import-cost", 3)
+                       .withHeader("cost").withNullText("0.0"),
+                   TableColumn.doubleColumn("cons", 3),
+                   TableColumn.doubleColumn("cons-revenue", 3)
+                       .withHeader("revenue"),
+                   TableColumn.doubleColumn("prod", 3),
+                   TableColumn.doubleColumn("prod-cost", 3).withHeader("cost"),
+                   TableColumn.doubleColumn("up-reg", 3),
+                   TableColumn.doubleColumn("up-reg-cost", 3)
+                       .withHeader("cost"),
+                   TableColumn.doubleColumn("down-reg", 3),
+                   TableColumn.doubleColumn("down-reg-revenue", 3)
+                       .withHeader("revenue"),
+                   TableColumn.doubleColumn("imbalance", 3),
+                   TableColumn.doubleColumn("imbalance-cost", 3)
+                       .withHeader("cost"));
     }
     catch (FileNotFoundException e) {
       // TODO Auto-generated catch block
@@ -183,8 +217,9 @@ implements Analyzer
   {
     System.out.println("Game " + Competition.currentCompetition().getName()
                        + ", " + timeslot + " timeslots");
-    data.print("Summary, ");
-    data.println(String
+    if (data instanceof TextTableWriter) {
+      // the summary does not fit the columns
+      ((TextTableWriter) data).writeLine("Summary, " + String
                  .format("%.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f, %.3f",
                          totalImports.quantity, totalImports.cost,
                          totalUsed.quantity, totalUsed.cost,
@@ -192,6 +227,7 @@ implements Analyzer
                          totalUp.quantity, totalUp.cost,
                          totalDown.quantity, totalDown.cost,
                          totalImbalance.quantity, totalImbalance.cost));
+    }
     data.close();
   }
 
@@ -206,14 +242,12 @@ implements Analyzer
       // first time through nothing to but print header
       if (printGameid) {
         // first column is integer game ID
-        data.print("game-id, ");
         String game = Competition.currentCompetition().getName();
         // game is of the form "game-n"
         // We force an integer in order to get an exception if it's not an int
         gameid = Integer.parseInt(game.substring(5));
       }
-      data.println("slot, import, cost, cons, revenue, prod, cost, "
-                   + "up-reg, cost, down-reg, revenue, imbalance, cost");
+      data.writeHeader();
       initSummaryData();
       return;
     }
@@ -225,34 +259,31 @@ implements Analyzer
 
     // optionally print game id
     if (printGameid) {
-      data.print(String.valueOf(gameid) + ", ");
+      data.add(gameid);
     }
     // print timeslot index
-    data.print(timeslot + ", ");
+    data.add(timeslot);
     // print market data
     QtyCost mktData = mktTxSummary.get(timeslot);
     if (null != mktData) {
-      data.print(String.format("%.3f, %.3f, ", mktData.quantity, mktData.cost));
+      data.add(mktData.quantity).add(mktData.cost);
       totalImports.add(mktData);
     }
     else {
-      data.print("0.0, 0.0, ");
+      data.addNull().addNull();
     }
     // print customer usage, production
-    data.print(String.format("%.3f, %.3f, %.3f, %.3f, ",
-                             used.quantity, used.cost,
-                             produced.quantity, produced.cost));
+    data.add(used.quantity).add(used.cost)
+        .add(produced.quantity).add(produced.cost);
     totalUsed.add(used);
     totalProduced.add(produced);
     // print regulation usage, production
-    data.print(String.format("%.3f, %.3f, %.3f, %.3f, ",
-                             upRegulation.quantity, upRegulation.cost,
-                             downRegulation.quantity, downRegulation.cost));
+    data.add(upRegulation.quantity).add(upRegulation.cost)
+        .add(downRegulation.quantity).add(downRegulation.cost);
     totalUp.add(upRegulation);
     totalDown.add(downRegulation);
     // print balance volume, cost
-    data.println(String.format("%.3f, %.3f",
-                               balanceEnergy.quantity, balanceEnergy.cost));
+    data.add(balanceEnergy.quantity).add(balanceEnergy.cost).endRow();
     totalImbalance.add(balanceEnergy);
   }
 
@@ -28,11 +28,10 @@ import org.powertac.common.Competition;
 import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
-import org.powertac.util.Pair;
 
 /**
  * Example analysis class.
@@ -46,12 +45,14 @@ import org.powertac.util.Pair;
  * tariff transactions).
  * 
  * The data file contains per-timeslot imbalance for each broker, along with
- * aggregate imbalance and overall consumption.
+ * aggregate imbalance and overall consumption. Each row is written when its
+ * timeslot ends, and the summary is kept as running totals, so memory use
+ * does not depend on the length of the game.
  * 
  * @author John Collins
  */
 public class ImbalanceStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(ImbalanceStats.class.getName());
@@ -64,16 +65,14 @@ implements Analyzer
   private HashMap<Broker, BalancingTransaction> btx;
   private HashMap<Broker, ArrayList<TariffTransaction>> ttx;
 
-  // daily total imbalances, indexed by timeslot
+  // total imbalance over the timeslots summarized so far
   private int timeslot = 0;
   private int tsIndex = 0; // actual timeslot index 
-  private ArrayList<Double> dailyImbalance;
+  private double imbalanceSum = 0.0;
+  private double imbalanceSumsq = 0.0;
 
-  // daily per-broker imbalance, cost
-  private HashMap<Broker, ArrayList<Pair<Double, Double>>> dailyBrokerImbalance;
-
-  // daily tariff transactions
-  private HashMap<Broker, ArrayList<ArrayList<TariffTransaction>>> dailyTraffic;
+  // per-broker imbalance, cost and consumption totals
+  private HashMap<Broker, BrokerTotals> brokerTotals;
 
   // data output file
   private PrintWriter data = null;
@@ -125,9 +124,7 @@ implements Analyzer
     brokerRepo = (BrokerRepo) getBean("brokerRepo");
     btx = new HashMap<Broker, BalancingTransaction>();
     ttx = new HashMap<Broker, ArrayList<TariffTransaction>>();
-    dailyImbalance = new ArrayList<Double>();
-    dailyBrokerImbalance = new HashMap<Broker, ArrayList<Pair<Double, Double>>>();
-    dailyTraffic = new HashMap<Broker, ArrayList<ArrayList<TariffTransaction>>>();
+    brokerTotals = new HashMap<Broker, BrokerTotals>();
 
     dor.registerNewObjectListener(new TimeslotUpdateHandler(),
                                   TimeslotUpdate.class);
@@ -147,18 +144,11 @@ implements Analyzer
   @Override
   public void report ()
   {
-    // compute RMS imbalance
-    double sum = 0.0;
-    double sumsq = 0.0;
-    for (Double imbalance : dailyImbalance) {
-      sum += imbalance;
-      sumsq += imbalance * imbalance;
-    }
     System.out.println("Game " + Competition.currentCompetition().getName()
                        + ", " + timeslot + " timeslots");
-    System.out.println("Total imbalance = " + sum);
+    System.out.println("Total imbalance = " + imbalanceSum);
     System.out.println("RMS imbalance = "
-                       + Math.sqrt(sumsq / dailyImbalance.size()));
+                       + Math.sqrt(imbalanceSumsq / timeslot));
     for (Broker broker : brokerRepo.findRetailBrokers()) {
       reportBrokerImbalance(broker);
     }
@@ -170,34 +160,18 @@ implements Analyzer
   // imbalance
   private void reportBrokerImbalance (Broker broker)
   {
-    double sumsq = 0.0;
-    double imbalanceSum = 0.0;
-    double deliveredSum = 0.0;
-    double contributionSum = 0.0;
-    double cost = 0.0;
-    ArrayList<Pair<Double, Double>> brokerRecord =
-            dailyBrokerImbalance.get(broker);
-    ArrayList<ArrayList<TariffTransaction>> deliveries =
-            dailyTraffic.get(broker);
-    for (int i = 0; i < dailyImbalance.size(); i++) {
-      double total = dailyImbalance.get(i);
-      double individual = brokerRecord.get(i).car();
-      sumsq += individual * individual;
-      imbalanceSum += individual;
-      double sgn = Math.signum(individual) * Math.signum(total);
-      contributionSum += Math.abs(individual) * sgn;
-      cost += brokerRecord.get(i).cdr();
-      for (TariffTransaction tx : deliveries.get(i))
-        deliveredSum += tx.getKWh();
-    }
-    int count = dailyImbalance.size();
+    BrokerTotals totals = brokerTotals.get(broker);
+    int count = timeslot;
     System.out.println("Broker " + broker.getUsername()
-                       + "\n  RMS imbalance = " + Math.sqrt(sumsq / count)
-                       + "\n  mean imbalance = " + imbalanceSum / count
-                       + "\n  imbalance ratio = " + imbalanceSum / deliveredSum
-                       + "\n  mean contribution = " + contributionSum / count
-                       + "\n  mean cost = " + cost / count
-                       + "(" + cost / imbalanceSum + "/kwh)");
+                       + "\n  RMS imbalance = "
+                       + Math.sqrt(totals.sumsq / count)
+                       + "\n  mean imbalance = " + totals.imbalanceSum / count
+                       + "\n  imbalance ratio = "
+                       + totals.imbalanceSum / totals.deliveredSum
+                       + "\n  mean contribution = "
+                       + totals.contributionSum / count
+                       + "\n  mean cost = " + totals.cost / count
+                       + "(" + totals.cost / totals.imbalanceSum + "/kwh)");
   }
 
   // Called on timeslotUpdate. Note that there are two of these before
@@ -208,14 +182,11 @@ implements Analyzer
   private void summarizeTimeslot ()
   {
     // skip initial timeslot(s) without data, initialize data structures
-    if (0 == btx.size() && 0 == dailyImbalance.size()) {
+    if (0 == btx.size() && 0 == timeslot) {
       initTxList();
       initData();
       for (Broker broker : brokerRepo.findRetailBrokers()) {
-        dailyBrokerImbalance.put(broker,
-                                 new ArrayList<Pair<Double, Double>>());
-        dailyTraffic.put(broker,
-                         new ArrayList<ArrayList<TariffTransaction>>());
+        brokerTotals.put(broker, new BrokerTotals());
       }
       return;
     }
@@ -231,37 +202,37 @@ implements Analyzer
       double consumptionQty = 0.0;
       // balancing tx first
       BalancingTransaction bx = btx.get(broker);
-      ArrayList<Pair<Double, Double>> entries = dailyBrokerImbalance.get(broker);
+      BrokerTotals totals = brokerTotals.get(broker);
       if (null == bx) {
         // zero entries
-        entries.add(new Pair<Double, Double>(0.0, 0.0));
+        totals.imbalance = 0.0;
         data.print("," + "0.0");
       }
       else {
-        entries.add(new Pair<Double, Double>(bx.getKWh(), bx.getCharge()));
+        totals.imbalance = bx.getKWh();
+        totals.cost += bx.getCharge();
         balancingQty = bx.getKWh();
         data.print("," + balancingQty);
         totalImbalance += bx.getKWh();
       }
       // tariff tx next
       ArrayList<TariffTransaction> txs = ttx.get(broker);
-      ArrayList<ArrayList<TariffTransaction>> dailyTxs = 
-              dailyTraffic.get(broker);
-      if (null == txs) {
-        dailyTxs.add(new ArrayList<TariffTransaction>());
-      }
-      else {
-        for (TariffTransaction consumption : txs)
+      if (null != txs) {
+        for (TariffTransaction consumption : txs) {
           consumptionQty += consumption.getKWh();
+          totals.deliveredSum += consumption.getKWh();
+        }
         totalConsumption += consumptionQty;
-        dailyTxs.add(txs);
-        ttx.put(broker, null);
       }
       //log.info("ts " + timeslot + ", broker " + broker.getUsername()
       //         + ": consumption = " + consumptionQty
       //         + ", balance qty = " + balancingQty);
     }
-    dailyImbalance.add(totalImbalance);
+    imbalanceSum += totalImbalance;
+    imbalanceSumsq += totalImbalance * totalImbalance;
+    for (Broker broker : brokerRepo.findRetailBrokers()) {
+      brokerTotals.get(broker).add(totalImbalance);
+    }
     data.println("," + totalImbalance + "," + totalConsumption);
     timeslot += 1;
     initTxList();
@@ -292,6 +263,26 @@ implements Analyzer
     dataInit = true;
   }
 
+  // Running totals for one broker
+  class BrokerTotals
+  {
+    double imbalance = 0.0; // in the current timeslot
+    double sumsq = 0.0;
+    double imbalanceSum = 0.0;
+    double deliveredSum = 0.0;
+    double contributionSum = 0.0;
+    double cost = 0.0;
+
+    // adds the current imbalance, given the total imbalance
+    void add (double total)
+    {
+      sumsq += imbalance * imbalance;
+      imbalanceSum += imbalance;
+      double sgn = Math.signum(imbalance) * Math.signum(total);
+      contributionSum += Math.abs(imbalance) * sgn;
+    }
+  }
+
   // -------------------------------
   // catch BalancingTransactions
   class BalancingTxHandler implements NewObjectListener
@@ -15,11 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.util.Map;
-import java.util.TreeMap;
 
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
@@ -29,28 +25,37 @@ import org.powertac.common.TimeService;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.TimeslotRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
+import org.powertac.logtool.common.ClearingTable;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.OutputFormat;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 
 /**
  * Logtool Analyzer that reads ClearedTrade instances as they arrive and
- * builds an array for each timeslot giving all the market clearings for
- * that timeslot, indexed by leadtime. The output data file has one 
+ * records the quantity and price of all the market clearings for each
+ * timeslot, indexed by leadtime, in a ClearingTable. The output data file has one 
  * line/timeslot formatted as<br>
  * timeslot,day-of-week,hour-of-day,[mwh price],[mwh price] ...<br>
  * Each line has 24 entries, assuming that each timeslot is open for trading
- * 24 times.
+ * 24 times. A line is written as soon as its timeslot is no longer open,
+ * so only the open timeslots are held in memory.
  * 
  * If the option '--no-headers' is given, the first three fields are omitted.
  * 
- * Usage: MktPriceStats [--no-headers] state-log-filename output-data-filename
+ * With '--format arrow', the output is an Arrow file with one row per
+ * timeslot and leadtime, with columns ts, dow, hod, leadtime, mwh, price.
+ * Leadtimes without a clearing have null mwh and price.
+ * 
+ * Usage: MktPriceStats [--format text|arrow] [--no-headers] state-log-filename output-data-filename
  * 
  * @author John Collins
  */
 public class MktPriceStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(MktPriceStats.class.getName());
@@ -60,13 +65,14 @@ implements Analyzer
   private TimeService timeService;
 
   // Data
-  private TreeMap<Integer, ClearedTrade[]> data;
+  private ClearingTable data;
   private int ignoreInitial = 5; // timeslots to ignore at the beginning
   private int ignoreCount = 0;
   private int indexOffset = 0; // should be Competition.deactivateTimeslotsAhead - 1
 
   private boolean omitHeaders = false;
-  private PrintWriter output = null;
+  private TableWriter output = null;
+  private boolean byLeadtime = false;
   private String dataFilename = "clearedTrades.data";
   
   /**
@@ -79,19 +85,23 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, optionally
+   * preceded by --no-headers
    */
   private void cli (String[] args)
   {
-    if (args.length != 2) {
-      System.out.println("Usage: <analyzer> [--no-headers] input-file output-file");
+    args = formatOption(args);
+    if (null == args)
       return;
-    }
     int argOffset = 0;
-    if (args[0].equalsIgnoreCase("--no-headers")) {
+    if (args.length > 0 && args[0].equalsIgnoreCase("--no-headers")) {
       argOffset = 1;
       omitHeaders = true;
     }
+    if (args.length - argOffset != 2) {
+      System.out.println("Usage: <analyzer> [--format text|arrow] [--no-headers] input-file output-file");
+      return;
+    }
     dataFilename = args[argOffset + 1];
     super.cli(args[argOffset], this);
   }
@@ -109,9 +119,30 @@ implements Analyzer
     registerNewObjectListener(new ClearedTradeHandler(),
                                   ClearedTrade.class);
     ignoreCount = ignoreInitial;
-    data = new TreeMap<Integer, ClearedTrade[]>();
+    data = new ClearingTable(24);
     try {
-      output = new PrintWriter(new File(dataFilename));
+      output = openTable(dataFilename);
+      byLeadtime = (OutputFormat.TEXT != getOutputFormat());
+      if (!omitHeaders) {
+        output.declare(TableColumn.longColumn("ts"),
+                       TableColumn.longColumn("dow"),
+                       TableColumn.longColumn("hod"));
+      }
+      if (byLeadtime) {
+        output.declare(TableColumn.longColumn("leadtime"),
+                       TableColumn.doubleColumn("mwh", 4),
+                       TableColumn.doubleColumn("price", 4));
+      }
+      else {
+        // one [mwh price] cell per leadtime
+        for (int i = 0; i < 24; i++) {
+          output.declare(TableColumn.doubleColumn("mwh" + i, 4)
+                             .withPrefix("[").withNullText("0.0"),
+                         TableColumn.doubleColumn("price" + i, 4)
+                             .withSeparator(" ").withSuffix("]")
+                             .withNullText("0.0"));
+        }
+      }
     }
     catch (FileNotFoundException e) {
       log.error("Cannot open file " + dataFilename);
@@ -124,32 +155,55 @@ implements Analyzer
   @Override
   public void report ()
   {
-    for (Map.Entry<Integer, ClearedTrade[]> entry : data.entrySet()) {
-      String delim = "";
-      if (!omitHeaders) {
-        // add ts,dow,hod,
-        DateTime dt = timeslotRepo.getDateTimeForIndex(entry.getKey());
-        output.format("%d,%d,%d,", entry.getKey(),
-                      dt.get(DateTimeFieldType.dayOfWeek()),
-                      dt.get(DateTimeFieldType.hourOfDay()));
-      }
-      ClearedTrade[] trades = entry.getValue();
-      if (trades.length != 24)
-        log.error("short array " + trades.length);
-      for (int i = 0; i < trades.length; i++) {
-        if (null == trades[i]) {
-          output.print(delim + "[0.0 0.0]");
-        }
-        else {
-          output.format("%s[%.4f %.4f]", delim,
-                        trades[i].getExecutionMWh(),
-                        trades[i].getExecutionPrice());
+    writeBefore(data.getLastTimeslot() + 1);
+    output.close();
+  }
+
+  // Writes and drops the rows for timeslots before the given one
+  private void writeBefore (int timeslot)
+  {
+    int last = Math.min(data.getLastTimeslot(), timeslot - 1);
+    for (int ts = data.getFirstTimeslot(); ts <= last; ts++) {
+      if (!data.hasTimeslot(ts))
+        continue;
+      if (byLeadtime) {
+        for (int i = 0; i < data.getWidth(); i++) {
+          addTimeslot(ts);
+          output.add(i);
+          addTrade(ts, i);
+          output.endRow();
         }
-        delim = ",";
+        continue;
       }
-      output.println();
+      addTimeslot(ts);
+      for (int i = 0; i < data.getWidth(); i++) {
+        addTrade(ts, i);
+      }
+      output.endRow();
+    }
+    data.discardBefore(timeslot);
+  }
+
+  // adds ts,dow,hod unless omitted
+  private void addTimeslot (int index)
+  {
+    if (omitHeaders)
+      return;
+    DateTime dt = timeslotRepo.getDateTimeForIndex(index);
+    output.add(index)
+        .add(dt.get(DateTimeFieldType.dayOfWeek()))
+        .add(dt.get(DateTimeFieldType.hourOfDay()));
+  }
+
+  private void addTrade (int timeslot, int leadtime)
+  {
+    if (!data.hasClearing(timeslot, leadtime)) {
+      output.addNull().addNull();
+    }
+    else {
+      output.add(data.getMWh(timeslot, leadtime))
+          .add(data.getPrice(timeslot, leadtime));
     }
-    output.close();
   }
 
   // -----------------------------------
@@ -172,12 +226,8 @@ implements Analyzer
         log.error("ClearedTrade index error: " + offset);
       }
       else {
-        ClearedTrade[] targetArray = data.get(target);
-        if (null == targetArray) {
-          targetArray = new ClearedTrade[24];
-          data.put(target, targetArray);
-        }
-        targetArray[offset] = ct;
+        data.put(target, offset,
+                 ct.getExecutionMWh(), ct.getExecutionPrice());
       }
     }
   }
@@ -192,11 +242,10 @@ implements Analyzer
     public void handleNewObject (Object thing)
     {
       if (ignoreCount-- <= 0) {
-        int timeslotSerial = timeslotRepo.currentSerialNumber();
-        if (null == data.get(timeslotSerial)) {
-          data.put(timeslotSerial, new ClearedTrade[24]);
-        }
+        data.addTimeslot(timeslotRepo.currentSerialNumber());
       }
+      // earlier timeslots can get no more clearings
+      writeBefore(timeslotRepo.getTimeslotIndex(timeService.getCurrentTime()));
     }
   }
 }
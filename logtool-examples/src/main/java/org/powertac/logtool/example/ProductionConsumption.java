@@ -15,9 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.HashMap;
 
 import org.apache.log4j.Logger;
@@ -29,10 +27,12 @@ import org.powertac.common.Competition;
 import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.TimeslotUpdate;
 //import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 
 /**
  * Example analysis class.
@@ -42,11 +42,12 @@ import org.powertac.logtool.ifc.Analyzer;
  * Given the command-line option --by-broker, output is broken down
  * by broker, formatted as:
  *   game-id, timeslot, broker-name, production, consumption
+ * With --format arrow, the same columns are written to an Arrow file.
  *
  * @author John Collins
  */
 public class ProductionConsumption
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(ProductionConsumption.class.getName());
@@ -65,7 +66,7 @@ implements Analyzer
   private HashMap<Broker, Double> brokerProduced;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "data.txt";
   private boolean dataInit = false;
 
@@ -93,8 +94,11 @@ implements Analyzer
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length < 2) {
-      System.out.println("Usage: <analyzer> [--by-broker] input-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] [--by-broker] input-file output-file");
       return;
     }
     int argOffset = 0;
@@ -120,7 +124,19 @@ implements Analyzer
     dor.registerNewObjectListener(new TariffTxHandler(),
                                   TariffTransaction.class);
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename).withSeparator(", ");
+      if (byBroker) {
+        data.declare(TableColumn.stringColumn("game"),
+                     TableColumn.longColumn("timeslot"),
+                     TableColumn.stringColumn("broker"));
+      }
+      else {
+        data.declare(TableColumn.longColumn("timeslot"),
+                     TableColumn.longColumn("dow"),
+                     TableColumn.longColumn("hod"));
+      }
+      data.declare(TableColumn.doubleColumn("production", 3),
+                   TableColumn.doubleColumn("consumption", 3));
     }
     catch (FileNotFoundException e) {
       e.printStackTrace();
@@ -162,24 +178,21 @@ implements Analyzer
     if (byBroker) {
       // print game-id, timeslot, broker-name, production, consumption
       for (Broker broker: brokerUsed.keySet()) {
-        data.print(String.format("%s, %d, %s, ",
-                                 gameId, timeslot,
-                                 broker.getUsername()));
-        data.println(String.format("%.3f, %.3f", 
-                                   brokerProduced.get(broker),
-                                   brokerUsed.get(broker)));
+        data.add(gameId).add(timeslot).add(broker.getUsername())
+            .add(brokerProduced.get(broker))
+            .add(brokerUsed.get(broker))
+            .endRow();
         brokerProduced.put(broker, 0.0);
         brokerUsed.put(broker, 0.0);
       }
     }
     else {
       // print timeslot, dow, hod, production, consumption
-      data.print(String.format("%d, %d, %d, ",
-                               timeslot,
-                               instant.get(DateTimeFieldType.dayOfWeek()),
-                               instant.get(DateTimeFieldType.hourOfDay())));
+      data.add(timeslot)
+          .add(instant.get(DateTimeFieldType.dayOfWeek()))
+          .add(instant.get(DateTimeFieldType.hourOfDay()));
       // print customer usage, production
-      data.println(String.format("%.3f, %.3f", produced, used));
+      data.add(produced).add(used).endRow();
       produced = 0.0;
       used = 0.0;
     }
@@ -15,9 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashSet;
 
@@ -30,21 +28,25 @@ import org.powertac.common.enumerations.PowerType;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.CustomerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 
 /**
  * Example analysis class.
  * Gathers customer production and consumption data
  * For each timeslot, report includes
  *   timeslot index, day of week, hour, total production, total consumption
+ * With --format arrow, the same columns are written to an Arrow file, as
+ * timeslot, dow, hod, production and consumption.
  * 
  * @author John Collins
  */
 public class SolarProduction
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(SolarProduction.class.getName());
@@ -60,7 +62,7 @@ implements Analyzer
   private double produced = 0.0;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "data.txt";
   private boolean dataInit = false;
 
@@ -83,12 +85,16 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, and the
+   * --format option.
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length != 2) {
-      System.out.println("Usage: <analyzer> input-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] input-file output-file");
       return;
     }
     dataFilename = args[1];
@@ -112,7 +118,12 @@ implements Analyzer
     customerRepo = (CustomerRepo)this.getBean("customerRepo");
     solarCustomers = new HashSet<CustomerInfo>();
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename).withSeparator(", ");
+      data.declare(TableColumn.longColumn("timeslot"),
+                   TableColumn.longColumn("dow"),
+                   TableColumn.longColumn("hod"),
+                   TableColumn.doubleColumn("production", 3),
+                   TableColumn.doubleColumn("consumption", 3));
     }
     catch (FileNotFoundException e) {
       // TODO Auto-generated catch block
@@ -145,12 +156,11 @@ implements Analyzer
     }
 
     // print timeslot index and dow
-    data.print(String.format("%d, %d, %d, ",
-                             timeslot,
-                             instant.get(DateTimeFieldType.dayOfWeek()),
-                             instant.get(DateTimeFieldType.hourOfDay())));
+    data.add(timeslot)
+        .add(instant.get(DateTimeFieldType.dayOfWeek()))
+        .add(instant.get(DateTimeFieldType.hourOfDay()));
     // print customer usage, production
-    data.println(String.format("%.3f, %.3f", produced, 0.0));
+    data.add(produced).add(0.0).endRow();
     produced = 0.0;
   }
 
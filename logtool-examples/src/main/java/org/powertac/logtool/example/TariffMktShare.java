@@ -15,11 +15,10 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.powertac.common.BalancingTransaction;
@@ -29,10 +28,12 @@ import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 import org.powertac.util.Pair;
 
 /**
@@ -43,12 +44,17 @@ import org.powertac.util.Pair;
  * First line lists brokers. Remaining lines are emitted for each timeslot
  * in which SIGNUP or WITHDRAW transactions occur, format is
  *   timeslot, customer-count, ..., total-customer-count
- * with one customer-count field for each broker.
+ * with one customer-count field for each broker. Each line is written at
+ * the end of its timeslot, and only the count changes for the current
+ * timeslot are kept.
+ * 
+ * With --format arrow, the same rows are written to an Arrow file, with
+ * columns ts, one per broker named by its username, and total.
  * 
  * @author John Collins
  */
 public class TariffMktShare
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(TariffMktShare.class.getName());
@@ -57,15 +63,15 @@ implements Analyzer
 
   private BrokerRepo brokerRepo;
 
-  // list of TariffTransactions for current timeslot
-  private ArrayList<TariffTransaction> ttx;
+  // customer count changes in the current timeslot, by broker
+  private HashMap<Broker, Integer> changes;
   private HashMap<Broker, Integer> customerCounts;
 
   // output array, indexed by timeslot
   private ArrayList<Broker> brokers = null;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "data.txt";
 
   /**
@@ -87,12 +93,16 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, and the
+   * --format option.
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length != 2) {
-      System.out.println("Usage: <analyzer> input-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] input-file output-file");
       return;
     }
     dataFilename = args[1];
@@ -109,14 +119,14 @@ implements Analyzer
   {
     dor = (DomainObjectReader) SpringApplicationContext.getBean("reader");
     brokerRepo = (BrokerRepo) SpringApplicationContext.getBean("brokerRepo");
-    ttx = new ArrayList<TariffTransaction>();
+    changes = new HashMap<Broker, Integer>();
 
     dor.registerNewObjectListener(new TimeslotUpdateHandler(),
                                   TimeslotUpdate.class);
     dor.registerNewObjectListener(new TariffTxHandler(),
                                   TariffTransaction.class);
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename).withSeparator(", ");
     }
     catch (FileNotFoundException e) {
       log.error("Cannot open file " + dataFilename);
@@ -142,40 +152,34 @@ implements Analyzer
       // first time through
       brokers = new ArrayList<Broker>();
       customerCounts = new HashMap<Broker, Integer>();
-      data.print("ts, ");
+      data.declare(TableColumn.longColumn("ts"));
       for (Broker broker : brokerRepo.findRetailBrokers()) {
         brokers.add(broker);
         customerCounts.put(broker, 0);
-        data.print(broker.getUsername());
-        data.print(", ");
+        data.declare(TableColumn.longColumn(broker.getUsername()));
       }
-      data.println("total");
+      data.declare(TableColumn.longColumn("total"));
+      data.writeHeader();
     }
 
-    if (ttx.size() > 0) {
+    if (changes.size() > 0) {
       // there are some signups and withdraws here
-      for (TariffTransaction tx : ttx) {
-        Broker broker = tx.getBroker();
-        int pop = 0;
-        if (tx.getTxType() == TariffTransaction.Type.SIGNUP)
-          pop = tx.getCustomerCount();
-        else if (tx.getTxType() == TariffTransaction.Type.WITHDRAW)
-          pop = -tx.getCustomerCount();
-        customerCounts.put(broker, customerCounts.get(broker) + pop);
+      for (Map.Entry<Broker, Integer> change : changes.entrySet()) {
+        Broker broker = change.getKey();
+        customerCounts.put(broker,
+                           customerCounts.get(broker) + change.getValue());
       }
       // print results for this timeslot
-      data.print(currentTimeslot);
-      data.print(", ");
+      data.add(currentTimeslot);
       int sum = 0;
       for (Broker broker: brokers) {
         int count = customerCounts.get(broker);
-        data.print(count);
+        data.add(count);
         sum += count;
-        data.print(", ");
       }
-      data.println(sum);
+      data.add(sum).endRow();
     }
-    ttx.clear();
+    changes.clear();
   }
 
   // -----------------------------------
@@ -187,10 +191,15 @@ implements Analyzer
     {
       TariffTransaction tx = (TariffTransaction)thing;
       // only include SIGNUP and WITHDRAW
-      if (tx.getTxType() == TariffTransaction.Type.SIGNUP ||
-          tx.getTxType() == TariffTransaction.Type.WITHDRAW) {
-        ttx.add(tx);
-      }
+      int pop = 0;
+      if (tx.getTxType() == TariffTransaction.Type.SIGNUP)
+        pop = tx.getCustomerCount();
+      else if (tx.getTxType() == TariffTransaction.Type.WITHDRAW)
+        pop = -tx.getCustomerCount();
+      else
+        return;
+      Integer change = changes.get(tx.getBroker());
+      changes.put(tx.getBroker(), (null == change) ? pop : change + pop);
     } 
   }
 
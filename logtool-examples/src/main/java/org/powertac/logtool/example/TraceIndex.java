@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Sidecar index for a trace log. For each timeslot it records the byte
+ * offset of the "Deactivated timeslot N" line, which is where the
+ * balancing-market messages for that timeslot begin, along with the offset
+ * of the "Configured BM" line. With the index, a reader can start at any
+ * timeslot instead of scanning from the top, and a trace can be cut at
+ * timeslot boundaries into chunks that are processed independently.
+ *
+ * Usage: TraceIndex trace-log [index-file]
+ *
+ * The index is written to trace-log.idx unless another file is given.
+ * It records the length and modification time of the trace it was built
+ * from, and load() ignores an index that no longer matches. Timeslots
+ * are deactivated in increasing order; a Deactivated line that does not
+ * advance the timeslot is left out of the index. Only plain
+ * trace files can be indexed, since a compressed archive cannot be
+ * positioned without decompressing everything ahead of the target.
+ *
+ * @author agent
+ */
+public class TraceIndex
+{
+  static private Logger log = Logger.getLogger(TraceIndex.class.getName());
+
+  static final String suffix = ".idx";
+  static final int magic = 0x50545449; // "PTTI"
+  static final int version = 1;
+
+  private long traceLength;
+  private long traceModified;
+  private long configOffset = -1;
+  private int[] timeslots = new int[0];
+  private long[] offsets = new long[0];
+  private int count = 0;
+
+  /**
+   * Builds the index for a trace file and writes it next to the trace,
+   * or to the file given as the second argument.
+   */
+  public static void main (String[] args)
+  {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("Usage: TraceIndex trace-log [index-file]");
+      return;
+    }
+    File trace = new File(args[0]);
+    File indexFile =
+        (args.length == 2) ? new File(args[1]) : indexFile(trace);
+    try {
+      TraceIndex index = build(trace);
+      index.write(indexFile);
+      System.out.println("Indexed " + index.size() + " timeslots of "
+                         + trace + " in " + indexFile);
+    }
+    catch (IOException e) {
+      System.out.println("Cannot index " + trace + ": " + e.getMessage());
+    }
+  }
+
+  TraceIndex ()
+  {
+    super();
+  }
+
+  /**
+   * Default location of the index for a trace file.
+   */
+  public static File indexFile (File trace)
+  {
+    return new File(trace.getPath() + suffix);
+  }
+
+  /**
+   * Scans a trace file and returns its index. Offsets are counted in bytes
+   * from the start of the file.
+   */
+  public static TraceIndex build (File trace) throws IOException
+  {
+    TraceIndex result = new TraceIndex();
+    result.traceLength = trace.length();
+    result.traceModified = trace.lastModified();
+    result.timeslots = new int[4096];
+    result.offsets = new long[4096];
+    InputStream in = new FileInputStream(trace);
+    try {
+      TraceScanner scanner = new TraceScanner();
+      byte[] buffer = new byte[65536];
+      byte[] line = new byte[1024];
+      int length = 0;
+      long lineStart = 0;
+      long position = 0;
+      int n;
+      while ((n = in.read(buffer)) >= 0) {
+        for (int i = 0; i < n; i++) {
+          if (buffer[i] == '\n') {
+            result.addLine(scanner, line, length, lineStart);
+            length = 0;
+            lineStart = position + i + 1;
+          }
+          else {
+            if (length == line.length)
+              line = Arrays.copyOf(line, length * 2);
+            line[length++] = buffer[i];
+          }
+        }
+        position += n;
+      }
+      if (length > 0)
+        result.addLine(scanner, line, length, lineStart);
+    }
+    finally {
+      in.close();
+    }
+    result.timeslots = Arrays.copyOf(result.timeslots, result.count);
+    result.offsets = Arrays.copyOf(result.offsets, result.count);
+    return result;
+  }
+
+  // records the line if it starts a timeslot or configures the BM
+  private void addLine (TraceScanner scanner, byte[] line, int length,
+                        long offset)
+  {
+    // trace lines are ASCII, so one byte is one char
+    String text = new String(line, 0, length, StandardCharsets.ISO_8859_1);
+    int ts = scanner.timeslot(text);
+    if (ts >= 0) {
+      // the lookup needs increasing timeslots; a repeat or a step back
+      // stays with the timeslot before it
+      if (count > 0 && ts <= timeslots[count - 1]) {
+        log.warn("Timeslot " + ts + " out of order at offset " + offset);
+        return;
+      }
+      if (count == timeslots.length) {
+        timeslots = Arrays.copyOf(timeslots, count * 2);
+        offsets = Arrays.copyOf(offsets, count * 2);
+      }
+      timeslots[count] = ts;
+      offsets[count] = offset;
+      count += 1;
+    }
+    else if (configOffset < 0 && scanner.config(text)) {
+      configOffset = offset;
+    }
+  }
+
+  /**
+   * Returns the index stored next to the given trace file, or null if
+   * there is none or it does not match the trace.
+   */
+  public static TraceIndex load (File trace)
+  {
+    File file = indexFile(trace);
+    if (!file.canRead())
+      return null;
+    try {
+      TraceIndex index = read(file);
+      if (index.traceLength != trace.length()
+          || index.traceModified != trace.lastModified()) {
+        log.warn("Index " + file + " is out of date");
+        return null;
+      }
+      return index;
+    }
+    catch (IOException e) {
+      log.warn("Cannot read index " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Reads an index file.
+   */
+  public static TraceIndex read (File file) throws IOException
+  {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (in.readInt() != magic || in.readInt() != version)
+        throw new IOException("not a trace index");
+      TraceIndex result = new TraceIndex();
+      result.traceLength = in.readLong();
+      result.traceModified = in.readLong();
+      result.configOffset = in.readLong();
+      result.count = in.readInt();
+      result.timeslots = new int[result.count];
+      result.offsets = new long[result.count];
+      for (int i = 0; i < result.count; i++) {
+        result.timeslots[i] = in.readInt();
+        result.offsets[i] = in.readLong();
+        if (i > 0 && result.timeslots[i] <= result.timeslots[i - 1])
+          throw new IOException("timeslots out of order");
+      }
+      return result;
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Writes this index to a file.
+   */
+  public void write (File file) throws IOException
+  {
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(magic);
+      out.writeInt(version);
+      out.writeLong(traceLength);
+      out.writeLong(traceModified);
+      out.writeLong(configOffset);
+      out.writeInt(timeslots.length);
+      for (int i = 0; i < timeslots.length; i++) {
+        out.writeInt(timeslots[i]);
+        out.writeLong(offsets[i]);
+      }
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Number of timeslots in the index.
+   */
+  public int size ()
+  {
+    return timeslots.length;
+  }
+
+  /**
+   * The indexed timeslots, in increasing order.
+   */
+  public int[] getTimeslots ()
+  {
+    return Arrays.copyOf(timeslots, timeslots.length);
+  }
+
+  /**
+   * Offset of the Configured BM line, or -1 if there is none.
+   */
+  public long getConfigOffset ()
+  {
+    return configOffset;
+  }
+
+  /**
+   * Offset of the Deactivated timeslot line for the given timeslot, or -1
+   * if the timeslot is not in the trace.
+   */
+  public long getOffset (int timeslot)
+  {
+    int i = find(timeslot);
+    return (i < 0) ? -1 : offsets[i];
+  }
+
+  /**
+   * Offset just past the data for the given timeslot, which is the start
+   * of the next indexed timeslot, or the end of the trace. Returns -1 if
+   * the timeslot is not in the trace.
+   */
+  public long getEndOffset (int timeslot)
+  {
+    int i = find(timeslot);
+    if (i < 0)
+      return -1;
+    return (i + 1 < offsets.length) ? offsets[i + 1] : traceLength;
+  }
+
+  /**
+   * Opens the trace positioned at the given byte offset.
+   */
+  public static BufferedReader open (File trace, long offset)
+      throws IOException
+  {
+    FileChannel channel = FileChannel.open(trace.toPath(),
+                                           StandardOpenOption.READ);
+    channel.position(offset);
+    return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel)));
+  }
+
+  // build() and read() keep the timeslots strictly increasing
+  private int find (int timeslot)
+  {
+    int i = Arrays.binarySearch(timeslots, timeslot);
+    return (i < 0) ? -1 : i;
+  }
+}
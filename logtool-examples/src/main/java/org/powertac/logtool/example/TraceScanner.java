@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.example;
+
+/**
+ * Recognizes the balancing-market lines of a trace log and pulls the
+ * numbers out of them, without regular expressions. Each recognizer looks
+ * for the fixed text of its message with indexOf(), then parses the fields
+ * that follow it in place. Callers ask only for the messages that can
+ * appear in their current scan state, so most lines are rejected by one
+ * or two substring searches.
+ *
+ * The recognized messages are
+ * <pre>
+ *   Configured BM: balancing cost = f, (pPlus',pMinus') = (e,e)
+ *   Deactivated timeslot n
+ *   BalancingMarketService: market balance for name: f
+ *   balancing prices: pPlus=f, pMinus=f
+ *   SettlementProcessor: totalImbalance=f
+ *   BalancingOrder n capacity = (f,f)
+ *   SettlementProcessor: DU budget: rm cost = f, broker cost = f
+ * </pre>
+ * where f is a decimal number with a fraction point, e is the same with an
+ * optional exponent, and n is an unsigned integer. A recognizer returns
+ * true (or a non-negative timeslot) only if the whole message is present;
+ * the fields are then available from getValue(), getId() and getName()
+ * until the next call. Numbers are converted exactly as by
+ * Double.parseDouble(), which is only called for the rare values that
+ * cannot be converted exactly in double arithmetic.
+ *
+ * @author agent
+ */
+public class TraceScanner
+{
+  static final String configText = "Configured BM: balancing cost = ";
+  static final String timeslotText = "Deactivated timeslot ";
+  static final String balanceText =
+      "BalancingMarketService: market balance for ";
+  static final String pricesText = "balancing prices: pPlus=";
+  static final String imbalanceText = "SettlementProcessor: totalImbalance=";
+  static final String orderText = "BalancingOrder ";
+  static final String budgetText =
+      "SettlementProcessor: DU budget: rm cost = ";
+
+  // exact powers of ten for the fast conversion path
+  private static final double[] powers = new double[23];
+  static {
+    powers[0] = 1.0;
+    for (int i = 1; i < powers.length; i++)
+      powers[i] = powers[i - 1] * 10.0;
+  }
+
+  private String line;
+  private int pos;
+  private double[] values = new double[3];
+  private long id;
+  private String name;
+
+  public TraceScanner ()
+  {
+    super();
+  }
+
+  /**
+   * Returns the i-th number of the last recognized message.
+   */
+  public double getValue (int i)
+  {
+    return values[i];
+  }
+
+  /**
+   * Returns the integer field of the last recognized BalancingOrder
+   * capacity message.
+   */
+  public long getId ()
+  {
+    return id;
+  }
+
+  /**
+   * Returns the broker name from the last recognized market balance
+   * message.
+   */
+  public String getName ()
+  {
+    return name;
+  }
+
+  /**
+   * Balancing cost and (pPlus', pMinus') from the balancing market
+   * configuration message.
+   */
+  public boolean config (String text)
+  {
+    int start = -1;
+    while ((start = next(text, configText, start)) >= 0) {
+      if (decimal(0, false) && literal(", (pPlus',pMinus') = (")
+          && decimal(1, true) && literal(",")
+          && decimal(2, true) && literal(")"))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the timeslot of a Deactivated timeslot message, or -1 if line
+   * is not one.
+   */
+  public int timeslot (String text)
+  {
+    int start = -1;
+    while ((start = next(text, timeslotText, start)) >= 0) {
+      if (integer())
+        return (int) id;
+    }
+    return -1;
+  }
+
+  /**
+   * Broker name and imbalance from a market balance message.
+   */
+  public boolean marketBalance (String text)
+  {
+    int start = -1;
+    while ((start = next(text, balanceText, start)) >= 0) {
+      if (brokerName() && literal(": ") && decimal(0, false))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * pPlus and pMinus from a balancing prices message.
+   */
+  public boolean prices (String text)
+  {
+    int start = -1;
+    while ((start = next(text, pricesText, start)) >= 0) {
+      if (decimal(0, false) && literal(", pMinus=") && decimal(1, false))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Total imbalance from the settlement processor.
+   */
+  public boolean totalImbalance (String text)
+  {
+    int start = -1;
+    while ((start = next(text, imbalanceText, start)) >= 0) {
+      if (decimal(0, false))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Order id and up/down capacity from a BalancingOrder capacity message.
+   */
+  public boolean capacity (String text)
+  {
+    int start = -1;
+    while ((start = next(text, orderText, start)) >= 0) {
+      if (integer() && literal(" capacity = (") && decimal(0, false)
+          && literal(",") && decimal(1, false) && literal(")"))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Regulating-market cost and broker cost from the DU budget message.
+   */
+  public boolean budget (String text)
+  {
+    int start = -1;
+    while ((start = next(text, budgetText, start)) >= 0) {
+      if (decimal(0, false) && literal(", broker cost = ")
+          && decimal(1, false))
+        return true;
+    }
+    return false;
+  }
+
+  // --------- field parsers ----------
+
+  // Finds the next occurrence of key after the one at start, and leaves pos
+  // just past it. Returns the index of the occurrence, or -1.
+  private int next (String text, String key, int start)
+  {
+    line = text;
+    int index = text.indexOf(key, start + 1);
+    if (index >= 0)
+      pos = index + key.length();
+    return index;
+  }
+
+  private boolean literal (String text)
+  {
+    if (!line.startsWith(text, pos))
+      return false;
+    pos += text.length();
+    return true;
+  }
+
+  // unsigned integer into id
+  private boolean integer ()
+  {
+    int start = pos;
+    long result = 0;
+    while (pos < line.length() && isDigit(line.charAt(pos))) {
+      result = result * 10 + (line.charAt(pos) - '0');
+      pos += 1;
+    }
+    if (pos == start)
+      return false;
+    if (pos - start > 18)
+      result = Long.parseLong(line.substring(start, pos));
+    id = result;
+    return true;
+  }
+
+  // Broker names are two or more word characters or spaces, starting and
+  // ending with a word character.
+  private boolean brokerName ()
+  {
+    int start = pos;
+    while (pos < line.length()
+           && (isWord(line.charAt(pos)) || line.charAt(pos) == ' '))
+      pos += 1;
+    // the name is followed by ": ", so back off to the last word character
+    while (pos > start && line.charAt(pos - 1) == ' ')
+      pos -= 1;
+    if (pos - start < 2 || !isWord(line.charAt(start)))
+      return false;
+    name = line.substring(start, pos);
+    return true;
+  }
+
+  // Number of the form -?d+.d*, followed by E-?d+ if exponent is allowed,
+  // stored in values[index].
+  private boolean decimal (int index, boolean exponent)
+  {
+    int start = pos;
+    boolean negative = false;
+    if (pos < line.length() && line.charAt(pos) == '-') {
+      negative = true;
+      pos += 1;
+    }
+    long mantissa = 0;
+    int significant = 0;
+    int scale = 0;
+    int digits = 0;
+    while (pos < line.length() && isDigit(line.charAt(pos))) {
+      int digit = line.charAt(pos) - '0';
+      if (significant > 0 || digit > 0)
+        significant += 1;
+      if (significant <= 18)
+        mantissa = mantissa * 10 + digit;
+      pos += 1;
+      digits += 1;
+    }
+    if (digits == 0 || pos >= line.length() || line.charAt(pos) != '.') {
+      pos = start;
+      return false;
+    }
+    pos += 1;
+    while (pos < line.length() && isDigit(line.charAt(pos))) {
+      int digit = line.charAt(pos) - '0';
+      if (significant > 0 || digit > 0)
+        significant += 1;
+      if (significant <= 18)
+        mantissa = mantissa * 10 + digit;
+      scale -= 1;
+      pos += 1;
+    }
+    if (exponent && pos + 1 < line.length() && line.charAt(pos) == 'E') {
+      int mark = pos;
+      pos += 1;
+      boolean negExp = false;
+      if (line.charAt(pos) == '-') {
+        negExp = true;
+        pos += 1;
+      }
+      int expStart = pos;
+      int exp = 0;
+      while (pos < line.length() && isDigit(line.charAt(pos))) {
+        if (exp < 10000)
+          exp = exp * 10 + (line.charAt(pos) - '0');
+        pos += 1;
+      }
+      if (pos == expStart)
+        pos = mark;
+      else
+        scale += negExp ? -exp : exp;
+    }
+    double result;
+    if (mantissa == 0 && significant == 0) {
+      result = 0.0;
+    }
+    else if (significant <= 15 && scale >= -22 && scale <= 22) {
+      // both mantissa and power of ten are exact, so one operation
+      // gives the correctly rounded result
+      result = (scale < 0) ? mantissa / powers[-scale]
+          : mantissa * powers[scale];
+    }
+    else {
+      values[index] = Double.parseDouble(line.substring(start, pos));
+      return true;
+    }
+    values[index] = negative ? -result : result;
+    return true;
+  }
+
+  private static boolean isDigit (char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isWord (char c)
+  {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9') || c == '_';
+  }
+}
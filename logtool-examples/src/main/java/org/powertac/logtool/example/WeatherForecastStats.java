@@ -27,7 +27,7 @@ import org.powertac.common.WeatherForecast;
 import org.powertac.common.WeatherForecastPrediction;
 import org.powertac.common.WeatherReport;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -37,13 +37,16 @@ import org.powertac.logtool.ifc.Analyzer;
  * for temperature data and one for wind data. Each file consists of lines
  * with the following format
  * timeslot obs fc-1 fc-2 ... fc-24
+ * A line is written once weather data for a later timeslot arrives, since
+ * the observation and the last forecast for a timeslot come before that.
+ * Only timeslots still inside the forecast horizon are kept.
  * 
  * Invoke as WeatherForecastStats 
  * 
  * @author John Collins
  */
 public class WeatherForecastStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(WeatherForecastStats.class.getName());
@@ -124,7 +127,22 @@ implements Analyzer
   @Override
   public void report ()
   {
-    for (Element el : data) {
+    if (null != data)
+      writeBefore(tsOffset + data.size());
+    wind.close();
+    temp.close();
+    return;
+  }
+
+  // Writes and drops the Elements for timeslots before n
+  private void writeBefore (int n)
+  {
+    if (null == data)
+      return;
+    int count = Math.min(n - tsOffset, data.size());
+    if (count <= 0)
+      return;
+    for (Element el : data.subList(0, count)) {
       wind.format("%d %.3f ", el.timeslot, el.reportedWind);
       for (double fcw : el.forecastWind) {
         wind.format("%.3f ", fcw);
@@ -136,9 +154,8 @@ implements Analyzer
       }
       temp.println();
     }
-    wind.close();
-    temp.close();
-    return;
+    data.subList(0, count).clear();
+    tsOffset += count;
   }
 
   // Returns the Element corresponding to timeslot n
@@ -169,6 +186,7 @@ implements Analyzer
     public void handleNewObject (Object thing)
     {
       WeatherReport rpt = (WeatherReport)thing;
+      writeBefore(rpt.getTimeslotIndex());
       Element el = getElementForTs(rpt.getTimeslotIndex());
       el.reportedTemp = rpt.getTemperature();
       el.reportedWind = rpt.getWindSpeed();
@@ -183,6 +201,7 @@ implements Analyzer
     {
       WeatherForecast fcst = (WeatherForecast)thing;
       int ts = fcst.getTimeslotIndex();
+      writeBefore(ts);
       int index = ts + 1;
       for (WeatherForecastPrediction pred : fcst.getPredictions()) {
         Element el = getElementForTs(index);
@@ -24,7 +24,7 @@ import org.joda.time.Instant;
 import org.powertac.common.TimeService;
 import org.powertac.common.WeatherReport;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -35,7 +35,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author John Collins
  */
 public class WeatherStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(WeatherStats.class.getName());
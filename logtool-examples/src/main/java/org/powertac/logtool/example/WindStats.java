@@ -15,9 +15,7 @@
  */
 package org.powertac.logtool.example;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.util.TreeMap;
 
 import org.apache.log4j.Logger;
@@ -27,10 +25,12 @@ import org.powertac.common.WeatherForecast;
 import org.powertac.common.WeatherForecastPrediction;
 import org.powertac.common.WeatherReport;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
+import org.powertac.logtool.output.TableColumn;
+import org.powertac.logtool.output.TableWriter;
 
 /**
  * Pulls out weather reports, generates wind prediction reports.
@@ -38,10 +38,15 @@ import org.powertac.logtool.ifc.Analyzer;
  * the predictions of wind speed from one hour earlier through 24
  * hours earlier.
  * 
+ * With --format arrow, the rows are written to an Arrow file, with columns
+ * fc-24 ... fc-1 for the forecasts made 24 ... 1 hours earlier, followed
+ * by obs for the reported wind speed, as in the text lines. Missing values
+ * are null.
+ * 
  * @author John Collins
  */
 public class WindStats
-extends LogtoolContext
+extends AnalyzerContext
 implements Analyzer
 {
   static private Logger log = Logger.getLogger(WindStats.class.getName());
@@ -51,7 +56,7 @@ implements Analyzer
   private TimeService timeService;
 
   // data output file
-  private PrintWriter data = null;
+  private TableWriter data = null;
   private String dataFilename = "winds.txt";
 
   // data collector
@@ -77,12 +82,16 @@ implements Analyzer
   }
   
   /**
-   * Takes two args, input filename and output filename
+   * Takes two args, input filename and output filename, and the
+   * --format option.
    */
   private void cli (String[] args)
   {
+    args = formatOption(args);
+    if (null == args)
+      return;
     if (args.length != 2) {
-      System.out.println("Usage: <analyzer> state-file output-file");
+      System.out.println("Usage: <analyzer> [--format text|arrow] state-file output-file");
       return;
     }
     dataFilename = args[1];
@@ -106,7 +115,7 @@ implements Analyzer
     //dor.registerNewObjectListener(new WeatherPredictionHandler(),
     //                              WeatherForecastPrediction.class);
     try {
-      data = new PrintWriter(new File(dataFilename));
+      data = openTable(dataFilename).withSeparator(" ");
     }
     catch (FileNotFoundException e) {
       log.error("Cannot open file " + dataFilename);
@@ -119,17 +128,25 @@ implements Analyzer
   @Override
   public void report ()
   {
+    // the horizon is known once the first forecast is seen; a missing
+    // value has always been written as "nu", null cut to %.2f
+    for (int i = 0; i < horizon; i++) {
+      data.declare(TableColumn.doubleColumn("fc-" + (horizon - i), 2)
+                   .withNullText("nu"));
+    }
+    data.declare(TableColumn.doubleColumn("obs", 2).withNullText("nu"));
     for (Integer index : wind.keySet()) {
       Double[] speeds = wind.get(index);
       if (null == speeds) {
         System.out.println("null array for index " + index);
       }
-      String delim = "";
       for (int i = 0; i < speeds.length; i++) {
-        data.format("%s%.2f", delim, speeds[i]);
-        delim = " ";
+        if (null == speeds[i])
+          data.addNull();
+        else
+          data.add(speeds[i]);
       }
-      data.println();
+      data.endRow();
     }
     data.close();
   }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Connection to a database laid out as in sql/powertac_analysis.sql,
+ * with the game, broker, broker_game, market_position and cash_position
+ * tables. Brokers are identified across games by name; a broker seen for
+ * the first time is added to the broker table with the next free id.
+ * Rows for the other tables are written through JdbcTableWriters that
+ * share this connection and its transaction, so a game is loaded
+ * completely or not at all.
+ *
+ * The user name and password are taken from the system properties
+ * logtool.db.user and logtool.db.password, if they are set.
+ *
+ * @author agent
+ */
+public class AnalysisDatabase
+{
+  static private Logger log = Logger.getLogger(AnalysisDatabase.class.getName());
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  // tables that refer to a game, children first
+  private static final String[][] gameTables =
+    {{"market_position", "broker_game_game_idgame"},
+     {"cash_position", "broker_game_game_idgame"},
+     {"broker_game", "game_idgame"},
+     {"game", "idgame"}};
+
+  private Connection connection;
+  private int batchSize;
+  private HashMap<String, Integer> brokerIds = new HashMap<String, Integer>();
+  private List<JdbcTableWriter> writers = new ArrayList<JdbcTableWriter>();
+
+  /**
+   * Uses an open connection, turning off auto-commit.
+   */
+  public AnalysisDatabase (Connection connection, int batchSize)
+      throws SQLException
+  {
+    super();
+    this.connection = connection;
+    this.batchSize = batchSize;
+    connection.setAutoCommit(false);
+  }
+
+  /**
+   * Connects to the database at url.
+   */
+  public static AnalysisDatabase open (String url, int batchSize)
+      throws SQLException
+  {
+    String user = System.getProperty("logtool.db.user");
+    String password = System.getProperty("logtool.db.password");
+    Connection connection;
+    if (null == user)
+      connection = DriverManager.getConnection(url);
+    else
+      connection = DriverManager.getConnection(url, user, password);
+    return new AnalysisDatabase(connection, batchSize);
+  }
+
+  public int getBatchSize ()
+  {
+    return batchSize;
+  }
+
+  /**
+   * Returns a writer for table, which must have a column for each column
+   * declared on it.
+   */
+  public JdbcTableWriter table (String name)
+  {
+    JdbcTableWriter writer = new JdbcTableWriter(connection, name, batchSize);
+    writers.add(writer);
+    return writer;
+  }
+
+  /**
+   * Adds the game, first deleting everything loaded for it before, so a
+   * game can be loaded again. The length is filled in by finishGame().
+   */
+  public void startGame (int game, int size) throws SQLException
+  {
+    for (String[] table : gameTables) {
+      PreparedStatement delete =
+          connection.prepareStatement("DELETE FROM " + table[0]
+                                      + " WHERE " + table[1] + " = ?");
+      delete.setInt(1, game);
+      int count = delete.executeUpdate();
+      delete.close();
+      if (count > 0)
+        log.info("Replacing " + count + " rows of " + table[0]
+                 + " for game " + game);
+    }
+    PreparedStatement insert =
+        connection.prepareStatement("INSERT INTO game (idgame, size, length) "
+                                    + "VALUES (?, ?, NULL)");
+    insert.setInt(1, game);
+    insert.setInt(2, size);
+    insert.executeUpdate();
+    insert.close();
+  }
+
+  /**
+   * Records the length of the game in timeslots.
+   */
+  public void finishGame (int game, int length) throws SQLException
+  {
+    PreparedStatement update =
+        connection.prepareStatement("UPDATE game SET length = ? "
+                                    + "WHERE idgame = ?");
+    update.setInt(1, length);
+    update.setInt(2, game);
+    update.executeUpdate();
+    update.close();
+  }
+
+  /**
+   * Returns the id of the named broker, adding it to the broker table if
+   * it is not there yet.
+   */
+  public int brokerId (String name) throws SQLException
+  {
+    Integer id = brokerIds.get(name);
+    if (null != id)
+      return id;
+    PreparedStatement find =
+        connection.prepareStatement("SELECT idbroker FROM broker "
+                                    + "WHERE name = ?");
+    find.setString(1, name);
+    ResultSet rs = find.executeQuery();
+    if (rs.next()) {
+      id = rs.getInt(1);
+    }
+    rs.close();
+    find.close();
+    if (null == id) {
+      // the schema has no auto-increment on idbroker
+      PreparedStatement max =
+          connection.prepareStatement("SELECT MAX(idbroker) FROM broker");
+      rs = max.executeQuery();
+      id = rs.next() ? rs.getInt(1) + 1 : 1;
+      rs.close();
+      max.close();
+      PreparedStatement insert =
+          connection.prepareStatement("INSERT INTO broker (idbroker, name) "
+                                      + "VALUES (?, ?)");
+      insert.setInt(1, id);
+      insert.setString(2, name);
+      insert.executeUpdate();
+      insert.close();
+    }
+    brokerIds.put(name, id);
+    return id;
+  }
+
+  /**
+   * Sends the rows waiting in all table writers and commits. Returns
+   * false, after rolling back, if any of them failed.
+   */
+  public boolean commit () throws SQLException
+  {
+    for (JdbcTableWriter writer : writers) {
+      writer.close();
+    }
+    for (JdbcTableWriter writer : writers) {
+      if (writer.checkError()) {
+        log.error("Rolling back, write to " + writer.getTable() + " failed");
+        rollback();
+        return false;
+      }
+    }
+    connection.commit();
+    return true;
+  }
+
+  public void rollback () throws SQLException
+  {
+    connection.rollback();
+    // rolled back broker rows have to be found or added again
+    brokerIds.clear();
+  }
+
+  public void close () throws SQLException
+  {
+    connection.close();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.log4j.Logger;
+
+/**
+ * Writes rows to an Arrow IPC file, which R (arrow::read_feather) and
+ * Python (pyarrow.ipc.open_file, pandas.read_feather) can map into memory
+ * without parsing. String columns become utf8, long columns int64 and
+ * double columns float64, all nullable. Doubles are stored at full
+ * precision; the column precision only applies to text.
+ *
+ * Rows are collected into record batches of BATCH_ROWS rows. The schema
+ * is fixed when the first row or the header is written.
+ *
+ * @author agent
+ */
+public class ArrowTableWriter extends TableWriter
+{
+  static private Logger log = Logger.getLogger(ArrowTableWriter.class.getName());
+
+  // rows per record batch
+  static final int BATCH_ROWS = 8192;
+
+  private WritableByteChannel channel;
+  private BufferAllocator allocator;
+  private VectorSchemaRoot root = null;
+  private ArrowFileWriter writer = null;
+  private FieldVector[] vectors;
+  private int row = 0;
+  private boolean error = false;
+
+  public ArrowTableWriter (WritableByteChannel channel)
+  {
+    super();
+    this.channel = channel;
+    allocator = new RootAllocator();
+  }
+
+  /**
+   * Creates or truncates file and writes to it.
+   */
+  public ArrowTableWriter (File file) throws FileNotFoundException
+  {
+    this(new FileOutputStream(file).getChannel());
+  }
+
+  @Override
+  public void writeHeader ()
+  {
+    super.writeHeader();
+    start();
+  }
+
+  // Builds the schema and vectors from the declared columns, and writes
+  // the file header
+  private void start ()
+  {
+    if (null != root)
+      return;
+    List<Field> fields = new ArrayList<Field>();
+    for (TableColumn column : getColumns()) {
+      fields.add(new Field(column.getName(),
+                           FieldType.nullable(arrowType(column)), null));
+    }
+    root = VectorSchemaRoot.create(new Schema(fields), allocator);
+    vectors = root.getFieldVectors().toArray(new FieldVector[0]);
+    root.allocateNew();
+    writer = new ArrowFileWriter(root, null, channel);
+    try {
+      writer.start();
+    }
+    catch (IOException ioe) {
+      failed("Cannot write output", ioe);
+    }
+  }
+
+  private ArrowType arrowType (TableColumn column)
+  {
+    switch (column.getType()) {
+    case STRING:
+      return new ArrowType.Utf8();
+    case LONG:
+      return new ArrowType.Int(64, true);
+    default:
+      return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+    }
+  }
+
+  @Override
+  protected void writeString (int index, TableColumn column, String value)
+  {
+    start();
+    if (null == value)
+      ((VarCharVector) vectors[index]).setNull(row);
+    else
+      ((VarCharVector) vectors[index])
+          .setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  protected void writeLong (int index, TableColumn column, long value)
+  {
+    start();
+    ((BigIntVector) vectors[index]).setSafe(row, value);
+  }
+
+  @Override
+  protected void writeDouble (int index, TableColumn column, double value)
+  {
+    start();
+    ((Float8Vector) vectors[index]).setSafe(row, value);
+  }
+
+  @Override
+  protected void writeNull (int index, TableColumn column)
+  {
+    start();
+    vectors[index].setNull(row);
+  }
+
+  @Override
+  protected void writeRowEnd ()
+  {
+    row += 1;
+    if (row >= BATCH_ROWS)
+      writeBatch();
+  }
+
+  private void writeBatch ()
+  {
+    root.setRowCount(row);
+    try {
+      if (!error)
+        writer.writeBatch();
+    }
+    catch (IOException ioe) {
+      failed("Cannot write output", ioe);
+    }
+    row = 0;
+    root.allocateNew();
+  }
+
+  @Override
+  public void close ()
+  {
+    start();
+    if (row > 0)
+      writeBatch();
+    try {
+      if (!error)
+        writer.end();
+      writer.close();
+    }
+    catch (IOException ioe) {
+      failed("Cannot close output", ioe);
+    }
+    root.close();
+    allocator.close();
+  }
+
+  @Override
+  public boolean checkError ()
+  {
+    return error;
+  }
+
+  private void failed (String msg, IOException ioe)
+  {
+    if (!error)
+      log.error(msg + ": " + ioe.getMessage());
+    error = true;
+  }
+}
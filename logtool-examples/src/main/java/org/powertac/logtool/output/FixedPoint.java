@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Formatter;
+import java.util.Locale;
+
+/**
+ * Appends numbers to a StringBuilder exactly as String.format() would
+ * with %.Nf and %d in the given locale, without creating any objects in
+ * the common case.
+ *
+ * Formatter rounds half-up on the decimal digits of the shortest
+ * representation of a double, not on its exact binary value, so 0.125
+ * and 2.675 both round up at two digits. The fast path scales the value
+ * into a long and rounds it directly, which gives the same answer unless
+ * the scaled value is within a few ulps of a rounding boundary. Those
+ * values, along with NaN, infinities, very large values and locales that
+ * do not use ASCII digits, are handed to a Formatter.
+ *
+ * @author agent
+ */
+public class FixedPoint
+{
+  // largest precision handled by the fast path
+  private static final int MAX_PRECISION = 15;
+
+  private static final double[] SCALE = new double[MAX_PRECISION + 1];
+  private static final long[] TENS = new long[MAX_PRECISION + 1];
+  static {
+    long ten = 1L;
+    for (int i = 0; i <= MAX_PRECISION; i++) {
+      TENS[i] = ten;
+      SCALE[i] = ten;
+      ten *= 10L;
+    }
+  }
+
+  // scaled values at or above this are not exact in a double
+  private static final double MAX_SCALED = 0x1p52;
+
+  private char decimalSeparator;
+  private boolean asciiDigits;
+  private StringBuilder scratch = new StringBuilder();
+  private Formatter formatter;
+  private String[] formats = new String[MAX_PRECISION + 1];
+
+  public FixedPoint (Locale locale)
+  {
+    super();
+    DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+    decimalSeparator = symbols.getDecimalSeparator();
+    asciiDigits = ('0' == symbols.getZeroDigit());
+    formatter = new Formatter(scratch, locale);
+  }
+
+  /**
+   * Formats in the default locale used by String.format() and
+   * PrintWriter.format().
+   */
+  public FixedPoint ()
+  {
+    this(Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * Appends value as %d would.
+   */
+  public void append (StringBuilder out, long value)
+  {
+    if (asciiDigits)
+      out.append(value);
+    else
+      fallback(out, "%d", value);
+  }
+
+  /**
+   * Appends value as %.Nf would, where N is precision.
+   */
+  public void append (StringBuilder out, double value, int precision)
+  {
+    if (!asciiDigits || precision > MAX_PRECISION || precision < 0
+        || Double.isNaN(value) || Double.isInfinite(value)) {
+      fallback(out, value, precision);
+      return;
+    }
+    double magnitude = Math.abs(value);
+    double scaled = magnitude * SCALE[precision];
+    if (scaled >= MAX_SCALED) {
+      fallback(out, value, precision);
+      return;
+    }
+    double whole = Math.floor(scaled);
+    double fraction = scaled - whole;
+    // Formatter's digits can be half an ulp away from the binary value,
+    // and the multiplication adds another half ulp
+    double margin = 2.0 * (Math.ulp(magnitude) * SCALE[precision]
+                           + Math.ulp(scaled));
+    if (Math.abs(fraction - 0.5) <= margin) {
+      fallback(out, value, precision);
+      return;
+    }
+    long digits = (long) whole;
+    if (fraction > 0.5)
+      digits += 1;
+
+    // Formatter keeps the sign of negative values that round to zero
+    if (Double.compare(value, 0.0) < 0)
+      out.append('-');
+    out.append(digits / TENS[precision]);
+    if (precision > 0) {
+      out.append(decimalSeparator);
+      long rest = digits % TENS[precision];
+      int start = out.length();
+      for (int i = 0; i < precision; i++)
+        out.append('0');
+      for (int i = start + precision - 1; rest > 0; i--) {
+        out.setCharAt(i, (char) ('0' + rest % 10));
+        rest /= 10;
+      }
+    }
+  }
+
+  private void fallback (StringBuilder out, double value, int precision)
+  {
+    String format;
+    if (precision >= 0 && precision <= MAX_PRECISION) {
+      format = formats[precision];
+      if (null == format) {
+        format = "%." + precision + "f";
+        formats[precision] = format;
+      }
+    }
+    else {
+      format = "%." + precision + "f";
+    }
+    fallback(out, format, value);
+  }
+
+  private void fallback (StringBuilder out, String format, Object value)
+  {
+    scratch.setLength(0);
+    formatter.format(format, value);
+    out.append(scratch);
+  }
+}
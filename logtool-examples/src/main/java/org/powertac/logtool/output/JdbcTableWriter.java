@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Inserts rows into a database table through a prepared statement, sending
+ * them to the server in batches of batchSize rows. Column names are used
+ * as the column names of the table. The writer does not commit; that is
+ * left to the owner of the connection, so that several tables can be
+ * loaded in one transaction.
+ *
+ * @author agent
+ */
+public class JdbcTableWriter extends TableWriter
+{
+  static private Logger log = Logger.getLogger(JdbcTableWriter.class.getName());
+
+  private Connection connection;
+  private String table;
+  private int batchSize;
+  private PreparedStatement insert = null;
+  private int pending = 0;
+  private long rows = 0;
+  private boolean error = false;
+
+  public JdbcTableWriter (Connection connection, String table, int batchSize)
+  {
+    super();
+    this.connection = connection;
+    this.table = table;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  public String getTable ()
+  {
+    return table;
+  }
+
+  /**
+   * Number of rows sent to the database so far.
+   */
+  public long getRowCount ()
+  {
+    return rows;
+  }
+
+  @Override
+  public void writeHeader ()
+  {
+    super.writeHeader();
+    start();
+  }
+
+  // Prepares the insert statement for the declared columns
+  private void start ()
+  {
+    if (null != insert || error)
+      return;
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(table);
+    StringBuilder values = new StringBuilder();
+    String delim = "";
+    for (TableColumn column : getColumns()) {
+      sql.append(delim.isEmpty() ? " (" : delim).append(column.getName());
+      values.append(delim).append("?");
+      delim = ", ";
+    }
+    sql.append(") VALUES (").append(values).append(")");
+    try {
+      insert = connection.prepareStatement(sql.toString());
+    }
+    catch (SQLException sqe) {
+      failed("Cannot prepare " + sql, sqe);
+    }
+  }
+
+  @Override
+  protected void writeString (int index, TableColumn column, String value)
+  {
+    start();
+    if (error)
+      return;
+    try {
+      insert.setString(index + 1, value);
+    }
+    catch (SQLException sqe) {
+      failed("Cannot set " + column, sqe);
+    }
+  }
+
+  @Override
+  protected void writeLong (int index, TableColumn column, long value)
+  {
+    start();
+    if (error)
+      return;
+    try {
+      insert.setLong(index + 1, value);
+    }
+    catch (SQLException sqe) {
+      failed("Cannot set " + column, sqe);
+    }
+  }
+
+  @Override
+  protected void writeDouble (int index, TableColumn column, double value)
+  {
+    start();
+    if (error)
+      return;
+    try {
+      insert.setDouble(index + 1, value);
+    }
+    catch (SQLException sqe) {
+      failed("Cannot set " + column, sqe);
+    }
+  }
+
+  @Override
+  protected void writeNull (int index, TableColumn column)
+  {
+    start();
+    if (error)
+      return;
+    try {
+      insert.setNull(index + 1, sqlType(column));
+    }
+    catch (SQLException sqe) {
+      failed("Cannot set " + column, sqe);
+    }
+  }
+
+  private int sqlType (TableColumn column)
+  {
+    switch (column.getType()) {
+    case STRING:
+      return Types.VARCHAR;
+    case LONG:
+      return Types.BIGINT;
+    default:
+      return Types.DOUBLE;
+    }
+  }
+
+  @Override
+  protected void writeRowEnd ()
+  {
+    if (error)
+      return;
+    try {
+      insert.addBatch();
+      pending += 1;
+      if (pending >= batchSize)
+        flush();
+    }
+    catch (SQLException sqe) {
+      failed("Cannot add row to " + table, sqe);
+    }
+  }
+
+  /**
+   * Sends any rows still waiting in the current batch.
+   */
+  public void flush ()
+  {
+    if (error || 0 == pending)
+      return;
+    try {
+      insert.executeBatch();
+      rows += pending;
+    }
+    catch (SQLException sqe) {
+      failed("Cannot insert into " + table, sqe);
+    }
+    pending = 0;
+  }
+
+  /**
+   * Sends the last batch and closes the statement, but not the
+   * connection.
+   */
+  @Override
+  public void close ()
+  {
+    flush();
+    if (null == insert)
+      return;
+    try {
+      insert.close();
+    }
+    catch (SQLException sqe) {
+      failed("Cannot close insert into " + table, sqe);
+    }
+    insert = null;
+  }
+
+  @Override
+  public boolean checkError ()
+  {
+    return error;
+  }
+
+  private void failed (String msg, SQLException sqe)
+  {
+    if (!error)
+      log.error(msg + ": " + sqe.getMessage());
+    error = true;
+  }
+}
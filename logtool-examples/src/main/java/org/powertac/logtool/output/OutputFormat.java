@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+/**
+ * Output formats an analyzer can be asked for with --format.
+ *
+ * @author agent
+ */
+public enum OutputFormat
+{
+  TEXT, ARROW;
+
+  /**
+   * Opens a writer for this format on file.
+   */
+  public TableWriter open (File file) throws FileNotFoundException
+  {
+    if (this == ARROW)
+      return new ArrowTableWriter(file);
+    return new TextTableWriter(file);
+  }
+
+  /**
+   * Looks up a format by name, ignoring case. Returns null if there is
+   * none by that name.
+   */
+  public static OutputFormat forName (String name)
+  {
+    for (OutputFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name))
+        return format;
+    }
+    return null;
+  }
+}
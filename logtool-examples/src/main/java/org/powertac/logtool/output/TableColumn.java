@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+/**
+ * One column of analyzer output, declared once before the first row is
+ * written to a TableWriter. A column has a name, a type, and for doubles
+ * the number of digits after the decimal point, as in %.3f.
+ *
+ * The prefix, suffix, separator and null text only affect the layout of
+ * text output. They let a pair of columns share one cell, as the
+ * [mwh price] cells of MktPriceStats do.
+ *
+ * @author agent
+ */
+public class TableColumn
+{
+  public enum Type { STRING, LONG, DOUBLE }
+
+  private String name;
+  private Type type;
+  private int precision = 0;
+
+  private String prefix = "";
+  private String suffix = "";
+  private String separator = null;
+  private String nullText = "";
+  private String header = null;
+
+  public TableColumn (String name, Type type, int precision)
+  {
+    super();
+    this.name = name;
+    this.type = type;
+    this.precision = precision;
+  }
+
+  public static TableColumn stringColumn (String name)
+  {
+    return new TableColumn(name, Type.STRING, 0);
+  }
+
+  public static TableColumn longColumn (String name)
+  {
+    return new TableColumn(name, Type.LONG, 0);
+  }
+
+  public static TableColumn doubleColumn (String name, int precision)
+  {
+    return new TableColumn(name, Type.DOUBLE, precision);
+  }
+
+  public String getName ()
+  {
+    return name;
+  }
+
+  public Type getType ()
+  {
+    return type;
+  }
+
+  public int getPrecision ()
+  {
+    return precision;
+  }
+
+  public String getPrefix ()
+  {
+    return prefix;
+  }
+
+  /**
+   * Text written in front of each value, fluent style.
+   */
+  public TableColumn withPrefix (String prefix)
+  {
+    this.prefix = prefix;
+    return this;
+  }
+
+  public String getSuffix ()
+  {
+    return suffix;
+  }
+
+  /**
+   * Text written after each value, fluent style.
+   */
+  public TableColumn withSuffix (String suffix)
+  {
+    this.suffix = suffix;
+    return this;
+  }
+
+  /**
+   * Separator between this column and the one before it, or null to use
+   * the separator of the writer.
+   */
+  public String getSeparator ()
+  {
+    return separator;
+  }
+
+  public TableColumn withSeparator (String separator)
+  {
+    this.separator = separator;
+    return this;
+  }
+
+  /**
+   * Text written in place of a missing value, between prefix and suffix.
+   */
+  public String getNullText ()
+  {
+    return nullText;
+  }
+
+  public TableColumn withNullText (String nullText)
+  {
+    this.nullText = nullText;
+    return this;
+  }
+
+  /**
+   * Text written for this column in a text header row, or its name if
+   * null. Lets a text header keep labels that are not unique.
+   */
+  public String getHeader ()
+  {
+    return (null == header) ? name : header;
+  }
+
+  public TableColumn withHeader (String header)
+  {
+    this.header = header;
+    return this;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return name + ":" + type;
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tabular analyzer output. Columns are declared once, then each row is
+ * written one value at a time in column order and finished with
+ * endRow(). Values are checked against the declared column types, so a
+ * row that does not match its columns fails at once instead of producing
+ * a shifted line.
+ *
+ * The separator, header separator and line end only affect text output,
+ * as do the layout settings of TableColumn. The defaults are ",", the
+ * column separator, and the platform line separator.
+ *
+ * Like PrintWriter, writers do not throw on output errors; they log the
+ * first one and report it through checkError().
+ *
+ * @author agent
+ */
+public abstract class TableWriter
+{
+  private List<TableColumn> columns = new ArrayList<TableColumn>();
+  private int current = 0;
+  private boolean started = false;
+
+  private String separator = ",";
+  private String headerSeparator = null;
+  private String lineEnd = System.lineSeparator();
+
+  /**
+   * Adds columns to the end of the row. All columns must be declared
+   * before the first row is started.
+   */
+  public TableWriter declare (TableColumn... cols)
+  {
+    return declare(Arrays.asList(cols));
+  }
+
+  public TableWriter declare (List<TableColumn> cols)
+  {
+    if (started)
+      throw new IllegalStateException("Columns declared after first row");
+    columns.addAll(cols);
+    return this;
+  }
+
+  public List<TableColumn> getColumns ()
+  {
+    return columns;
+  }
+
+  public String getSeparator ()
+  {
+    return separator;
+  }
+
+  public TableWriter withSeparator (String separator)
+  {
+    this.separator = separator;
+    return this;
+  }
+
+  public String getHeaderSeparator ()
+  {
+    return (null == headerSeparator) ? separator : headerSeparator;
+  }
+
+  public TableWriter withHeaderSeparator (String separator)
+  {
+    this.headerSeparator = separator;
+    return this;
+  }
+
+  public String getLineEnd ()
+  {
+    return lineEnd;
+  }
+
+  public TableWriter withLineEnd (String lineEnd)
+  {
+    this.lineEnd = lineEnd;
+    return this;
+  }
+
+  /**
+   * Writes a header row, if the output format has one.
+   */
+  public void writeHeader ()
+  {
+    started = true;
+  }
+
+  public TableWriter add (String value)
+  {
+    TableColumn column = next(TableColumn.Type.STRING);
+    writeString(current - 1, column, value);
+    return this;
+  }
+
+  public TableWriter add (long value)
+  {
+    TableColumn column = next(TableColumn.Type.LONG);
+    writeLong(current - 1, column, value);
+    return this;
+  }
+
+  public TableWriter add (double value)
+  {
+    TableColumn column = next(TableColumn.Type.DOUBLE);
+    writeDouble(current - 1, column, value);
+    return this;
+  }
+
+  /**
+   * Adds a missing value to a column of any type.
+   */
+  public TableWriter addNull ()
+  {
+    TableColumn column = next(null);
+    writeNull(current - 1, column);
+    return this;
+  }
+
+  /**
+   * Finishes the current row, which must have a value for every column.
+   */
+  public void endRow ()
+  {
+    if (current != columns.size())
+      throw new IllegalStateException("Row ended after " + current
+                                      + " of " + columns.size() + " columns");
+    current = 0;
+    writeRowEnd();
+  }
+
+  private TableColumn next (TableColumn.Type type)
+  {
+    started = true;
+    if (current >= columns.size())
+      throw new IllegalStateException("Too many values, " + columns.size()
+                                      + " columns declared");
+    TableColumn column = columns.get(current);
+    if (null != type && column.getType() != type)
+      throw new IllegalStateException("Cannot write " + type + " to column "
+                                      + column);
+    current += 1;
+    return column;
+  }
+
+  // Each value is written with the index of its column.
+  protected abstract void writeString (int index, TableColumn column,
+                                       String value);
+
+  protected abstract void writeLong (int index, TableColumn column,
+                                     long value);
+
+  protected abstract void writeDouble (int index, TableColumn column,
+                                       double value);
+
+  protected abstract void writeNull (int index, TableColumn column);
+
+  protected abstract void writeRowEnd ();
+
+  /**
+   * Writes out anything buffered and releases the output.
+   */
+  public abstract void close ();
+
+  /**
+   * True if an output error has been seen.
+   */
+  public abstract boolean checkError ();
+}
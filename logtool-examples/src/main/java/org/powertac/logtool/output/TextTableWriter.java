@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Writes rows as delimited text (CSV, TSV and the like). The output is
+ * byte for byte what the same row written with PrintWriter.format() would
+ * give, using %s for strings, %d for longs and %.Nf for doubles, so
+ * existing scripts can read it unchanged. Rows are built in a buffer that
+ * is reused from row to row and written out in large blocks; no Formatter
+ * is involved unless a value is too close to a rounding boundary to be
+ * sure of (see FixedPoint).
+ *
+ * @author agent
+ */
+public class TextTableWriter extends TableWriter
+{
+  static private Logger log = Logger.getLogger(TextTableWriter.class.getName());
+
+  // buffered text is written out once it gets this long
+  private static final int BLOCK_SIZE = 8192;
+
+  private Writer out;
+  private FixedPoint numbers;
+  private StringBuilder buffer = new StringBuilder(BLOCK_SIZE * 2);
+  private char[] block = new char[BLOCK_SIZE * 2];
+  private boolean rowStart = true;
+  private boolean error = false;
+
+  /**
+   * Writes to out, formatting numbers for the given locale.
+   */
+  public TextTableWriter (Writer out, Locale locale)
+  {
+    super();
+    this.out = out;
+    this.numbers = new FixedPoint(locale);
+  }
+
+  /**
+   * Writes to out, formatting numbers as PrintWriter.format() would.
+   */
+  public TextTableWriter (Writer out)
+  {
+    this(out, Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * Creates or truncates file and writes to it in the default charset, as
+   * new PrintWriter(file) does.
+   */
+  public TextTableWriter (File file) throws FileNotFoundException
+  {
+    this(new OutputStreamWriter(new FileOutputStream(file)));
+  }
+
+  /**
+   * Writes the column names as a header row.
+   */
+  @Override
+  public void writeHeader ()
+  {
+    super.writeHeader();
+    String delim = "";
+    String between = getHeaderSeparator();
+    List<TableColumn> columns = getColumns();
+    for (TableColumn column : columns) {
+      buffer.append(delim).append(column.getHeader());
+      delim = between;
+    }
+    writeRowEnd();
+  }
+
+  /**
+   * Writes a line of text as it is, outside the column structure.
+   */
+  public void writeLine (String line)
+  {
+    buffer.append(line);
+    writeRowEnd();
+  }
+
+  @Override
+  protected void writeString (int index, TableColumn column, String value)
+  {
+    startCell(column);
+    buffer.append(value);
+    buffer.append(column.getSuffix());
+  }
+
+  @Override
+  protected void writeLong (int index, TableColumn column, long value)
+  {
+    startCell(column);
+    numbers.append(buffer, value);
+    buffer.append(column.getSuffix());
+  }
+
+  @Override
+  protected void writeDouble (int index, TableColumn column, double value)
+  {
+    startCell(column);
+    numbers.append(buffer, value, column.getPrecision());
+    buffer.append(column.getSuffix());
+  }
+
+  @Override
+  protected void writeNull (int index, TableColumn column)
+  {
+    startCell(column);
+    buffer.append(column.getNullText());
+    buffer.append(column.getSuffix());
+  }
+
+  private void startCell (TableColumn column)
+  {
+    if (!rowStart) {
+      String delim = column.getSeparator();
+      buffer.append(null == delim ? getSeparator() : delim);
+    }
+    rowStart = false;
+    buffer.append(column.getPrefix());
+  }
+
+  @Override
+  protected void writeRowEnd ()
+  {
+    buffer.append(getLineEnd());
+    rowStart = true;
+    if (buffer.length() >= BLOCK_SIZE)
+      writeBuffer();
+  }
+
+  // Copies the buffer out through a reusable array, since writing the
+  // StringBuilder directly would make a String of it.
+  private void writeBuffer ()
+  {
+    int length = buffer.length();
+    if (block.length < length)
+      block = new char[buffer.capacity()];
+    buffer.getChars(0, length, block, 0);
+    buffer.setLength(0);
+    if (error)
+      return;
+    try {
+      out.write(block, 0, length);
+    }
+    catch (IOException ioe) {
+      log.error("Cannot write output: " + ioe.getMessage());
+      error = true;
+    }
+  }
+
+  /**
+   * Writes out the buffered rows without closing the output.
+   */
+  public void flush ()
+  {
+    writeBuffer();
+    try {
+      out.flush();
+    }
+    catch (IOException ioe) {
+      log.error("Cannot flush output: " + ioe.getMessage());
+      error = true;
+    }
+  }
+
+  @Override
+  public void close ()
+  {
+    writeBuffer();
+    try {
+      out.close();
+    }
+    catch (IOException ioe) {
+      log.error("Cannot close output: " + ioe.getMessage());
+      error = true;
+    }
+  }
+
+  @Override
+  public boolean checkError ()
+  {
+    return error;
+  }
+}
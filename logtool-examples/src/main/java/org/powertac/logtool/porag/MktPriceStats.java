@@ -40,7 +40,8 @@ import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.repo.OrderbookRepo;
 import org.powertac.common.repo.TimeslotRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
+import org.powertac.logtool.common.ClearingTable;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -69,7 +70,7 @@ import org.powertac.common.BankTransaction;
  * 
  * @author John Collins
  */
-public class MktPriceStats extends LogtoolContext implements Analyzer {
+public class MktPriceStats extends AnalyzerContext implements Analyzer {
 //	static private Logger log = Logger.getLogger(MktPriceStats.class.getName());
 
 	// service references
@@ -81,7 +82,7 @@ public class MktPriceStats extends LogtoolContext implements Analyzer {
 	private BrokerRepo brokerRepo;
 
 	// Data
-	private TreeMap<Integer, ClearedTrade[]> data;
+	private ClearingTable data;
 	private TreeMap<Integer, SimulationDataPerTimeSlot> marketData;
 	TreeMap<Integer, Integer> orderbookCounter = new TreeMap<Integer, Integer>();
 	private int counter = 0;
@@ -151,7 +152,7 @@ public class MktPriceStats extends LogtoolContext implements Analyzer {
 		
 		
 		ignoreCount = ignoreInitial;
-		data = new TreeMap<Integer, ClearedTrade[]>();
+		data = new ClearingTable(24);
 		marketData = new TreeMap<Integer, SimulationDataPerTimeSlot>();
 		try {
 			//output = new PrintWriter(new File(dataFilename));
@@ -370,12 +371,8 @@ public class MktPriceStats extends LogtoolContext implements Analyzer {
 				// problem
 //				log.error("ClearedTrade index error: " + offset);
 			} else {
-				ClearedTrade[] targetArray = data.get(target);
-				if (null == targetArray) {
-					targetArray = new ClearedTrade[24];
-					data.put(target, targetArray);
-				}
-				targetArray[offset] = ct;
+				data.put(target, offset, ct.getExecutionMWh(),
+						ct.getExecutionPrice());
 			}
 		}
 	}
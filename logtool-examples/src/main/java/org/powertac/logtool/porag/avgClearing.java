@@ -19,7 +19,7 @@ import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.repo.OrderbookRepo;
 import org.powertac.common.repo.TimeslotRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -41,7 +41,7 @@ import org.powertac.common.Timeslot;
  * 
  * @author John Collins
  */
-public class avgClearing extends LogtoolContext implements Analyzer {
+public class avgClearing extends AnalyzerContext implements Analyzer {
 	//static private Logger log = Logger.getLogger(MktPriceStats.class.getName());
 
 	// service references
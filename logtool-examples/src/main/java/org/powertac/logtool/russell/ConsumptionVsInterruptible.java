@@ -30,7 +30,7 @@ import org.powertac.common.enumerations.PowerType;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -49,7 +49,7 @@ import org.powertac.common.enumerations.PowerType;
  * @author John Collins
  */
 public class ConsumptionVsInterruptible
-        extends LogtoolContext
+        extends AnalyzerContext
         implements Analyzer
 {
     static private Logger log = Logger.getLogger(ConsumptionVsInterruptible.class.getName());
@@ -3,7 +3,7 @@ package org.powertac.logtool.russell;
 import org.powertac.common.Broker;
 import org.powertac.common.CashPosition;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -16,7 +16,7 @@ import java.util.HashMap;
   *
   * @author Russell Folk
   */
-public class LearningCurve extends LogtoolContext implements Analyzer
+public class LearningCurve extends AnalyzerContext implements Analyzer
 {
 	//static private Logger log = Logger.getLogger(CustomerStats.class.getName());
 
@@ -3,7 +3,7 @@ package org.powertac.logtool.russell;
 import org.apache.log4j.Logger;
 import org.powertac.common.*;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -17,7 +17,7 @@ import java.util.HashMap;
 /**
  * Created by russell on 8/24/16.
  */
-public class PerformanceAnalysis extends LogtoolContext implements Analyzer
+public class PerformanceAnalysis extends AnalyzerContext implements Analyzer
 {
     static private Logger log = Logger.getLogger(PerformanceAnalysis.class.getName());
 
@@ -29,7 +29,7 @@ import org.powertac.common.enumerations.PowerType;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -48,7 +48,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author Russell Folk
  */
 public class ProfitPerTariffType
-        extends LogtoolContext
+        extends AnalyzerContext
         implements Analyzer
 {
     /**
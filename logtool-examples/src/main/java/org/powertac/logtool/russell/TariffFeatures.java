@@ -30,7 +30,7 @@ import org.powertac.common.TariffTransaction;
 import org.powertac.common.msg.TimeslotUpdate;
 import org.powertac.common.repo.BrokerRepo;
 import org.powertac.common.spring.SpringApplicationContext;
-import org.powertac.logtool.LogtoolContext;
+import org.powertac.logtool.AnalyzerContext;
 import org.powertac.logtool.common.DomainObjectReader;
 import org.powertac.logtool.common.NewObjectListener;
 import org.powertac.logtool.ifc.Analyzer;
@@ -43,7 +43,7 @@ import org.powertac.logtool.ifc.Analyzer;
  * @author Russell Folk
  */
 public class TariffFeatures
-        extends LogtoolContext
+        extends AnalyzerContext
         implements Analyzer
 {
     static private Logger log = Logger.getLogger(TariffFeatures.class.getName());
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the lines LinePipeline delivers against BufferedReader.readLine()
+ * on the same input, with the input handed over in chosen pieces so line
+ * ends fall on block boundaries, and checks how the pipeline ends on a
+ * read error and on an early stop.
+ *
+ * @author agent
+ */
+public class LinePipelineTest
+{
+  @Test
+  public void testSplitCrLf () throws IOException
+  {
+    // \r at the end of one block, \n at the start of the next
+    check("first\r", "\nsecond\r\n", "third");
+    check("first\r", "\n", "\r", "\n", "second\n");
+    // a block that is only a \r\n, and an empty line across blocks
+    check("first", "\r\n", "\r", "\nsecond");
+    check("first\r", "\r", "\nsecond\r");
+  }
+
+  @Test
+  public void testBareCr () throws IOException
+  {
+    check("one\rtwo\rthree\r");
+    check("one\r\rtwo\n\rthree");
+    check("one\r", "two\r", "\r", "three");
+    check("\r\r\r");
+  }
+
+  @Test
+  public void testNoTerminator () throws IOException
+  {
+    check("one\ntwo");
+    check("one\ntw", "o");
+    check("one\n", "two");
+    check("only");
+    assertEquals(Arrays.asList("one", "two"), lines("one\ntw", "o"));
+  }
+
+  @Test
+  public void testEmpty () throws IOException
+  {
+    LinePipeline pipeline = new LinePipeline(new StringReader(""));
+    pipeline.start();
+    assertNull(pipeline.next());
+    assertNull(pipeline.next());
+    check("\n");
+    check("\r\n", "\n");
+  }
+
+  // mixed line ends at random block boundaries, over several batches
+  @Test
+  public void testRandomBlocks () throws IOException
+  {
+    Random random = new Random(42);
+    String[] ends = {"\n", "\r", "\r\n"};
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 3 * LinePipeline.batchSize; i++) {
+      int length = random.nextInt(40);
+      for (int j = 0; j < length; j++)
+        text.append((char) ('a' + random.nextInt(26)));
+      text.append(ends[random.nextInt(ends.length)]);
+    }
+    List<String> pieces = new ArrayList<String>();
+    int start = 0;
+    while (start < text.length()) {
+      int end = Math.min(text.length(), start + 1 + random.nextInt(64));
+      pieces.add(text.substring(start, end));
+      start = end;
+    }
+    check(pieces.toArray(new String[pieces.size()]));
+  }
+
+  // lines read before the error arrive first, then the error itself
+  @Test
+  public void testReadError () throws IOException
+  {
+    IOException error = new IOException("corrupt archive");
+    LinePipeline pipeline =
+        new LinePipeline(new PieceReader(error, "one\ntwo\n", "three\n"));
+    pipeline.start();
+    List<String> result = new ArrayList<String>();
+    try {
+      List<String> batch;
+      while (null != (batch = pipeline.next()))
+        result.addAll(batch);
+      fail("no exception at the end of the input");
+    }
+    catch (IOException e) {
+      assertSame(error, e);
+    }
+    assertEquals(Arrays.asList("one", "two", "three"), result);
+    assertNull(pipeline.next());
+  }
+
+  // the consumer quits while the queues are full
+  @Test
+  public void testStop () throws Exception
+  {
+    EndlessReader input = new EndlessReader();
+    LinePipeline pipeline = new LinePipeline(input);
+    pipeline.start();
+    assertNotNull(pipeline.next());
+    // give the stages time to fill both queues and block
+    long deadline = System.currentTimeMillis() + 5000;
+    while (input.reads < 2 * LinePipeline.queueDepth
+           && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    Thread.sleep(100);
+    Thread reader = input.thread;
+    assertTrue(reader.isAlive());
+    pipeline.stop();
+    reader.join(5000);
+    assertFalse(reader.isAlive());
+    int reads = input.reads;
+    Thread.sleep(100);
+    assertEquals(reads, input.reads);
+    assertNull(pipeline.next());
+  }
+
+  // the pipeline must give the same lines as readLine()
+  private void check (String... pieces) throws IOException
+  {
+    StringBuilder text = new StringBuilder();
+    for (String piece : pieces)
+      text.append(piece);
+    List<String> expected = new ArrayList<String>();
+    BufferedReader in = new BufferedReader(new StringReader(text.toString()));
+    String line;
+    while (null != (line = in.readLine()))
+      expected.add(line);
+    assertEquals(Arrays.toString(pieces), expected, lines(pieces));
+  }
+
+  private List<String> lines (String... pieces) throws IOException
+  {
+    LinePipeline pipeline = new LinePipeline(new PieceReader(null, pieces));
+    pipeline.start();
+    List<String> result = new ArrayList<String>();
+    List<String> batch;
+    while (null != (batch = pipeline.next())) {
+      assertTrue(batch.size() <= LinePipeline.batchSize);
+      result.addAll(batch);
+    }
+    return result;
+  }
+
+  // returns one piece per read, then the end of input or an error
+  class PieceReader extends Reader
+  {
+    private String[] pieces;
+    private IOException error;
+    private int index = 0;
+
+    PieceReader (IOException error, String... pieces)
+    {
+      super();
+      this.error = error;
+      this.pieces = pieces;
+    }
+
+    @Override
+    public int read (char[] buffer, int offset, int length) throws IOException
+    {
+      if (index == pieces.length) {
+        if (null != error)
+          throw error;
+        return -1;
+      }
+      String piece = pieces[index++];
+      piece.getChars(0, piece.length(), buffer, offset);
+      return piece.length();
+    }
+
+    @Override
+    public void close ()
+    {
+    }
+  }
+
+  // never runs out of lines
+  class EndlessReader extends Reader
+  {
+    volatile Thread thread;
+    volatile int reads = 0;
+
+    @Override
+    public int read (char[] buffer, int offset, int length)
+    {
+      thread = Thread.currentThread();
+      for (int i = 0; i < length; i++)
+        buffer[offset + i] = (i % 80 == 79) ? '\n' : 'x';
+      reads += 1;
+      return length;
+    }
+
+    @Override
+    public void close ()
+    {
+    }
+  }
+}
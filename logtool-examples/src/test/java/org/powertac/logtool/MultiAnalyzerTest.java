@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.powertac.logtool.example.MktPriceStats;
+import org.powertac.logtool.output.OutputFormat;
+
+/**
+ * Checks that analyzer options, --format in particular, survive the way
+ * MultiAnalyzer and TournamentBatch put the state log into an analyzer's
+ * command line.
+ *
+ * @author agent
+ */
+public class MultiAnalyzerTest
+{
+  private AnalyzerContext context ()
+  {
+    return new AnalyzerContext() { };
+  }
+
+  @Test
+  public void testFormatOption ()
+  {
+    AnalyzerContext separate = context();
+    assertArrayEquals(new String[] {"in", "out"},
+                      separate.formatOption(new String[]
+                          {"--format", "arrow", "in", "out"}));
+    assertEquals(OutputFormat.ARROW, separate.getOutputFormat());
+
+    AnalyzerContext joined = context();
+    assertArrayEquals(new String[] {"--no-headers", "in", "out"},
+                      joined.formatOption(new String[]
+                          {"--no-headers", "--format=arrow", "in", "out"}));
+    assertEquals(OutputFormat.ARROW, joined.getOutputFormat());
+
+    AnalyzerContext unchanged = context();
+    assertArrayEquals(new String[] {"in", "out"},
+                      unchanged.formatOption(new String[] {"in", "out"}));
+    assertEquals(OutputFormat.TEXT, unchanged.getOutputFormat());
+
+    assertNull(context().formatOption(new String[] {"--format=csv", "in"}));
+    assertNull(context().formatOption(new String[] {"in", "--format"}));
+  }
+
+  @Test
+  public void testInsertInput ()
+  {
+    assertArrayEquals(new String[] {"--format", "arrow", "game.state", "out"},
+                      MultiAnalyzer.insertInput("game.state", new String[]
+                          {"--format", "arrow", "out"}));
+    assertArrayEquals(new String[] {"--format=arrow", "game.state", "out"},
+                      MultiAnalyzer.insertInput("game.state", new String[]
+                          {"--format=arrow", "out"}));
+    assertArrayEquals(new String[] {"--no-headers", "game.state", "out"},
+                      MultiAnalyzer.insertInput("game.state", new String[]
+                          {"--no-headers", "out"}));
+  }
+
+  // MktPriceStats --format arrow out, as given to MultiAnalyzer
+  @Test
+  public void testSeparateFormat ()
+  {
+    AnalyzerContext analyzer =
+        AnalyzerContext.configure(MktPriceStats.class,
+                                  MultiAnalyzer.insertInput("game.state",
+                                      new String[] {"--format", "arrow",
+                                                    "prices.arrow"}));
+    assertNotNull(analyzer);
+    assertEquals("game.state", analyzer.getInputFile());
+    assertEquals(OutputFormat.ARROW, analyzer.getOutputFormat());
+  }
+
+  // MktPriceStats --no-headers out, as given to MultiAnalyzer, and as
+  // TournamentBatch builds it from its analyzer options and output file
+  @Test
+  public void testAnalyzerOption ()
+  {
+    AnalyzerContext analyzer =
+        AnalyzerContext.configure(MktPriceStats.class,
+                                  MultiAnalyzer.insertInput("game.state",
+                                      new String[] {"--no-headers",
+                                                    "prices.data"}));
+    assertNotNull(analyzer);
+    assertEquals("game.state", analyzer.getInputFile());
+    assertEquals(OutputFormat.TEXT, analyzer.getOutputFormat());
+
+    analyzer =
+        AnalyzerContext.configure(MktPriceStats.class,
+                                  MultiAnalyzer.insertInput("game.state",
+                                      new String[] {"--format", "arrow",
+                                                    "--no-headers",
+                                                    "prices.arrow"}));
+    assertNotNull(analyzer);
+    assertEquals("game.state", analyzer.getInputFile());
+    assertEquals(OutputFormat.ARROW, analyzer.getOutputFormat());
+
+    assertNull(AnalyzerContext.configure(MktPriceStats.class,
+                                         new String[] {"--no-headers",
+                                                       "game.state"}));
+  }
+
+  // MktPriceStats --format=arrow out, as given to MultiAnalyzer
+  @Test
+  public void testJoinedFormat ()
+  {
+    AnalyzerContext analyzer =
+        AnalyzerContext.configure(MktPriceStats.class,
+                                  MultiAnalyzer.insertInput("game.state",
+                                      new String[] {"--format=arrow",
+                                                    "prices.arrow"}));
+    assertNotNull(analyzer);
+    assertEquals("game.state", analyzer.getInputFile());
+    assertEquals(OutputFormat.ARROW, analyzer.getOutputFormat());
+  }
+}
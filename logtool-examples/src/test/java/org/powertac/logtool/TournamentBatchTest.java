@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.joda.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks how TournamentBatch finds the games in a tournament directory,
+ * and that the parallel workers report each game as done or failed.
+ *
+ * @author agent
+ */
+public class TournamentBatchTest
+{
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testFindGames () throws IOException
+  {
+    File dir = folder.newFolder("tournament");
+    String[] names = {"game-12-sim-logs.tar.gz", "game-3-sim-logs.tar.gz",
+                      "game-100-sim-logs.tar.gz", "game-5-boot-logs.tar.gz",
+                      "game-7-sim-logs.tar", "game-x-sim-logs.tar.gz",
+                      "game-8-sim-logs.tar.gz.part", "notes.txt"};
+    for (String name : names)
+      new File(dir, name).createNewFile();
+
+    List<File> games = TournamentBatch.findGames(dir, "sim");
+    assertEquals(Arrays.asList(new File(dir, "game-3-sim-logs.tar.gz"),
+                               new File(dir, "game-12-sim-logs.tar.gz"),
+                               new File(dir, "game-100-sim-logs.tar.gz")),
+                 games);
+    assertEquals(Arrays.asList(new File(dir, "game-5-boot-logs.tar.gz")),
+                 TournamentBatch.findGames(dir, "boot"));
+    assertTrue(TournamentBatch.findGames(new File(dir, "none"), "sim")
+               .isEmpty());
+
+    assertEquals("12", TournamentBatch.gameId(games.get(1), "sim"));
+    assertNull(TournamentBatch.gameId(games.get(1), "boot"));
+    assertEquals("log/powertac-sim-12.state",
+                 TournamentBatch.stateLogMember("12", "sim"));
+  }
+
+  // two good games, one that is not a gzip file, and one without its
+  // state log, shared among two workers
+  @Test
+  public void testParallel () throws IOException
+  {
+    File dir = folder.newFolder("tournament");
+    File output = new File(folder.getRoot(), "output");
+    writeGame(dir, 1, "log/powertac-sim-1.state");
+    writeGame(dir, 2, "log/powertac-sim-2.state");
+    OutputStream out = new FileOutputStream(new File(dir, "game-3-sim-logs.tar.gz"));
+    out.write("not an archive".getBytes(StandardCharsets.US_ASCII));
+    out.close();
+    writeGame(dir, 4, "log/powertac-sim-40.state");
+
+    String summary =
+        run("--workers", "2", "--output-dir", output.getPath(),
+            "--prefix", "prices-", dir.getPath(), "MktPriceStats");
+    assertTrue(summary, summary.contains("Game 1: done"));
+    assertTrue(summary, summary.contains("Game 2: done"));
+    assertTrue(summary, summary.contains("Game 3: failed"));
+    assertTrue(summary, summary.contains("Game 4: failed"));
+    assertTrue(summary.indexOf("Game 1:") < summary.indexOf("Game 2:"));
+    assertTrue(summary.indexOf("Game 3:") < summary.indexOf("Game 4:"));
+    assertTrue(new File(output, "prices-1.data").length() > 0);
+    assertTrue(new File(output, "prices-2.data").length() > 0);
+    assertFalse(new File(output, "prices-4.data").exists());
+  }
+
+  // runs the batch and returns what it printed
+  private String run (String... args)
+  {
+    PrintStream original = System.out;
+    ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(printed, true));
+    try {
+      TournamentBatch.main(args);
+    }
+    finally {
+      System.setOut(original);
+    }
+    return new String(printed.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  // an archive holding a short state log under the given name
+  private void writeGame (File dir, int game, String member)
+      throws IOException
+  {
+    byte[] log = stateLog(12).getBytes(StandardCharsets.US_ASCII);
+    TarArchiveOutputStream tar = new TarArchiveOutputStream(
+        new GZIPOutputStream(new FileOutputStream(
+            new File(dir, "game-" + game + "-sim-logs.tar.gz"))));
+    TarArchiveEntry entry = new TarArchiveEntry(member);
+    entry.setSize(log.length);
+    tar.putArchiveEntry(entry);
+    tar.write(log);
+    tar.closeArchiveEntry();
+    tar.close();
+  }
+
+  // market clearings for the given number of timeslots
+  private String stateLog (int timeslots)
+  {
+    List<String> lines = new ArrayList<String>();
+    Instant base = new Instant(1255132800000L);
+    lines.add("Competition::1::new::batch-test");
+    lines.add("Competition::1::withSimulationBaseTime::" + base.getMillis());
+    lines.add("Competition::1::withTimeslotsOpen::24");
+    lines.add("Competition::1::withDeactivateTimeslotsAhead::1");
+    lines.add("Broker::2::new::default broker");
+    long id = 100;
+    for (int t = 0; t < timeslots; t++) {
+      String now = new Instant(base.getMillis() + t * 3600000L).toString();
+      lines.add("TimeService::null::setCurrentTime::" + now);
+      lines.add("msg.TimeslotUpdate::" + id++ + "::new::" + now + "::"
+                + (t + 1) + "::" + (t + 24));
+      for (int lead = 1; lead <= 24; lead++)
+        lines.add(String.format(Locale.US,
+                                "ClearedTrade::%d::new::%d::%.4f::%.4f::%s",
+                                id++, t + lead, 10 + lead * 0.5,
+                                30 + lead + t * 0.01, now));
+    }
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < lines.size(); i++)
+      result.append(i).append(":org.powertac.common.")
+          .append(lines.get(i)).append('\n');
+    return result.toString();
+  }
+}
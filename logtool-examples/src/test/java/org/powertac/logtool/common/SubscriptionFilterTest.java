@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.joda.time.Instant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powertac.common.BalancingTransaction;
+import org.powertac.common.Broker;
+import org.powertac.common.ClearedTrade;
+import org.powertac.common.Competition;
+import org.powertac.common.CustomerInfo;
+import org.powertac.common.MarketTransaction;
+import org.powertac.common.Order;
+import org.powertac.common.Orderbook;
+import org.powertac.common.OrderbookOrder;
+import org.powertac.common.Rate;
+import org.powertac.common.TariffSpecification;
+import org.powertac.common.TariffTransaction;
+import org.powertac.common.TimeService;
+import org.powertac.common.Timeslot;
+import org.powertac.common.WeatherForecast;
+import org.powertac.common.WeatherReport;
+import org.powertac.common.msg.SimEnd;
+import org.powertac.common.msg.TimeslotUpdate;
+import org.powertac.logtool.example.MktPriceStats;
+import org.powertac.logtool.example.SolarProduction;
+
+/**
+ * Checks which classes the filter keeps for a given set of listeners, and
+ * that analyzers write the same output with the filter on and off.
+ *
+ * @author agent
+ */
+public class SubscriptionFilterTest
+{
+  private DomainObjectReader reader;
+  private SubscriptionFilter filter;
+  private NewObjectListener listener = new NewObjectListener() {
+    @Override
+    public void handleNewObject (Object thing)
+    {
+    }
+  };
+  private List<File> files = new ArrayList<File>();
+
+  @Before
+  public void setUp ()
+  {
+    reader = new DomainObjectReader();
+    filter = new SubscriptionFilter(reader);
+  }
+
+  @After
+  public void tearDown ()
+  {
+    for (File file : files)
+      file.delete();
+    System.clearProperty("logtool.filter");
+  }
+
+  // the listeners of SolarProduction
+  @Test
+  public void testSolarProductionListeners ()
+  {
+    reader.registerNewObjectListener(listener, TimeslotUpdate.class);
+    reader.registerNewObjectListener(listener, TariffTransaction.class);
+    Class<?>[] kept =
+      {TimeslotUpdate.class, TariffTransaction.class, Broker.class,
+       CustomerInfo.class, TariffSpecification.class, Rate.class,
+       Timeslot.class, Competition.class, TimeService.class, SimEnd.class};
+    for (Class<?> clazz : kept)
+      assertTrue(clazz.getName(), filter.accepts(clazz));
+    Class<?>[] dropped =
+      {Order.class, Orderbook.class, OrderbookOrder.class,
+       ClearedTrade.class, MarketTransaction.class,
+       BalancingTransaction.class, WeatherReport.class,
+       WeatherForecast.class};
+    for (Class<?> clazz : dropped)
+      assertFalse(clazz.getName(), filter.accepts(clazz));
+
+    assertTrue(filter.accepts("17:org.powertac.common.Broker::3::new::AgentX"));
+    assertTrue(filter.accepts("18:org.powertac.common.TariffTransaction::9::new::3::0::CONSUME::null::5::10::-1.0::2.0::false"));
+    assertFalse(filter.accepts("19:org.powertac.common.Order::11::-rr::2::1::1.5::-30.0"));
+    assertFalse(filter.accepts("20:org.powertac.common.Orderbook::15::addBid::16"));
+    // ignored by the reader, or unknown and left for the reader to report
+    assertFalse(filter.accepts("21:org.powertac.common.RandomSeed::4::new::x"));
+    assertTrue(filter.accepts("22:org.powertac.common.NoSuchClass::4::new"));
+  }
+
+  // classes become needed as listeners are registered for them
+  @Test
+  public void testLaterListener ()
+  {
+    reader.registerNewObjectListener(listener, TimeslotUpdate.class);
+    String line = "19:org.powertac.common.Order::11::-rr::2::1::1.5::-30.0";
+    assertFalse(filter.accepts(line));
+    assertFalse(filter.accepts(Order.class));
+    reader.registerNewObjectListener(listener, Order.class);
+    assertTrue(filter.accepts(line));
+    assertTrue(filter.accepts(Order.class));
+  }
+
+  @Test
+  public void testAllClasses ()
+  {
+    reader.registerNewObjectListener(listener, TimeslotUpdate.class);
+    reader.registerNewObjectListener(listener, null);
+    assertTrue(filter.accepts(Order.class));
+    assertTrue(filter.accepts(OrderbookOrder.class));
+    assertTrue(filter.accepts("19:org.powertac.common.Order::11::-rr::2::1::1.5::-30.0"));
+    assertTrue(filter.accepts("20:org.powertac.common.WeatherReport::19::new::0::10.0::3.25::180.0::0.000"));
+  }
+
+  // analyzer output must not depend on -Dlogtool.filter
+  @Test
+  public void testSameOutput () throws IOException
+  {
+    File log = newFile(".state");
+    writeLog(log, 40);
+    checkSameOutput(MktPriceStats.class, log);
+    checkSameOutput(SolarProduction.class, log);
+  }
+
+  private void checkSameOutput (Class<?> analyzer, File log)
+      throws IOException
+  {
+    File filtered = newFile(".data");
+    File unfiltered = newFile(".data");
+    run(analyzer, log, filtered, "true");
+    run(analyzer, log, unfiltered, "false");
+    byte[] expected = Files.readAllBytes(unfiltered.toPath());
+    assertTrue(analyzer.getSimpleName(), expected.length > 200);
+    assertArrayEquals(analyzer.getSimpleName(), expected,
+                      Files.readAllBytes(filtered.toPath()));
+  }
+
+  // runs the analyzer standalone, as from the command line
+  private void run (Class<?> analyzer, File log, File output, String filter)
+  {
+    System.setProperty("logtool.filter", filter);
+    try {
+      analyzer.getMethod("main", String[].class)
+          .invoke(null, (Object) new String[] {log.getPath(),
+                                               output.getPath()});
+    }
+    catch (Exception e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private File newFile (String suffix) throws IOException
+  {
+    File file = File.createTempFile("filter", suffix);
+    files.add(file);
+    return file;
+  }
+
+  // A state log with market, tariff, balancing and weather traffic for a
+  // village and a solar customer, most of which a narrow analyzer skips.
+  private void writeLog (File file, int timeslots) throws IOException
+  {
+    LogWriter out = new LogWriter(file);
+    Instant base = new Instant(1255132800000L);
+    out.line("Competition::1::new::filter-test");
+    out.line("Competition::1::withSimulationBaseTime::" + base.getMillis());
+    out.line("Competition::1::withTimeslotsOpen::24");
+    out.line("Competition::1::withDeactivateTimeslotsAhead::1");
+    out.line("Broker::2::new::default broker");
+    out.line("Broker::3::new::AgentX");
+    out.line("Broker::4::new::AgentY");
+    out.line("CustomerInfo::5::new::village::10");
+    out.line("CustomerInfo::6::new::solar farm::1");
+    out.line("CustomerInfo::6::withPowerType::SOLAR_PRODUCTION");
+    out.line("TariffSpecification::7::new::3::SOLAR_PRODUCTION");
+    out.line("Rate::8::-rr::7::-1::-1::-1::-1::0.0::true::0.05::0.0::0::0.0::0.0");
+    out.line("TariffSpecification::7::addRate::8");
+    long id = 100;
+    for (int t = 0; t < timeslots; t++) {
+      String now = new Instant(base.getMillis() + t * 3600000L).toString();
+      out.line("TimeService::null::setCurrentTime::" + now);
+      out.line("msg.TimeslotUpdate::" + id++ + "::new::" + now + "::"
+               + (t + 1) + "::" + (t + 24));
+      for (int lead = 1; lead <= 24; lead++) {
+        out.line(String.format(Locale.US,
+                               "ClearedTrade::%d::new::%d::%.4f::%.4f::%s",
+                               id++, t + lead, 10 + lead * 0.5 + t % 7,
+                               30 + lead + t * 0.01, now));
+        for (int b = 3; b <= 4; b++)
+          out.line(String.format(Locale.US,
+                                 "MarketTransaction::%d::new::%d::%d::%d::%.3f::%.3f",
+                                 id++, b, t, t + lead, 1.5 * b, -35.0 + lead));
+      }
+      out.line("Order::" + id++ + "::-rr::3::" + (t + 1) + "::1.5::-30.0");
+      long book = id++;
+      out.line("Orderbook::" + book + "::new::" + (t + 1) + "::34.10::" + now);
+      out.line("OrderbookOrder::" + id + "::new::1.500::null");
+      out.line("Orderbook::" + book + "::addBid::" + id++);
+      out.line(String.format(Locale.US,
+                             "WeatherReport::%d::new::%d::%.1f::3.25::180.0::%.3f",
+                             id++, t, 10.0 + t % 13, 0.125 * (t % 8)));
+      out.line(String.format(Locale.US,
+                             "TariffTransaction::%d::new::3::%d::PRODUCE::7::6::1::%.3f::%.4f::false",
+                             id++, t, 1000.0 + 25.0 * (t % 12), -0.05 * (t % 5)));
+      out.line(String.format(Locale.US,
+                             "TariffTransaction::%d::new::4::%d::CONSUME::null::5::10::%.3f::1.2250::false",
+                             id++, t, -250.5 - t));
+      out.line(String.format(Locale.US,
+                             "BalancingTransaction::%d::new::3::%d::%.3f::12.500",
+                             id++, t, -100.0 + t));
+    }
+    out.close();
+  }
+
+  // numbers the lines and completes the class names
+  class LogWriter
+  {
+    private FileWriter out;
+    private int count = 0;
+
+    LogWriter (File file) throws IOException
+    {
+      super();
+      out = new FileWriter(file);
+    }
+
+    void line (String text) throws IOException
+    {
+      out.write(count++ + ":org.powertac.common." + text + "\n");
+    }
+
+    void close () throws IOException
+    {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.compiled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.powertac.common.BalancingTransaction;
+import org.powertac.common.MarketTransaction;
+import org.powertac.common.Order;
+import org.powertac.logtool.StateLogReader;
+import org.powertac.logtool.common.DomainObjectReader;
+import org.powertac.logtool.common.NewObjectListener;
+import org.powertac.logtool.ifc.Analyzer;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Compiles a small state log and checks that replaying it calls the same
+ * listeners with the same objects, in the same order, as reading the text
+ * log does. The log has rows for every column family, and lines that stay
+ * text: TimeService updates, method calls, -rr records and SimEnd.
+ *
+ * @author agent
+ */
+public class CompiledLogReaderTest
+{
+  private static final String[] lines = {
+    "0:org.powertac.common.Competition::1::new::test-game",
+    "1:org.powertac.common.Competition::1::withSimulationBaseTime::1255132800000",
+    "2:org.powertac.common.Broker::2::new::AgentX",
+    "3:org.powertac.common.Broker::3::new::AgentY",
+    "4:org.powertac.common.CustomerInfo::4::new::village::10",
+    "5:org.powertac.common.TariffSpecification::5::new::2::CONSUMPTION",
+    "6:org.powertac.common.Rate::6::-rr::5::-1::-1::-1::-1::0.0::true::-0.12::0.0::0::0.0::0.0",
+    "7:org.powertac.common.TariffSpecification::5::addRate::6",
+    "8:org.powertac.common.TimeService::null::setCurrentTime::2009-10-10T00:00:00.000Z",
+    "9:org.powertac.common.msg.TimeslotUpdate::10::new::2009-10-10T00:00:00.000Z::1::24",
+    "10:org.powertac.common.Order::11::-rr::2::1::1.5::-30.0",
+    "11:org.powertac.common.ClearedTrade::12::new::1::10.5000::31.0000::2009-10-10T00:00:00.000Z",
+    "12:org.powertac.common.MarketTransaction::13::new::2::0::1::4.500::-34.000",
+    "13:org.powertac.common.MarketTransaction::14::new::3::0::1::-1.5E-4::0.0",
+    "14:org.powertac.common.Orderbook::15::new::1::34.10::2009-10-10T00:00:00.000Z",
+    "15:org.powertac.common.OrderbookOrder::16::new::1.500::null",
+    "16:org.powertac.common.Orderbook::15::addBid::16",
+    "17:org.powertac.common.OrderbookOrder::17::new::-2.500::-21.00",
+    "18:org.powertac.common.Orderbook::15::addAsk::17",
+    "19:org.powertac.common.Orderbook::18::new::2::null::2009-10-10T00:00:00.000Z",
+    "20:org.powertac.common.WeatherReport::19::new::0::10.0::3.25::180.0::0.000",
+    "21:org.powertac.common.WeatherForecastPrediction::20::new::1::12.0::2.50::90.0::0.250",
+    "22:org.powertac.common.WeatherForecastPrediction::21::new::2::13.0::2.50::90.0::0.250",
+    "23:org.powertac.common.WeatherForecast::22::new::0::(20,21)",
+    "24:org.powertac.common.TariffTransaction::23::new::2::0::CONSUME::5::4::10::-750.500::12.2500::false",
+    "25:org.powertac.common.TariffTransaction::24::new::3::0::PRODUCE::null::4::5::1002.000::-12.2500::true",
+    "26:org.powertac.common.BalancingTransaction::25::new::2::0::-300.000::37.500",
+    "27:org.powertac.common.DistributionTransaction::26::new::2::0::1000.000::-2.500",
+    "28:org.powertac.common.TimeService::null::setCurrentTime::2009-10-10T01:00:00.000Z",
+    "29:org.powertac.common.msg.TimeslotUpdate::27::new::2009-10-10T01:00:00.000Z::2::25",
+    "30:org.powertac.common.WeatherForecastPrediction::28::new::1::11.0::2.75::95.0::0.125",
+    "31:org.powertac.common.WeatherForecast::29::new::1::(28)",
+    "32:org.powertac.common.MarketTransaction::30::new::3::1::2::6.000::-33.000",
+    "33:org.powertac.common.BalancingTransaction::31::new::3::1::400.000::-50.000",
+    // SimEnd has no id field, so the reader does not build it
+    "34:org.powertac.common.msg.SimEnd::null::new"
+  };
+
+  private static AbstractApplicationContext context;
+  private File text;
+  private File compiled;
+
+  @BeforeClass
+  public static void boot ()
+  {
+    context = new ClassPathXmlApplicationContext("logtool.xml");
+  }
+
+  @AfterClass
+  public static void shutdown ()
+  {
+    context.close();
+  }
+
+  @Before
+  public void setUp () throws IOException
+  {
+    text = File.createTempFile("game", ".state");
+    compiled = File.createTempFile("game", StateLogCompiler.extension);
+    StringBuilder log = new StringBuilder();
+    for (String line : lines)
+      log.append(line).append('\n');
+    Writer out = new FileWriter(text);
+    out.write(log.toString());
+    out.close();
+    OutputStream data = new FileOutputStream(compiled);
+    new StateLogCompiler().compile(new StringReader(log.toString()), data);
+    data.close();
+  }
+
+  @After
+  public void tearDown ()
+  {
+    text.delete();
+    compiled.delete();
+  }
+
+  // a listener for all classes, so nothing is filtered
+  @Test
+  public void testAllObjects ()
+  {
+    List<String> expected = read(text, true, null);
+    assertEquals(Arrays.asList("org.powertac.common.Competition::1",
+                               "org.powertac.common.Broker::2",
+                               "org.powertac.common.Broker::3",
+                               "org.powertac.common.CustomerInfo::4",
+                               "org.powertac.common.TariffSpecification::5",
+                               "org.powertac.common.Rate::6",
+                               "org.powertac.common.msg.TimeslotUpdate::10",
+                               "org.powertac.common.Order::11",
+                               "org.powertac.common.ClearedTrade::12",
+                               "org.powertac.common.MarketTransaction::13",
+                               "org.powertac.common.MarketTransaction::14",
+                               "org.powertac.common.Orderbook::15",
+                               "org.powertac.common.OrderbookOrder::16",
+                               "org.powertac.common.OrderbookOrder::17",
+                               "org.powertac.common.Orderbook::18",
+                               "org.powertac.common.WeatherReport::19",
+                               "org.powertac.common.WeatherForecastPrediction::20",
+                               "org.powertac.common.WeatherForecastPrediction::21",
+                               "org.powertac.common.WeatherForecast::22",
+                               "org.powertac.common.TariffTransaction::23",
+                               "org.powertac.common.TariffTransaction::24",
+                               "org.powertac.common.BalancingTransaction::25",
+                               "org.powertac.common.DistributionTransaction::26",
+                               "org.powertac.common.msg.TimeslotUpdate::27",
+                               "org.powertac.common.WeatherForecastPrediction::28",
+                               "org.powertac.common.WeatherForecast::29",
+                               "org.powertac.common.MarketTransaction::30",
+                               "org.powertac.common.BalancingTransaction::31"),
+                 expected);
+    assertEquals(expected, read(compiled, true, null));
+    assertEquals(expected, read(compiled, false, null));
+  }
+
+  // listeners for a few classes; with the filter on, the other families
+  // are skipped on replay
+  @Test
+  public void testSomeObjects ()
+  {
+    Class<?>[] types =
+      {MarketTransaction.class, BalancingTransaction.class, Order.class};
+    List<String> expected = read(text, false, types);
+    assertEquals(Arrays.asList("org.powertac.common.Order::11",
+                               "org.powertac.common.MarketTransaction::13",
+                               "org.powertac.common.MarketTransaction::14",
+                               "org.powertac.common.BalancingTransaction::25",
+                               "org.powertac.common.MarketTransaction::30",
+                               "org.powertac.common.BalancingTransaction::31"),
+                 expected);
+    assertEquals(expected, read(text, true, types));
+    assertEquals(expected, read(compiled, true, types));
+    assertEquals(expected, read(compiled, false, types));
+  }
+
+  // objects are rebuilt with the logged values, not just the same ids
+  @Test
+  public void testValues ()
+  {
+    Recorder recorder =
+        run(compiled, true, new Class<?>[] {MarketTransaction.class});
+    MarketTransaction tx = (MarketTransaction) recorder.objects.get(1);
+    assertEquals(14, tx.getId());
+    assertEquals("AgentY", tx.getBroker().getUsername());
+    assertEquals(-1.5E-4, tx.getMWh(), 0.0);
+    assertEquals(0.0, tx.getPrice(), 0.0);
+  }
+
+  // Reads the log through a StateLogReader. Listens to the given classes,
+  // or to all classes if types is null, and returns class::id of each
+  // object in the order the listener saw them.
+  private List<String> read (File log, boolean filtered, Class<?>[] types)
+  {
+    return run(log, filtered, types).seen;
+  }
+
+  private Recorder run (File log, boolean filtered, Class<?>[] types)
+  {
+    StateLogReader stateLogReader = new StateLogReader(context);
+    stateLogReader.reset();
+    stateLogReader.setFiltered(filtered);
+    stateLogReader.setPipelined(false);
+    Recorder recorder = new Recorder(types);
+    List<Analyzer> tools = new ArrayList<Analyzer>();
+    tools.add(recorder);
+    assertTrue(log.getName(),
+               stateLogReader.readStateLog(log.getPath(), tools));
+    return recorder;
+  }
+
+  class Recorder implements Analyzer, NewObjectListener
+  {
+    private Class<?>[] types;
+    List<String> seen = new ArrayList<String>();
+    List<Object> objects = new ArrayList<Object>();
+
+    Recorder (Class<?>[] types)
+    {
+      super();
+      this.types = types;
+    }
+
+    @Override
+    public void setup ()
+    {
+      DomainObjectReader reader =
+          (DomainObjectReader) context.getBean("reader");
+      if (null == types) {
+        reader.registerNewObjectListener(this, null);
+        return;
+      }
+      for (Class<?> type : types)
+        reader.registerNewObjectListener(this, type);
+    }
+
+    @Override
+    public void report ()
+    {
+    }
+
+    @Override
+    public void handleNewObject (Object thing)
+    {
+      seen.add(thing.getClass().getName() + "::" + id(thing));
+      objects.add(thing);
+    }
+
+    private long id (Object thing)
+    {
+      try {
+        Method getter = thing.getClass().getMethod("getId");
+        return ((Number) getter.invoke(thing)).longValue();
+      }
+      catch (Exception e) {
+        return -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks TraceIndex on small synthetic traces: the write/read round trip,
+ * rejection of stale and malformed index files, and the offsets returned
+ * for timeslots inside and outside the trace.
+ *
+ * @author agent
+ */
+public class TraceIndexTest
+{
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File trace;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    trace = folder.newFile("test.trace");
+    // timeslots 360..363, then a gap, then 366 and 367
+    writeTrace(trace, new int[] {360, 361, 362, 363, 366, 367});
+  }
+
+  @Test
+  public void testRoundTrip () throws IOException
+  {
+    TraceIndex index = TraceIndex.build(trace);
+    assertArrayEquals(new int[] {360, 361, 362, 363, 366, 367},
+                      index.getTimeslots());
+    File file = TraceIndex.indexFile(trace);
+    index.write(file);
+    TraceIndex copy = TraceIndex.read(file);
+    assertArrayEquals(index.getTimeslots(), copy.getTimeslots());
+    assertEquals(index.getConfigOffset(), copy.getConfigOffset());
+    for (int ts : index.getTimeslots()) {
+      assertEquals(index.getOffset(ts), copy.getOffset(ts));
+      assertEquals(index.getEndOffset(ts), copy.getEndOffset(ts));
+    }
+
+    // the offsets are where the lines start
+    assertEquals("1200 INFO  BalancingMarketService: Configured BM: balancing cost = 0.0, (pPlus',pMinus') = (0.0,0.0)",
+                 firstLine(copy.getConfigOffset()));
+    for (int ts : copy.getTimeslots())
+      assertEquals(deactivated(ts), firstLine(copy.getOffset(ts)));
+  }
+
+  @Test
+  public void testStale () throws IOException
+  {
+    TraceIndex.build(trace).write(TraceIndex.indexFile(trace));
+    assertNotNull(TraceIndex.load(trace));
+
+    // same length, different time
+    long modified = trace.lastModified();
+    assertTrue(trace.setLastModified(modified - 10000));
+    assertNull(TraceIndex.load(trace));
+    assertTrue(trace.setLastModified(modified));
+    assertNotNull(TraceIndex.load(trace));
+
+    // same time, different length
+    FileWriter out = new FileWriter(trace, true);
+    out.write(deactivated(368) + "\n");
+    out.close();
+    assertTrue(trace.setLastModified(modified));
+    assertNull(TraceIndex.load(trace));
+
+    // no index at all
+    assertTrue(TraceIndex.indexFile(trace).delete());
+    assertNull(TraceIndex.load(trace));
+  }
+
+  @Test
+  public void testBounds () throws IOException
+  {
+    TraceIndex index = TraceIndex.build(trace);
+    int[] timeslots = index.getTimeslots();
+    for (int i = 0; i + 1 < timeslots.length; i++)
+      assertEquals(index.getOffset(timeslots[i + 1]),
+                   index.getEndOffset(timeslots[i]));
+    assertEquals(trace.length(), index.getEndOffset(367));
+
+    // before, inside a gap, and after the trace
+    int[] missing = {0, 359, 364, 365, 368, Integer.MAX_VALUE, -1};
+    for (int ts : missing) {
+      assertEquals(-1, index.getOffset(ts));
+      assertEquals(-1, index.getEndOffset(ts));
+    }
+  }
+
+  // a repeated or earlier timeslot stays with the one before it
+  @Test
+  public void testOutOfOrder () throws IOException
+  {
+    File odd = folder.newFile("odd.trace");
+    writeTrace(odd, new int[] {10, 11, 11, 9, 12});
+    TraceIndex index = TraceIndex.build(odd);
+    assertArrayEquals(new int[] {10, 11, 12}, index.getTimeslots());
+    assertEquals(deactivated(11), firstLine(odd, index.getOffset(11)));
+    assertEquals(index.getOffset(12), index.getEndOffset(11));
+    assertEquals(-1, index.getOffset(9));
+  }
+
+  @Test
+  public void testMalformed () throws IOException
+  {
+    File file = folder.newFile("bad.idx");
+    DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+    out.writeInt(TraceIndex.magic);
+    out.writeInt(TraceIndex.version);
+    out.writeLong(0L);
+    out.writeLong(0L);
+    out.writeLong(-1L);
+    out.writeInt(2);
+    out.writeInt(5);
+    out.writeLong(0L);
+    out.writeInt(4);
+    out.writeLong(10L);
+    out.close();
+    try {
+      TraceIndex.read(file);
+      fail("read an index with decreasing timeslots");
+    }
+    catch (IOException e) {
+      assertEquals("timeslots out of order", e.getMessage());
+    }
+
+    out = new DataOutputStream(new FileOutputStream(file));
+    out.writeInt(0);
+    out.close();
+    try {
+      TraceIndex.read(file);
+      fail("read a file that is not an index");
+    }
+    catch (IOException e) {
+      // expected
+    }
+  }
+
+  private String deactivated (int timeslot)
+  {
+    return (timeslot * 10) + " INFO  TimeslotRepo: Deactivated timeslot "
+        + timeslot;
+  }
+
+  private String firstLine (long offset) throws IOException
+  {
+    return firstLine(trace, offset);
+  }
+
+  private String firstLine (File file, long offset) throws IOException
+  {
+    BufferedReader in = TraceIndex.open(file, offset);
+    try {
+      return in.readLine();
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private void writeTrace (File file, int[] timeslots) throws IOException
+  {
+    FileWriter out = new FileWriter(file);
+    out.write("1000 INFO  CompetitionControlService: Starting simulation\n");
+    out.write("1200 INFO  BalancingMarketService: Configured BM: balancing cost = 0.0, (pPlus',pMinus') = (0.0,0.0)\n");
+    for (int ts : timeslots) {
+      out.write(deactivated(ts) + "\n");
+      out.write((ts * 10 + 1)
+                + " INFO  BalancingMarketService: market balance for AgentX: -12.5\n");
+      out.write((ts * 10 + 2)
+                + " INFO  SettlementProcessor: totalImbalance=-12.5\n");
+    }
+    out.close();
+  }
+}
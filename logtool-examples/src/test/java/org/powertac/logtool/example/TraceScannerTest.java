@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks TraceScanner against the regular expressions and
+ * Double.parseDouble() conversions that BrokerBalancingActions used
+ * before it. Every line is given to all seven recognizers, which must
+ * accept the same lines as the patterns and return the same fields, with
+ * numbers equal to the last bit.
+ *
+ * @author agent
+ */
+public class TraceScannerTest
+{
+  // the patterns TraceScanner replaced
+  private static final String floatCapture = "(-?\\d+\\.\\d*)";
+  private static final String intCapture = "(\\d+)";
+  private static final String expCapture = "(-?\\d+\\.\\d*(?:E-?\\d+)?)";
+  private static final String bnCapture = "(\\w(?:\\w| )*\\w+)";
+  private static final Pattern configQual =
+      Pattern.compile(String.format("Configured BM: balancing cost = %s, \\(pPlus',pMinus'\\) = \\(%s,%s\\)",
+                                    floatCapture, expCapture, expCapture));
+  private static final Pattern tsQual =
+      Pattern.compile(String.format("Deactivated timeslot %s", intCapture));
+  private static final Pattern mbQual =
+      Pattern.compile(String.format("BalancingMarketService: market balance for %s: %s",
+                                    bnCapture, floatCapture));
+  private static final Pattern tiQual =
+      Pattern.compile(String.format("SettlementProcessor: totalImbalance=%s",
+                                    floatCapture));
+  private static final Pattern bpQual =
+      Pattern.compile(String.format("balancing prices: pPlus=%s, pMinus=%s",
+                                    floatCapture, floatCapture));
+  private static final Pattern boQual =
+      Pattern.compile(String.format("BalancingOrder %s capacity = \\(%s,%s\\)",
+                                    intCapture, floatCapture, floatCapture));
+  private static final Pattern duQual =
+      Pattern.compile(String.format("SettlementProcessor: DU budget: rm cost = %s, broker cost = %s",
+                                    floatCapture, floatCapture));
+
+  // numbers the fast path must either convert exactly or hand over to
+  // Double.parseDouble()
+  private static final String[] decimals = {
+    "0.0", "-0.0", "0.", "-0.", "00.000", "1.", "-1.", "12.5", "-3.25",
+    "0.1", "-0.7", "0.30000000000000004", "2.2250738585072014",
+    "123456789012345.", "123456789012345.6", "-999999999999999.9",
+    "9007199254740993.0", "18014398509481985.0", "0.000123456789012345",
+    "1234567890123456789012.0", "0.0000000000000000000001",
+    "0.00000000000000000000001", "10000000000000000000000.0",
+    "100000000000000000000000.0", "4.35", "-1234.5678", "0.5000000000000001"
+  };
+
+  // numbers with exponents, allowed in the configuration message only
+  private static final String[] exponents = {
+    "1.0E22", "1.0E23", "1.0E-22", "1.0E-23", "-2.5E-5", "1.5E10",
+    "4.9E-324", "2.4703282292062327E-324", "1.7976931348623157E308",
+    "1.8E308", "-0.0E5", "123456789012345.0E-30", "1.E0", "7.0E-0"
+  };
+
+  private TraceScanner scanner;
+
+  @Before
+  public void setUp ()
+  {
+    scanner = new TraceScanner();
+  }
+
+  // one line of each message, as the server writes them
+  @Test
+  public void testMessages ()
+  {
+    String config = "1043 INFO  BalancingMarketService: Configured BM: balancing cost = 0.0, (pPlus',pMinus') = (1.0E-6,-1.0E-6)";
+    assertTrue(scanner.config(config));
+    assertEquals(0.0, scanner.getValue(0), 0.0);
+    assertEquals(1.0E-6, scanner.getValue(1), 0.0);
+    assertEquals(-1.0E-6, scanner.getValue(2), 0.0);
+    check(config);
+
+    String timeslot = "90211 INFO  TimeslotRepo: Deactivated timeslot 361, start 2009-10-25T01:00:00.000Z";
+    assertEquals(361, scanner.timeslot(timeslot));
+    check(timeslot);
+
+    String balance = "90622 INFO  BalancingMarketService: market balance for Sample Broker: -1027.3651";
+    assertTrue(scanner.marketBalance(balance));
+    assertEquals("Sample Broker", scanner.getName());
+    assertEquals(-1027.3651, scanner.getValue(0), 0.0);
+    check(balance);
+
+    String prices = "90630 INFO  BalancingMarketService: balancing prices: pPlus=0.0712, pMinus=-0.0203";
+    assertTrue(scanner.prices(prices));
+    assertEquals(0.0712, scanner.getValue(0), 0.0);
+    assertEquals(-0.0203, scanner.getValue(1), 0.0);
+    check(prices);
+
+    String imbalance = "90631 INFO  StaticSettlementProcessor: SettlementProcessor: totalImbalance=-2311.5";
+    assertTrue(scanner.totalImbalance(imbalance));
+    assertEquals(-2311.5, scanner.getValue(0), 0.0);
+    check(imbalance);
+
+    String capacity = "90632 INFO  StaticSettlementProcessor: BalancingOrder 200000412 capacity = (125.0,-63.75)";
+    assertTrue(scanner.capacity(capacity));
+    assertEquals(200000412L, scanner.getId());
+    assertEquals(125.0, scanner.getValue(0), 0.0);
+    assertEquals(-63.75, scanner.getValue(1), 0.0);
+    check(capacity);
+
+    String budget = "90633 INFO  StaticSettlementProcessor: SettlementProcessor: DU budget: rm cost = 12.5, broker cost = -8.25";
+    assertTrue(scanner.budget(budget));
+    assertEquals(12.5, scanner.getValue(0), 0.0);
+    assertEquals(-8.25, scanner.getValue(1), 0.0);
+    check(budget);
+  }
+
+  // signs, -0.0, long mantissas and powers of ten outside 1e-22..1e22, in
+  // every decimal field
+  @Test
+  public void testDecimals ()
+  {
+    for (String d : decimals) {
+      checkAll(d, d);
+    }
+    for (String e : exponents) {
+      check(config("1.0", e, e));
+      check(config(e, "1.0", "1.0"));
+    }
+    assertEquals(0x8000000000000000L,
+                 Double.doubleToRawLongBits(valueOf(config("-0.0", "-0.0", "-0.0"), 0)));
+  }
+
+  // random digit strings, mostly long enough to need the slow path or
+  // close to its limits
+  @Test
+  public void testRandomDecimals ()
+  {
+    Random random = new Random(17);
+    for (int i = 0; i < 20000; i++) {
+      String d = randomDecimal(random);
+      checkAll(d, d);
+      String e = d + "E" + (random.nextInt(660) - 340);
+      check(config(d, e, d + "E-" + random.nextInt(30)));
+    }
+  }
+
+  @Test
+  public void testIntegers ()
+  {
+    String[] ids = {"0", "7", "007", "2147483647", "2147483648",
+                    "999999999999999999", "1000000000000000000",
+                    "9223372036854775807"};
+    for (String id : ids) {
+      String line = "BalancingOrder " + id + " capacity = (1.0,-1.0)";
+      assertTrue(line, scanner.capacity(line));
+      assertEquals(line, Long.parseLong(id), scanner.getId());
+      check(line);
+    }
+    String[] timeslots = {"0", "1", "361", "2147483647"};
+    for (String ts : timeslots) {
+      String line = "Deactivated timeslot " + ts;
+      assertEquals(line, Integer.parseInt(ts), scanner.timeslot(line));
+      check(line);
+    }
+  }
+
+  @Test
+  public void testNonMatching ()
+  {
+    String[] lines = {
+      "",
+      "90211 INFO  TimeslotRepo: Deactivated timeslot ",
+      "Deactivated timeslot -4",
+      "Deactivated timeslot x, then Deactivated timeslot 42",
+      "Deactivated  timeslot 3",
+      "Configured BM: balancing cost = 0, (pPlus',pMinus') = (1.0,1.0)",
+      "Configured BM: balancing cost = 1.0E3, (pPlus',pMinus') = (1.0,1.0)",
+      "Configured BM: balancing cost = 0.0, (pPlus',pMinus') = (1.0E,1.0)",
+      "Configured BM: balancing cost = 0.0, (pPlus',pMinus') = (1.0,1.0",
+      "Configured BM: balancing cost = .5, (pPlus',pMinus') = (1.0,1.0)",
+      "balancing prices: pPlus=1.0, pMinus=",
+      "balancing prices: pPlus=1.0,pMinus=2.0",
+      "balancing prices: pPlus=+1.0, pMinus=2.0",
+      "balancing prices: pPlus=1, pMinus=2.0",
+      "balancing prices: pPlus=1.0E2, pMinus=2.0",
+      "SettlementProcessor: totalImbalance=",
+      "SettlementProcessor: totalImbalance=-.5",
+      "SettlementProcessor: totalImbalance=--1.0",
+      "BalancingOrder capacity = (1.0,2.0)",
+      "BalancingOrder -3 capacity = (1.0,2.0)",
+      "BalancingOrder 3 capacity = (1.0, 2.0)",
+      "BalancingOrder 3 capacity = (1.0,2.0",
+      "SettlementProcessor: DU budget: rm cost = 1.0, broker cost = x",
+      "SettlementProcessor: DU budget: rm cost = 1.0 broker cost = 2.0",
+      "BalancingMarketService: market balance for : 1.0",
+      "BalancingMarketService: market balance for A: 1.0",
+      "BalancingMarketService: market balance for  AB: 1.0",
+      "BalancingMarketService: market balance for AB : 1.0",
+      "BalancingMarketService: market balance for AB: 1",
+      "BalancingMarketService: market balance for A-B: 1.0",
+      "BalancingMarketService: market balance for AB:1.0"
+    };
+    for (String line : lines) {
+      assertFalse(line, scanner.config(line));
+      assertFalse(line, scanner.prices(line));
+      assertFalse(line, scanner.totalImbalance(line));
+      assertFalse(line, scanner.capacity(line));
+      assertFalse(line, scanner.budget(line));
+      assertFalse(line, scanner.marketBalance(line));
+      check(line);
+    }
+    // a later complete message is still found
+    assertEquals(42, scanner.timeslot(lines[3]));
+  }
+
+  // broker names can contain the text of other messages
+  @Test
+  public void testBrokerNames ()
+  {
+    String[] names = {
+      "AB", "a_1", "Sample Broker", "x  y", "Deactivated timeslot 12",
+      "BalancingOrder 7 capacity", "balancing prices", "SettlementProcessor",
+      "market balance for Other", "BalancingMarketService"
+    };
+    for (String name : names) {
+      String line = "90622 INFO  BalancingMarketService: market balance for "
+          + name + ": -5.5";
+      assertTrue(line, scanner.marketBalance(line));
+      assertEquals(line, name, scanner.getName());
+      assertEquals(-5.5, scanner.getValue(0), 0.0);
+      check(line);
+    }
+    // the name ends at the first ": "
+    String twice = "BalancingMarketService: market balance for AB: 1.0: 2.0";
+    assertTrue(scanner.marketBalance(twice));
+    assertEquals("AB", scanner.getName());
+    check(twice);
+    // a broker named after a message does not make it one
+    check("BalancingMarketService: market balance for balancing prices: 1.0");
+    check("BalancingMarketService: market balance for Deactivated timeslot 5: 1.0");
+    check("BalancingMarketService: market balance for BalancingOrder 5 capacity = (1.0,2.0): 1.0");
+  }
+
+  // --------- helpers ----------
+
+  private String config (String cost, String plus, String minus)
+  {
+    return "Configured BM: balancing cost = " + cost
+        + ", (pPlus',pMinus') = (" + plus + "," + minus + ")";
+  }
+
+  // checks every message with a and b as its number fields
+  private void checkAll (String a, String b)
+  {
+    check(config(a, a, b));
+    check("BalancingMarketService: market balance for Sample Broker: " + a);
+    check("balancing prices: pPlus=" + a + ", pMinus=" + b);
+    check("SettlementProcessor: totalImbalance=" + a);
+    check("BalancingOrder 12 capacity = (" + a + "," + b + ")");
+    check("SettlementProcessor: DU budget: rm cost = " + a
+          + ", broker cost = " + b);
+  }
+
+  private double valueOf (String line, int i)
+  {
+    assertTrue(line, scanner.config(line));
+    return scanner.getValue(i);
+  }
+
+  private String randomDecimal (Random random)
+  {
+    StringBuilder result = new StringBuilder();
+    if (random.nextBoolean())
+      result.append('-');
+    int digits = 1 + random.nextInt(24);
+    int point = random.nextInt(digits + 1);
+    boolean zeros = random.nextInt(4) == 0;
+    for (int i = 0; i < digits; i++) {
+      if (i == point)
+        result.append('.');
+      result.append(zeros && i < digits / 2 ? '0'
+                    : (char) ('0' + random.nextInt(10)));
+    }
+    if (point == digits)
+      result.append('.');
+    if (result.charAt(result.length() - 1) != '.' || random.nextBoolean())
+      return result.toString();
+    return result.append('0').toString();
+  }
+
+  // Runs every recognizer on line and compares it with the old patterns.
+  private void check (String line)
+  {
+    Matcher m = configQual.matcher(line);
+    boolean found = m.find();
+    assertEquals(line, found, scanner.config(line));
+    if (found)
+      checkValues(line, m, 1, 0);
+
+    m = tsQual.matcher(line);
+    int ts = m.find() ? Integer.parseInt(m.group(1)) : -1;
+    assertEquals(line, ts, scanner.timeslot(line));
+
+    m = mbQual.matcher(line);
+    found = m.find();
+    assertEquals(line, found, scanner.marketBalance(line));
+    if (found) {
+      assertEquals(line, m.group(1), scanner.getName());
+      checkValues(line, m, 2, 0);
+    }
+
+    m = bpQual.matcher(line);
+    found = m.find();
+    assertEquals(line, found, scanner.prices(line));
+    if (found)
+      checkValues(line, m, 1, 0);
+
+    m = tiQual.matcher(line);
+    found = m.find();
+    assertEquals(line, found, scanner.totalImbalance(line));
+    if (found)
+      checkValues(line, m, 1, 0);
+
+    m = boQual.matcher(line);
+    found = m.find();
+    assertEquals(line, found, scanner.capacity(line));
+    if (found) {
+      assertEquals(line, Long.parseLong(m.group(1)), scanner.getId());
+      checkValues(line, m, 2, 0);
+    }
+
+    m = duQual.matcher(line);
+    found = m.find();
+    assertEquals(line, found, scanner.budget(line));
+    if (found)
+      checkValues(line, m, 1, 0);
+  }
+
+  // groups from first on against values from index on, bit for bit
+  private void checkValues (String line, Matcher m, int first, int index)
+  {
+    for (int group = first; group <= m.groupCount(); group++) {
+      double expected = Double.parseDouble(m.group(group));
+      double actual = scanner.getValue(index++);
+      assertEquals(line + " group " + group,
+                   Double.doubleToRawLongBits(expected),
+                   Double.doubleToRawLongBits(actual));
+    }
+  }
+}
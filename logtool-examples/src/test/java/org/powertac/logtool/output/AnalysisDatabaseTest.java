@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Loads rows into an in-memory H2 database with the tables of
+ * sql/powertac_analysis.sql.
+ *
+ * @author agent
+ */
+public class AnalysisDatabaseTest
+{
+  // the MySQL script without its engine options and comments
+  private static final String[] schema =
+    {"CREATE TABLE broker (idbroker INT NOT NULL, name VARCHAR(45) NULL, "
+     + "PRIMARY KEY (idbroker))",
+     "CREATE TABLE game (idgame INT NOT NULL, size INT NULL, "
+     + "length INT NULL, PRIMARY KEY (idgame))",
+     "CREATE TABLE broker_game (broker_idbroker INT NOT NULL, "
+     + "game_idgame INT NOT NULL, broker_id_game INT NULL, "
+     + "PRIMARY KEY (broker_idbroker, game_idgame), "
+     + "FOREIGN KEY (broker_idbroker) REFERENCES broker (idbroker), "
+     + "FOREIGN KEY (game_idgame) REFERENCES game (idgame))",
+     "CREATE TABLE cash_position (broker_game_broker_idbroker INT NOT NULL, "
+     + "broker_game_game_idgame INT NOT NULL, timeslot INT NOT NULL, "
+     + "balance DOUBLE NULL, PRIMARY KEY (broker_game_broker_idbroker, "
+     + "broker_game_game_idgame, timeslot), "
+     + "FOREIGN KEY (broker_game_broker_idbroker, broker_game_game_idgame) "
+     + "REFERENCES broker_game (broker_idbroker, game_idgame))",
+     "CREATE TABLE market_position ("
+     + "broker_game_broker_idbroker INT NOT NULL, "
+     + "broker_game_game_idgame INT NOT NULL, timeslot INT NOT NULL, "
+     + "value DOUBLE NULL, PRIMARY KEY (broker_game_broker_idbroker, "
+     + "broker_game_game_idgame, timeslot), "
+     + "FOREIGN KEY (broker_game_broker_idbroker, broker_game_game_idgame) "
+     + "REFERENCES broker_game (broker_idbroker, game_idgame))"};
+
+  private Connection check;
+  private AnalysisDatabase db;
+
+  @Before
+  public void setUp () throws SQLException
+  {
+    String url = "jdbc:h2:mem:analysis;DB_CLOSE_DELAY=-1";
+    check = DriverManager.getConnection(url);
+    Statement stmt = check.createStatement();
+    for (String table : schema) {
+      stmt.execute(table);
+    }
+    stmt.close();
+    db = AnalysisDatabase.open(url, 7);
+  }
+
+  @After
+  public void tearDown () throws SQLException
+  {
+    db.close();
+    Statement stmt = check.createStatement();
+    stmt.execute("DROP ALL OBJECTS");
+    stmt.close();
+    check.close();
+  }
+
+  private int count (String query) throws SQLException
+  {
+    Statement stmt = check.createStatement();
+    ResultSet rs = stmt.executeQuery(query);
+    rs.next();
+    int result = rs.getInt(1);
+    rs.close();
+    stmt.close();
+    return result;
+  }
+
+  // loads game with two brokers and a cash position for each of them
+  // in each of 50 timeslots
+  private void loadGame (int game) throws SQLException
+  {
+    db.startGame(game, 2);
+    TableWriter brokerGame = db.table("broker_game")
+        .declare(TableColumn.longColumn("broker_idbroker"),
+                 TableColumn.longColumn("game_idgame"),
+                 TableColumn.longColumn("broker_id_game"));
+    int[] ids = {db.brokerId("Alice"), db.brokerId("Bob")};
+    for (int id : ids) {
+      brokerGame.add(id).add(game).add(100 + id).endRow();
+    }
+    brokerGame.close();
+    TableWriter cash = db.table("cash_position")
+        .declare(TableColumn.longColumn("broker_game_broker_idbroker"),
+                 TableColumn.longColumn("broker_game_game_idgame"),
+                 TableColumn.longColumn("timeslot"),
+                 TableColumn.doubleColumn("balance", 3));
+    for (int ts = 0; ts < 50; ts++) {
+      for (int id : ids) {
+        cash.add(id).add(game).add(ts);
+        if (ts == 0)
+          cash.addNull();
+        else
+          cash.add(ts * 10.0 + id);
+        cash.endRow();
+      }
+    }
+    db.finishGame(game, 50);
+  }
+
+  @Test
+  public void testLoad () throws SQLException
+  {
+    loadGame(3);
+    // nothing is visible before the commit
+    assertEquals(0, count("SELECT COUNT(*) FROM cash_position"));
+    assertTrue(db.commit());
+    assertEquals(2, count("SELECT COUNT(*) FROM broker"));
+    assertEquals(50, count("SELECT length FROM game WHERE idgame = 3"));
+    assertEquals(100, count("SELECT COUNT(*) FROM cash_position"));
+    assertEquals(2, count("SELECT COUNT(*) FROM cash_position "
+                          + "WHERE balance IS NULL"));
+    assertEquals(492, count("SELECT balance FROM cash_position "
+                            + "WHERE timeslot = 49 AND "
+                            + "broker_game_broker_idbroker = 2"));
+  }
+
+  @Test
+  public void testBrokersAcrossGames () throws SQLException
+  {
+    loadGame(3);
+    assertTrue(db.commit());
+    assertEquals(2, db.brokerId("Bob"));
+    assertEquals(3, db.brokerId("Carol"));
+    loadGame(4);
+    assertTrue(db.commit());
+    assertEquals(3, count("SELECT COUNT(*) FROM broker"));
+    assertEquals(4, count("SELECT COUNT(*) FROM broker_game"));
+    assertEquals(200, count("SELECT COUNT(*) FROM cash_position"));
+  }
+
+  @Test
+  public void testReload () throws SQLException
+  {
+    loadGame(3);
+    assertTrue(db.commit());
+    loadGame(3);
+    assertTrue(db.commit());
+    assertEquals(1, count("SELECT COUNT(*) FROM game"));
+    assertEquals(100, count("SELECT COUNT(*) FROM cash_position"));
+  }
+
+  @Test
+  public void testRollback () throws SQLException
+  {
+    db.startGame(5, 1);
+    // no broker_game rows, so these violate the foreign key
+    TableWriter cash = db.table("cash_position")
+        .declare(TableColumn.longColumn("broker_game_broker_idbroker"),
+                 TableColumn.longColumn("broker_game_game_idgame"),
+                 TableColumn.longColumn("timeslot"),
+                 TableColumn.doubleColumn("balance", 3));
+    for (int ts = 0; ts < 10; ts++) {
+      cash.add(1).add(5).add(ts).add(1.0).endRow();
+    }
+    assertFalse(db.commit());
+    assertTrue(cash.checkError());
+    assertEquals(0, count("SELECT COUNT(*) FROM game"));
+  }
+}
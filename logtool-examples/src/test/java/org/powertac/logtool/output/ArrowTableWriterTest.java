@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Writes Arrow files and reads them back with the Arrow reader.
+ *
+ * @author agent
+ */
+public class ArrowTableWriterTest
+{
+  private File file;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    file = File.createTempFile("table", ".arrow");
+  }
+
+  @After
+  public void tearDown ()
+  {
+    file.delete();
+  }
+
+  @Test
+  public void testRoundTrip () throws IOException
+  {
+    // more rows than one batch holds
+    int rows = ArrowTableWriter.BATCH_ROWS * 2 + 17;
+    TableWriter writer = OutputFormat.ARROW.open(file);
+    writer.declare(TableColumn.stringColumn("game"),
+                   TableColumn.longColumn("timeslot"),
+                   TableColumn.doubleColumn("price", 3));
+    writer.writeHeader();
+    for (int i = 0; i < rows; i++) {
+      writer.add("game-" + (i % 5)).add(i);
+      if (i % 7 == 0)
+        writer.addNull();
+      else
+        writer.add(i / 3.0);
+      writer.endRow();
+    }
+    writer.close();
+    assertFalse(writer.checkError());
+
+    BufferAllocator allocator = new RootAllocator();
+    ArrowFileReader reader =
+        new ArrowFileReader(new FileInputStream(file).getChannel(),
+                            allocator);
+    VectorSchemaRoot root = reader.getVectorSchemaRoot();
+    assertEquals(MinorType.VARCHAR, root.getVector("game").getMinorType());
+    assertEquals(MinorType.BIGINT,
+                 root.getVector("timeslot").getMinorType());
+    assertEquals(MinorType.FLOAT8, root.getVector("price").getMinorType());
+    assertEquals(3, reader.getRecordBlocks().size());
+    int row = 0;
+    while (reader.loadNextBatch()) {
+      VarCharVector game = (VarCharVector) root.getVector("game");
+      BigIntVector timeslot = (BigIntVector) root.getVector("timeslot");
+      Float8Vector price = (Float8Vector) root.getVector("price");
+      for (int i = 0; i < root.getRowCount(); i++) {
+        assertEquals("game-" + (row % 5), game.getObject(i).toString());
+        assertEquals(row, timeslot.get(i));
+        if (row % 7 == 0)
+          assertTrue(price.isNull(i));
+        else
+          assertEquals(row / 3.0, price.get(i), 0.0);
+        row += 1;
+      }
+    }
+    assertEquals(rows, row);
+    reader.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testEmpty () throws IOException
+  {
+    TableWriter writer = OutputFormat.ARROW.open(file);
+    writer.declare(TableColumn.longColumn("timeslot"));
+    writer.close();
+
+    BufferAllocator allocator = new RootAllocator();
+    ArrowFileReader reader =
+        new ArrowFileReader(new FileInputStream(file).getChannel(),
+                            allocator);
+    assertEquals("timeslot", reader.getVectorSchemaRoot().getSchema()
+                 .getFields().get(0).getName());
+    assertFalse(reader.loadNextBatch());
+    reader.close();
+    allocator.close();
+  }
+}
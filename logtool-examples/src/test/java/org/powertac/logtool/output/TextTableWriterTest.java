@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 by the original author
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.powertac.logtool.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that text output matches PrintWriter.format() exactly.
+ *
+ * @author agent
+ */
+public class TextTableWriterTest
+{
+  private static final Locale[] locales =
+    {Locale.US, Locale.GERMANY, new Locale("ar", "EG")};
+
+  private static final double[] special =
+    {0.0, -0.0, 0.5, -0.5, 1.5, 2.5, 0.125, -0.125, 2.675, 1.005, 0.0005,
+     -0.0004, -0.00049, 0.00049999999999999, 9.9995, 99.99999,
+     123456789.0125, 1e-320, -1e-10, 4503599627370495.5, 1e15, 1e17, 1e22,
+     Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN,
+     Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+  private void check (FixedPoint fp, Locale locale, double value,
+                      int precision)
+  {
+    StringBuilder sb = new StringBuilder();
+    fp.append(sb, value, precision);
+    String expected = String.format(locale, "%." + precision + "f", value);
+    if (!expected.equals(sb.toString()))
+      fail(locale + " %." + precision + "f of " + value + ": expected "
+           + expected + " but was " + sb);
+  }
+
+  @Test
+  public void testSpecialValues ()
+  {
+    for (Locale locale : locales) {
+      FixedPoint fp = new FixedPoint(locale);
+      for (double value : special) {
+        for (int precision = 0; precision <= 17; precision++) {
+          check(fp, locale, value, precision);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRandomValues ()
+  {
+    Random random = new Random(42);
+    FixedPoint fp = new FixedPoint(Locale.US);
+    for (int i = 0; i < 200000; i++) {
+      double value;
+      switch (i % 4) {
+      case 0:
+        // uniform over a range typical of analyzer output
+        value = (random.nextDouble() - 0.5) * 20000.0;
+        break;
+      case 1:
+        // values with few decimals, many of them exact ties
+        value = (random.nextInt(2000000) - 1000000) / 10000.0;
+        break;
+      case 2:
+        // any magnitude
+        value = Double.longBitsToDouble(random.nextLong());
+        break;
+      default:
+        value = (random.nextInt(20000) - 10000) / 8.0;
+      }
+      check(fp, Locale.US, value, random.nextInt(10));
+    }
+  }
+
+  @Test
+  public void testLongs ()
+  {
+    long[] values = {0L, -1L, 42L, Long.MAX_VALUE, Long.MIN_VALUE};
+    for (Locale locale : locales) {
+      FixedPoint fp = new FixedPoint(locale);
+      for (long value : values) {
+        StringBuilder sb = new StringBuilder();
+        fp.append(sb, value);
+        assertEquals(String.format(locale, "%d", value), sb.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testRows ()
+  {
+    StringWriter expected = new StringWriter();
+    PrintWriter printer = new PrintWriter(expected);
+    StringWriter actual = new StringWriter();
+    TableWriter writer =
+        new TextTableWriter(actual).withHeaderSeparator(", ");
+    writer.declare(TableColumn.stringColumn("game"),
+                   TableColumn.longColumn("ts"),
+                   TableColumn.doubleColumn("qty", 3),
+                   TableColumn.doubleColumn("mwh", 4)
+                       .withPrefix("[").withNullText("0.0"),
+                   TableColumn.doubleColumn("price", 4)
+                       .withSeparator(" ").withSuffix("]")
+                       .withNullText("0.0"));
+    writer.writeHeader();
+    printer.println("game, ts, qty, mwh, price");
+    Random random = new Random(7);
+    for (int i = 0; i < 5000; i++) {
+      double qty = (random.nextDouble() - 0.5) * 1000.0;
+      double mwh = random.nextDouble() * 50.0;
+      double price = (random.nextDouble() - 0.2) * 80.0;
+      writer.add("game-" + i).add(i).add(qty);
+      printer.format("%s,%d,%.3f,", "game-" + i, i, qty);
+      if (i % 3 == 0) {
+        writer.addNull().addNull();
+        printer.print("[0.0 0.0]");
+      }
+      else {
+        writer.add(mwh).add(price);
+        printer.format("[%.4f %.4f]", mwh, price);
+      }
+      writer.endRow();
+      printer.println();
+    }
+    writer.close();
+    printer.close();
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void testHeaderLabels ()
+  {
+    StringWriter actual = new StringWriter();
+    TextTableWriter writer = new TextTableWriter(actual);
+    writer.withSeparator(", ").withLineEnd("\n");
+    writer.declare(TableColumn.longColumn("slot"),
+                   TableColumn.doubleColumn("import", 3),
+                   TableColumn.doubleColumn("import-cost", 3)
+                       .withHeader("cost"),
+                   TableColumn.doubleColumn("prod-cost", 3)
+                       .withHeader("cost"));
+    writer.writeHeader();
+    writer.writeLine("Summary");
+    writer.close();
+    assertEquals("slot, import, cost, cost\nSummary\n", actual.toString());
+    assertEquals("import-cost", writer.getColumns().get(2).getName());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWrongType ()
+  {
+    TextTableWriter writer = new TextTableWriter(new StringWriter());
+    writer.declare(TableColumn.longColumn("ts"));
+    writer.add(1.5);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testShortRow ()
+  {
+    TextTableWriter writer = new TextTableWriter(new StringWriter());
+    writer.declare(TableColumn.longColumn("ts"),
+                   TableColumn.longColumn("hod"));
+    writer.add(1).endRow();
+  }
+}
@@ -0,0 +1,68 @@
+package org.powertac.windpark;
+
+/**
+ * Running statistics of the wind speed forecast errors at one lead time.
+ * Every error is added as its forecast is matched to an observation, so
+ * the memory used does not depend on the number of forecasts. Mean and
+ * variance are kept with Welford's method, which does not lose precision
+ * when the errors are small compared to their count; the plain sums are
+ * kept as well, for the RMSE.
+ */
+public class ErrorStats {
+	private long count = 0;
+	private double sum = 0;
+	private double sumOfSquares = 0;
+	private double mean = 0;
+	private double m2 = 0; //sum of squared differences from the mean
+
+	public ErrorStats() {}
+
+	public void add(double error) {
+		count++;
+		sum += error;
+		sumOfSquares += error * error;
+		double delta = error - mean;
+		mean += delta / count;
+		m2 += delta * (error - mean);
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	public double getSum() {
+		return this.sum;
+	}
+
+	public double getSumOfSquares() {
+		return this.sumOfSquares;
+	}
+
+	/**
+	 * Root mean square error, 0 without errors
+	 */
+	public double getRmse() {
+		if (count == 0) {
+			return 0;
+		}
+		return Math.sqrt(sumOfSquares / count);
+	}
+
+	/**
+	 * Mean error (observation - forecast), 0 without errors
+	 */
+	public double getBias() {
+		return this.mean;
+	}
+
+	/**
+	 * Population standard deviation of the errors, so that
+	 * rmse^2 = bias^2 + stddev^2
+	 */
+	public double getStdDev() {
+		if (count == 0) {
+			return 0;
+		}
+		return Math.sqrt(m2 / count);
+	}
+}
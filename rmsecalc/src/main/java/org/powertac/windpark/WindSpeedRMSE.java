@@ -21,11 +21,31 @@ public class WindSpeedRMSE {
 		@XStreamAsAttribute
 		private float value = 0;
 		
+		@XStreamAlias("bias")
+		@XStreamAsAttribute
+		private float bias = 0;
+		
+		@XStreamAlias("stddev")
+		@XStreamAsAttribute
+		private float stddev = 0;
+		
+		@XStreamAlias("count")
+		@XStreamAsAttribute
+		private long count = 0;
+		
 		public RmseVal(int h, float v) {
 			this.hour = h;
 			this.value = v;
 		}
 		
+		public RmseVal(int h, ErrorStats stats) {
+			this.hour = h;
+			this.value = (float) stats.getRmse();
+			this.bias = (float) stats.getBias();
+			this.stddev = (float) stats.getStdDev();
+			this.count = stats.getCount();
+		}
+		
 		public int getHour() {
 			return hour;
 		}
@@ -34,6 +54,18 @@ public class WindSpeedRMSE {
 			return value;
 		}
 
+		public float getBias() {
+			return bias;
+		}
+
+		public float getStdDev() {
+			return stddev;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
 		public int compareTo(RmseVal o) {
 			if (this.hour < o.hour) {
 				return -1;
@@ -67,6 +99,10 @@ public class WindSpeedRMSE {
 		this.rmseVals.add(new RmseVal(hr, val));
 	}
 	
+	public void addRmseVal(int hr, ErrorStats stats) {
+		this.rmseVals.add(new RmseVal(hr, stats));
+	}
+	
 	public float getValue(int hr) {
 		float val = 0;
 		for (RmseVal rv : rmseVals) {
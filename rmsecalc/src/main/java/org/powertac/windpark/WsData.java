@@ -35,6 +35,11 @@ public class WsData
 		
 		@XStreamOmitField
 		private DateTime date;
+		
+		// sort keys parsed from dateString on first comparison
+		private transient boolean keysParsed;
+		private transient long hourMillis;
+		private transient long dateMillis;
 				
 		public WeatherReport(String dt, float speed) throws ParseException {
 			this.dateString = dt;
@@ -42,6 +47,9 @@ public class WsData
 			DateTime givenDateTime = df.parseDateTime(dt);
 			this.date = roundToHour(givenDateTime);
 			this.wspeed = speed;
+			this.hourMillis = givenDateTime.withMinuteOfHour(0).getMillis();
+			this.dateMillis = givenDateTime.getMillis();
+			this.keysParsed = true;
 		}
 		
 		public static DateTime roundToHour(DateTime givenDateTime) {
@@ -71,15 +79,25 @@ public class WsData
 		}
 		
 
+		private void parseKeys() {
+			if (!keysParsed) {
+				DateTimeFormatter dtfmt = DateTimeFormat.forPattern(WsData.dateFormat);
+				DateTime parsed = dtfmt.parseDateTime(this.dateString);
+				this.hourMillis = parsed.withMinuteOfHour(0).getMillis();
+				this.dateMillis = parsed.getMillis();
+				this.keysParsed = true;
+			}
+		}
+
 		public int compareTo (WeatherReport wr) {
-			DateTime myDate, hisDate;
-			DateTimeFormatter dtfmt = DateTimeFormat.forPattern(WsData.dateFormat);
-			myDate = dtfmt.parseDateTime(this.dateString).withMinuteOfHour(0);
-			hisDate = dtfmt.parseDateTime(wr.getDateString());
+			this.parseKeys();
+			wr.parseKeys();
+			long myDate = this.hourMillis;
+			long hisDate = wr.dateMillis;
 			
-			if (myDate.isBefore(hisDate)) {
+			if (myDate < hisDate) {
 				return -1;
-			} else if (myDate.isAfter(hisDate)) {
+			} else if (myDate > hisDate) {
 				return 1;
 				
 			} else {
@@ -140,6 +158,11 @@ public class WsData
 		@XStreamOmitField
 		private boolean noObservation = true;
 		
+		// sort keys parsed from the date strings on first comparison
+		private transient boolean keysParsed;
+		private transient long dateMillis;
+		private transient long originMillis;
+		
 		public WeatherForecast (String dt, int myId, String org, int tmp, float spd) throws ParseException {
 			DateTimeFormatter df = DateTimeFormat.forPattern(WsData.dateFormat);
 			this.date = df.parseDateTime(dt);
@@ -149,6 +172,9 @@ public class WsData
 			this.originString = org;
 			this.temp = tmp;
 			this.windspeed = spd;
+			this.dateMillis = this.date.getMillis();
+			this.originMillis = this.origin.getMillis();
+			this.keysParsed = true;
 		}
 		
 		public void convertToDate() {
@@ -234,23 +260,26 @@ public class WsData
 				return false;
 			}
 		}
+		private void parseKeys() {
+			if (!keysParsed) {
+				DateTimeFormatter dtfmt = DateTimeFormat.forPattern(WsData.dateFormat);
+				this.dateMillis = dtfmt.parseDateTime(this.dateString).getMillis();
+				this.originMillis = dtfmt.parseDateTime(this.originString).getMillis();
+				this.keysParsed = true;
+			}
+		}
+
 		public int compareTo (WeatherForecast wr) {
-			DateTime myDate, hisDate;
-			DateTime myOrigin, hisOrigin;
-			
-			DateTimeFormatter dtfmt = DateTimeFormat.forPattern(WsData.dateFormat);
-			myDate = dtfmt.parseDateTime(this.dateString);
-			hisDate = dtfmt.parseDateTime(wr.getDateString());
-			myOrigin = dtfmt.parseDateTime(this.originString);
-			hisOrigin = dtfmt.parseDateTime(wr.getOriginString());
+			this.parseKeys();
+			wr.parseKeys();
 			
-			if (myOrigin.isBefore(hisOrigin)) {
+			if (this.originMillis < wr.originMillis) {
 				return -1;
-			} else if (myOrigin.isAfter(hisOrigin)) {
+			} else if (this.originMillis > wr.originMillis) {
 				return 1;
-			} else if (myDate.isBefore(hisDate)) {
+			} else if (this.dateMillis < wr.dateMillis) {
 				return -1;
-			} else if (myDate.isAfter(hisDate)) {
+			} else if (this.dateMillis > wr.dateMillis) {
 				return 1;				
 			} else {
 				return 0;
@@ -340,6 +369,16 @@ public class WsData
 		}
 		
 		public void calcWindSpeedForecastErrors (WeatherReports wrps) {
+			calcWindSpeedForecastErrors(wrps, null);
+		}
+		
+		/**
+		 * Matches every forecast to its observation and, if statsByLeadTime
+		 * is not null, adds its error to the statistics of its lead time.
+		 * Lead times without an entry in the map are skipped.
+		 */
+		public void calcWindSpeedForecastErrors (WeatherReports wrps,
+				Map<Integer, ErrorStats> statsByLeadTime) {
 			
 			for (WeatherForecast wf : this.wForecasts) {
 				//get forecast date
@@ -353,6 +392,13 @@ public class WsData
 				// set wind speed observation
 				wf.setWindSpeedObservation(observedWindSpeed);
 				
+				if (statsByLeadTime != null && wf.windSpeedObservationAvailable()) {
+					ErrorStats stats = statsByLeadTime.get(wf.getLeadHours());
+					if (stats != null) {
+						stats.add(wf.getWindSPeedError());
+					}
+				}
+				
 			} //for each weather forecast	
 		}
 	}
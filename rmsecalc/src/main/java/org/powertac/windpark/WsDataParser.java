@@ -0,0 +1,97 @@
+package org.powertac.windpark;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a wind speed data file with a StAX reader instead of XStream. Only
+ * the weatherReport and weatherForecast elements and their attributes are
+ * looked at, so a file may hold any number of weatherReports and
+ * weatherForecasts elements. Reports and forecasts are added to their sets
+ * in document order, as XStream does.
+ *
+ * Each thread uses its own XMLInputFactory, so files can be parsed
+ * concurrently.
+ */
+public class WsDataParser {
+
+	private static final ThreadLocal<XMLInputFactory> factory =
+			new ThreadLocal<XMLInputFactory>() {
+		@Override
+		protected XMLInputFactory initialValue() {
+			XMLInputFactory xif = XMLInputFactory.newInstance();
+			xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			xif.setProperty(XMLInputFactory.IS_COALESCING, false);
+			return xif;
+		}
+	};
+
+	private WsDataParser() {}
+
+	/**
+	 * Parses one data file; dates are converted as by WsData.convertToDate()
+	 */
+	public static WsData parse(File dataFile) throws IOException {
+		WsData.WeatherReports reports = new WsData.WeatherReports();
+		WsData.WeatherForecasts forecasts = new WsData.WeatherForecasts();
+		InputStream in = new BufferedInputStream(new FileInputStream(dataFile), 65536);
+		XMLStreamReader reader = null;
+		try {
+			reader = factory.get().createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String name = reader.getLocalName();
+				if ("weatherReport".equals(name)) {
+					reports.addWeatherReport(new WsData.WeatherReport(
+							attribute(reader, "date"),
+							Float.parseFloat(attribute(reader, "windspeed"))));
+				} else if ("weatherForecast".equals(name)) {
+					forecasts.addWeatherForecast(new WsData.WeatherForecast(
+							attribute(reader, "date"),
+							Integer.parseInt(attribute(reader, "id")),
+							attribute(reader, "origin"),
+							Integer.parseInt(attribute(reader, "temp")),
+							Float.parseFloat(attribute(reader, "windspeed"))));
+				}
+			}
+		} catch (XMLStreamException ex) {
+			throw new IOException(dataFile + ": " + ex.getMessage(), ex);
+		} catch (ParseException ex) {
+			throw new IOException(dataFile + ": " + ex.getMessage(), ex);
+		} catch (IllegalArgumentException ex) {
+			// bad number or date
+			throw new IOException(dataFile + ": " + ex.getMessage(), ex);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException ex) {
+					// the stream is closed below
+				}
+			}
+			in.close();
+		}
+		return new WsData(reports, forecasts);
+	}
+
+	private static String attribute(XMLStreamReader reader, String name)
+			throws XMLStreamException {
+		String value = reader.getAttributeValue(null, name);
+		if (value == null) {
+			throw new XMLStreamException("missing " + name + " attribute in "
+					+ reader.getLocalName(), reader.getLocation());
+		}
+		return value;
+	}
+}
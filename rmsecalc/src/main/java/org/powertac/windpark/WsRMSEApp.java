@@ -3,11 +3,17 @@ package org.powertac.windpark;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.thoughtworks.xstream.XStream;
 
@@ -20,8 +26,9 @@ public class WsRMSEApp {
 	private WsData.WeatherForecasts windSpeedForecasts = new WsData.WeatherForecasts();
 	private WsData.WeatherReports   windSpeedObservations = new WsData.WeatherReports();
 	
-	private Map<Integer, Float> mapLeadTimeRMSE = new HashMap<Integer, Float>();
-	private Map<Integer, Set<Float>> mapLtErrorSet = new HashMap<Integer, Set<Float>>();
+	private static final int maxLeadTime = 50;
+	
+	private Map<Integer, ErrorStats> mapLtErrorStats = new HashMap<Integer, ErrorStats>();
 	private WindSpeedRMSE wspRmse = null;
 	
 	private static File[] getDataFiles() {
@@ -66,10 +73,25 @@ public class WsRMSEApp {
 	
 	/**
 	 * Entry point for the application
-	 * @param args: empty vector [no arguments necessary]
+	 * @param args: optional; --threads n parses n files at once (default:
+	 *              number of processors), --xstream reads the files one at
+	 *              a time with XStream as before
 	 */
 	public static void main(String[] args) {
 		
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean useXStream = false;
+		for (int i = 0; i < args.length; i++) {
+			if ("--xstream".equals(args[i])) {
+				useXStream = true;
+			} else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else {
+				System.out.println("Usage: WsRMSEApp [--threads n] [--xstream]");
+				return;
+			}
+		}
+		
 		File[]  dataFiles = getDataFiles();
 		
 		if (dataFiles == null || dataFiles.length == 0) {
@@ -79,20 +101,27 @@ public class WsRMSEApp {
 		
 		WsRMSEApp myApp = new WsRMSEApp();
 		
-		//process each file
-		int filenum = 0;
-		for (File f : dataFiles) {
-			filenum++;
-			//check if you can load this file in an XStream object
-			XStream xstream = getConfiguredXStream();
-			//build WsData object
-			WsData wsData = (WsData)xstream.fromXML(f);
-			wsData.convertToDate();	
+		if (useXStream) {
+			//process each file
+			for (File f : dataFiles) {
+				//check if you can load this file in an XStream object
+				XStream xstream = getConfiguredXStream();
+				//build WsData object
+				WsData wsData = (WsData)xstream.fromXML(f);
+				wsData.convertToDate();	
 
-			//add the WsData data in local collections
-			myApp.addWsData(wsData);
-			
-		} // for each data file
+				//add the WsData data in local collections
+				myApp.addWsData(wsData);
+				
+			} // for each data file
+		} else {
+			try {
+				myApp.readDataFiles(dataFiles, threads);
+			} catch (IOException ex) {
+				System.out.println(ex);
+				return;
+			}
+		}
 	
 		// check weather-forecast ids
 		myApp.checkWfIds();
@@ -138,6 +167,41 @@ public class WsRMSEApp {
 		System.out.println("Total number of bad IDs = " + badId);
 	}
 
+	/**
+	 * Parses the data files concurrently with WsDataParser, each file into
+	 * its own WsData. These are merged into the local collections in the
+	 * order of the files, as soon as each one and those before it are
+	 * parsed, so the result is the same as reading the files one at a time.
+	 */
+	private void readDataFiles(File[] dataFiles, int threads) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+		List<Future<WsData>> results = new ArrayList<Future<WsData>>();
+		try {
+			for (final File f : dataFiles) {
+				results.add(pool.submit(new Callable<WsData>() {
+					@Override
+					public WsData call() throws IOException {
+						return WsDataParser.parse(f);
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				this.addWsData(results.get(i).get());
+				results.set(i, null); //release the parsed file
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Reading data files interrupted");
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException) {
+				throw (IOException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	private void addWsData(WsData wsd) {
 		this.windSpeedForecasts.addWeatherForecasts(wsd.getWeatherForecasts());
 		this.windSpeedObservations.addWeatherReports(wsd.getWeatherReports());
@@ -149,64 +213,20 @@ public class WsRMSEApp {
 		//build necessary maps
 		this.windSpeedObservations.bildMaps();
 		
-		//calculate wind speed errors for all forecasts
-		this.windSpeedForecasts.calcWindSpeedForecastErrors(this.windSpeedObservations);
-		
-		//build empty map for lead times from 1 thru 50
-		for (int i = 0; i < 50; i++) {
-			this.mapLeadTimeRMSE.put(i+1, (float) 0.0);
-			this.mapLtErrorSet.put(i+1, new LinkedHashSet<Float>());
+		//build empty statistics for lead times from 1 thru 50
+		for (int i = 0; i < maxLeadTime; i++) {
+			this.mapLtErrorStats.put(i+1, new ErrorStats());
 		}
 		
-		// put all errors in the mapLtErrorSet
-		for (WsData.WeatherForecast wf : this.windSpeedForecasts.getWeatherForecasts()) {
-			int leadTime = wf.getLeadHours();
-			if (leadTime > 50) {
-				System.out.println("Lead Time greater than 50 hours found");
-				continue;
-			}
-			float error = wf.getWindSPeedError();
-			boolean validError = wf.windSpeedObservationAvailable();
-			Set<Float> errorSet = this.mapLtErrorSet.get(leadTime);
-			if (errorSet != null) {
-				if (validError) {
-					errorSet.add(error);
-				}
-			} else {
-				System.out.println("Error: null value for lead time " + leadTime);
-			}
-		} //for each wind speed forecast
-		
-		//now for each lead time calculate RMSE
-		for (int i = 0; i < 50; i++) {
-			int key = i + 1;
-			Set<Float> errorSet = this.mapLtErrorSet.get(key);
-			if (errorSet != null) {
-				double squareOfErrors = 0; //this can be a large number
-				int num = 0;
-				for (float err : errorSet) {
-					squareOfErrors += err * err;
-					num++;
-				}
-				double meanOfErrors = 0;
-				if (num > 0) {
-					meanOfErrors = squareOfErrors / num;
-				}
-				float rmse = 0;
-				if (meanOfErrors > 0) {
-					rmse = (float) Math.sqrt((double)meanOfErrors);
-				}
-				//add the rmse in map
-				this.mapLeadTimeRMSE.put(key, rmse);
-			}
-		}
+		//calculate wind speed errors for all forecasts, adding each one to
+		//the statistics of its lead time as it is matched to an observation
+		this.windSpeedForecasts.calcWindSpeedForecastErrors(this.windSpeedObservations,
+				this.mapLtErrorStats);
+		
 		// put results into XStream friendly object
 		this.wspRmse = new WindSpeedRMSE();
-		for (Map.Entry<Integer, Float> entry : this.mapLeadTimeRMSE.entrySet()) {
-			
-			int hour = entry.getKey();
-			float val = entry.getValue();
-			wspRmse.addRmseVal(hour, val);
+		for (Map.Entry<Integer, ErrorStats> entry : this.mapLtErrorStats.entrySet()) {
+			wspRmse.addRmseVal(entry.getKey(), entry.getValue());
 		}
 	}//calcWindSpeedRMSE()
 	
@@ -223,6 +243,9 @@ public class WsRMSEApp {
 		xstream.aliasField("hour", WindSpeedRMSE.RmseVal.class, "hour");
 		xstream.useAttributeFor(WindSpeedRMSE.RmseVal.class, "value");
 		xstream.aliasField("value", WindSpeedRMSE.RmseVal.class, "value");
+		xstream.useAttributeFor(WindSpeedRMSE.RmseVal.class, "bias");
+		xstream.useAttributeFor(WindSpeedRMSE.RmseVal.class, "stddev");
+		xstream.useAttributeFor(WindSpeedRMSE.RmseVal.class, "count");
 		
 		String xmlStr = xstream.toXML(this.wspRmse);
 		String fileName = WsRMSEApp.wsRmsePath + "/" + WsRMSEApp.rmseFileName;
@@ -0,0 +1,75 @@
+package org.powertac.windpark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class ErrorStatsTest extends TestCase {
+
+	public void testStats() {
+		double[] errors = {1.5, -0.5, 2.0, 2.0, -3.25, 0.0};
+		ErrorStats stats = new ErrorStats();
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (double e : errors) {
+			stats.add(e);
+			sum += e;
+			sumOfSquares += e * e;
+		}
+		double mean = sum / errors.length;
+		double var = 0;
+		for (double e : errors) {
+			var += (e - mean) * (e - mean);
+		}
+		var /= errors.length;
+
+		assertEquals(6, stats.getCount());
+		assertEquals(Math.sqrt(sumOfSquares / errors.length), stats.getRmse(), 1e-12);
+		assertEquals(mean, stats.getBias(), 1e-12);
+		assertEquals(Math.sqrt(var), stats.getStdDev(), 1e-12);
+		assertEquals(stats.getRmse() * stats.getRmse(),
+				stats.getBias() * stats.getBias() + stats.getStdDev() * stats.getStdDev(), 1e-12);
+	}
+
+	public void testEmpty() {
+		ErrorStats stats = new ErrorStats();
+		assertEquals(0, stats.getCount());
+		assertEquals(0.0, stats.getRmse(), 0.0);
+		assertEquals(0.0, stats.getBias(), 0.0);
+		assertEquals(0.0, stats.getStdDev(), 0.0);
+	}
+
+	// forecasts with the same error at one lead time are all counted
+	public void testMatchedForecasts() throws Exception {
+		WsData.WeatherReports reports = new WsData.WeatherReports();
+		reports.addWeatherReport(new WsData.WeatherReport("2013-04-01T02:00:00+0000", 6.0f));
+		reports.addWeatherReport(new WsData.WeatherReport("2013-04-01T03:00:00+0000", 7.0f));
+		reports.bildMaps();
+
+		WsData.WeatherForecasts forecasts = new WsData.WeatherForecasts();
+		forecasts.addWeatherForecast(new WsData.WeatherForecast("2013-04-01T02:00:00+0000",
+				1, "2013-04-01T01:00:00+0000", 10, 5.0f));
+		forecasts.addWeatherForecast(new WsData.WeatherForecast("2013-04-01T03:00:00+0000",
+				1, "2013-04-01T02:00:00+0000", 10, 6.0f));
+		forecasts.addWeatherForecast(new WsData.WeatherForecast("2013-04-01T03:00:00+0000",
+				2, "2013-04-01T01:00:00+0000", 10, 9.0f));
+		// no observation
+		forecasts.addWeatherForecast(new WsData.WeatherForecast("2013-04-01T04:00:00+0000",
+				2, "2013-04-01T02:00:00+0000", 10, 9.0f));
+
+		Map<Integer, ErrorStats> statsByLeadTime = new HashMap<Integer, ErrorStats>();
+		statsByLeadTime.put(1, new ErrorStats());
+		statsByLeadTime.put(2, new ErrorStats());
+		forecasts.calcWindSpeedForecastErrors(reports, statsByLeadTime);
+
+		ErrorStats one = statsByLeadTime.get(1);
+		assertEquals(2, one.getCount());
+		assertEquals(1.0, one.getRmse(), 1e-12);
+		assertEquals(1.0, one.getBias(), 1e-12);
+		assertEquals(0.0, one.getStdDev(), 1e-12);
+		ErrorStats two = statsByLeadTime.get(2);
+		assertEquals(1, two.getCount());
+		assertEquals(-2.0, two.getBias(), 1e-12);
+	}
+}
@@ -0,0 +1,85 @@
+package org.powertac.windpark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+public class WsDataParserTest extends TestCase {
+
+	private File dataFile;
+
+	@Override
+	protected void setUp() throws IOException {
+		dataFile = File.createTempFile("wsdata", ".xml");
+		FileWriter out = new FileWriter(dataFile);
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?><data>\n"
+				+ "<weatherReports>\n"
+				+ "<weatherReport date=\"2013-04-01T21:54:00-05:00\" windspeed=\"2.5\"/>\n"
+				+ "<weatherReport date=\"2013-04-01T20:54:00-05:00\" windspeed=\"1.6666666666666667\"/>\n"
+				+ "</weatherReports>\n"
+				+ "<weatherForecasts>\n"
+				+ "<weatherForecast date=\"2013-04-02T03:00:00+0000\" id=\"2\" "
+				+ "origin=\"2013-04-02T01:00:00+0000\" temp=\"-3\" windspeed=\"4.0\"/>\n"
+				+ "<weatherForecast date=\"2013-04-02T02:00:00+0000\" id=\"1\" "
+				+ "origin=\"2013-04-02T01:00:00+0000\" temp=\"-2\" windspeed=\"3.5\"/>\n"
+				+ "</weatherForecasts>\n"
+				+ "<weatherReports/>\n"
+				+ "<weatherForecasts>\n"
+				+ "<weatherForecast date=\"2013-04-02T01:00:00+0000\" id=\"1\" "
+				+ "origin=\"2013-04-02T00:00:00+0000\" temp=\"0\" windspeed=\"5.0\"/>\n"
+				+ "<weatherForecast date=\"2013-04-02T02:00:00+0000\" id=\"1\" "
+				+ "origin=\"2013-04-02T01:00:00+0000\" temp=\"7\" windspeed=\"7.0\"/>\n"
+				+ "</weatherForecasts>\n"
+				+ "</data>\n");
+		out.close();
+	}
+
+	@Override
+	protected void tearDown() {
+		dataFile.delete();
+	}
+
+	public void testParse() throws IOException {
+		WsData data = WsDataParser.parse(dataFile);
+
+		Iterator<WsData.WeatherReport> reports =
+				data.getWeatherReports().getWeatherReports().iterator();
+		WsData.WeatherReport wr = reports.next();
+		assertEquals("2013-04-01T20:54:00-05:00", wr.getDateString());
+		assertEquals(1.6666666666666667f, wr.getWindSpeed());
+		assertEquals(WsData.WeatherReport.roundToHour(wr.getDate()), wr.getDate());
+		assertEquals(2.5f, reports.next().getWindSpeed());
+		assertFalse(reports.hasNext());
+
+		// sorted by origin and date, the first of two equal ones is kept
+		Iterator<WsData.WeatherForecast> forecasts =
+				data.getWeatherForecasts().getWeatherForecasts().iterator();
+		WsData.WeatherForecast wf = forecasts.next();
+		assertEquals(1, wf.getLeadHours());
+		assertEquals(5.0f, wf.getWindSpeed());
+		wf = forecasts.next();
+		assertEquals(1, wf.getId());
+		assertEquals(-2, wf.getTemp());
+		assertEquals(3.5f, wf.getWindSpeed());
+		wf = forecasts.next();
+		assertEquals(2, wf.getLeadHours());
+		assertEquals(-3, wf.getTemp());
+		assertFalse(forecasts.hasNext());
+	}
+
+	public void testMissingAttribute() throws IOException {
+		FileWriter out = new FileWriter(dataFile);
+		out.write("<data><weatherReports><weatherReport windspeed=\"1.0\"/>"
+				+ "</weatherReports></data>");
+		out.close();
+		try {
+			WsDataParser.parse(dataFile);
+			fail("no exception for a report without date");
+		} catch (IOException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().contains("date"));
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+
+/**
+ * ARMA(1,1) parameters of the wind speed forecast error for each location,
+ * as read from arma-parameters.xml:
+ *
+ * <pre>
+ * &lt;arma-param&gt;
+ *   &lt;location name="minneapolis"&gt;
+ *     &lt;param alpha="0.0841"/&gt;
+ *     &lt;param beta="-0.2817"/&gt;
+ *     &lt;param sigmaz="1.413"/&gt;
+ *   &lt;/location&gt;
+ *   ...
+ * &lt;/arma-param&gt;
+ * </pre>
+ *
+ * @author agent
+ */
+@XStreamAlias("arma-param")
+public class ArmaParameters {
+
+	@XStreamAlias("location")
+	public static class Location {
+		@XStreamAsAttribute
+		private String name;
+		@XStreamImplicit(itemFieldName = "param")
+		private List<Param> params;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public double getAlpha() {
+			return get("alpha");
+		}
+
+		public double getBeta() {
+			return get("beta");
+		}
+
+		public double getSigmaz() {
+			return get("sigmaz");
+		}
+
+		// each param element carries one of the parameters
+		private double get(String param) {
+			if (params != null) {
+				for (Param p : params) {
+					Double value = p.get(param);
+					if (value != null) {
+						return value;
+					}
+				}
+			}
+			throw new IllegalStateException("No " + param + " for location " + name);
+		}
+	}
+
+	private static class Param {
+		@XStreamAsAttribute
+		private Double alpha;
+		@XStreamAsAttribute
+		private Double beta;
+		@XStreamAsAttribute
+		private Double sigmaz;
+
+		Double get(String param) {
+			if ("alpha".equals(param)) {
+				return alpha;
+			} else if ("beta".equals(param)) {
+				return beta;
+			} else {
+				return sigmaz;
+			}
+		}
+	}
+
+	@XStreamImplicit(itemFieldName = "location")
+	private List<Location> locations = new ArrayList<Location>();
+
+	public List<Location> getLocations() {
+		if (locations == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(locations);
+	}
+
+	public static XStream getConfiguredXStream() {
+		XStream xstream = new XStream();
+		xstream.processAnnotations(ArmaParameters.class);
+		xstream.processAnnotations(Location.class);
+		xstream.processAnnotations(Param.class);
+		return xstream;
+	}
+
+	/**
+	 * Reads the parameters from an XML file. Returns null if the file does
+	 * not exist.
+	 */
+	public static ArmaParameters getArmaParameters(String xmlFileName) {
+		File dataFile = new File(xmlFileName);
+		if (!dataFile.exists()) {
+			System.out.println("File: " + xmlFileName + " Does not exist");
+			return null;
+		}
+		XStream xstream = getConfiguredXStream();
+		return (ArmaParameters) xstream.fromXML(dataFile);
+	}
+
+} // class ArmaParameters
@@ -1,25 +1,59 @@
 package org.powertac.windpark;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * Normal random numbers with given mean and standard deviation. Samples
+ * come from the Marsaglia polar method by default, or from the faster
+ * ziggurat method (see ZigguratGaussian).
+ */
 public class RandomNumberGenerator {
 
+	/** Sampling method */
+	public enum Method {
+		POLAR, ZIGGURAT
+	}
+
+	private Method method = Method.POLAR;
 	private double second;
 	private boolean secondValid = false;
-	private Random javaRandom = new Random();
+	private SplittableRandom randomSource;
 	private double mean = 0.0; //default mean
 	private double std = 1.0; // default standard deviation
 
 	public RandomNumberGenerator() {
+		this.randomSource = new SplittableRandom();
 	}
 
 	public RandomNumberGenerator(double mean, double std) {
+		this(mean, std, new SplittableRandom());
+	}
+
+	/**
+	 * Draws from the given stream, for reproducible sequences
+	 */
+	public RandomNumberGenerator(double mean, double std, SplittableRandom source) {
 		this.mean = mean;
 		this.std = std;
+		this.randomSource = source;
+	}
+
+	public RandomNumberGenerator(double mean, double std, SplittableRandom source,
+			Method method) {
+		this(mean, std, source);
+		this.method = method;
+	}
+
+	public Method getMethod() {
+		return this.method;
 	}
 
 	double nextGaussian() {
-		double v1, v2, y1, y2, x1, x2, w;
+		if (method == Method.ZIGGURAT) {
+			return mean + ZigguratGaussian.next(randomSource) * std;
+		}
+
+		double v1, v2, y1, y2, x1, x2, w, scale;
 
 		if (secondValid) {
 			secondValid = false;
@@ -27,13 +61,14 @@ public class RandomNumberGenerator {
 		}
 
 		do {
-			v1 = 2 * javaRandom.nextDouble() - 1;
-			v2 = 2 * javaRandom.nextDouble() - 1;
+			v1 = 2 * randomSource.nextDouble() - 1;
+			v2 = 2 * randomSource.nextDouble() - 1;
 			w = v1 * v1 + v2 * v2;
-		} while (w > 1);
+		} while (w >= 1 || w == 0);
 
-		y1 = v1 * Math.sqrt(-2 * Math.log(w) / w);
-		y2 = v2 * Math.sqrt(-2 * Math.log(w) / w);
+		scale = Math.sqrt(-2 * Math.log(w) / w);
+		y1 = v1 * scale;
+		y2 = v2 * scale;
 		x1 = mean + y1 * std;
 		x2 = mean + y2 * std;
 		second = x2;
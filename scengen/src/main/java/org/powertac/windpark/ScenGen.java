@@ -1,8 +1,13 @@
 package org.powertac.windpark;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.powertac.windpark.Scenario.ScenarioValue;
 
 import joptsimple.OptionParser;
@@ -12,99 +17,351 @@ import joptsimple.OptionSpec;
 /**
  * Scenario Generator This utility generates wind speed forecast error scenarios
  * from ARMA(1,1) model.
+ *
+ * Each scenario draws from its own random stream, seeded from a master seed
+ * and the scenario number, so scenarios can be generated in parallel on a
+ * fork-join pool and a given --seed gives the same scenarios with any number
+ * of --threads. The noise is drawn with the polar method unless
+ * --sampler ziggurat is given.
+ *
+ * Scenarios are produced a block at a time and handed to a ScenarioSink;
+ * generatePower() carries each block on to wind speed and power output
+ * before the next one is generated, so memory does not grow with the
+ * number of scenarios.
+ *
+ * With --batch &lt;dir&gt; it generates the whole scenario library for the
+ * locations and forecast origins found in dir; see ScenarioLibrary.
  */
 public class ScenGen {
 	
-	private static final String errorScenarioFile = "/home/shashank/Downloads/WindSpeedForecastErrorScenMinneapolis.xml";
+	// file names without extension; .scen for binary files, .xml for XML
+	private static final String errorScenarioFile = "/home/shashank/Downloads/WindSpeedForecastErrorScenMinneapolis";
 	private static final String wsForecastFile = "/home/shashank/Downloads/minneapolisForecast.xml";
-	private static final String wpScenarioFile = "/home/shashank/Downloads/minneapolisWindPowerScenarios.xml";
+	private static final String wsScenarioFile = "/home/shashank/Downloads/minneapolisWindSpeedScenarios";
+	private static final String wpScenarioFile = "/home/shashank/Downloads/minneapolisWindPowerScenarios";
 	
 	private int numberOfScenarios;
 	private double alpha;
 	private double beta;
 	private double sigmaz;
-
+	private long seed;
+	private int threads = 1;
+	private RandomNumberGenerator.Method sampler = RandomNumberGenerator.Method.POLAR;
+	
+	/** hours in each scenario */
+	static final int HOURS = 24;
+	/** scenarios generated by one task */
+	private static final int CHUNK = 1000;
+	
 	Scenarios windSpeedForecastErrorScenarios;
 	
 	public ScenGen(int num, double a, double b, double s) {
+		this(num, a, b, s, new SplittableRandom().nextLong());
+	}
+	
+	public ScenGen(int num, double a, double b, double s, long seed) {
 		this.numberOfScenarios = num;
 		this.alpha = a;
 		this.beta = b;
 		this.sigmaz = s;
+		this.seed = seed;
 		windSpeedForecastErrorScenarios = new Scenarios();
 	}
 	
+	/**
+	 * Sets the number of threads used by generate(), 1 by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+	
+	/**
+	 * Sets the method used to draw the ARMA noise, polar by default
+	 */
+	public void setSampler(RandomNumberGenerator.Method sampler) {
+		this.sampler = sampler;
+	}
+	
+	/**
+	 * Generates the error scenarios into windSpeedForecastErrorScenarios
+	 */
 	public void generate() {
-		
-		//get a random number generator with zero mean and sigmaz standard deviation
-		RandomNumberGenerator randomGen = new RandomNumberGenerator(0.0,this.sigmaz);
-		
+		try {
+			generate(this.windSpeedForecastErrorScenarios);
+		} catch (IOException ex) {
+			// Scenarios keeps everything in memory and does not throw
+			throw new IllegalStateException(ex);
+		}
+	}
+	
+	/**
+	 * Generates the error scenarios into sink, in order of scenario number
+	 */
+	public void generate(ScenarioSink sink) throws IOException {
+		generatePower(null, null, null, null, sink, null);
+	}
+	
+	/**
+	 * Generates error scenarios, adds them to the wind speed forecast and
+	 * converts the result to wind park output. Power scenarios go to
+	 * powerSink; errorSink and windSpeedSink, if not null, receive the
+	 * intermediate scenarios. All sinks get scenarios in order of
+	 * scenario number. If wpark is null only errors are generated.
+	 */
+	public void generatePower(double[] windSpeedForecast, double[] tempByHour,
+			WindPark wpark, ScenarioSink powerSink, ScenarioSink errorSink,
+			ScenarioSink windSpeedSink) throws IOException {
+				
 		float probability = (float)1/this.numberOfScenarios;
+		int blockSize = Math.min(CHUNK * Math.max(1, this.threads),
+				this.numberOfScenarios);
+		double[][] errors = new double[blockSize][HOURS];
+		double[][] windSpeeds = new double[blockSize][HOURS];
+		double[][] power = new double[blockSize][HOURS];
 		
-		for (int s = 0; s < this.numberOfScenarios; s++) {
+		ForkJoinPool pool = null;
+		if (this.threads > 1) {
+			pool = new ForkJoinPool(this.threads);
+		}
+		try {
+			for (int first = 0; first < this.numberOfScenarios; first += blockSize) {
+				int n = Math.min(blockSize, this.numberOfScenarios - first);
+				if (pool != null) {
+					pool.invoke(new GenerateTask(errors, first, 0, n));
+				} else {
+					generate(errors, first, 0, n);
+				}
+				if (wpark != null) {
+					for (int i = 0; i < n; i++) {
+						for (int h = 0; h < HOURS; h++) {
+							windSpeeds[i][h] = windSpeedForecast[h] + errors[i][h];
+						}
+					}
+					// only the first n rows hold this block on the last pass
+					wpark.getPowerOutput(tempByHour,
+							n < blockSize ? Arrays.copyOf(windSpeeds, n) : windSpeeds,
+							n < blockSize ? Arrays.copyOf(power, n) : power);
+				}
+				for (int i = 0; i < n; i++) {
+					int number = first + i + 1;
+					if (errorSink != null) {
+						errorSink.write(number, probability, errors[i]);
+					}
+					if (windSpeedSink != null) {
+						windSpeedSink.write(number, probability, windSpeeds[i]);
+					}
+					if (powerSink != null) {
+						powerSink.write(number, probability, power[i]);
+					}
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		
+	}
 	
+	// generates the error paths of scenarios first+from (inclusive) to
+	// first+to (exclusive) into rows from to to of paths
+	private void generate(double[][] paths, int first, int from, int to) {
+		
+		for (int i = from; i < to; i++) {
+			
+			//get a random number generator with zero mean and sigmaz standard deviation
+			RandomNumberGenerator randomGen = new RandomNumberGenerator(0.0,this.sigmaz,
+					scenarioStream(this.seed, first+i+1), this.sampler);
+					
 			double xk1 = 0; //previous value of x
 			double xk = 0; //current value of x
 			double zk = 0; //current value of z
 			double zk1 = 0; //previous value of z
-			// create instance of scenario
-			Scenario scen = new Scenario(s+1, probability);
-			for (int h = 0; h < 24; h++) {
+			double[] path = paths[i];
+			for (int h = 0; h < HOURS; h++) {
 				//save previous values
 				xk1 = xk;
 				zk1 = zk;
 				// get fresh zk
 				zk = randomGen.nextGaussian();
 				xk = (this.alpha * xk1) + zk + (this.beta * zk1);
-				// create scenario value instance
-				Scenario.ScenarioValue sv = new Scenario.ScenarioValue(h+1, xk);
-				scen.addValue(sv);
+				path[h] = xk;
 			} // for each hour
 			
-			//add scenario to collection
-			this.windSpeedForecastErrorScenarios.addScenario(scen);
-			
 		} //for each scenario
 		
 	}
 	
+	/**
+	 * Returns the random stream for a scenario. It depends only on the
+	 * master seed and the scenario number; split() gives each scenario its
+	 * own gamma, so streams of neighboring scenarios do not overlap. The
+	 * master seed is mixed before the scenario number is added, otherwise
+	 * seed s+1 would give the scenarios of seed s shifted by one.
+	 */
+	static SplittableRandom scenarioStream(long seed, int scenarioNumber) {
+		return new SplittableRandom(new SplittableRandom(seed).nextLong()
+				+ scenarioNumber).split();
+	}
+	
+	/** Generates a range of error paths, splitting it across the pool */
+	private class GenerateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private double[][] paths;
+		private int first;
+		private int from;
+		private int to;
+		
+		GenerateTask(double[][] paths, int first, int from, int to) {
+			this.paths = paths;
+			this.first = first;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK) {
+				generate(paths, first, from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new GenerateTask(paths, first, from, mid),
+						new GenerateTask(paths, first, mid, to));
+			}
+		}
+	}
+	
+	/**
+	 * Output file for one kind of scenario. Binary files are written as
+	 * scenarios arrive; XML needs the whole set, so it is collected and
+	 * written by close().
+	 */
+	static class OutputFile implements ScenarioSink, Closeable {
+		private String fileName;
+		private ScenarioFileWriter writer;
+		private Scenarios scenarios;
+		
+		OutputFile(String baseName, boolean xml, int count) throws IOException {
+			if (xml) {
+				this.fileName = baseName + ".xml";
+				this.scenarios = new Scenarios();
+			} else {
+				this.fileName = baseName + ".scen";
+				this.writer = new ScenarioFileWriter(this.fileName, count, HOURS);
+			}
+		}
+		
+		@Override
+		public void write(int number, double probability, double[] values)
+				throws IOException {
+			if (writer != null) {
+				writer.write(number, probability, values);
+			} else {
+				scenarios.write(number, probability, values);
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if (writer != null) {
+				writer.close();
+			} else if (!scenarios.writeToXML(fileName)) {
+				throw new IOException("Could not write " + fileName);
+			}
+		}
+	}
+	
+	// closes each output that was opened
+	private static void close(Closeable... files) throws IOException {
+		for (Closeable file : files) {
+			if (file != null) {
+				file.close();
+			}
+		}
+	}
+	
 	/**
 	 * entry point for Scenario Generator Application
 	 * @param args
 	 */
 	public static void main(String[] args) {
-		// Read ARMA Series Parameters
-		// TODO: read from XML file
+		// Read ARMA Series Parameters, from arma-parameters.xml with --batch
 		OptionParser optParser = new OptionParser();
 		
 		OptionSpec<Integer> optScen = optParser.accepts("num").withRequiredArg().ofType(Integer.class);
 		OptionSpec<Double> optA = optParser.accepts("alpha").withRequiredArg().ofType(Double.class);
 		OptionSpec<Double> optB = optParser.accepts("beta").withRequiredArg().ofType(Double.class);
 		OptionSpec<Double> optS = optParser.accepts("sigma").withRequiredArg().ofType(Double.class);
+		OptionSpec<String> optCurve = optParser.accepts("curve").withRequiredArg().ofType(String.class);
+		OptionSpec<Long> optSeed = optParser.accepts("seed").withRequiredArg().ofType(Long.class);
+		OptionSpec<Integer> optThreads = optParser.accepts("threads").withRequiredArg().ofType(Integer.class);
+		OptionSpec<String> optSampler = optParser.accepts("sampler").withRequiredArg().ofType(String.class);
+		optParser.accepts("xml"); // write XML instead of binary scenario files
+		optParser.accepts("debug"); // also write error and wind speed scenarios
+		OptionSpec<String> optBatch = optParser.accepts("batch").withRequiredArg().ofType(String.class);
+		OptionSpec<String> optOut = optParser.accepts("out").withRequiredArg().ofType(String.class);
 		
 		OptionSet optSet = optParser.parse(args);
-		double a = 0; 
-		double b = 0; 
-		double s = 0; 
+		boolean xml = optSet.has("xml");
+		boolean debug = optSet.has("debug");
 		int scenNum = 10000; //default scenario number
 		if (optSet.hasArgument(optScen)) {
 			scenNum = optSet.valueOf(optScen);
 		}
-		if (optSet.hasArgument(optA) && optSet.hasArgument(optB) && optSet.hasArgument(optS)) {
-			a = optSet.valueOf(optA);
-			b = optSet.valueOf(optB);
-			s = optSet.valueOf(optS);
-			if (Math.abs(a) < 0.0000000001 || Math.abs(b) < 0.0000000001 || Math.abs(s) < 0.0000000001) {
-				System.out.println("Invalid Arguments");
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (optSet.hasArgument(optThreads)) {
+			threads = optSet.valueOf(optThreads);
+		}
+		RandomNumberGenerator.Method sampler = RandomNumberGenerator.Method.POLAR;
+		if (optSet.hasArgument(optSampler)) {
+			try {
+				sampler = RandomNumberGenerator.Method.valueOf(
+						optSet.valueOf(optSampler).toUpperCase());
+			} catch (IllegalArgumentException ex) {
+				System.out.println("Sampler must be polar or ziggurat");
+				return;
+			}
+		}
+		
+		WindPark wpark; //create a wind park instance t oget output
+		if (optSet.hasArgument(optCurve)) {
+			WindTurbineEfficiencyCurve curve =
+					WindTurbineEfficiencyCurve.getEfficiencyCurve(optSet.valueOf(optCurve));
+			if (curve == null) {
+				System.out.println("Efficiency curve is not available");
 				return;
 			}
-			ScenGen scenGenerator = new ScenGen(scenNum, a, b, s);
-			scenGenerator.generate();
-			scenGenerator.windSpeedForecastErrorScenarios.writeToXML(errorScenarioFile);
+			wpark = new WindPark(curve);
+		} else {
+			wpark = new WindPark();
 		}
 		
-		//read wind speed forecast error scenario file
-		Scenarios errorScen = Scenarios.getScenarios(errorScenarioFile);
+		if (optSet.hasArgument(optBatch)) {
+			//every location in arma-parameters.xml times every forecast origin
+			String outDir = ".";
+			if (optSet.hasArgument(optOut)) {
+				outDir = optSet.valueOf(optOut);
+			}
+			long seed = new SplittableRandom().nextLong();
+			if (optSet.hasArgument(optSeed)) {
+				seed = optSet.valueOf(optSeed);
+			}
+			ScenarioLibrary library = new ScenarioLibrary(optSet.valueOf(optBatch),
+					outDir, scenNum, seed);
+			library.setThreads(threads);
+			library.setSampler(sampler);
+			library.setWindPark(wpark);
+			library.setXml(xml);
+			try {
+				int sets = library.generate();
+				System.out.println(sets + " scenario sets written to " + outDir);
+			} catch (IOException ex) {
+				System.out.println(ex);
+				return;
+			}
+			System.out.println("======= Program Completed ============");
+			return;
+		}
 		
 		//read wind speed forecast (just one file supported for now)
 		WsData windSpeedForecastData = WsData.getWsData(wsForecastFile);
@@ -114,66 +371,105 @@ public class ScenGen {
 			return;
 		}
 		
-		//build lead hour to wind speed forecast map
-		Map<Integer, Double> mapLeadHourToWindSpeed = new HashMap<Integer, Double>();
-		Map<Integer, Double> mapLeadHourToTemp = new HashMap<Integer, Double>();
-		for (int i = 0; i < 24; i++) {
-			double wspeed = windSpeedForecastData.getForecastWindSpeed(i+1);
-			double temp   = windSpeedForecastData.getForecastTemperature(i+1);
+		//wind speed forecast and temperature by lead hour
+		double[] windSpeedForecast = new double[HOURS];
+		double[] tempByHour = new double[HOURS];
+		for (int h = 0; h < HOURS; h++) {
+			double wspeed = windSpeedForecastData.getForecastWindSpeed(h+1);
+			double temp   = windSpeedForecastData.getForecastTemperature(h+1);
 			if (wspeed < -9999.0) {
 				wspeed = 0;
 				temp = 0;
 			}
-			mapLeadHourToWindSpeed.put(i+1, wspeed);
-			mapLeadHourToTemp.put(i+1, temp);
-		}
-		
-		Scenarios windSpeedScenarios = new Scenarios();
-		
-		//for each error scenario, generate wind speed scenario
-		for (Scenario es : errorScen.getScenarios()) {
-			double p = es.getProbability();
-			int sn = es.getScenarioNumber();
-			List<ScenarioValue> svs = es.getValueList();
-			Scenario windSpeedForecastScenario = new Scenario(sn, p);
-			for (ScenarioValue sv : svs) {
-				int hr = sv.getHour();
-				double err = sv.getValue();
-				// get wind speed forecast value for this lead hour
-				double windSpeedValue = mapLeadHourToWindSpeed.get(hr) + err;
-				ScenarioValue wsScenVal = new ScenarioValue(hr,windSpeedValue);
-				windSpeedForecastScenario.addValue(wsScenVal);
-			} //for each hour in the scenario
-			windSpeedScenarios.addScenario(windSpeedForecastScenario);
-		} //for each scenario
+			windSpeedForecast[h] = wspeed;
+			tempByHour[h] = temp;
+		}
 		
-		//for each wind speed scenario compute wind power output scenario
-		Scenarios powerOutputScenarios = new Scenarios();
-		WindPark wpark = new WindPark(); //create a wind park instance t oget output
-		for (Scenario wsp: windSpeedScenarios.getScenarios()) {
-			double p = wsp.getProbability();
-			int sn = wsp.getScenarioNumber();
-			List<ScenarioValue> svs = wsp.getValueList();
-			Scenario powerOutputScenario = new Scenario(sn, p);
-			for (ScenarioValue sv: svs) {
-				int hr = sv.getHour();
-				double wspForecast = sv.getValue();
-				double temperature = mapLeadHourToTemp.get(hr);
-				double windParkOutput = wpark.getPowerOutput(temperature, wspForecast);
-				ScenarioValue wpScenVal = new ScenarioValue(hr, windParkOutput);
-				powerOutputScenario.addValue(wpScenVal);
+		double a = 0;
+		double b = 0;
+		double s = 0;
+		if (optSet.hasArgument(optA) && optSet.hasArgument(optB) && optSet.hasArgument(optS)) {
+			a = optSet.valueOf(optA);
+			b = optSet.valueOf(optB);
+			s = optSet.valueOf(optS);
+			if (Math.abs(a) < 0.0000000001 || Math.abs(b) < 0.0000000001 || Math.abs(s) < 0.0000000001) {
+				System.out.println("Invalid Arguments");
+				return;
+			}
+			ScenGen scenGenerator;
+			if (optSet.hasArgument(optSeed)) {
+				scenGenerator = new ScenGen(scenNum, a, b, s, optSet.valueOf(optSeed));
+			} else {
+				scenGenerator = new ScenGen(scenNum, a, b, s);
+			}
+			scenGenerator.setThreads(threads);
+			scenGenerator.setSampler(sampler);
+			
+			//stream error -> wind speed -> power scenarios to the output files
+			OutputFile powerFile = null;
+			OutputFile errorFile = null;
+			OutputFile windSpeedFile = null;
+			try {
+				powerFile = new OutputFile(wpScenarioFile, xml, scenNum);
+				if (debug) {
+					errorFile = new OutputFile(errorScenarioFile, xml, scenNum);
+					windSpeedFile = new OutputFile(wsScenarioFile, xml, scenNum);
+				}
+				scenGenerator.generatePower(windSpeedForecast, tempByHour, wpark,
+						powerFile, errorFile, windSpeedFile);
+				close(powerFile, errorFile, windSpeedFile);
+			} catch (IOException ex) {
+				System.out.println(ex);
+				return;
+			}
+		} else {
+			//no ARMA parameters: convert stored error scenarios, binary or XML
+			String errorFileName = errorScenarioFile + (xml ? ".xml" : ".scen");
+			if (!new File(errorFileName).exists()) {
+				errorFileName = errorScenarioFile + (xml ? ".scen" : ".xml");
+			}
+			Scenarios errorScen = Scenarios.getScenarios(errorFileName);
+			if (errorScen == null) {
+				System.out.println("Wind Speed Forecast Error Scenarios are not available");
+				return;
+			}
+			
+			OutputFile powerFile = null;
+			try {
+				powerFile = new OutputFile(wpScenarioFile, xml,
+						errorScen.getScenarios().size());
+				double[][] windSpeeds = new double[1][HOURS];
+				double[][] power = new double[1][HOURS];
+				for (Scenario es : errorScen.getScenarios()) {
+					// hours missing from the error scenario stay NaN
+					Arrays.fill(windSpeeds[0], Double.NaN);
+					for (ScenarioValue sv : es.getValueList()) {
+						int hr = sv.getHour();
+						if (hr > HOURS) {
+							continue;
+						}
+						windSpeeds[0][hr - 1] = windSpeedForecast[hr - 1] + sv.getValue();
+					}
+					wpark.getPowerOutput(tempByHour, windSpeeds, power);
+					for (int h = 0; h < HOURS; h++) {
+						if (Double.isNaN(windSpeeds[0][h])) {
+							power[0][h] = Double.NaN;
+						}
+					}
+					powerFile.write(es.getScenarioNumber(), es.getProbability(), power[0]);
+				}
+				close(powerFile);
+			} catch (IOException ex) {
+				System.out.println(ex);
+				return;
 			}
-			powerOutputScenarios.addScenario(powerOutputScenario);
 		}
 		
-		//write wind power output scenarios to a file
-		powerOutputScenarios.writeToXML(wpScenarioFile);
-		
 		System.out.println("======= Program Completed ============");
 		
 		return;
-
+		
 	} // main
-	
-	
+
+
 } //class ScenGen
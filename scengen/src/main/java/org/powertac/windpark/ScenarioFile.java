@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary scenario file, read through a memory map. All values are
+ * little-endian. The file starts with a 16-byte header
+ * <pre>
+ *   int magic ("SCEN"), int version, int scenario count, int horizon
+ * </pre>
+ * followed by the scenario numbers (int, padded to a multiple of 8 bytes),
+ * their probabilities (double), and then the values as a dense
+ * count x horizon matrix of doubles, one row per scenario. Column h holds
+ * the value for hour h+1; NaN marks an hour without a value.
+ *
+ * Files are written by ScenarioFileWriter.
+ *
+ * @author agent
+ */
+public class ScenarioFile {
+
+	/** "SCEN" read as a little-endian int */
+	static final int MAGIC = 0x4e454353;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+
+	private ByteBuffer data;
+	private DoubleBuffer values;
+	private int count;
+	private int horizon;
+
+	private ScenarioFile(ByteBuffer data) throws IOException {
+		this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+		if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+			throw new IOException("Not a scenario file");
+		}
+		if (data.getInt(4) != VERSION) {
+			throw new IOException("Unsupported scenario file version " + data.getInt(4));
+		}
+		this.count = data.getInt(8);
+		this.horizon = data.getInt(12);
+		long size = valuesOffset(count) + 8L * count * horizon;
+		if (count < 0 || horizon < 0 || size != data.remaining()) {
+			throw new IOException("Scenario file size " + data.remaining()
+					+ " does not match header, expected " + size);
+		}
+		// Buffer casts keep Java 8 method signatures when built on a later JDK
+		((Buffer) data).position((int) valuesOffset(count));
+		this.values = data.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		((Buffer) data).position(0);
+	}
+
+	/** Offset of the probabilities */
+	static long probabilitiesOffset(int count) {
+		return HEADER_SIZE + ((4L * count + 7) & ~7L);
+	}
+
+	/** Offset of the value matrix */
+	static long valuesOffset(int count) {
+		return probabilitiesOffset(count) + 8L * count;
+	}
+
+	/**
+	 * Maps the given file
+	 */
+	public static ScenarioFile open(String fileName) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName),
+				StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Scenario file " + fileName + " is too large to map");
+			}
+			return new ScenarioFile(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size()));
+		} finally {
+			// the mapping stays valid after the channel is closed
+			channel.close();
+		}
+	}
+
+	/**
+	 * True if the file starts with the scenario file magic number
+	 */
+	public static boolean isScenarioFile(String fileName) {
+		byte[] head = new byte[4];
+		InputStream in = null;
+		try {
+			in = new FileInputStream(fileName);
+			if (in.read(head) != 4) {
+				return false;
+			}
+		} catch (IOException ex) {
+			return false;
+		} finally {
+			try {
+				if (in != null) {
+					in.close();
+				}
+			} catch (IOException ex) {
+				// nothing to do
+			}
+		}
+		return ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+	}
+
+	public int getCount() {
+		return this.count;
+	}
+
+	public int getHorizon() {
+		return this.horizon;
+	}
+
+	/** Number of the scenario at index i */
+	public int getScenarioNumber(int i) {
+		checkIndex(i);
+		return data.getInt(HEADER_SIZE + 4 * i);
+	}
+
+	public double getProbability(int i) {
+		checkIndex(i);
+		return data.getDouble((int) probabilitiesOffset(count) + 8 * i);
+	}
+
+	/** Value of scenario i for the given hour, counted from 1 */
+	public double getValue(int i, int hour) {
+		checkIndex(i);
+		if (hour < 1 || hour > horizon) {
+			throw new IndexOutOfBoundsException("hour " + hour);
+		}
+		return values.get(i * horizon + hour - 1);
+	}
+
+	/**
+	 * Copies the values of scenario i into dest, which must have room
+	 * for horizon values
+	 */
+	public void getValues(int i, double[] dest) {
+		checkIndex(i);
+		DoubleBuffer row = values.duplicate();
+		((Buffer) row).position(i * horizon);
+		row.get(dest, 0, horizon);
+	}
+
+	/**
+	 * Builds the Scenarios held in the file
+	 */
+	public Scenarios toScenarios() {
+		Scenarios result = new Scenarios();
+		double[] row = new double[horizon];
+		for (int i = 0; i < count; i++) {
+			Scenario scen = new Scenario(getScenarioNumber(i), getProbability(i));
+			getValues(i, row);
+			for (int h = 0; h < horizon; h++) {
+				if (!Double.isNaN(row[h])) {
+					scen.addValue(new Scenario.ScenarioValue(h + 1, row[h]));
+				}
+			}
+			scen.createValueList();
+			result.addScenario(scen);
+		}
+		return result;
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= count) {
+			throw new IndexOutOfBoundsException("scenario " + i);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a binary scenario file (see ScenarioFile) one scenario at a time.
+ * Values are streamed to the file through a small buffer. Each time the
+ * buffer is flushed the numbers and probabilities of its scenarios are
+ * written into their tables, so memory use does not depend on the number
+ * of scenarios; close() writes the header.
+ *
+ * @author agent
+ */
+public class ScenarioFileWriter implements ScenarioSink, Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private int count;
+	private int horizon;
+	/** numbers and probabilities of the scenarios in the buffer */
+	private int[] numbers;
+	private double[] probabilities;
+	private int pending = 0;
+	private int written = 0;
+
+	/**
+	 * Creates the file for count scenarios of horizon hours each
+	 */
+	public ScenarioFileWriter(String fileName, int count, int horizon)
+			throws IOException {
+		this.count = count;
+		this.horizon = horizon;
+		this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, 8 * horizon))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		int rows = this.buffer.capacity() / Math.max(1, 8 * horizon);
+		this.numbers = new int[rows];
+		this.probabilities = new double[rows];
+		this.channel = FileChannel.open(Paths.get(fileName),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.channel.position(ScenarioFile.valuesOffset(count));
+	}
+
+	/**
+	 * Writes one scenario. values holds the value for each hour, starting
+	 * at hour 1; NaN marks an hour without a value.
+	 */
+	@Override
+	public void write(int number, double probability, double[] values)
+			throws IOException {
+		if (written >= count) {
+			throw new IllegalStateException("More than " + count + " scenarios");
+		}
+		if (values.length != horizon) {
+			throw new IllegalArgumentException("Expected " + horizon
+					+ " values, got " + values.length);
+		}
+		if (pending == numbers.length || buffer.remaining() < 8 * horizon) {
+			flush();
+		}
+		numbers[pending] = number;
+		probabilities[pending] = probability;
+		pending += 1;
+		written += 1;
+		for (double value : values) {
+			buffer.putDouble(value);
+		}
+	}
+
+	/**
+	 * Writes a scenario, with NaN for hours it has no value for. Hours
+	 * beyond the horizon are dropped.
+	 */
+	public void write(Scenario scen) throws IOException {
+		double[] values = new double[horizon];
+		Arrays.fill(values, Double.NaN);
+		for (Scenario.ScenarioValue sv : scen.getValues()) {
+			if (sv.getHour() <= horizon) {
+				values[sv.getHour() - 1] = sv.getValue();
+			}
+		}
+		write(scen.getScenarioNumber(), scen.getProbability(), values);
+	}
+
+	// Buffer casts keep Java 8 method signatures when built on a later JDK
+	private void flush() throws IOException {
+		((Buffer) buffer).flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		((Buffer) buffer).clear();
+		if (pending == 0) {
+			return;
+		}
+		// table entries of the scenarios just written
+		int first = written - pending;
+		ByteBuffer table = ByteBuffer.allocate(8 * pending)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < pending; i++) {
+			table.putInt(numbers[i]);
+		}
+		((Buffer) table).flip();
+		writeAt(table, ScenarioFile.HEADER_SIZE + 4L * first);
+		((Buffer) table).clear();
+		for (int i = 0; i < pending; i++) {
+			table.putDouble(probabilities[i]);
+		}
+		((Buffer) table).flip();
+		writeAt(table, ScenarioFile.probabilitiesOffset(count) + 8L * first);
+		pending = 0;
+	}
+
+	private void writeAt(ByteBuffer source, long position) throws IOException {
+		while (source.hasRemaining()) {
+			position += channel.write(source, position);
+		}
+	}
+
+	/**
+	 * Writes the header and closes the file. Fails if fewer scenarios were
+	 * written than announced.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		try {
+			flush();
+			if (written != count) {
+				throw new IOException("Wrote " + written + " of " + count + " scenarios");
+			}
+			ByteBuffer header = ByteBuffer.allocate(ScenarioFile.HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(ScenarioFile.MAGIC).putInt(ScenarioFile.VERSION)
+					.putInt(count).putInt(horizon);
+			((Buffer) header).flip();
+			writeAt(header, 0);
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+}
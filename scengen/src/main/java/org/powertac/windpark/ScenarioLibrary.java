@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Batch mode of ScenGen: generates a set of wind park output scenarios for
+ * every location in arma-parameters.xml and every forecast origin in the
+ * weather file of that location, &lt;location&gt;-weather.xml in the same
+ * directory. Each set is one task on a fixed thread pool and is written to
+ * its own file, &lt;location&gt;-&lt;origin&gt;.scen (or .xml) in the
+ * output directory, with the origin as yyyyMMddHH in UTC.
+ *
+ * The seed of each set is derived from the master seed, the location name
+ * and the origin, so a set does not depend on which other sets are
+ * generated or on the number of threads.
+ *
+ * @author agent
+ */
+public class ScenarioLibrary {
+
+	public static final String armaParameterFile = "arma-parameters.xml";
+
+	private String dataDir;
+	private String outDir;
+	private int numberOfScenarios;
+	private long seed;
+	private int threads = 1;
+	private RandomNumberGenerator.Method sampler = RandomNumberGenerator.Method.POLAR;
+	private WindPark wpark = new WindPark();
+	private boolean xml = false;
+
+	public ScenarioLibrary(String dataDir, String outDir, int num, long seed) {
+		this.dataDir = dataDir;
+		this.outDir = outDir;
+		this.numberOfScenarios = num;
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of scenario sets generated at once, 1 by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public void setSampler(RandomNumberGenerator.Method sampler) {
+		this.sampler = sampler;
+	}
+
+	public void setWindPark(WindPark wpark) {
+		this.wpark = wpark;
+	}
+
+	/**
+	 * Writes XML instead of binary scenario files
+	 */
+	public void setXml(boolean xml) {
+		this.xml = xml;
+	}
+
+	/**
+	 * Seed of the set for a location and forecast origin
+	 */
+	static long setSeed(long seed, String location, DateTime origin) {
+		return new SplittableRandom(seed
+				^ (location.hashCode() * 0x9e3779b97f4a7c15L)
+				^ origin.getMillis()).nextLong();
+	}
+
+	/**
+	 * Output file name, without extension, for a location and origin
+	 */
+	String fileName(String location, DateTime origin) {
+		String stamp = origin.toDateTime(DateTimeZone.UTC).toString("yyyyMMddHH");
+		return new File(outDir, location + "-" + stamp).getPath();
+	}
+
+	/**
+	 * Generates the whole library. Weather files are read one location at
+	 * a time while the sets of earlier locations are being generated.
+	 * Returns the number of sets written.
+	 */
+	public int generate() throws IOException {
+		ArmaParameters arma = ArmaParameters.getArmaParameters(
+				new File(dataDir, armaParameterFile).getPath());
+		if (arma == null) {
+			throw new IOException("No ARMA parameters in " + dataDir);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		try {
+			for (ArmaParameters.Location location : arma.getLocations()) {
+				WsData data = WsData.getWsData(
+						new File(dataDir, location.getName() + "-weather.xml").getPath());
+				if (data == null) {
+					continue;
+				}
+				for (Map.Entry<DateTime, List<WsData.WeatherForecast>> entry :
+						data.getForecastsByOrigin().entrySet()) {
+					results.add(pool.submit(new SetTask(location, entry.getKey(),
+							entry.getValue())));
+				}
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Scenario library interrupted");
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException) {
+				throw (IOException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		} finally {
+			// stops the remaining sets if one has failed
+			pool.shutdownNow();
+		}
+		return results.size();
+	}
+
+	/** Generates and writes the set for one location and origin */
+	private class SetTask implements Callable<Void> {
+		private ArmaParameters.Location location;
+		private DateTime origin;
+		private List<WsData.WeatherForecast> forecasts;
+
+		SetTask(ArmaParameters.Location location, DateTime origin,
+				List<WsData.WeatherForecast> forecasts) {
+			this.location = location;
+			this.origin = origin;
+			this.forecasts = forecasts;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			// lead hours without a forecast stay at 0, as in ScenGen.main
+			double[] windSpeedForecast = new double[ScenGen.HOURS];
+			double[] tempByHour = new double[ScenGen.HOURS];
+			for (WsData.WeatherForecast wf : forecasts) {
+				int lead = wf.getLeadHours();
+				if (lead >= 1 && lead <= ScenGen.HOURS) {
+					windSpeedForecast[lead - 1] = wf.getWindSpeed();
+					tempByHour[lead - 1] = wf.getTemp();
+				}
+			}
+			ScenGen scenGen = new ScenGen(numberOfScenarios, location.getAlpha(),
+					location.getBeta(), location.getSigmaz(),
+					setSeed(seed, location.getName(), origin));
+			scenGen.setSampler(sampler);
+			ScenGen.OutputFile out = new ScenGen.OutputFile(
+					fileName(location.getName(), origin), xml, numberOfScenarios);
+			scenGen.generatePower(windSpeedForecast, tempByHour, wpark, out,
+					null, null);
+			out.close();
+			return null;
+		}
+	}
+
+} // class ScenarioLibrary
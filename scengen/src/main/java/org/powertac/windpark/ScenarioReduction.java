@@ -0,0 +1,698 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+/**
+ * Scenario reduction after Heitsch and Roemisch ("Scenario Reduction
+ * Algorithms in Stochastic Programming", 2003). Keeps K of the N scenarios
+ * and moves the probability of each deleted scenario to its nearest kept
+ * one, which is the best redistribution for the kept set. The reduced
+ * distribution is then at Kantorovich distance
+ * <pre>
+ *   D = sum over deleted k of p_k * min over kept j of c(k, j)
+ * </pre>
+ * from the original one, c being the Euclidean distance between two
+ * scenario paths over the hours where both have a value.
+ *
+ * The kept set is chosen by fast forward selection, which adds the
+ * scenario that lowers D most until K are selected and suits small K, or
+ * by simultaneous backward reduction, which deletes the scenario that
+ * raises D least until K are left and suits K close to N.
+ *
+ * Both work from a float distance matrix of N x N entries (4 N^2 bytes,
+ * 400 MB for 10000 scenarios), built on a fork-join pool. Forward
+ * selection evaluates candidates lazily: the gain of a scenario can only
+ * shrink as others are selected, so a stale gain is an upper bound and
+ * most candidates are not evaluated again; the selection is the same as
+ * with full evaluation. Backward reduction keeps the nearest and second
+ * nearest kept scenario of every scenario, so each step costs O(N) instead
+ * of O(N^2). Results do not depend on the number of threads.
+ *
+ * @author agent
+ */
+public class ScenarioReduction {
+
+	public enum Method {
+		FORWARD, BACKWARD
+	}
+
+	/** rows handled by one task */
+	private static final int CHUNK = 64;
+	/** nearest kept scenarios remembered for each one in backward reduction */
+	private static final int NEIGHBORS = 16;
+
+	private int count;
+	private int horizon;
+	private int[] numbers;
+	private double[] probabilities;
+	/** count x horizon, row major; NaN for hours without a value */
+	private double[] values;
+	/** count x count, built on first use */
+	private float[] distance;
+	private boolean missing = false;
+	private int threads = 1;
+
+	/**
+	 * Creates a reduction of the given scenarios; values[i] holds the
+	 * value for each hour of scenario i, starting at hour 1.
+	 */
+	public ScenarioReduction(int[] numbers, double[] probabilities,
+			double[][] values) {
+		this.count = numbers.length;
+		if (probabilities.length != count || values.length != count) {
+			throw new IllegalArgumentException("Expected " + count + " scenarios");
+		}
+		if ((long) count * count > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many scenarios for a distance matrix: "
+					+ count);
+		}
+		this.horizon = count == 0 ? 0 : values[0].length;
+		this.numbers = numbers.clone();
+		this.probabilities = probabilities.clone();
+		this.values = new double[count * horizon];
+		for (int i = 0; i < count; i++) {
+			if (values[i].length != horizon) {
+				throw new IllegalArgumentException("Scenario " + numbers[i]
+						+ " has " + values[i].length + " values, expected " + horizon);
+			}
+			System.arraycopy(values[i], 0, this.values, i * horizon, horizon);
+			for (double value : values[i]) {
+				missing |= Double.isNaN(value);
+			}
+		}
+	}
+
+	/**
+	 * Creates a reduction of the scenarios in a binary scenario file
+	 */
+	public static ScenarioReduction fromFile(ScenarioFile file) {
+		int n = file.getCount();
+		int[] numbers = new int[n];
+		double[] probabilities = new double[n];
+		double[][] values = new double[n][file.getHorizon()];
+		for (int i = 0; i < n; i++) {
+			numbers[i] = file.getScenarioNumber(i);
+			probabilities[i] = file.getProbability(i);
+			file.getValues(i, values[i]);
+		}
+		return new ScenarioReduction(numbers, probabilities, values);
+	}
+
+	/**
+	 * Creates a reduction of a Scenarios set, with a horizon of the last
+	 * hour of any scenario
+	 */
+	public static ScenarioReduction fromScenarios(Scenarios scenarios) {
+		int horizon = 0;
+		for (Scenario scen : scenarios.getScenarios()) {
+			for (Scenario.ScenarioValue sv : scen.getValues()) {
+				horizon = Math.max(horizon, sv.getHour());
+			}
+		}
+		int n = scenarios.getScenarios().size();
+		int[] numbers = new int[n];
+		double[] probabilities = new double[n];
+		double[][] values = new double[n][horizon];
+		int i = 0;
+		for (Scenario scen : scenarios.getScenarios()) {
+			numbers[i] = scen.getScenarioNumber();
+			probabilities[i] = scen.getProbability();
+			Arrays.fill(values[i], Double.NaN);
+			for (Scenario.ScenarioValue sv : scen.getValues()) {
+				values[i][sv.getHour() - 1] = sv.getValue();
+			}
+			i += 1;
+		}
+		return new ScenarioReduction(numbers, probabilities, values);
+	}
+
+	/**
+	 * Sets the number of threads used to build the distance matrix and
+	 * for the other O(N^2) steps, 1 by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Outcome of a reduction
+	 */
+	public static class Result {
+		private int[] selected;
+		private double[] probabilities;
+		private double distance;
+
+		Result(int[] selected, double[] probabilities, double distance) {
+			this.selected = selected;
+			this.probabilities = probabilities;
+			this.distance = distance;
+		}
+
+		/** Indices of the kept scenarios, in ascending order */
+		public int[] getSelected() {
+			return this.selected.clone();
+		}
+
+		/** Probabilities of the kept scenarios, in the order of getSelected() */
+		public double[] getProbabilities() {
+			return this.probabilities.clone();
+		}
+
+		/** Kantorovich distance between the reduced and the original set */
+		public double getDistance() {
+			return this.distance;
+		}
+	}
+
+	/**
+	 * Reduces the scenarios to k
+	 */
+	public Result reduce(int k, Method method) {
+		if (k < 1 || k > count) {
+			throw new IllegalArgumentException("Cannot reduce " + count
+					+ " scenarios to " + k);
+		}
+		buildDistances();
+		if (method == Method.FORWARD) {
+			return forward(k);
+		}
+		return backward(k);
+	}
+
+	/**
+	 * Writes the kept scenarios of a result, with their new probabilities
+	 */
+	public void write(Result result, ScenarioSink sink) throws IOException {
+		double[] row = new double[horizon];
+		for (int s = 0; s < result.selected.length; s++) {
+			int i = result.selected[s];
+			System.arraycopy(values, i * horizon, row, 0, horizon);
+			sink.write(numbers[i], result.probabilities[s], row);
+		}
+	}
+
+	// distance between scenarios i and j
+	float distance(int i, int j) {
+		return distance[i * count + j];
+	}
+
+	private void buildDistances() {
+		if (distance != null) {
+			return;
+		}
+		distance = new float[count * count];
+		runRows(new DistanceRows());
+	}
+
+	// runs rows over all scenarios, on a pool if there is more than one thread
+	private void runRows(Rows rows) {
+		if (threads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new RowTask(rows, 0, count));
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			rows.rows(0, count);
+		}
+	}
+
+	/** Work on a range of rows */
+	private interface Rows {
+		void rows(int from, int to);
+	}
+
+	/** Splits a range of rows across the pool */
+	private static class RowTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private Rows rows;
+		private int from;
+		private int to;
+
+		RowTask(Rows rows, int from, int to) {
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK) {
+				rows.rows(from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new RowTask(rows, from, mid), new RowTask(rows, mid, to));
+			}
+		}
+	}
+
+	/** Fills rows of the distance matrix, mirroring them into the columns */
+	private class DistanceRows implements Rows {
+		@Override
+		public void rows(int from, int to) {
+			for (int i = from; i < to; i++) {
+				int bi = i * horizon;
+				for (int j = i + 1; j < count; j++) {
+					int bj = j * horizon;
+					double sum = 0;
+					if (missing) {
+						for (int h = 0; h < horizon; h++) {
+							double diff = values[bi + h] - values[bj + h];
+							if (!Double.isNaN(diff)) {
+								sum += diff * diff;
+							}
+						}
+					} else {
+						for (int h = 0; h < horizon; h++) {
+							double diff = values[bi + h] - values[bj + h];
+							sum += diff * diff;
+						}
+					}
+					float d = (float) Math.sqrt(sum);
+					distance[i * count + j] = d;
+					distance[j * count + i] = d;
+				}
+			}
+		}
+	}
+
+	/** Expected distance from each scenario to all others */
+	private class ExpectedDistanceRows implements Rows {
+		private double[] result;
+
+		ExpectedDistanceRows(double[] result) {
+			this.result = result;
+		}
+
+		@Override
+		public void rows(int from, int to) {
+			for (int u = from; u < to; u++) {
+				int base = u * count;
+				double sum = 0;
+				for (int j = 0; j < count; j++) {
+					sum += probabilities[j] * distance[base + j];
+				}
+				result[u] = sum;
+			}
+		}
+	}
+
+	/** Gain of each unselected scenario in forward selection */
+	private class GainRows implements Rows {
+		private double[] nearestDistance;
+		private boolean[] selected;
+		private double[] result;
+
+		GainRows(double[] nearestDistance, boolean[] selected, double[] result) {
+			this.nearestDistance = nearestDistance;
+			this.selected = selected;
+			this.result = result;
+		}
+
+		@Override
+		public void rows(int from, int to) {
+			for (int u = from; u < to; u++) {
+				if (!selected[u]) {
+					result[u] = gain(u, nearestDistance);
+				}
+			}
+		}
+	}
+
+	// decrease of D if u were selected, given the distance of each
+	// scenario to its nearest selected one
+	private double gain(int u, double[] nearestDistance) {
+		int base = u * count;
+		double sum = 0;
+		for (int j = 0; j < count; j++) {
+			double diff = nearestDistance[j] - distance[base + j];
+			if (diff > 0) {
+				sum += probabilities[j] * diff;
+			}
+		}
+		return sum;
+	}
+
+	/** Candidate of forward selection, with the iteration its gain is from */
+	private static class Candidate {
+		int index;
+		double gain;
+		int iteration;
+
+		Candidate(int index, double gain, int iteration) {
+			this.index = index;
+			this.gain = gain;
+			this.iteration = iteration;
+		}
+	}
+
+	/** Largest gain first, then lowest index */
+	private static class CandidateOrder implements Comparator<Candidate> {
+		@Override
+		public int compare(Candidate a, Candidate b) {
+			int result = Double.compare(b.gain, a.gain);
+			if (result != 0) {
+				return result;
+			}
+			return Integer.compare(a.index, b.index);
+		}
+	}
+
+	// fast forward selection
+	private Result forward(int k) {
+		boolean[] selected = new boolean[count];
+		double[] nearestDistance = new double[count];
+		int[] nearest = new int[count];
+
+		// first the scenario closest to all others on average
+		double[] expected = new double[count];
+		runRows(new ExpectedDistanceRows(expected));
+		int first = 0;
+		for (int u = 1; u < count; u++) {
+			if (expected[u] < expected[first]) {
+				first = u;
+			}
+		}
+		select(first, selected, nearestDistance, nearest, true);
+
+		if (k > 1) {
+			double[] gains = new double[count];
+			runRows(new GainRows(nearestDistance, selected, gains));
+			PriorityQueue<Candidate> queue =
+					new PriorityQueue<Candidate>(count, new CandidateOrder());
+			for (int u = 0; u < count; u++) {
+				if (!selected[u]) {
+					queue.add(new Candidate(u, gains[u], 1));
+				}
+			}
+			for (int iteration = 1; iteration < k; iteration++) {
+				// gains only shrink, so a current gain on top is the largest
+				Candidate top = queue.poll();
+				while (top.iteration != iteration) {
+					top.gain = gain(top.index, nearestDistance);
+					top.iteration = iteration;
+					queue.add(top);
+					top = queue.poll();
+				}
+				select(top.index, selected, nearestDistance, nearest, false);
+			}
+		}
+
+		int[] kept = new int[k];
+		int s = 0;
+		for (int u = 0; u < count; u++) {
+			if (selected[u]) {
+				kept[s++] = u;
+			}
+		}
+		return result(kept, nearest, nearestDistance);
+	}
+
+	// adds u to the selection and updates the nearest selected scenarios
+	private void select(int u, boolean[] selected, double[] nearestDistance,
+			int[] nearest, boolean first) {
+		selected[u] = true;
+		int base = u * count;
+		for (int j = 0; j < count; j++) {
+			double d = distance[base + j];
+			if (first || d < nearestDistance[j]) {
+				nearestDistance[j] = d;
+				nearest[j] = u;
+			}
+		}
+		nearestDistance[u] = 0;
+		nearest[u] = u;
+	}
+
+	/**
+	 * Nearest and second nearest kept scenario of each scenario, other
+	 * than itself, for backward reduction. Each scenario keeps a list of
+	 * its NEIGHBORS nearest kept scenarios, by distance and then index;
+	 * deletions only remove entries, so while two remain they are the two
+	 * nearest, and the row is scanned again only when fewer are left.
+	 */
+	private class Neighbors implements Rows {
+		boolean[] kept;
+		int size;
+		int[] lists;
+		int[] lengths;
+		// the list held every kept scenario when it was filled
+		boolean[] complete;
+		int[] nearest1;
+		int[] nearest2;
+		double[] distance1;
+		double[] distance2;
+
+		Neighbors(boolean[] kept) {
+			this.kept = kept;
+			this.size = Math.min(NEIGHBORS, count - 1);
+			this.lists = new int[count * size];
+			this.lengths = new int[count];
+			this.complete = new boolean[count];
+			this.nearest1 = new int[count];
+			this.nearest2 = new int[count];
+			this.distance1 = new double[count];
+			this.distance2 = new double[count];
+		}
+
+		@Override
+		public void rows(int from, int to) {
+			for (int i = from; i < to; i++) {
+				fill(i);
+			}
+		}
+
+		// rebuilds the list of i from the kept scenarios
+		void fill(int i) {
+			int base = i * count;
+			int start = i * size;
+			int length = 0;
+			for (int j = 0; j < count; j++) {
+				if (j == i || !kept[j]) {
+					continue;
+				}
+				float d = distance[base + j];
+				if (length == size && d >= distance[base + lists[start + length - 1]]) {
+					continue;
+				}
+				// insertion, after entries at the same distance
+				int pos = length < size ? length++ : size - 1;
+				while (pos > 0 && distance[base + lists[start + pos - 1]] > d) {
+					lists[start + pos] = lists[start + pos - 1];
+					pos -= 1;
+				}
+				lists[start + pos] = j;
+			}
+			lengths[i] = length;
+			complete[i] = length < size;
+			update(i);
+		}
+
+		// drops deleted entries and sets the two nearest of i
+		void update(int i) {
+			int start = i * size;
+			int length = 0;
+			for (int e = 0; e < lengths[i]; e++) {
+				int j = lists[start + e];
+				if (kept[j]) {
+					lists[start + length++] = j;
+				}
+			}
+			lengths[i] = length;
+			if (length < 2 && !complete[i]) {
+				// more kept scenarios may lie beyond the list
+				fill(i);
+				return;
+			}
+			nearest1[i] = length > 0 ? lists[start] : -1;
+			nearest2[i] = length > 1 ? lists[start + 1] : -1;
+			distance1[i] = length > 0 ? distance(i, nearest1[i]) : Double.POSITIVE_INFINITY;
+			distance2[i] = length > 1 ? distance(i, nearest2[i]) : Double.POSITIVE_INFINITY;
+		}
+	}
+
+	// simultaneous backward reduction
+	private Result backward(int k) {
+		boolean[] kept = new boolean[count];
+		Arrays.fill(kept, true);
+		int keptCount = count;
+		Neighbors neighbors = new Neighbors(kept);
+		if (count > 1) {
+			runRows(neighbors);
+		}
+		double[] extra = new double[count];
+
+		while (keptCount > k) {
+			// deleting l costs p_l times its distance to the nearest other kept
+			// scenario, plus the move to their second nearest of the deleted
+			// scenarios whose nearest is l
+			Arrays.fill(extra, 0);
+			for (int j = 0; j < count; j++) {
+				if (!kept[j]) {
+					extra[neighbors.nearest1[j]] += probabilities[j]
+							* (neighbors.distance2[j] - neighbors.distance1[j]);
+				}
+			}
+			int best = -1;
+			double bestCost = Double.POSITIVE_INFINITY;
+			for (int l = 0; l < count; l++) {
+				if (kept[l]) {
+					double cost = probabilities[l] * neighbors.distance1[l] + extra[l];
+					if (best < 0 || cost < bestCost) {
+						best = l;
+						bestCost = cost;
+					}
+				}
+			}
+			kept[best] = false;
+			keptCount -= 1;
+			for (int i = 0; i < count; i++) {
+				if (i != best && (neighbors.nearest1[i] == best
+						|| neighbors.nearest2[i] == best)) {
+					neighbors.update(i);
+				}
+			}
+		}
+
+		int[] selected = new int[k];
+		int[] nearest = new int[count];
+		double[] nearestDistance = new double[count];
+		int s = 0;
+		for (int i = 0; i < count; i++) {
+			if (kept[i]) {
+				selected[s++] = i;
+				nearest[i] = i;
+			} else {
+				nearest[i] = neighbors.nearest1[i];
+				nearestDistance[i] = neighbors.distance1[i];
+			}
+		}
+		return result(selected, nearest, nearestDistance);
+	}
+
+	// moves each deleted scenario's probability to its nearest kept one
+	private Result result(int[] selected, int[] nearest, double[] nearestDistance) {
+		int[] slot = new int[count];
+		for (int s = 0; s < selected.length; s++) {
+			slot[selected[s]] = s;
+		}
+		double[] reduced = new double[selected.length];
+		double total = 0;
+		for (int i = 0; i < count; i++) {
+			reduced[slot[nearest[i]]] += probabilities[i];
+			total += probabilities[i] * nearestDistance[i];
+		}
+		return new Result(selected, reduced, total);
+	}
+
+	/**
+	 * Reduces a scenario file:
+	 * <pre>
+	 * ScenarioReduction --in file --out file --k K
+	 *     [--method forward|backward] [--threads n]
+	 * </pre>
+	 * The input may be binary or XML; the output is XML if its name ends
+	 * in .xml.
+	 */
+	public static void main(String[] args) {
+		OptionParser optParser = new OptionParser();
+		OptionSpec<String> optIn = optParser.accepts("in").withRequiredArg().ofType(String.class);
+		OptionSpec<String> optOut = optParser.accepts("out").withRequiredArg().ofType(String.class);
+		OptionSpec<Integer> optK = optParser.accepts("k").withRequiredArg().ofType(Integer.class);
+		OptionSpec<String> optMethod = optParser.accepts("method").withRequiredArg().ofType(String.class);
+		OptionSpec<Integer> optThreads = optParser.accepts("threads").withRequiredArg().ofType(Integer.class);
+
+		OptionSet optSet = optParser.parse(args);
+		if (!optSet.hasArgument(optIn) || !optSet.hasArgument(optOut)
+				|| !optSet.hasArgument(optK)) {
+			System.out.println("Usage: ScenarioReduction --in file --out file --k K"
+					+ " [--method forward|backward] [--threads n]");
+			return;
+		}
+		String in = optSet.valueOf(optIn);
+		String out = optSet.valueOf(optOut);
+		int k = optSet.valueOf(optK);
+		Method method = Method.FORWARD;
+		if (optSet.hasArgument(optMethod)) {
+			try {
+				method = Method.valueOf(optSet.valueOf(optMethod).toUpperCase());
+			} catch (IllegalArgumentException ex) {
+				System.out.println("Method must be forward or backward");
+				return;
+			}
+		}
+
+		if (!new File(in).exists()) {
+			System.out.println("File: " + in + " Does not exist");
+			return;
+		}
+		ScenarioReduction reduction;
+		try {
+			if (ScenarioFile.isScenarioFile(in)) {
+				reduction = fromFile(ScenarioFile.open(in));
+			} else {
+				Scenarios scenarios = Scenarios.getScenarios(in);
+				if (scenarios == null) {
+					System.out.println("Scenarios are not available");
+					return;
+				}
+				reduction = fromScenarios(scenarios);
+			}
+			int threads = Runtime.getRuntime().availableProcessors();
+			if (optSet.hasArgument(optThreads)) {
+				threads = optSet.valueOf(optThreads);
+			}
+			reduction.setThreads(threads);
+
+			long start = System.currentTimeMillis();
+			Result result = reduction.reduce(k, method);
+			System.out.println("Reduced " + reduction.getCount() + " scenarios to " + k
+					+ " in " + (System.currentTimeMillis() - start)
+					+ " ms, Kantorovich distance " + result.getDistance());
+
+			if (out.endsWith(".xml")) {
+				Scenarios reduced = new Scenarios();
+				reduction.write(result, reduced);
+				reduced.writeToXML(out);
+			} else {
+				ScenarioFileWriter writer =
+						new ScenarioFileWriter(out, k, reduction.horizon);
+				reduction.write(result, writer);
+				writer.close();
+			}
+		} catch (IOException ex) {
+			System.out.println(ex);
+		}
+	}
+
+} // class ScenarioReduction
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.io.IOException;
+
+/**
+ * Receives scenarios one at a time, as ScenGen produces them.
+ *
+ * @author agent
+ */
+public interface ScenarioSink {
+
+	/**
+	 * Takes one scenario. values holds the value for each hour, starting
+	 * at hour 1; NaN marks an hour without a value. The array may be
+	 * reused by the caller once this returns.
+	 */
+	void write(int number, double probability, double[] values)
+			throws IOException;
+}
@@ -15,10 +15,12 @@
  */
 package org.powertac.windpark;
 
+import java.io.BufferedWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
@@ -30,13 +32,14 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
 
 /**
- * This class represents wind speed forecast error scenarios.
+ * This class represents wind speed forecast error scenarios. Scenarios are
+ * stored in the binary format of ScenarioFile, or exported as XML.
  * 
  * @author spande00 (Shashank Pande)
  * 
  */
 @XStreamAlias("WindForecastErrorScenarios")
-public class Scenarios
+public class Scenarios implements ScenarioSink
 {
   @XStreamImplicit
   private SortedSet<Scenario> scenarioSet = new TreeSet<Scenario>();
@@ -63,6 +66,21 @@ public class Scenarios
     return scenarioSet.addAll(scenarioCollection);
   }
 
+  /**
+   * Adds a scenario built from an array of hourly values, skipping NaN
+   */
+  @Override
+  public void write (int number, double probability, double[] values)
+  {
+    Scenario scen = new Scenario(number, probability);
+    for (int h = 0; h < values.length; h++) {
+      if (!Double.isNaN(values[h])) {
+        scen.addValue(new Scenario.ScenarioValue(h + 1, values[h]));
+      }
+    }
+    addScenario(scen);
+  }
+
   public Set<Scenario> getScenarios ()
   {
     return Collections.unmodifiableSortedSet(scenarioSet);
@@ -85,7 +103,18 @@ public class Scenarios
     return xstream;
   }
   
+	/**
+	 * Reads scenarios from a binary scenario file or an XML file
+	 */
 	public static Scenarios getScenarios(String errorScenarioDataFile) {
+		if (ScenarioFile.isScenarioFile(errorScenarioDataFile)) {
+			try {
+				return ScenarioFile.open(errorScenarioDataFile).toScenarios();
+			} catch (IOException ex) {
+				System.out.println(ex);
+				return null;
+			}
+		}
 		FileInputStream inputStream = null;
 		try {
 			inputStream = new FileInputStream(errorScenarioDataFile);
@@ -102,10 +131,10 @@ public class Scenarios
 	
 	public boolean writeToXML(String fileName) {
 		XStream xstream = Scenarios.getConfiguredXStream();
-		String xmlStr = xstream.toXML(this);		
 		try {
-			FileWriter fw = new FileWriter(fileName);
-			fw.write(xmlStr);
+			// stream to the file rather than building one big string
+			Writer fw = new BufferedWriter(new FileWriter(fileName));
+			xstream.toXML(this, fw);
 			fw.write("\n");
 			fw.close();
 		} catch (IOException ex) {
@@ -116,5 +145,34 @@ public class Scenarios
 		return true;
 	}
 
+	/**
+	 * Writes the scenarios in the binary format of ScenarioFile, with a
+	 * horizon of the last hour of any scenario
+	 */
+	public boolean writeToBinary(String fileName) {
+		int horizon = 0;
+		for (Scenario scen : scenarioSet) {
+			for (Scenario.ScenarioValue sv : scen.getValues()) {
+				horizon = Math.max(horizon, sv.getHour());
+			}
+		}
+		try {
+			ScenarioFileWriter writer =
+					new ScenarioFileWriter(fileName, scenarioSet.size(), horizon);
+			try {
+				for (Scenario scen : scenarioSet) {
+					writer.write(scen);
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException ex) {
+			System.out.println(ex);
+			return false;
+		}
+		
+		return true;
+	}
+
 }
 
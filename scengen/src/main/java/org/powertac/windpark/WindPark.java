@@ -1,6 +1,10 @@
 package org.powertac.windpark;
 
 /** class WindPark: represents a wind park
+ * 
+ * Power output can be computed one point at a time, or for a whole set of
+ * wind speed scenarios at once. The batch methods compute the air density
+ * once per hour and fill a preallocated output array.
  * 
  * @author Shashank Pande
  *
@@ -13,12 +17,17 @@ public class WindPark {
 	private double maxPowerOutputSpeed = 14; //meters per second
 	private double sweepAreaOfTurbine = 2391.2; // square meters
 	private double airPressure = 100978.449; //Newtons per meter square (N/m^2)
-	private WindTurbineEfficiencyCurve effCurve = new WindTurbineEfficiencyCurve();
+	private WindTurbineEfficiencyCurve effCurve;
 	
-	public WindPark() {}
+	public WindPark() {
+		this(new WindTurbineEfficiencyCurve());
+	}
+
+	public WindPark(WindTurbineEfficiencyCurve curve) {
+		this.effCurve = curve;
+	}
 
 	public double getPowerOutput(double tempInCentigrade, double windSpeed) {
-		double airDensity = WindPark.getDryAirDensity(airPressure, tempInCentigrade);
 		if (windSpeed < cutInSpeed) {
 			return 0;
 		} else if ((windSpeed >= maxPowerOutputSpeed)
@@ -27,13 +36,67 @@ public class WindPark {
 		} else if (windSpeed > this.cutOutSpeed) {
 			return 0;
 		} else {
-			double powerOutput = 0;
-			double efficiency = effCurve.getEfficiency(windSpeed);
-			powerOutput = 0.5 * efficiency * sweepAreaOfTurbine * airDensity
-					* Math.pow(windSpeed, 3) * this.numOfTurbines;
-			return powerOutput / 1000000; // convert Watts to MW
+			double airDensity = WindPark.getDryAirDensity(airPressure, tempInCentigrade);
+			return getTurbinePower(airDensity, windSpeed);
+		}
+	} //getPowerOutput()
+
+	/**
+	 * Batch version of getPowerOutput() for a single temperature. Fills
+	 * output with the power output in MW for each wind speed.
+	 */
+	public void getPowerOutput(double tempInCentigrade, double[] windSpeeds,
+			double[] output) {
+		double airDensity = WindPark.getDryAirDensity(airPressure, tempInCentigrade);
+		double ratedOutput = this.turbineCapacity * this.numOfTurbines;
+		for (int i = 0; i < windSpeeds.length; i++) {
+			output[i] = getPowerOutput(airDensity, ratedOutput, windSpeeds[i]);
+		}
+	} //getPowerOutput()
+
+	/**
+	 * Batch version of getPowerOutput() for a scenario matrix. windSpeeds
+	 * and output are indexed by [scenario][hour], and tempByHour holds the
+	 * temperature for each hour.
+	 */
+	public void getPowerOutput(double[] tempByHour, double[][] windSpeeds,
+			double[][] output) {
+		double[] airDensity = new double[tempByHour.length];
+		for (int h = 0; h < tempByHour.length; h++) {
+			airDensity[h] = WindPark.getDryAirDensity(airPressure, tempByHour[h]);
+		}
+		double ratedOutput = this.turbineCapacity * this.numOfTurbines;
+		for (int s = 0; s < windSpeeds.length; s++) {
+			double[] ws = windSpeeds[s];
+			double[] out = output[s];
+			for (int h = 0; h < ws.length; h++) {
+				out[h] = getPowerOutput(airDensity[h], ratedOutput, ws[h]);
+			}
 		}
 	} //getPowerOutput()
+
+	// same cases as getPowerOutput(temp, windSpeed), for a known density
+	private double getPowerOutput(double airDensity, double ratedOutput,
+			double windSpeed) {
+		if (windSpeed < cutInSpeed) {
+			return 0;
+		} else if ((windSpeed >= maxPowerOutputSpeed)
+				&& (windSpeed < cutOutSpeed)) {
+			return ratedOutput;
+		} else if (windSpeed > this.cutOutSpeed) {
+			return 0;
+		} else {
+			return getTurbinePower(airDensity, windSpeed);
+		}
+	}
+
+	// output in MW between cut-in and rated speed
+	private double getTurbinePower(double airDensity, double windSpeed) {
+		double efficiency = effCurve.getEfficiency(windSpeed);
+		double powerOutput = 0.5 * efficiency * sweepAreaOfTurbine * airDensity
+				* (windSpeed * windSpeed * windSpeed) * this.numOfTurbines;
+		return powerOutput / 1000000; // convert Watts to MW
+	}
 	
 	public static double getDryAirDensity(double airPressure, double tempInCentigrade) {
 		double T = tempInCentigrade + 273.15; // temp in deg Kelvin
@@ -15,27 +15,82 @@
  */
 package org.powertac.windpark;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
+
 /**
  * This class represents the windfarm efficiency curve. It stores the efficiency
  * curve data and provides API to retrieve efficiency at given wind speed.
- * 
+ *
+ * The curve is a list of wind speed bands, each with its own straight line
+ * (slope and y-intercept). The default curve is the one measured for the
+ * turbines of the wind park; another one can be read from an XML file of
+ * the form
+ *
+ * <pre>
+ * &lt;efficiency-curve&gt;
+ *   &lt;band from="4" to="5" slope="0.112704918" intercept="-0.215582134"/&gt;
+ *   ...
+ * &lt;/efficiency-curve&gt;
+ * </pre>
+ *
+ * The bands are kept in primitive arrays sorted by wind speed. If they are
+ * contiguous and all of the same width, as in the default curve, the band
+ * for a wind speed is found by direct index computation; otherwise it is
+ * found by binary search.
+ *
  * @author Shashank Pande
- * 
+ *
  */
-
+@XStreamAlias("efficiency-curve")
 public class WindTurbineEfficiencyCurve {
 
-	private static class WindSpeedband {
+	@XStreamAlias("band")
+	public static class WindSpeedband implements Comparable<WindSpeedband> {
+		@XStreamAlias("from")
+		@XStreamAsAttribute
 		private double fromWindSpeed = 0;
+		@XStreamAlias("to")
+		@XStreamAsAttribute
 		private double toWindSpeed = 0;
+		@XStreamAlias("slope")
+		@XStreamAsAttribute
+		private double slope = 0;
+		@XStreamAlias("intercept")
+		@XStreamAsAttribute
+		private double yIntercept = 0;
 
-		public WindSpeedband(double fromSpeed, double toSpeed) {
+		public WindSpeedband(double fromSpeed, double toSpeed, double m,
+				double b) {
 			this.fromWindSpeed = fromSpeed;
 			this.toWindSpeed = toSpeed;
+			this.slope = m;
+			this.yIntercept = b;
+		}
+
+		public double getFromWindSpeed() {
+			return this.fromWindSpeed;
+		}
+
+		public double getToWindSpeed() {
+			return this.toWindSpeed;
+		}
+
+		public double getSlope() {
+			return this.slope;
+		}
+
+		public double getYIntercept() {
+			return this.yIntercept;
 		}
 
 		public boolean isWithinSpeedband(double windSpeed) {
@@ -45,68 +100,178 @@ public class WindTurbineEfficiencyCurve {
 				return false;
 			}
 		}
+
+		public int compareTo(WindSpeedband wsb) {
+			return Double.compare(this.fromWindSpeed, wsb.getFromWindSpeed());
+		}
 	} // static class WindSpeedband
 
-	/** Configured values to be read as List of Strings */
-	private List<String> cfgWindSpeedbands = Arrays.asList("4-5","5-6","6-7","7-8",
+	/** Default values, used when no curve is configured */
+	private static final List<String> cfgWindSpeedbands = Arrays.asList("4-5","5-6","6-7","7-8",
 			                                 "8-9","9-10","10-11","11-12","12-13","13-14");
-	private List<String> cfgSlope = Arrays.asList("0.112704918","0.048960386","0.022516468",
+	private static final List<String> cfgSlope = Arrays.asList("0.112704918","0.048960386","0.022516468",
 			"0.01184951","0.012746067","0.007222986","-0.029581606","-0.068315931","-0.068956675","-0.055775751");
-	private List<String> cfgYIntercept = Arrays.asList("-0.215582134","0.103140528","0.261804034",
+	private static final List<String> cfgYIntercept = Arrays.asList("-0.215582134","0.103140528","0.261804034",
 			"0.33647274","0.329300284","0.379008009","0.747053936","1.173131512","1.180820432","1.009468425");
 
-	/** This map should be populated from configured values */
+	/** Configured bands, as read from XML */
+	@XStreamImplicit
 	private List<WindSpeedband> windSpeedbands = new ArrayList<WindSpeedband>();
-	private List<Double> slope = new ArrayList<Double>();
-	private List<Double> yIntercept = new ArrayList<Double>();
+
+	/** Lookup arrays built from the bands, sorted by wind speed */
+	@XStreamOmitField
+	private double[] fromSpeed;
+	@XStreamOmitField
+	private double[] toSpeed;
+	@XStreamOmitField
+	private double[] slope;
+	@XStreamOmitField
+	private double[] yIntercept;
+	/** Width of every band, or 0 if bands are not uniform */
+	@XStreamOmitField
+	private double bandWidth;
 
 	/**
-	 * Constructor
+	 * Constructor, uses the default curve
 	 */
 	public WindTurbineEfficiencyCurve() {
-		initialize();
-	} // WindFarmEfficiencyCurve()
-
-	private void initialize() {
-
-		// write code here to populate the mapWindSpeedToEfficiency
 		for (int i = 0; i < cfgWindSpeedbands.size(); i++) {
 			String from_to = cfgWindSpeedbands.get(i);
 			String[] fromtoarray = from_to.split("-");
-			WindSpeedband wspb = new WindSpeedband(
+			this.windSpeedbands.add(new WindSpeedband(
 					Double.valueOf(fromtoarray[0]),
-					Double.valueOf(fromtoarray[1]));
-			this.windSpeedbands.add(wspb);
+					Double.valueOf(fromtoarray[1]),
+					Double.valueOf(cfgSlope.get(i)),
+					Double.valueOf(cfgYIntercept.get(i))));
+		}
+		initialize();
+	} // WindFarmEfficiencyCurve()
+
+	/**
+	 * Constructor with the given bands, which must not overlap
+	 */
+	public WindTurbineEfficiencyCurve(List<WindSpeedband> bands) {
+		this.windSpeedbands.addAll(bands);
+		initialize();
+	}
 
-			this.slope.add(Double.valueOf(cfgSlope.get(i)));
-			this.yIntercept.add(Double.valueOf(cfgYIntercept.get(i)));
+	private void initialize() {
+		List<WindSpeedband> bands = new ArrayList<WindSpeedband>(windSpeedbands);
+		Collections.sort(bands);
+		int n = bands.size();
+		fromSpeed = new double[n];
+		toSpeed = new double[n];
+		slope = new double[n];
+		yIntercept = new double[n];
+		for (int i = 0; i < n; i++) {
+			WindSpeedband wspb = bands.get(i);
+			if (!(wspb.getToWindSpeed() > wspb.getFromWindSpeed())
+					|| (i > 0 && wspb.getFromWindSpeed() < toSpeed[i - 1])) {
+				throw new IllegalArgumentException("Bad wind speed band "
+						+ wspb.getFromWindSpeed() + "-" + wspb.getToWindSpeed());
+			}
+			fromSpeed[i] = wspb.getFromWindSpeed();
+			toSpeed[i] = wspb.getToWindSpeed();
+			slope[i] = wspb.getSlope();
+			yIntercept[i] = wspb.getYIntercept();
+		}
 
+		// uniform if contiguous and all of the same width
+		bandWidth = 0;
+		if (n > 0) {
+			double width = toSpeed[0] - fromSpeed[0];
+			boolean uniform = true;
+			for (int i = 1; i < n && uniform; i++) {
+				uniform = (fromSpeed[i] == toSpeed[i - 1])
+						&& (toSpeed[i] - fromSpeed[i] == width);
+			}
+			if (uniform) {
+				bandWidth = width;
+			}
 		}
 	}
 
+	/**
+	 * Returns the configured bands, sorted by wind speed
+	 */
+	public List<WindSpeedband> getWindSpeedbands() {
+		List<WindSpeedband> bands = new ArrayList<WindSpeedband>(windSpeedbands);
+		Collections.sort(bands);
+		return Collections.unmodifiableList(bands);
+	}
+
 	/**
 	 * get efficiency for given wind speed in m/sec
-	 * 
+	 *
 	 * @param windSpeed
 	 *            wind speed in m/sec
-	 * @return efficiency
+	 * @return efficiency, 0 outside of the bands
 	 */
 	public double getEfficiency(double windSpeed) {
-		int indexInList = -1;
-		for (int i = 0; i < windSpeedbands.size(); i++) {
-			if (windSpeedbands.get(i).isWithinSpeedband(windSpeed)) {
-				indexInList = i;
-				break;
-			}
-		}
-		if (indexInList > -1) {
-			double m = slope.get(indexInList);
-			double b = yIntercept.get(indexInList);
-			return (m * windSpeed + b);
+		int index = findBand(windSpeed);
+		if (index > -1) {
+			return (slope[index] * windSpeed + yIntercept[index]);
 		} else {
 			return 0;
 		}
 	} // get efficiency
 
-} // class WindFarmEfficiencyCurve
+	// index of the band containing windSpeed, or -1
+	private int findBand(double windSpeed) {
+		int n = fromSpeed.length;
+		if (n == 0 || !(windSpeed >= fromSpeed[0])
+				|| windSpeed >= toSpeed[n - 1]) {
+			return -1;
+		}
+		int index;
+		if (bandWidth > 0) {
+			index = (int) ((windSpeed - fromSpeed[0]) / bandWidth);
+			// rounding can put a speed at a band edge on the wrong side
+			if (index >= n) {
+				index = n - 1;
+			}
+			if (windSpeed < fromSpeed[index]) {
+				index -= 1;
+			} else if (windSpeed >= toSpeed[index] && index < n - 1) {
+				index += 1;
+			}
+		} else {
+			index = Arrays.binarySearch(fromSpeed, windSpeed);
+			if (index < 0) {
+				index = -index - 2;
+			}
+		}
+		if (windSpeed < toSpeed[index]) {
+			return index;
+		}
+		return -1; // in a gap between bands
+	}
+
+	public static XStream getConfiguredXStream() {
+		XStream xstream = new XStream();
+		xstream.processAnnotations(WindTurbineEfficiencyCurve.class);
+		xstream.processAnnotations(WindSpeedband.class);
+		return xstream;
+	}
 
+	/**
+	 * Reads an efficiency curve from an XML file. Returns null if the file
+	 * cannot be read.
+	 */
+	public static WindTurbineEfficiencyCurve getEfficiencyCurve(String xmlFileName) {
+		File dataFile = new File(xmlFileName);
+		if (!dataFile.exists()) {
+			System.out.println("File: " + xmlFileName + " Does not exist");
+			return null;
+		}
+		XStream xstream = getConfiguredXStream();
+		WindTurbineEfficiencyCurve curve =
+				(WindTurbineEfficiencyCurve) xstream.fromXML(dataFile);
+		if (curve.windSpeedbands == null) {
+			curve.windSpeedbands = new ArrayList<WindSpeedband>();
+		}
+		curve.initialize();
+		return curve;
+	}
+
+} // class WindFarmEfficiencyCurve
@@ -3,11 +3,15 @@ package org.powertac.windpark;
 import java.io.File;
 import java.text.ParseException;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 //import java.util.HashSet;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.joda.time.DateTime;
@@ -19,6 +23,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.xml.XppDriver;
 
 @XStreamAlias("data")
 public class WsData 
@@ -294,7 +300,8 @@ public class WsData
 		}
 
 		public void addWeatherReports(WeatherReports wr) {
-			if (wr != null) {
+			// an empty element leaves wReports null
+			if (wr != null && wr.wReports != null) {
 				SortedSet<WeatherReport> wrs = new TreeSet<WeatherReport>(wr.getWeatherReports());
 				wReports.addAll(wrs);
 			}
@@ -331,7 +338,7 @@ public class WsData
 	    }
 	    
 	    public void addWeatherForecasts(WeatherForecasts wf) {
-	    	if (wf != null) {
+	    	if (wf != null && wf.wForecasts != null) {
 	    		SortedSet<WeatherForecast> wfc = new TreeSet<WeatherForecast>(wf.getWeatherForecasts());
 	    		wForecasts.addAll(wfc); //make a copy to add
 	    	}
@@ -428,6 +435,24 @@ public class WsData
 			return -999999.0; //return bad value
 		}		
 	}
+	/**
+	 * Groups the forecasts by origin, in one pass. Origins and the
+	 * forecasts of each origin are in time order.
+	 */
+	public SortedMap<DateTime, List<WeatherForecast>> getForecastsByOrigin() {
+		SortedMap<DateTime, List<WeatherForecast>> result =
+				new TreeMap<DateTime, List<WeatherForecast>>();
+		for (WeatherForecast wf: this.getWeatherForecasts().getWeatherForecasts()) {
+			List<WeatherForecast> forecasts = result.get(wf.getOrigin());
+			if (forecasts == null) {
+				forecasts = new ArrayList<WeatherForecast>();
+				result.put(wf.getOrigin(), forecasts);
+			}
+			forecasts.add(wf);
+		}
+		return result;
+	}
+	
 	public static XStream getWsDataConfiguredXStream() {
 		XStream xstream = new XStream();
 		// configure XStream Object
@@ -475,7 +500,27 @@ public class WsData
 			return null;
 		}
 		XStream xstream = WsData.getWsDataConfiguredXStream();
-		WsData wsData = (WsData)xstream.fromXML(dataFile);
+		// files covering several days, like <location>-weather.xml, repeat
+		// the weatherReports and weatherForecasts elements, so read the
+		// elements one at a time and merge them
+		WeatherReports reports = new WeatherReports();
+		WeatherForecasts forecasts = new WeatherForecasts();
+		HierarchicalStreamReader reader = new XppDriver().createReader(dataFile);
+		try {
+			while (reader.hasMoreChildren()) {
+				reader.moveDown();
+				Object part = xstream.unmarshal(reader);
+				if (part instanceof WeatherReports) {
+					reports.addWeatherReports((WeatherReports) part);
+				} else if (part instanceof WeatherForecasts) {
+					forecasts.addWeatherForecasts((WeatherForecasts) part);
+				}
+				reader.moveUp();
+			}
+		} finally {
+			reader.close();
+		}
+		WsData wsData = new WsData(reports, forecasts);
 		wsData.convertToDate();
 		
 		return wsData;
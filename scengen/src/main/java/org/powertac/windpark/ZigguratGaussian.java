@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Standard normal sampler using the ziggurat method of Marsaglia and Tsang,
+ * in the 128-layer form given by Doornik ("An Improved Ziggurat Method to
+ * Generate Normal Random Samples", 2005). About 98% of samples take one
+ * random long, one multiply and one compare; only the rest need exp() or
+ * log().
+ *
+ * Each sample takes the layer from the low 7 bits of a random long and the
+ * uniform from its high 53 bits, so the two are independent.
+ *
+ * @author agent
+ */
+final class ZigguratGaussian {
+
+	private static final int LAYERS = 128;
+	/** start of the tail */
+	private static final double R = 3.442619855899;
+	/** area of each layer */
+	private static final double V = 9.91256303526217e-3;
+
+	/** right edge of each layer, X[0] being that of the base strip */
+	private static final double[] X = new double[LAYERS + 1];
+	/** X[i+1] / X[i], below which a sample is inside layer i */
+	private static final double[] RATIO = new double[LAYERS];
+
+	static {
+		double f = Math.exp(-0.5 * R * R);
+		X[0] = V / f;
+		X[1] = R;
+		X[LAYERS] = 0;
+		for (int i = 2; i < LAYERS; i++) {
+			X[i] = Math.sqrt(-2 * Math.log(V / X[i - 1] + f));
+			f = Math.exp(-0.5 * X[i] * X[i]);
+		}
+		for (int i = 0; i < LAYERS; i++) {
+			RATIO[i] = X[i + 1] / X[i];
+		}
+	}
+
+	private ZigguratGaussian() {
+	}
+
+	/**
+	 * Returns a sample from N(0, 1) drawn from random
+	 */
+	static double next(SplittableRandom random) {
+		for (;;) {
+			long bits = random.nextLong();
+			int i = (int) (bits & (LAYERS - 1));
+			// uniform in [-1, 1)
+			double u = 2 * ((bits >>> 11) * 0x1.0p-53) - 1;
+			if (Math.abs(u) < RATIO[i]) {
+				return u * X[i];
+			}
+			if (i == 0) {
+				return tail(random, u < 0);
+			}
+			double x = u * X[i];
+			double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+			double f1 = Math.exp(-0.5 * (X[i + 1] * X[i + 1] - x * x));
+			if (f1 + random.nextDouble() * (f0 - f1) < 1.0) {
+				return x;
+			}
+		}
+	}
+
+	// Marsaglia's method for the tail beyond R
+	private static double tail(SplittableRandom random, boolean negative) {
+		double x, y;
+		do {
+			// 1 - nextDouble() is in (0, 1], so the logs are finite
+			x = Math.log(1.0 - random.nextDouble()) / R;
+			y = Math.log(1.0 - random.nextDouble());
+		} while (-2 * y < x * x);
+		return negative ? x - R : R - x;
+	}
+} // class ZigguratGaussian
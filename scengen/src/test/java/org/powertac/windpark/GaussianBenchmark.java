@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of the normal samplers, alone and inside the 24-hour
+ * ARMA(1,1) recurrence of ScenGen. javaUtilRandom is the polar method on
+ * a synchronized java.util.Random, as ScenGen used before.
+ *
+ * Run with
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     org.powertac.windpark.GaussianBenchmark
+ * </pre>
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GaussianBenchmark {
+
+	@Param({"POLAR", "ZIGGURAT"})
+	public RandomNumberGenerator.Method method;
+
+	private RandomNumberGenerator generator;
+	private Random javaRandom;
+
+	// Minneapolis parameters from arma-parameters.xml
+	private double alpha = 0.0841;
+	private double beta = -0.2817;
+
+	@Setup
+	public void setup() {
+		generator = new RandomNumberGenerator(0.0, 1.413,
+				new SplittableRandom(42), method);
+		javaRandom = new Random(42);
+	}
+
+	@Benchmark
+	public double sample() {
+		return generator.nextGaussian();
+	}
+
+	@Benchmark
+	public double javaUtilRandom() {
+		return javaRandom.nextGaussian() * 1.413;
+	}
+
+	// one scenario, as in ScenGen.generate() without the Scenario objects
+	@Benchmark
+	public double scenario() {
+		double xk = 0;
+		double zk = 0;
+		double sum = 0;
+		for (int h = 0; h < 24; h++) {
+			double xk1 = xk;
+			double zk1 = zk;
+			zk = generator.nextGaussian();
+			xk = (alpha * xk1) + zk + (beta * zk1);
+			sum += xk;
+		}
+		return sum;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(GaussianBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
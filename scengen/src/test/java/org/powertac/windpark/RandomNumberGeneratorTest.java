@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Statistical tests of both sampling methods against N(mean, std). The
+ * streams are seeded, so results do not change from run to run; bounds
+ * are five standard errors, or a KS significance level of 0.001.
+ *
+ * @author agent
+ */
+public class RandomNumberGeneratorTest {
+
+	private static final double MEAN = 2.0;
+	private static final double STD = 3.0;
+
+	private RandomNumberGenerator generator(RandomNumberGenerator.Method method,
+			long seed) {
+		return new RandomNumberGenerator(MEAN, STD, new SplittableRandom(seed),
+				method);
+	}
+
+	private double[] sample(RandomNumberGenerator.Method method, long seed, int n) {
+		RandomNumberGenerator gen = generator(method, seed);
+		double[] result = new double[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = gen.nextGaussian();
+		}
+		return result;
+	}
+
+	// checks mean, variance, skewness and excess kurtosis
+	private void checkMoments(RandomNumberGenerator.Method method) {
+		int n = 1000000;
+		double[] x = sample(method, 17, n);
+		double sum = 0;
+		for (double v : x) {
+			sum += v;
+		}
+		double mean = sum / n;
+		double m2 = 0, m3 = 0, m4 = 0;
+		for (double v : x) {
+			double d = v - mean;
+			m2 += d * d;
+			m3 += d * d * d;
+			m4 += d * d * d * d;
+		}
+		m2 /= n;
+		m3 /= n;
+		m4 /= n;
+		assertEquals(method + " mean", MEAN, mean, 5 * STD / Math.sqrt(n));
+		assertEquals(method + " variance", 1.0, m2 / (STD * STD),
+				5 * Math.sqrt(2.0 / n));
+		assertEquals(method + " skewness", 0.0, m3 / Math.pow(m2, 1.5),
+				5 * Math.sqrt(6.0 / n));
+		assertEquals(method + " kurtosis", 0.0, m4 / (m2 * m2) - 3,
+				5 * Math.sqrt(24.0 / n));
+	}
+
+	// one-sample Kolmogorov-Smirnov test against N(MEAN, STD)
+	private void checkDistribution(RandomNumberGenerator.Method method) {
+		int n = 200000;
+		double[] x = sample(method, 29, n);
+		Arrays.sort(x);
+		double d = 0;
+		for (int i = 0; i < n; i++) {
+			double cdf = normalCdf((x[i] - MEAN) / STD);
+			d = Math.max(d, Math.max((i + 1.0) / n - cdf, cdf - (double) i / n));
+		}
+		// critical value of sqrt(n) D at the 0.001 level
+		assertTrue(method + " KS statistic " + d, d * Math.sqrt(n) < 1.95);
+	}
+
+	@Test
+	public void testPolarMoments() {
+		checkMoments(RandomNumberGenerator.Method.POLAR);
+	}
+
+	@Test
+	public void testZigguratMoments() {
+		checkMoments(RandomNumberGenerator.Method.ZIGGURAT);
+	}
+
+	@Test
+	public void testPolarDistribution() {
+		checkDistribution(RandomNumberGenerator.Method.POLAR);
+	}
+
+	@Test
+	public void testZigguratDistribution() {
+		checkDistribution(RandomNumberGenerator.Method.ZIGGURAT);
+	}
+
+	// the ziggurat handles |z| > 3.4426 separately; check its mass
+	@Test
+	public void testZigguratTail() {
+		int n = 2000000;
+		double r = 3.442619855899;
+		RandomNumberGenerator gen = generator(RandomNumberGenerator.Method.ZIGGURAT, 41);
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (Math.abs(gen.nextGaussian() - MEAN) > r * STD) {
+				count += 1;
+			}
+		}
+		double p = 2 * normalCdf(-r);
+		assertEquals(n * p, count, 5 * Math.sqrt(n * p * (1 - p)));
+	}
+
+	@Test
+	public void testReproducible() {
+		for (RandomNumberGenerator.Method method : RandomNumberGenerator.Method.values()) {
+			assertTrue(method.toString(), Arrays.equals(sample(method, 5, 1000),
+					sample(method, 5, 1000)));
+		}
+	}
+
+	// standard normal cdf from the erfc approximation of Numerical Recipes,
+	// with fractional error below 1.2e-7
+	private static double normalCdf(double z) {
+		double x = -z / Math.sqrt(2);
+		double t = 1 / (1 + 0.5 * Math.abs(x));
+		double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368
+				+ t * (0.37409196 + t * (0.09678418 + t * (-0.18628806
+				+ t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+				+ t * (-0.82215223 + t * 0.17087277)))))))));
+		return 0.5 * (x >= 0 ? erfc : 2 - erfc);
+	}
+}
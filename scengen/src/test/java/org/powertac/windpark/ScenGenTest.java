@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that the streaming pipeline of ScenGen gives the same scenarios
+ * as generating the errors first and converting them afterwards.
+ *
+ * @author agent
+ */
+public class ScenGenTest {
+
+	// more than one block with two threads, the last one partly filled
+	private static final int NUM = 2500;
+	private static final long SEED = 7;
+
+	/** Keeps a copy of every row it is given */
+	private static class Rows implements ScenarioSink {
+		List<Integer> numbers = new ArrayList<Integer>();
+		List<double[]> values = new ArrayList<double[]>();
+
+		@Override
+		public void write(int number, double probability, double[] row) {
+			assertEquals((float) 1 / NUM, probability, 0.0);
+			numbers.add(number);
+			values.add(row.clone());
+		}
+	}
+
+	private ScenGen scenGen(int threads) {
+		ScenGen result = new ScenGen(NUM, 0.0841, -0.2817, 1.413, SEED);
+		result.setThreads(threads);
+		return result;
+	}
+
+	@Test
+	public void testStreamMatchesBatch() throws Exception {
+		double[] forecast = new double[ScenGen.HOURS];
+		double[] temp = new double[ScenGen.HOURS];
+		for (int h = 0; h < ScenGen.HOURS; h++) {
+			forecast[h] = 4 + h * 0.5;
+			temp[h] = -5 + h;
+		}
+		WindPark wpark = new WindPark();
+
+		ScenGen batch = scenGen(1);
+		batch.generate();
+		List<Scenario> errors = new ArrayList<Scenario>(
+				batch.windSpeedForecastErrorScenarios.getScenarios());
+
+		Rows power = new Rows();
+		Rows error = new Rows();
+		Rows speed = new Rows();
+		scenGen(2).generatePower(forecast, temp, wpark, power, error, speed);
+
+		assertEquals(NUM, power.numbers.size());
+		for (int i = 0; i < NUM; i++) {
+			assertEquals(i + 1, (int) power.numbers.get(i));
+			List<Scenario.ScenarioValue> expected = errors.get(i).getValueList();
+			for (int h = 0; h < ScenGen.HOURS; h++) {
+				double err = expected.get(h).getValue();
+				assertEquals(err, error.values.get(i)[h], 0.0);
+				assertEquals(forecast[h] + err, speed.values.get(i)[h], 0.0);
+				assertEquals(wpark.getPowerOutput(temp[h], forecast[h] + err),
+						power.values.get(i)[h], 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testGenerateIntoSink() throws Exception {
+		ScenGen batch = scenGen(1);
+		batch.generate();
+		Rows rows = new Rows();
+		scenGen(3).generate(rows);
+		int i = 0;
+		for (Scenario scen : batch.windSpeedForecastErrorScenarios.getScenarios()) {
+			assertEquals(scen.getScenarioNumber(), (int) rows.numbers.get(i));
+			for (Scenario.ScenarioValue sv : scen.getValueList()) {
+				assertEquals(sv.getValue(), rows.values.get(i)[sv.getHour() - 1], 0.0);
+			}
+			i += 1;
+		}
+		assertEquals(NUM, i);
+	}
+
+	// seed s+1 must not give the scenarios of seed s shifted by one
+	@Test
+	public void testNeighboringSeeds() throws Exception {
+		Rows first = new Rows();
+		scenGen(1).generate(first);
+		Rows second = new Rows();
+		ScenGen next = new ScenGen(NUM, 0.0841, -0.2817, 1.413, SEED + 1);
+		next.setThreads(1);
+		next.generate(second);
+		assertFalse(Arrays.equals(first.values.get(0), second.values.get(0)));
+		for (int i = 0; i + 1 < NUM; i++) {
+			assertFalse(Arrays.equals(first.values.get(i + 1),
+					second.values.get(i)));
+		}
+
+		for (long seed : new long[] { 0, SEED, -1, Long.MAX_VALUE }) {
+			assertNotEquals(ScenGen.scenarioStream(seed, 1).nextLong(),
+					ScenGen.scenarioStream(seed + 1, 1).nextLong());
+			assertNotEquals(ScenGen.scenarioStream(seed, 2).nextLong(),
+					ScenGen.scenarioStream(seed + 1, 1).nextLong());
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Round trips through the binary scenario file format.
+ *
+ * @author agent
+ */
+public class ScenarioFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// scenario n has value n + hour / 100 for each hour but the skipped one
+	private Scenarios makeScenarios(int count, int horizon, int skipHour) {
+		Scenarios result = new Scenarios();
+		for (int n = 1; n <= count; n++) {
+			Scenario scen = new Scenario(n, 1.0 / count);
+			for (int h = 1; h <= horizon; h++) {
+				if (h != skipHour) {
+					scen.addValue(new Scenario.ScenarioValue(h, n + h / 100.0));
+				}
+			}
+			result.addScenario(scen);
+		}
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		String fileName = folder.newFile("rt.scen").getPath();
+		assertTrue(makeScenarios(3, 24, 0).writeToBinary(fileName));
+
+		ScenarioFile file = ScenarioFile.open(fileName);
+		assertEquals(3, file.getCount());
+		assertEquals(24, file.getHorizon());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(i + 1, file.getScenarioNumber(i));
+			assertEquals(1.0 / 3, file.getProbability(i), 0.0);
+			for (int h = 1; h <= 24; h++) {
+				assertEquals(i + 1 + h / 100.0, file.getValue(i, h), 0.0);
+			}
+		}
+		assertEquals(ScenarioFile.valuesOffset(3) + 8 * 3 * 24,
+				new File(fileName).length());
+	}
+
+	@Test
+	public void testMissingHour() throws IOException {
+		String fileName = folder.newFile("missing.scen").getPath();
+		makeScenarios(2, 24, 5).writeToBinary(fileName);
+
+		ScenarioFile file = ScenarioFile.open(fileName);
+		assertTrue(Double.isNaN(file.getValue(1, 5)));
+		Scenarios back = file.toScenarios();
+		for (Scenario scen : back.getScenarios()) {
+			assertEquals(23, scen.getValues().size());
+			assertEquals(23, scen.getValueList().size());
+		}
+	}
+
+	@Test
+	public void testGetScenariosDetectsFormat() throws IOException {
+		Scenarios scens = makeScenarios(4, 24, 0);
+		String binName = folder.newFile("s.scen").getPath();
+		String xmlName = folder.newFile("s.xml").getPath();
+		scens.writeToBinary(binName);
+		scens.writeToXML(xmlName);
+		assertTrue(ScenarioFile.isScenarioFile(binName));
+		assertFalse(ScenarioFile.isScenarioFile(xmlName));
+
+		List<Scenario> fromBin = new ArrayList<Scenario>(
+				Scenarios.getScenarios(binName).getScenarios());
+		List<Scenario> fromXml = new ArrayList<Scenario>(
+				Scenarios.getScenarios(xmlName).getScenarios());
+		assertEquals(fromXml.size(), fromBin.size());
+		for (int i = 0; i < fromXml.size(); i++) {
+			Scenario x = fromXml.get(i);
+			Scenario b = fromBin.get(i);
+			assertEquals(x.getScenarioNumber(), b.getScenarioNumber());
+			assertEquals(x.getProbability(), b.getProbability(), 0.0);
+			assertEquals(x.getValueList().size(), b.getValueList().size());
+			for (int h = 0; h < x.getValueList().size(); h++) {
+				assertEquals(x.getValueList().get(h).getHour(),
+						b.getValueList().get(h).getHour());
+				assertEquals(x.getValueList().get(h).getValue(),
+						b.getValueList().get(h).getValue(), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testShortWriteFails() throws IOException {
+		String fileName = folder.newFile("short.scen").getPath();
+		ScenarioFileWriter writer = new ScenarioFileWriter(fileName, 2, 24);
+		writer.write(1, 0.5, new double[24]);
+		try {
+			writer.close();
+			fail("close should fail after one of two scenarios");
+		} catch (IOException ex) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Generates a small library from two locations, one of them with its
+ * forecasts split over two weatherForecasts elements as in the
+ * multi-day weather files.
+ *
+ * @author agent
+ */
+public class ScenarioLibraryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dataDir;
+
+	@Before
+	public void setUp() throws IOException {
+		dataDir = folder.newFolder("data");
+		write("arma-parameters.xml", "<arma-param>\n"
+				+ "<location name=\"east\"><param alpha=\"0.08\"/><param beta=\"-0.28\"/>"
+				+ "<param sigmaz=\"1.4\"/></location>\n"
+				+ "<location name=\"west\"><param alpha=\"-0.11\"/><param beta=\"-0.08\"/>"
+				+ "<param sigmaz=\"1.6\"/></location>\n"
+				+ "</arma-param>\n");
+		write("east-weather.xml", "<data>\n"
+				+ forecasts("2013-04-01T00:00:00Z") + forecasts("2013-04-01T01:00:00Z")
+				+ "</data>\n");
+		write("west-weather.xml", "<data>\n" + forecasts("2013-04-01T00:00:00Z")
+				+ "</data>\n");
+	}
+
+	private void write(String name, String content) throws IOException {
+		FileWriter out = new FileWriter(new File(dataDir, name));
+		out.write(content);
+		out.close();
+	}
+
+	// 24 hourly forecasts from the given origin
+	private String forecasts(String origin) {
+		StringBuilder sb = new StringBuilder("<weatherReports>\n</weatherReports>\n"
+				+ "<weatherForecasts>\n");
+		long start = DateTime.parse(origin).getMillis();
+		for (int h = 1; h <= 24; h++) {
+			String date = new DateTime(start + h * 3600000L,
+					DateTimeZone.UTC).toString(WsData.dateFormat);
+			sb.append("<weatherForecast date=\"").append(date).append("\" id=\"")
+					.append(h).append("\" origin=\"").append(origin.replace("Z", "+0000"))
+					.append("\" temp=\"").append(h - 5).append("\" windspeed=\"")
+					.append(5 + h * 0.25).append("\"/>\n");
+		}
+		return sb.append("</weatherForecasts>\n").toString();
+	}
+
+	private File[] generate(String out, int threads) throws IOException {
+		File outDir = folder.newFolder(out);
+		ScenarioLibrary library = new ScenarioLibrary(dataDir.getPath(),
+				outDir.getPath(), 50, 3);
+		library.setThreads(threads);
+		assertEquals(3, library.generate());
+		File[] files = outDir.listFiles();
+		Arrays.sort(files);
+		return files;
+	}
+
+	@Test
+	public void testArmaParameters() {
+		ArmaParameters arma = ArmaParameters.getArmaParameters(
+				new File(dataDir, "arma-parameters.xml").getPath());
+		assertEquals(2, arma.getLocations().size());
+		ArmaParameters.Location west = arma.getLocations().get(1);
+		assertEquals("west", west.getName());
+		assertEquals(-0.11, west.getAlpha(), 0.0);
+		assertEquals(-0.08, west.getBeta(), 0.0);
+		assertEquals(1.6, west.getSigmaz(), 0.0);
+	}
+
+	@Test
+	public void testLibrary() throws IOException {
+		File[] one = generate("one", 1);
+		File[] two = generate("two", 2);
+		assertEquals(3, one.length);
+		assertEquals("east-2013040100.scen", one[0].getName());
+		assertEquals("east-2013040101.scen", one[1].getName());
+		assertEquals("west-2013040100.scen", one[2].getName());
+		for (int i = 0; i < one.length; i++) {
+			assertTrue(one[i].getName(), Arrays.equals(
+					Files.readAllBytes(one[i].toPath()),
+					Files.readAllBytes(two[i].toPath())));
+			ScenarioFile file = ScenarioFile.open(one[i].getPath());
+			assertEquals(50, file.getCount());
+			assertEquals(ScenGen.HOURS, file.getHorizon());
+		}
+		// same ARMA parameters and forecast, different origin
+		assertTrue(!Arrays.equals(Files.readAllBytes(one[0].toPath()),
+				Files.readAllBytes(one[1].toPath())));
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares both reductions with direct implementations of their
+ * definitions on small random sets.
+ *
+ * @author agent
+ */
+public class ScenarioReductionTest {
+
+	private static final int N = 120;
+
+	private double[] probabilities = new double[N];
+
+	// ARMA(1,1) paths with unequal probabilities
+	private ScenarioReduction reduction(int threads) {
+		Random random = new Random(11);
+		int[] numbers = new int[N];
+		double[][] values = new double[N][ScenGen.HOURS];
+		double total = 0;
+		for (int i = 0; i < N; i++) {
+			numbers[i] = i + 1;
+			probabilities[i] = 0.5 + random.nextDouble();
+			total += probabilities[i];
+			double x = 0;
+			double z = 0;
+			for (int h = 0; h < ScenGen.HOURS; h++) {
+				double z1 = z;
+				z = random.nextGaussian() * 1.4;
+				x = 0.08 * x + z - 0.28 * z1;
+				values[i][h] = x;
+			}
+		}
+		for (int i = 0; i < N; i++) {
+			probabilities[i] /= total;
+		}
+		ScenarioReduction result = new ScenarioReduction(numbers, probabilities, values);
+		result.setThreads(threads);
+		return result;
+	}
+
+	// D for a kept set, by definition
+	private double kantorovich(ScenarioReduction red, boolean[] kept) {
+		double sum = 0;
+		for (int i = 0; i < N; i++) {
+			double nearest = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < N; j++) {
+				if (kept[j]) {
+					nearest = Math.min(nearest, red.distance(i, j));
+				}
+			}
+			sum += probabilities[i] * nearest;
+		}
+		return sum;
+	}
+
+	private int[] indices(boolean[] kept, int k) {
+		int[] result = new int[k];
+		int s = 0;
+		for (int i = 0; i < N; i++) {
+			if (kept[i]) {
+				result[s++] = i;
+			}
+		}
+		return result;
+	}
+
+	// forward selection evaluating every candidate in every step
+	private int[] naiveForward(ScenarioReduction red, int k) {
+		boolean[] kept = new boolean[N];
+		for (int step = 0; step < k; step++) {
+			int best = -1;
+			double bestD = Double.POSITIVE_INFINITY;
+			for (int u = 0; u < N; u++) {
+				if (!kept[u]) {
+					kept[u] = true;
+					double d = kantorovich(red, kept);
+					kept[u] = false;
+					if (d < bestD) {
+						best = u;
+						bestD = d;
+					}
+				}
+			}
+			kept[best] = true;
+		}
+		return indices(kept, k);
+	}
+
+	// backward reduction evaluating every candidate in every step
+	private int[] naiveBackward(ScenarioReduction red, int k) {
+		boolean[] kept = new boolean[N];
+		Arrays.fill(kept, true);
+		for (int left = N; left > k; left--) {
+			int best = -1;
+			double bestD = Double.POSITIVE_INFINITY;
+			for (int l = 0; l < N; l++) {
+				if (kept[l]) {
+					kept[l] = false;
+					double d = kantorovich(red, kept);
+					kept[l] = true;
+					if (d < bestD) {
+						best = l;
+						bestD = d;
+					}
+				}
+			}
+			kept[best] = false;
+		}
+		return indices(kept, k);
+	}
+
+	private void check(ScenarioReduction red, ScenarioReduction.Result result, int k) {
+		int[] selected = result.getSelected();
+		assertEquals(k, selected.length);
+		boolean[] kept = new boolean[N];
+		for (int i : selected) {
+			kept[i] = true;
+		}
+		assertEquals(kantorovich(red, kept), result.getDistance(), 1e-9);
+		double total = 0;
+		for (double p : result.getProbabilities()) {
+			total += p;
+		}
+		assertEquals(1.0, total, 1e-12);
+	}
+
+	@Test
+	public void testForward() {
+		ScenarioReduction red = reduction(1);
+		for (int k : new int[] {1, 5, 30}) {
+			ScenarioReduction.Result result = red.reduce(k, ScenarioReduction.Method.FORWARD);
+			assertArrayEquals("k = " + k, naiveForward(red, k), result.getSelected());
+			check(red, result, k);
+		}
+	}
+
+	@Test
+	public void testBackward() {
+		ScenarioReduction red = reduction(1);
+		for (int k : new int[] {1, 40, 110}) {
+			ScenarioReduction.Result result = red.reduce(k, ScenarioReduction.Method.BACKWARD);
+			assertArrayEquals("k = " + k, naiveBackward(red, k), result.getSelected());
+			check(red, result, k);
+		}
+	}
+
+	@Test
+	public void testThreads() {
+		for (ScenarioReduction.Method method : ScenarioReduction.Method.values()) {
+			ScenarioReduction.Result one = reduction(1).reduce(10, method);
+			ScenarioReduction.Result four = reduction(4).reduce(10, method);
+			assertArrayEquals(method.toString(), one.getSelected(), four.getSelected());
+			assertArrayEquals(method.toString(), one.getProbabilities(),
+					four.getProbabilities(), 0.0);
+		}
+	}
+
+	@Test
+	public void testKeepAll() {
+		ScenarioReduction red = reduction(1);
+		for (ScenarioReduction.Method method : ScenarioReduction.Method.values()) {
+			ScenarioReduction.Result result = red.reduce(N, method);
+			assertEquals(0.0, result.getDistance(), 0.0);
+			assertArrayEquals(probabilities, result.getProbabilities(), 0.0);
+		}
+	}
+
+	@Test
+	public void testWrite() throws Exception {
+		ScenarioReduction red = reduction(1);
+		ScenarioReduction.Result result = red.reduce(7, ScenarioReduction.Method.FORWARD);
+		Scenarios reduced = new Scenarios();
+		red.write(result, reduced);
+		assertEquals(7, reduced.getScenarios().size());
+		int s = 0;
+		for (Scenario scen : reduced.getScenarios()) {
+			assertEquals(result.getSelected()[s] + 1, scen.getScenarioNumber());
+			assertEquals(result.getProbabilities()[s], scen.getProbability(), 0.0);
+			assertEquals(ScenGen.HOURS, scen.getValueList().size());
+			s += 1;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS,  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.powertac.windpark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powertac.windpark.WindTurbineEfficiencyCurve.WindSpeedband;
+
+/**
+ * Checks the array lookup in WindTurbineEfficiencyCurve against the scan
+ * of the band list it replaced, which returned the line of the first band
+ * containing the speed and 0 if there was none. Both must agree to the
+ * last bit, at band edges in particular.
+ *
+ * @author agent
+ */
+public class WindTurbineEfficiencyCurveTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// the old lookup
+	private double scan(List<WindSpeedband> bands, double windSpeed) {
+		for (WindSpeedband band : bands) {
+			if (band.isWithinSpeedband(windSpeed)) {
+				return band.getSlope() * windSpeed + band.getYIntercept();
+			}
+		}
+		return 0;
+	}
+
+	// every band edge, the doubles either side of it, and a sweep
+	private void check(List<WindSpeedband> bands,
+			WindTurbineEfficiencyCurve curve) {
+		List<Double> speeds = new ArrayList<Double>();
+		for (WindSpeedband band : bands) {
+			for (double edge : new double[] { band.getFromWindSpeed(),
+					band.getToWindSpeed() }) {
+				speeds.add(edge);
+				speeds.add(Math.nextUp(edge));
+				speeds.add(Math.nextAfter(edge, Double.NEGATIVE_INFINITY));
+			}
+		}
+		for (int i = 0; i <= 2000; i++) {
+			speeds.add(i * 0.01);
+		}
+		for (double speed : speeds) {
+			assertEquals("speed " + speed, scan(bands, speed),
+					curve.getEfficiency(speed), 0.0);
+		}
+	}
+
+	// contiguous bands of equal width, as they come out of the arithmetic
+	private List<WindSpeedband> uniform(double from, double width, int n) {
+		List<WindSpeedband> bands = new ArrayList<WindSpeedband>();
+		double edge = from;
+		for (int i = 0; i < n; i++) {
+			bands.add(new WindSpeedband(edge, edge + width, 0.01 * (i + 1),
+					0.1 * i));
+			edge += width;
+		}
+		return bands;
+	}
+
+	// the bands are all of the width of the first one, so findBand()
+	// takes the direct index path
+	private boolean isUniform(List<WindSpeedband> bands) {
+		double width = bands.get(0).getToWindSpeed()
+				- bands.get(0).getFromWindSpeed();
+		for (int i = 1; i < bands.size(); i++) {
+			WindSpeedband band = bands.get(i);
+			if (band.getFromWindSpeed() != bands.get(i - 1).getToWindSpeed()
+					|| band.getToWindSpeed() - band.getFromWindSpeed() != width) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Test
+	public void testDefaultCurve() {
+		WindTurbineEfficiencyCurve curve = new WindTurbineEfficiencyCurve();
+		List<WindSpeedband> bands = curve.getWindSpeedbands();
+		assertEquals(10, bands.size());
+		assertTrue(isUniform(bands));
+		check(bands, curve);
+
+		// first and last band
+		assertEquals(0.112704918 * 4 - 0.215582134, curve.getEfficiency(4.0),
+				0.0);
+		double top = Math.nextAfter(14.0, 0.0);
+		assertEquals(-0.055775751 * top + 1.009468425,
+				curve.getEfficiency(top), 0.0);
+		assertEquals(0.0, curve.getEfficiency(14.0), 0.0);
+	}
+
+	// the quotient puts the speed just below 0.29000000000000004 into the
+	// second band, so the index has to be moved back
+	@Test
+	public void testRoundingCorrection() {
+		List<WindSpeedband> bands = uniform(0.03, 0.26, 3);
+		assertTrue(isUniform(bands));
+		double edge = bands.get(1).getFromWindSpeed();
+		double below = Math.nextAfter(edge, 0.0);
+		double width = edge - 0.03;
+		assertEquals(1, (int) ((below - 0.03) / width));
+
+		WindTurbineEfficiencyCurve curve = new WindTurbineEfficiencyCurve(bands);
+		assertEquals(0.01 * below, curve.getEfficiency(below), 0.0);
+		assertEquals(0.02 * edge + 0.1, curve.getEfficiency(edge), 0.0);
+		check(bands, curve);
+	}
+
+	// uniform curves of many widths and offsets, with band counts up to 12
+	@Test
+	public void testUniformCurves() {
+		Random random = new Random(7);
+		int tested = 0;
+		while (tested < 200) {
+			List<WindSpeedband> bands = uniform(random.nextInt(500) * 0.01,
+					(1 + random.nextInt(300)) * 0.01, 1 + random.nextInt(12));
+			if (!isUniform(bands)) {
+				continue;
+			}
+			check(bands, new WindTurbineEfficiencyCurve(bands));
+			tested += 1;
+		}
+	}
+
+	// bands given out of order, of different widths, with a gap at 7-8
+	@Test
+	public void testBinarySearch() {
+		List<WindSpeedband> bands = Arrays.asList(
+				new WindSpeedband(8, 9.5, 0.03, 0.1),
+				new WindSpeedband(4, 5, 0.1, -0.2),
+				new WindSpeedband(9.5, 10, -0.02, 0.6),
+				new WindSpeedband(5, 7, 0.05, 0.05));
+		assertFalse(isUniform(bands));
+		WindTurbineEfficiencyCurve curve = new WindTurbineEfficiencyCurve(bands);
+		check(bands, curve);
+		assertEquals(0.05 * 6.5 + 0.05, curve.getEfficiency(6.5), 0.0);
+		assertEquals(0.0, curve.getEfficiency(7.0), 0.0);
+		assertEquals(0.0, curve.getEfficiency(7.5), 0.0);
+		assertEquals(0.03 * 8 + 0.1, curve.getEfficiency(8.0), 0.0);
+		assertEquals(-0.02 * 9.5 + 0.6, curve.getEfficiency(9.5), 0.0);
+		assertEquals(0.0, curve.getEfficiency(10.0), 0.0);
+
+		// a single band
+		List<WindSpeedband> one = Arrays.asList(new WindSpeedband(3, 4, 0.5, 0));
+		check(one, new WindTurbineEfficiencyCurve(one));
+	}
+
+	@Test
+	public void testOutOfRange() {
+		WindTurbineEfficiencyCurve uniform = new WindTurbineEfficiencyCurve();
+		WindTurbineEfficiencyCurve gapped = new WindTurbineEfficiencyCurve(
+				Arrays.asList(new WindSpeedband(4, 5, 0.1, -0.2),
+						new WindSpeedband(6, 8, 0.05, 0.05)));
+		WindTurbineEfficiencyCurve empty = new WindTurbineEfficiencyCurve(
+				new ArrayList<WindSpeedband>());
+		double[] speeds = { Double.NaN, Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, -1.0, 0.0, 3.99, 14.0, 100.0,
+				Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_VALUE };
+		for (double speed : speeds) {
+			assertEquals("speed " + speed, 0.0, uniform.getEfficiency(speed), 0.0);
+			assertEquals("speed " + speed, 0.0, gapped.getEfficiency(speed), 0.0);
+			assertEquals("speed " + speed, 0.0, empty.getEfficiency(speed), 0.0);
+		}
+	}
+
+	@Test
+	public void testCurveFile() {
+		File file = new File("../windpark-genco-data/efficiency-curve.xml");
+		WindTurbineEfficiencyCurve curve =
+				WindTurbineEfficiencyCurve.getEfficiencyCurve(file.getPath());
+		assertNotNull(curve);
+		WindTurbineEfficiencyCurve builtIn = new WindTurbineEfficiencyCurve();
+		List<WindSpeedband> bands = curve.getWindSpeedbands();
+		assertEquals(builtIn.getWindSpeedbands().size(), bands.size());
+		check(bands, curve);
+		check(builtIn.getWindSpeedbands(), curve);
+	}
+
+	@Test
+	public void testMissingFile() {
+		assertNull(WindTurbineEfficiencyCurve.getEfficiencyCurve(
+				new File(folder.getRoot(), "none.xml").getPath()));
+	}
+
+	@Test
+	public void testOverlap() throws IOException {
+		List<List<WindSpeedband>> bad = new ArrayList<List<WindSpeedband>>();
+		bad.add(Arrays.asList(new WindSpeedband(4, 6, 0.1, 0),
+				new WindSpeedband(5, 7, 0.1, 0)));
+		bad.add(Arrays.asList(new WindSpeedband(4, 6, 0.1, 0),
+				new WindSpeedband(4, 5, 0.1, 0)));
+		bad.add(Arrays.asList(new WindSpeedband(5, 4, 0.1, 0)));
+		bad.add(Arrays.asList(new WindSpeedband(5, 5, 0.1, 0)));
+		bad.add(Arrays.asList(new WindSpeedband(4, Double.NaN, 0.1, 0)));
+		for (List<WindSpeedband> bands : bad) {
+			try {
+				new WindTurbineEfficiencyCurve(bands);
+				fail("accepted " + bands.get(bands.size() - 1).getFromWindSpeed());
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+
+		File file = folder.newFile("overlap.xml");
+		FileWriter out = new FileWriter(file);
+		out.write("<efficiency-curve>\n"
+				+ "  <band from=\"4\" to=\"6\" slope=\"0.1\" intercept=\"0\"/>\n"
+				+ "  <band from=\"5.5\" to=\"7\" slope=\"0.1\" intercept=\"0\"/>\n"
+				+ "</efficiency-curve>\n");
+		out.close();
+		try {
+			WindTurbineEfficiencyCurve.getEfficiencyCurve(file.getPath());
+			fail("read an overlapping curve");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}